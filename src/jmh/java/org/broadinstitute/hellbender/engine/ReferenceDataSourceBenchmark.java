@@ -0,0 +1,60 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.reference.ReferenceSequence;
+import org.broadinstitute.hellbender.utils.benchmark.SyntheticData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to fetch reference windows at random positions, as tools that visit scattered reads or regions do,
+ * from the fasta and from the .2bit versions of the same reference.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ReferenceDataSourceBenchmark {
+
+    private static final String REFERENCE_PREFIX = "src/test/resources/human_g1k_v37.chr17_1Mb";
+    private static final String CONTIG = "17";
+    private static final int QUERY_COUNT = 100;
+
+    @Param({".fasta", ".2bit"})
+    public String extension;
+
+    @Param({"300"})
+    public int windowLength;
+
+    private ReferenceDataSource reference;
+    private final int[] starts = new int[QUERY_COUNT];
+
+    @Setup
+    public void setup() {
+        reference = ReferenceDataSource.of(new File(REFERENCE_PREFIX + extension));
+        final int contigLength = reference.getSequenceDictionary().getSequence(CONTIG).getSequenceLength();
+        final Random random = new Random(SyntheticData.SEED);
+        for ( int i = 0; i < QUERY_COUNT; i++ ) {
+            starts[i] = 1 + random.nextInt(contigLength - windowLength + 1);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        reference.close();
+    }
+
+    @Benchmark
+    public int randomWindows() {
+        int result = 0;
+        for ( final int start : starts ) {
+            final ReferenceSequence window = reference.queryAndPrefetch(CONTIG, start, start + windowLength - 1);
+            result += window.getBases()[0];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,82 @@
+package org.broadinstitute.hellbender.tools.walkers.genotyper;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.GenotypeLikelihoods;
+import org.broadinstitute.hellbender.utils.benchmark.SyntheticData;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedAlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to compute the genotype likelihoods of a sample from its read likelihoods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class GenotypeLikelihoodCalculatorBenchmark {
+
+    private static final String SAMPLE = "sample";
+    private static final int REFERENCE_LENGTH = 1000;
+    private static final int READ_LENGTH = 100;
+
+    @Param({"1", "2", "4"})
+    public int ploidy;
+
+    @Param({"2", "3", "6"})
+    public int alleleCount;
+
+    @Param({"100"})
+    public int readCount;
+
+    private GenotypeLikelihoodCalculator calculator;
+    private LikelihoodMatrix<Allele> likelihoods;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(SyntheticData.SEED);
+        final SAMFileHeader header = SyntheticData.header(REFERENCE_LENGTH);
+
+        final List<Allele> alleles = new ArrayList<>(alleleCount);
+        final byte[] reference = SyntheticData.randomBases(random, 10);
+        alleles.add(Allele.create(reference, true));
+        while ( alleles.size() < alleleCount ) {
+            final Allele alternate = Allele.create(SyntheticData.mutate(random, reference, 1, 0), false);
+            if ( ! alleles.contains(alternate) ) {
+                alleles.add(alternate);
+            }
+        }
+
+        final int depth = readCount * READ_LENGTH / REFERENCE_LENGTH + 1;
+        final List<GATKRead> reads = SyntheticData.reads(random, header, SyntheticData.randomBases(random, REFERENCE_LENGTH), READ_LENGTH, depth, 0.0).subList(0, readCount);
+        final ReadLikelihoods<Allele> readLikelihoods = new ReadLikelihoods<>(new IndexedSampleList(SAMPLE),
+                new IndexedAlleleList<>(alleles), Collections.singletonMap(SAMPLE, reads));
+        likelihoods = readLikelihoods.sampleMatrix(0);
+        // each read strongly supports one allele, with a typical likelihood spread for the rest
+        for ( int r = 0; r < readCount; r++ ) {
+            final int supportedAllele = random.nextInt(alleleCount);
+            for ( int a = 0; a < alleleCount; a++ ) {
+                likelihoods.set(a, r, a == supportedAllele ? -0.1 * random.nextDouble() : -1 - 10 * random.nextDouble());
+            }
+        }
+
+        calculator = new GenotypeLikelihoodCalculators().getInstance(ploidy, alleleCount);
+    }
+
+    @Benchmark
+    public GenotypeLikelihoods genotypeLikelihoods() {
+        return calculator.genotypeLikelihoods(likelihoods);
+    }
+}
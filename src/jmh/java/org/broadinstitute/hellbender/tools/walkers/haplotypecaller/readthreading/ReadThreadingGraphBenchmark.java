@@ -0,0 +1,57 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.utils.benchmark.SyntheticData;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to build a read threading graph for an assembly region, as done by {@link ReadThreadingAssembler} for each kmer size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ReadThreadingGraphBenchmark {
+
+    private static final int REFERENCE_LENGTH = 500;
+    private static final byte MIN_BASE_QUALITY_TO_USE_IN_ASSEMBLY = 10;
+
+    @Param({"10", "25"})
+    public int kmerSize;
+
+    private SAMFileHeader header;
+    private byte[] reference;
+    private List<GATKRead> reads;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(SyntheticData.SEED);
+        header = SyntheticData.header(REFERENCE_LENGTH);
+        reference = SyntheticData.randomBases(random, REFERENCE_LENGTH);
+        final byte[] alternate = SyntheticData.mutate(random, reference, 4, 1);
+
+        // a heterozygous sample: half the reads from each haplotype
+        reads = new ArrayList<>();
+        reads.addAll(SyntheticData.reads(random, header, reference, 100, 20, 0.01));
+        reads.addAll(SyntheticData.reads(random, header, alternate, 100, 20, 0.01));
+    }
+
+    @Benchmark
+    public ReadThreadingGraph buildGraph() {
+        final ReadThreadingGraph graph = new ReadThreadingGraph(kmerSize, false, MIN_BASE_QUALITY_TO_USE_IN_ASSEMBLY, 1);
+        graph.addSequence("anonymous", reference, true);
+        for ( final GATKRead read : reads ) {
+            graph.addRead(read, header);
+        }
+        graph.buildGraphIfNecessary();
+        return graph;
+    }
+}
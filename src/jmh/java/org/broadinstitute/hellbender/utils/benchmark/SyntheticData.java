@@ -0,0 +1,135 @@
+package org.broadinstitute.hellbender.utils.benchmark;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic inputs for the JMH benchmarks.
+ *
+ * All data is generated from a {@link Random} supplied by the caller (normally seeded with {@link #SEED}), so every
+ * run of a benchmark sees exactly the same reads and haplotypes, and results from two commits can be compared.
+ */
+public final class SyntheticData {
+
+    /**
+     * Seed used by all benchmarks to generate their inputs
+     */
+    public static final long SEED = 1779L;
+
+    /**
+     * Name of the single contig in headers returned by {@link #header}
+     */
+    public static final String CONTIG = "1";
+
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    private SyntheticData() {}
+
+    /**
+     * @return a header with a single contig named {@link #CONTIG} of the given length, and a single read group with a platform
+     */
+    public static SAMFileHeader header(final int contigLength) {
+        return ArtificialReadUtils.createArtificialSamHeaderWithGroups(1, 1, contigLength, 1);
+    }
+
+    /**
+     * @return {@code length} uniformly random bases
+     */
+    public static byte[] randomBases(final Random random, final int length) {
+        final byte[] bases = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            bases[i] = BASES[random.nextInt(BASES.length)];
+        }
+        return bases;
+    }
+
+    /**
+     * @return {@code length} base qualities drawn uniformly from [{@code minQual}, {@code maxQual}]
+     */
+    public static byte[] randomQuals(final Random random, final int length, final int minQual, final int maxQual) {
+        Utils.validateArg(minQual >= 0 && minQual <= maxQual, "invalid quality range");
+        final byte[] quals = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            quals[i] = (byte) (minQual + random.nextInt(maxQual - minQual + 1));
+        }
+        return quals;
+    }
+
+    /**
+     * Make an alternate haplotype from a reference sequence.
+     *
+     * @param bases sequence to mutate, which is not modified
+     * @param snps number of single base substitutions
+     * @param deletions number of short (1-5 base) deletions
+     * @return a mutated copy of {@code bases}
+     */
+    public static byte[] mutate(final Random random, final byte[] bases, final int snps, final int deletions) {
+        byte[] result = bases.clone();
+        for ( int i = 0; i < snps; i++ ) {
+            final int position = random.nextInt(result.length);
+            result[position] = substitute(random, result[position]);
+        }
+        for ( int i = 0; i < deletions; i++ ) {
+            final int length = 1 + random.nextInt(5);
+            final int start = random.nextInt(result.length - length);
+            final byte[] deleted = new byte[result.length - length];
+            System.arraycopy(result, 0, deleted, 0, start);
+            System.arraycopy(result, start + length, deleted, start, deleted.length - start);
+            result = deleted;
+        }
+        return result;
+    }
+
+    /**
+     * Make coordinate-sorted, fully-aligned reads sampled from {@code source}, which is assumed to start at position 1
+     * of {@link #CONTIG}.
+     *
+     * @param source sequence to sample read bases from; must be at least {@code readLength} long
+     * @param readLength length of every read
+     * @param depth average coverage of {@code source} by the reads
+     * @param errorRate per-base probability of a substitution error
+     * @return reads in the first read group of {@code header}, sorted by alignment start
+     */
+    public static List<GATKRead> reads(final Random random, final SAMFileHeader header, final byte[] source,
+                                       final int readLength, final int depth, final double errorRate) {
+        Utils.validateArg(source.length >= readLength, "source sequence is shorter than the read length");
+        final int readCount = Math.max(1, (int) ((long) source.length * depth / readLength));
+        final int[] starts = new int[readCount];
+        for ( int i = 0; i < readCount; i++ ) {
+            starts[i] = random.nextInt(source.length - readLength + 1);
+        }
+        Arrays.sort(starts);
+
+        final String readGroup = header.getReadGroups().get(0).getId();
+        final List<GATKRead> reads = new ArrayList<>(readCount);
+        for ( int i = 0; i < readCount; i++ ) {
+            final byte[] bases = Arrays.copyOfRange(source, starts[i], starts[i] + readLength);
+            for ( int j = 0; j < readLength; j++ ) {
+                if ( random.nextDouble() < errorRate ) {
+                    bases[j] = substitute(random, bases[j]);
+                }
+            }
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read" + i, CONTIG, starts[i] + 1,
+                    bases, randomQuals(random, readLength, 10, 40), readLength + "M");
+            read.setReadGroup(readGroup);
+            read.setMappingQuality(60);
+            reads.add(read);
+        }
+        return reads;
+    }
+
+    private static byte substitute(final Random random, final byte base) {
+        byte result;
+        do {
+            result = BASES[random.nextInt(BASES.length)];
+        } while ( result == base );
+        return result;
+    }
+}
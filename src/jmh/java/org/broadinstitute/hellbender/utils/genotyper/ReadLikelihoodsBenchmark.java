@@ -0,0 +1,99 @@
+package org.broadinstitute.hellbender.utils.genotyper;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.variant.variantcontext.Allele;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.benchmark.SyntheticData;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to go from the read-haplotype likelihoods of an assembly region to the read-allele likelihoods of its events,
+ * as the HaplotypeCaller genotyping engine does for each event in the region.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ReadLikelihoodsBenchmark {
+
+    private static final String SAMPLE = "sample";
+    private static final int REGION_LENGTH = 300;
+    private static final int READ_LENGTH = 100;
+    private static final int EVENT_COUNT = 10;
+
+    @Param({"8", "32"})
+    public int haplotypeCount;
+
+    @Param({"200", "1000"})
+    public int depth;
+
+    private ReadLikelihoods<Haplotype> haplotypeLikelihoods;
+    private final List<Map<Allele, List<Haplotype>>> alleleMappers = new ArrayList<>(EVENT_COUNT);
+    private final List<SimpleInterval> eventLocations = new ArrayList<>(EVENT_COUNT);
+    private Map<String, List<GATKRead>> filteredReads;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(SyntheticData.SEED);
+        final SAMFileHeader header = SyntheticData.header(REGION_LENGTH);
+        final byte[] reference = SyntheticData.randomBases(random, REGION_LENGTH);
+
+        final List<Haplotype> haplotypes = new ArrayList<>(haplotypeCount);
+        haplotypes.add(new Haplotype(reference, true));
+        while ( haplotypes.size() < haplotypeCount ) {
+            haplotypes.add(new Haplotype(SyntheticData.mutate(random, reference, 2, 0), false));
+        }
+
+        final List<GATKRead> reads = SyntheticData.reads(random, header, reference, READ_LENGTH, depth, 0.0);
+        haplotypeLikelihoods = new ReadLikelihoods<>(new IndexedSampleList(SAMPLE), new IndexedAlleleList<>(haplotypes),
+                Collections.singletonMap(SAMPLE, reads));
+        final LikelihoodMatrix<Haplotype> matrix = haplotypeLikelihoods.sampleMatrix(0);
+        for ( int r = 0; r < matrix.numberOfReads(); r++ ) {
+            for ( int h = 0; h < haplotypeCount; h++ ) {
+                matrix.set(h, r, -10 * random.nextDouble());
+            }
+        }
+
+        // bi-allelic events, each splitting the haplotypes at random between the reference and the alternate allele
+        final Allele ref = Allele.create("A", true);
+        final Allele alt = Allele.create("C", false);
+        for ( int e = 0; e < EVENT_COUNT; e++ ) {
+            final Map<Allele, List<Haplotype>> alleleMapper = new LinkedHashMap<>();
+            alleleMapper.put(ref, new ArrayList<>());
+            alleleMapper.put(alt, new ArrayList<>());
+            for ( final Haplotype haplotype : haplotypes ) {
+                alleleMapper.get(haplotype.isReference() || random.nextBoolean() ? ref : alt).add(haplotype);
+            }
+            alleleMappers.add(alleleMapper);
+            final int position = 1 + random.nextInt(REGION_LENGTH);
+            eventLocations.add(new SimpleInterval(SyntheticData.CONTIG, position, position));
+        }
+
+        final List<GATKRead> extraReads = SyntheticData.reads(random, header, reference, READ_LENGTH, depth / 10, 0.0);
+        filteredReads = Collections.singletonMap(SAMPLE, extraReads);
+    }
+
+    @Benchmark
+    public int eventLikelihoods() {
+        int result = 0;
+        for ( int e = 0; e < EVENT_COUNT; e++ ) {
+            final SimpleInterval location = eventLocations.get(e);
+            final ReadLikelihoods<Allele> alleleLikelihoods = haplotypeLikelihoods.marginalize(alleleMappers.get(e),
+                    location.expandWithinContig(10, REGION_LENGTH));
+            alleleLikelihoods.addNonReferenceAllele(GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE);
+            alleleLikelihoods.filterToOnlyOverlappingUnclippedReads(location);
+            alleleLikelihoods.addReads(filteredReads, 0);
+            result += alleleLikelihoods.sampleReadCount(0);
+            alleleLikelihoods.release();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package org.broadinstitute.hellbender.utils.locusiterator;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.utils.benchmark.SyntheticData;
+import org.broadinstitute.hellbender.utils.downsampling.DownsamplingMethod;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to produce every pileup over a stretch of reads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class LocusIteratorByStateBenchmark {
+
+    private static final int REFERENCE_LENGTH = 10000;
+
+    @Param({"30", "200"})
+    public int depth;
+
+    private SAMFileHeader header;
+    private Set<String> samples;
+    private List<GATKRead> reads;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(SyntheticData.SEED);
+        header = SyntheticData.header(REFERENCE_LENGTH);
+        samples = ReadUtils.getSamplesFromHeader(header);
+        reads = SyntheticData.reads(random, header, SyntheticData.randomBases(random, REFERENCE_LENGTH), 150, depth, 0.01);
+    }
+
+    @Benchmark
+    public long iteratePileups() {
+        final LocusIteratorByState libs = new LocusIteratorByState(reads.iterator(), DownsamplingMethod.NONE, false, samples, header, true);
+        long pileupElements = 0;
+        while ( libs.hasNext() ) {
+            pileupElements += libs.next().getBasePileup().size();
+        }
+        return pileupElements;
+    }
+}
@@ -0,0 +1,81 @@
+package org.broadinstitute.hellbender.utils.pairhmm;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.benchmark.SyntheticData;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedAlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to compute the likelihoods of all reads in an assembly region against all of its haplotypes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PairHMMBenchmark {
+
+    private static final String SAMPLE = "sample";
+    private static final int REFERENCE_LENGTH = 400;
+
+    @Param({"LOGLESS_CACHING", "BATCH_LOGLESS_CACHING"})
+    public PairHMM.Implementation implementation;
+
+    @Param({"8", "32"})
+    public int haplotypeCount;
+
+    @Param({"150"})
+    public int readLength;
+
+    private PairHMM hmm;
+    private LikelihoodMatrix<Haplotype> likelihoods;
+    private List<GATKRead> reads;
+    private Map<GATKRead, byte[]> gapContinuationPenalties;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(SyntheticData.SEED);
+        final SAMFileHeader header = SyntheticData.header(REFERENCE_LENGTH);
+        final byte[] reference = SyntheticData.randomBases(random, REFERENCE_LENGTH);
+
+        final List<Haplotype> haplotypes = new ArrayList<>(haplotypeCount);
+        haplotypes.add(new Haplotype(reference, true));
+        for ( int i = 1; i < haplotypeCount; i++ ) {
+            // a mix of same-length (SNP-only) and shorter (deletion-bearing) haplotypes, as produced by assembly
+            haplotypes.add(new Haplotype(SyntheticData.mutate(random, reference, 1 + random.nextInt(3), i % 3 == 0 ? 1 : 0), false));
+        }
+
+        reads = SyntheticData.reads(random, header, reference, readLength, 30, 0.01);
+        gapContinuationPenalties = new LinkedHashMap<>(reads.size());
+        for ( final GATKRead read : reads ) {
+            gapContinuationPenalties.put(read, Utils.dupBytes((byte) 10, read.getLength()));
+        }
+
+        final ReadLikelihoods<Haplotype> readLikelihoods = new ReadLikelihoods<>(new IndexedSampleList(SAMPLE),
+                new IndexedAlleleList<>(haplotypes), Collections.singletonMap(SAMPLE, reads));
+        likelihoods = readLikelihoods.sampleMatrix(0);
+        hmm = implementation.makeNewHMM(new PairHMMNativeArguments());
+    }
+
+    @TearDown
+    public void tearDown() {
+        hmm.close();
+    }
+
+    @Benchmark
+    public double[] computeLog10Likelihoods() {
+        hmm.computeLog10Likelihoods(likelihoods, reads, gapContinuationPenalties);
+        return hmm.getLogLikelihoodArray();
+    }
+}
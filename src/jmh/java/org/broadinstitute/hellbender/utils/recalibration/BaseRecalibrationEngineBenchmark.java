@@ -0,0 +1,81 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.util.Locatable;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.benchmark.SyntheticData;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for {@link BaseRecalibrationEngine#processRead} to accumulate covariate statistics for a batch of reads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BaseRecalibrationEngineBenchmark {
+
+    private static final int REFERENCE_LENGTH = 100000;
+    private static final int READ_LENGTH = 150;
+
+    @Param({"false", "true"})
+    public boolean computeIndelBQSRTables;
+
+    private BaseRecalibrationEngine engine;
+    private ReferenceDataSource reference;
+    private List<GATKRead> reads;
+    private List<List<Locatable>> knownSitesPerRead;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(SyntheticData.SEED);
+        final SAMFileHeader header = SyntheticData.header(REFERENCE_LENGTH);
+        final byte[] referenceBases = SyntheticData.randomBases(random, REFERENCE_LENGTH);
+        reference = ReferenceDataSource.of(new ReferenceBases(referenceBases, new SimpleInterval(SyntheticData.CONTIG, 1, REFERENCE_LENGTH)),
+                header.getSequenceDictionary());
+        reads = SyntheticData.reads(random, header, referenceBases, READ_LENGTH, 3, 0.01);
+
+        // roughly one known site per kilobase, as for dbSNP
+        final List<SimpleInterval> knownSites = new ArrayList<>();
+        for ( int position = 1 + random.nextInt(1000); position <= REFERENCE_LENGTH; position += 1 + random.nextInt(1000) ) {
+            knownSites.add(new SimpleInterval(SyntheticData.CONTIG, position, position));
+        }
+        knownSitesPerRead = new ArrayList<>(reads.size());
+        for ( final GATKRead read : reads ) {
+            final List<Locatable> overlappingKnownSites = new ArrayList<>();
+            for ( final SimpleInterval site : knownSites ) {
+                if ( site.overlaps(read) ) {
+                    overlappingKnownSites.add(site);
+                }
+            }
+            knownSitesPerRead.add(overlappingKnownSites);
+        }
+
+        final RecalibrationArgumentCollection recalArgs = new RecalibrationArgumentCollection();
+        recalArgs.computeIndelBQSRTables = computeIndelBQSRTables;
+        engine = new BaseRecalibrationEngine(recalArgs, header);
+    }
+
+    @TearDown
+    public void tearDown() {
+        reference.close();
+    }
+
+    @Benchmark
+    public long processReads() {
+        for ( int i = 0; i < reads.size(); i++ ) {
+            engine.processRead(reads.get(i), reference, knownSitesPerRead.get(i));
+        }
+        return engine.getNumReadsProcessed();
+    }
+}
@@ -0,0 +1,52 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import htsjdk.samtools.Cigar;
+import org.broadinstitute.hellbender.utils.benchmark.SyntheticData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for each {@link SmithWatermanAligner} implementation to align a haplotype against the reference, and a read
+ * against a haplotype, with the parameters used by the HaplotypeCaller.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SWPairwiseAlignmentBenchmark {
+
+    @Param({"FULL_MATRIX", "COMPACT"})
+    public SmithWatermanAligner.Implementation implementation;
+
+    @Param({"150", "500"})
+    public int haplotypeLength;
+
+    private SmithWatermanAligner aligner;
+    private byte[] reference;
+    private byte[] haplotype;
+    private byte[] read;
+
+    @Setup
+    public void setup() {
+        aligner = implementation.getAligner();
+        final Random random = new Random(SyntheticData.SEED);
+        reference = SyntheticData.randomBases(random, haplotypeLength + 100);
+        haplotype = SyntheticData.mutate(random, Arrays.copyOfRange(reference, 50, 50 + haplotypeLength), 3, 1);
+        read = SyntheticData.mutate(random, Arrays.copyOfRange(haplotype, 10, Math.min(haplotype.length, 110)), 2, 0);
+    }
+
+    @Benchmark
+    public Cigar alignHaplotypeToReference() {
+        return aligner.align(reference, haplotype, SWPairwiseAlignment.STANDARD_NGS, SWPairwiseAlignment.OverhangStrategy.SOFTCLIP).getCigar();
+    }
+
+    @Benchmark
+    public Cigar alignReadToHaplotype() {
+        return aligner.align(haplotype, read, SWPairwiseAlignment.STANDARD_NGS, SWPairwiseAlignment.OverhangStrategy.SOFTCLIP).getCigar();
+    }
+}
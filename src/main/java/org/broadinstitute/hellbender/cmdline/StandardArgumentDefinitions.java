@@ -29,6 +29,12 @@ public final class StandardArgumentDefinitions {
     public static final String CLOUD_PREFETCH_BUFFER_LONG_NAME = "cloudPrefetchBuffer";
     public static final String CLOUD_INDEX_PREFETCH_BUFFER_LONG_NAME = "cloudIndexPrefetchBuffer";
     public static final String DISABLE_BAM_INDEX_CACHING_LONG_NAME = "disableBamIndexCaching";
+    public static final String TRAVERSAL_THREADS_NAME = "traversalThreads";
+    public static final String READ_AHEAD_BATCHES_LONG_NAME = "readAheadBatches";
+    public static final String FEATURE_PREFETCH_FRACTION_LONG_NAME = "featurePrefetchFraction";
+    public static final String ENABLE_INSTRUMENTATION_LONG_NAME = "enableInstrumentation";
+    public static final String INSTRUMENTATION_SUMMARY_LONG_NAME = "instrumentationSummary";
+    public static final String PUBLISH_INSTRUMENTATION_TO_JMX_LONG_NAME = "publishInstrumentationToJMX";
     public static final String DISABLE_SEQUENCE_DICT_VALIDATION_NAME = "disableSequenceDictionaryValidation";
     public static final String ADD_OUTPUT_SAM_PROGRAM_RECORD = "addOutputSAMProgramRecord";
     public static final String ADD_OUTPUT_VCF_COMMANDLINE = "addOutputVCFCommandLine";
@@ -65,6 +71,8 @@ public final class StandardArgumentDefinitions {
     public static final String CLOUD_PREFETCH_BUFFER_SHORT_NAME = "CPB";
     public static final String CLOUD_INDEX_PREFETCH_BUFFER_SHORT_NAME = "CIPB";
     public static final String DISABLE_BAM_INDEX_CACHING_SHORT_NAME = "DBIC";
+    public static final String READ_AHEAD_BATCHES_SHORT_NAME = "RAB";
+    public static final String FEATURE_PREFETCH_FRACTION_SHORT_NAME = "FPF";
 
     public static final String SPARK_PROPERTY_NAME = "conf";
 
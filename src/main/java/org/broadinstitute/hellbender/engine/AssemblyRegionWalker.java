@@ -1,20 +1,25 @@
 package org.broadinstitute.hellbender.engine;
 
+import htsjdk.samtools.SAMFileHeader;
 import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineException;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
 import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.downsampling.PositionalDownsampler;
+import org.broadinstitute.hellbender.utils.downsampling.ReadsDownsampler;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * An AssemblyRegionWalker is a tool that processes an entire region of reads at a time, each marked as either "active"
@@ -43,6 +48,12 @@ import java.util.List;
  *
  * Read shards exist mainly as a proof-of-concept that we can shard the reads without introducing calling artifacts,
  * which will be important for the Spark equivalent of this traversal.
+ *
+ * Tools that override {@link #makeAssemblyRegionWorkerFactory} may also be run with more than one traversal thread,
+ * in which case several read shards (with their padding) are processed concurrently, each by a thread-confined
+ * {@link AssemblyRegionWorker} with its own readers for the reads, reference and features. The records produced by
+ * the workers are handed back to the tool in genomic order on the main traversal thread, so that order-sensitive
+ * outputs such as VCF/GVCF writers see sorted records.
  */
 public abstract class AssemblyRegionWalker extends GATKTool {
 
@@ -76,6 +87,13 @@ public abstract class AssemblyRegionWalker extends GATKTool {
     @Argument(fullName = "activeProbabilityThreshold", shortName = "activeProbabilityThreshold", doc="Minimum probability for a locus to be considered active.", optional = true)
     protected double activeProbThreshold = defaultActiveProbThreshold();
 
+    /**
+     * With downsampling, a multithreaded traversal retains the same reads whatever the number of threads, but not
+     * necessarily the same reads as a single-threaded traversal, which draws from the GATK-wide random number generator.
+     */
+    @Argument(fullName = StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, shortName = StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, doc = "Number of read shards to process concurrently. Values greater than 1 are only supported by some tools, and are only useful if there is more than one read shard.", optional = true)
+    protected int traversalThreads = 1;
+
     @Advanced
     @Argument(fullName = "maxProbPropagationDistance", shortName = "maxProbPropagationDistance", doc="Upper limit on how many bases away probability mass can be moved around when calculating the boundaries between active and inactive assembly regions", optional = true)
     protected int maxProbPropagationDistance = defaultMaxProbPropagationDistance();
@@ -129,6 +147,15 @@ public abstract class AssemblyRegionWalker extends GATKTool {
     @Override
     public String getProgressMeterRecordLabel() { return "regions"; }
     
+    /**
+     * During multithreaded traversals, the maximum number of assembly regions processed but not yet handed to the tool
+     */
+    private static final int MAX_BUFFERED_ASSEMBLY_REGIONS = 1_000;
+
+    // time spent reading the reads of each shard and dividing them into assembly regions
+    private static final TraversalInstrumentation.Timer ACTIVITY_PROFILE_TIMER = TraversalInstrumentation.timer("AssemblyRegionWalker.activityProfile");
+    private static final TraversalInstrumentation.Timer APPLY_TIMER = TraversalInstrumentation.timer("AssemblyRegionWalker.apply");
+
     private List<LocalReadShard> readShards;
     private Shard<GATKRead> currentReadShard;
 
@@ -161,6 +188,14 @@ public abstract class AssemblyRegionWalker extends GATKTool {
             throw new CommandLineException.BadArgumentValue("assemblyRegionPadding must be <= readShardPadding");
         }
 
+        if ( traversalThreads < 1 ) {
+            throw new CommandLineException.BadArgumentValue(StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, Integer.toString(traversalThreads), "must be >= 1");
+        }
+
+        if ( traversalThreads > 1 && readShardSize == NO_INTERVAL_SHARDING ) {
+            logger.warn("Running with " + traversalThreads + " traversal threads but no read sharding: at most one thread per interval (or contig) will be busy. Set readShardSize to make use of all threads.");
+        }
+
         final List<SimpleInterval> intervals = hasIntervals() ? intervalsForTraversal : IntervalUtils.getAllIntervalsForReference(getHeaderForReads().getSequenceDictionary());
         readShards = makeReadShards(intervals);
     }
@@ -188,6 +223,7 @@ public abstract class AssemblyRegionWalker extends GATKTool {
 
     /**
      * @return The boundaries of the read shard we're currently operating within (ignoring any padding).
+     *         Only available during single-threaded traversals.
      */
     public SimpleInterval getCurrentReadShardBounds() {
         return currentReadShard.getInterval();
@@ -221,19 +257,76 @@ public abstract class AssemblyRegionWalker extends GATKTool {
         // meter to check the time more frequently (every 10 regions instead of every 1000 regions).
         progressMeter.setRecordsBetweenTimeChecks(10L);
 
-        for ( final LocalReadShard readShard : readShards ) {
-            // Since reads in each shard are lazily fetched, we need to pass the filter to the window
-            // instead of filtering the reads directly here
-            readShard.setReadFilter(countedFilter);
-            readShard.setDownsampler(maxReadsPerAlignmentStart > 0 ? new PositionalDownsampler(maxReadsPerAlignmentStart, getHeaderForReads()) : null);
-            currentReadShard = readShard;
-
-            processReadShard(readShard, reference, features);
+        if ( traversalThreads > 1 ) {
+            traverseConcurrently(countedFilter);
+        }
+        else {
+            for ( int shardIndex = 0; shardIndex < readShards.size(); shardIndex++ ) {
+                final LocalReadShard readShard = readShards.get(shardIndex);
+                // Since reads in each shard are lazily fetched, we need to pass the filter to the window
+                // instead of filtering the reads directly here
+                readShard.setReadFilter(countedFilter);
+                readShard.setDownsampler(makeDownsampler(getHeaderForReads()));
+                currentReadShard = readShard;
+
+                processReadShard(readShard, reference, features);
+            }
         }
 
         logger.info(countedFilter.getSummaryLine());
     }
 
+    /**
+     * A single-threaded traversal downsamples with the GATK-wide random number generator, as it always has.
+     */
+    private ReadsDownsampler makeDownsampler( final SAMFileHeader header ) {
+        return maxReadsPerAlignmentStart > 0 ? new PositionalDownsampler(maxReadsPerAlignmentStart, header) : null;
+    }
+
+    /**
+     * During a multithreaded traversal, each shard is downsampled with its own random number generator, so that the
+     * reads retained don't depend on the number of traversal threads, or on the order in which the shards are processed.
+     */
+    private ReadsDownsampler makeDownsampler( final SAMFileHeader header, final int shardIndex ) {
+        return maxReadsPerAlignmentStart > 0 ? new PositionalDownsampler(maxReadsPerAlignmentStart, header, Utils.getRandomGeneratorForShard(shardIndex)) : null;
+    }
+
+    /**
+     * Process our read shards on {@link #traversalThreads} threads, handing the records produced for each
+     * assembly region to the tool's {@link AssemblyRegionWorker.Factory} in genomic order.
+     *
+     * @param countedFilter read filter to which the counts of the filters of all traversal threads are added
+     */
+    private void traverseConcurrently( final CountingReadFilter countedFilter ) {
+        final AssemblyRegionWorker.Factory<?> workerFactory = makeAssemblyRegionWorkerFactory();
+        if ( workerFactory == null ) {
+            throw new CommandLineException.BadArgumentValue(StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, Integer.toString(traversalThreads),
+                    getClass().getSimpleName() + " does not support multithreaded traversal");
+        }
+
+        traverseConcurrently(workerFactory, countedFilter);
+    }
+
+    private <T> void traverseConcurrently( final AssemblyRegionWorker.Factory<T> workerFactory, final CountingReadFilter countedFilter ) {
+        final Consumer<ProcessedRegion<T>> onProcessedRegion = processedRegion -> {
+            processedRegion.results.forEach(workerFactory::onResult);
+
+            // For this traversal, the progress meter unit is the assembly region rather than the read shard
+            progressMeter.update(processedRegion.span);
+        };
+        try ( final ConcurrentTraversalExecutor<ReadShardWorker<T>, ProcessedRegion<T>> executor = new ConcurrentTraversalExecutor<>(
+                "assemblyRegionTraversal-thread-%d", traversalThreads, () -> new ReadShardWorker<>(workerFactory.newWorker()),
+                MAX_BUFFERED_ASSEMBLY_REGIONS, true, onProcessedRegion) ) {
+            for ( int i = 0; i < readShards.size(); i++ ) {
+                final int shardIndex = i;
+                executor.submit((worker, processedRegions) ->
+                        worker.processReadShard(readShards.get(shardIndex), shardIndex, processedRegions));
+            }
+            executor.finish();
+            executor.getWorkers().forEach(worker -> countedFilter.addFilteredCounts(worker.readFilter));
+        }
+    }
+
     /**
      * Divide the given Shard up into active/inactive AssemblyRegions using the {@link #assemblyRegionEvaluator},
      * and send each region to the tool implementation for processing.
@@ -243,20 +336,106 @@ public abstract class AssemblyRegionWalker extends GATKTool {
      * @param features FeatureManager
      */
     private void processReadShard(Shard<GATKRead> shard, ReferenceDataSource reference, FeatureManager features ) {
+        long startTime = ACTIVITY_PROFILE_TIMER.start();
         final Iterator<AssemblyRegion> assemblyRegionIter = new AssemblyRegionIterator(shard, getHeaderForReads(), reference, features, assemblyRegionEvaluator(), minAssemblyRegionSize, maxAssemblyRegionSize, assemblyRegionPadding, activeProbThreshold, maxProbPropagationDistance);
 
         // Call into the tool implementation to process each assembly region from this shard.
         while ( assemblyRegionIter.hasNext() ) {
             final AssemblyRegion assemblyRegion = assemblyRegionIter.next();
-            
+            ACTIVITY_PROFILE_TIMER.stop(startTime);
+
             logger.debug("Processing assembly region at " + assemblyRegion.getSpan() + " isActive: " + assemblyRegion.isActive() + " numReads: " + assemblyRegion.getReads().size() + " in read shard " + shard.getInterval());
 
+            final long applyStartTime = APPLY_TIMER.start();
             apply(assemblyRegion,
                     new ReferenceContext(reference, assemblyRegion.getExtendedSpan()),
                     new FeatureContext(features, assemblyRegion.getExtendedSpan()));
+            APPLY_TIMER.stop(applyStartTime);
 
             // For this traversal, the progress meter unit is the assembly region rather than the read shard
             progressMeter.update(assemblyRegion.getSpan());
+            startTime = ACTIVITY_PROFILE_TIMER.start();
+        }
+        ACTIVITY_PROFILE_TIMER.stop(startTime);
+    }
+
+    /**
+     * A tool-provided {@link AssemblyRegionWorker} together with its own, thread-confined sources of reads, reference
+     * and feature data, opened over the same inputs as the engine-wide data sources.
+     */
+    private final class ReadShardWorker<T> implements AutoCloseable {
+        private final AssemblyRegionWorker<T> worker;
+        private final ReadsDataSource workerReads;
+        private final ReferenceDataSource workerReference;
+        private final FeatureManager workerFeatures;
+        private final CountingReadFilter readFilter;
+
+        ReadShardWorker( final AssemblyRegionWorker<T> worker ) {
+            this.worker = Utils.nonNull(worker);
+            this.workerReads = openReadsDataSource();
+            this.workerReference = ReferenceDataSource.of(referenceArguments.getReferenceFile());
+            this.workerFeatures = hasFeatures() ? new FeatureManager(AssemblyRegionWalker.this, FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES, cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
+                    referenceArguments.getReferencePath()) : null;
+            if ( workerFeatures != null ) {
+                workerFeatures.setQueryPrefetchFraction(featurePrefetchFraction);
+            }
+            this.readFilter = makeReadFilter();
+        }
+
+        /**
+         * Divide the given shard into active/inactive AssemblyRegions using our worker's evaluator, and process each
+         * region with our worker, using only this worker's own data sources.
+         *
+         * @param readShard shard to process (its bounds only; reads are fetched from our own reads source)
+         * @param shardIndex index of the shard in the traversal
+         * @param processedRegions consumer of the span of and records produced for each assembly region in the shard, in order
+         */
+        void processReadShard( final LocalReadShard readShard, final int shardIndex, final Consumer<ProcessedRegion<T>> processedRegions ) {
+            final LocalReadShard workerShard = new LocalReadShard(readShard.getInterval(), readShard.getPaddedInterval(), workerReads);
+            workerShard.setReadFilter(readFilter);
+            workerShard.setDownsampler(makeDownsampler(workerReads.getHeader(), shardIndex));
+
+            long startTime = ACTIVITY_PROFILE_TIMER.start();
+            final Iterator<AssemblyRegion> assemblyRegionIter = new AssemblyRegionIterator(workerShard, workerReads.getHeader(), workerReference, workerFeatures, worker.assemblyRegionEvaluator(), minAssemblyRegionSize, maxAssemblyRegionSize, assemblyRegionPadding, activeProbThreshold, maxProbPropagationDistance);
+
+            while ( assemblyRegionIter.hasNext() ) {
+                final AssemblyRegion assemblyRegion = assemblyRegionIter.next();
+                ACTIVITY_PROFILE_TIMER.stop(startTime);
+
+                logger.debug("Processing assembly region at " + assemblyRegion.getSpan() + " isActive: " + assemblyRegion.isActive() + " numReads: " + assemblyRegion.getReads().size() + " in read shard " + workerShard.getInterval());
+
+                final long applyStartTime = APPLY_TIMER.start();
+                final List<T> results = worker.apply(assemblyRegion,
+                        new ReferenceContext(workerReference, assemblyRegion.getExtendedSpan()),
+                        new FeatureContext(workerFeatures, assemblyRegion.getExtendedSpan()));
+                APPLY_TIMER.stop(applyStartTime);
+                processedRegions.accept(new ProcessedRegion<>(assemblyRegion.getSpan(), results));
+                startTime = ACTIVITY_PROFILE_TIMER.start();
+            }
+            ACTIVITY_PROFILE_TIMER.stop(startTime);
+        }
+
+        @Override
+        public void close() {
+            worker.close();
+            workerReads.close();
+            workerReference.close();
+            if ( workerFeatures != null ) {
+                workerFeatures.close();
+            }
+        }
+    }
+
+    /**
+     * The span of an assembly region processed during a multithreaded traversal, along with the records produced for it.
+     */
+    private static final class ProcessedRegion<T> {
+        private final SimpleInterval span;
+        private final List<T> results;
+
+        ProcessedRegion( final SimpleInterval span, final List<T> results ) {
+            this.span = span;
+            this.results = results;
         }
     }
 
@@ -277,6 +456,20 @@ public abstract class AssemblyRegionWalker extends GATKTool {
      */
     public abstract AssemblyRegionEvaluator assemblyRegionEvaluator();
 
+    /**
+     * Tools that can process several read shards concurrently should override this to return a factory for
+     * thread-confined {@link AssemblyRegionWorker}s. It is only called when running with more than one
+     * traversal thread, after {@link #onTraversalStart}, in which case the workers are used in place of
+     * {@link #assemblyRegionEvaluator} and {@link #apply}.
+     *
+     * The default implementation returns null, meaning that the tool only supports single-threaded traversal.
+     *
+     * @return factory for the per-thread workers, or null if multithreaded traversal is not supported
+     */
+    protected AssemblyRegionWorker.Factory<?> makeAssemblyRegionWorkerFactory() {
+        return null;
+    }
+
     /**
      * Process an individual AssemblyRegion. Must be implemented by tool authors.
      *
@@ -0,0 +1,64 @@
+package org.broadinstitute.hellbender.engine;
+
+import java.util.List;
+
+/**
+ * A thread-confined processor of assembly regions, used by {@link AssemblyRegionWalker} when traversing
+ * several read shards concurrently.
+ *
+ * Each worker is used by at most one traversal thread at a time, so implementations may freely hold
+ * non-thread-safe state (such as a calling engine with its own reference reader). Workers never write
+ * output directly: the records they return for each region are handed back, in genomic order, to
+ * {@link Factory#onResult} on the main traversal thread.
+ *
+ * @param <T> type of record produced for each assembly region
+ */
+public interface AssemblyRegionWorker<T> extends AutoCloseable {
+
+    /**
+     * @return The evaluator used by this worker to determine whether each locus is active or not
+     */
+    AssemblyRegionEvaluator assemblyRegionEvaluator();
+
+    /**
+     * Process an individual AssemblyRegion. This is the multithreaded counterpart of {@link AssemblyRegionWalker#apply}.
+     *
+     * @param region region to process (pre-marked as either active or inactive)
+     * @param referenceContext reference data overlapping the full extended span of the assembly region
+     * @param featureContext features overlapping the full extended span of the assembly region
+     * @return records produced for this region, in the order in which they should be emitted
+     */
+    List<T> apply( final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext );
+
+    /**
+     * Release any resources held by this worker. Called once on the main traversal thread after traversal completes.
+     *
+     * Default implementation does nothing.
+     */
+    @Override
+    default void close() {}
+
+    /**
+     * Creates the per-thread workers for a multithreaded traversal, and consumes the records they produce.
+     *
+     * @param <T> type of record produced for each assembly region
+     */
+    interface Factory<T> {
+
+        /**
+         * Create a new worker. Called on the main traversal thread once per traversal thread, before any
+         * regions are processed, so implementations need not be thread-safe.
+         *
+         * @return a new worker that shares no mutable state with any other worker
+         */
+        AssemblyRegionWorker<T> newWorker();
+
+        /**
+         * Consume a single record produced by one of our workers. Called on the main traversal thread only,
+         * with records in the same genomic order as a single-threaded traversal would have produced them.
+         *
+         * @param result record to consume
+         */
+        void onResult( final T result );
+    }
+}
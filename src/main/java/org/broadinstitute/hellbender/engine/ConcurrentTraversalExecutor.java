@@ -0,0 +1,353 @@
+package org.broadinstitute.hellbender.engine;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the tasks of a multithreaded traversal (eg., one per shard) on a fixed number of threads, and hands the results
+ * they produce back to a consumer on the thread that submits them (the main traversal thread).
+ *
+ * There is one worker per thread, created up front on the main thread, and each task runs with a worker checked out
+ * for it alone, so workers may hold thread-confined state such as their own data sources.
+ *
+ * Tasks hand their results over in small chunks while they run, rather than all at once when done. With ordered
+ * results, the results are consumed in the order in which the tasks were submitted, and, within a task, in the order
+ * in which it produced them; otherwise chunks from different tasks are consumed in the order in which they are ready.
+ * At most {@code maxBufferedResults} results (plus a chunk per thread) are produced but not yet consumed at any time:
+ * tasks that would exceed that wait for the main thread to catch up, except for the task whose results are being
+ * consumed, which may always hand over its next chunk once the previous one was consumed.
+ *
+ * The main thread only consumes results from within {@link #submit} (once the maximum number of tasks are in flight)
+ * and {@link #finish}. A failure of a task is rethrown on the main thread when its results are due to be consumed.
+ *
+ * @param <W> type of the per-thread workers
+ * @param <R> type of the results produced by the tasks
+ */
+public final class ConcurrentTraversalExecutor<W extends AutoCloseable, R> implements AutoCloseable {
+
+    /**
+     * Number of tasks per thread that may be queued or in progress at any one time
+     */
+    private static final int TASKS_IN_FLIGHT_PER_THREAD = 2;
+
+    /**
+     * Maximum number of results handed over by a task at a time
+     */
+    private static final int MAX_RESULTS_PER_CHUNK = 100;
+
+    /**
+     * A unit of work of the traversal, run with a worker of its own.
+     *
+     * @param <W> type of the per-thread workers
+     * @param <R> type of the results produced by the task
+     */
+    @FunctionalInterface
+    public interface Task<W, R> {
+
+        /**
+         * @param worker worker checked out for this task alone
+         * @param results consumer of the results of this task, to be called on the calling thread only, in order
+         */
+        void run( final W worker, final Consumer<R> results ) throws Exception;
+    }
+
+    private final ExecutorService executor;
+    private final List<W> allWorkers;
+    private final BlockingQueue<W> idleWorkers;
+    private final boolean ordered;
+    private final Consumer<R> onResult;
+    private final int maxTasksInFlight;
+    private final int maxBufferedResults;
+    private final int resultsPerChunk;
+
+    private final Deque<TaskState> tasksInFlight;
+    // only used for unordered results: the chunks of every task, in the order in which they are ready
+    private final BlockingQueue<Chunk> readyChunks;
+
+    // guards bufferedResults, TaskState.bufferedResults and headTask
+    private final Object bufferLock = new Object();
+    private int bufferedResults = 0;
+    // only used for ordered results: the task whose results are being consumed
+    private TaskState headTask = null;
+
+    /**
+     * Executor for tasks that produce no results, which are waited for in no particular order.
+     *
+     * @param threadNameFormat name format of the threads, as for {@link ThreadFactoryBuilder#setNameFormat}
+     * @param numThreads number of threads, must be > 0
+     * @param newWorker creates the worker of each thread. Called {@code numThreads} times on the calling thread.
+     */
+    public ConcurrentTraversalExecutor( final String threadNameFormat, final int numThreads, final Supplier<W> newWorker ) {
+        this(threadNameFormat, numThreads, newWorker, 1, false, result -> {});
+    }
+
+    /**
+     * @param threadNameFormat name format of the threads, as for {@link ThreadFactoryBuilder#setNameFormat}
+     * @param numThreads number of threads, must be > 0
+     * @param newWorker creates the worker of each thread. Called {@code numThreads} times on the calling thread.
+     * @param maxBufferedResults maximum number of results produced by the tasks but not yet consumed, must be > 0
+     * @param ordered true if the results must be consumed in the order in which the tasks were submitted
+     * @param onResult consumer of the results, called on the calling thread only
+     */
+    public ConcurrentTraversalExecutor( final String threadNameFormat, final int numThreads, final Supplier<W> newWorker,
+                                        final int maxBufferedResults, final boolean ordered, final Consumer<R> onResult ) {
+        Utils.nonNull(threadNameFormat);
+        Utils.validateArg(numThreads > 0, "numThreads must be > 0");
+        Utils.nonNull(newWorker);
+        Utils.validateArg(maxBufferedResults > 0, "maxBufferedResults must be > 0");
+        Utils.nonNull(onResult);
+
+        this.ordered = ordered;
+        this.onResult = onResult;
+        this.maxTasksInFlight = numThreads * TASKS_IN_FLIGHT_PER_THREAD;
+        this.maxBufferedResults = maxBufferedResults;
+        this.resultsPerChunk = Math.max(1, Math.min(MAX_RESULTS_PER_CHUNK, maxBufferedResults / maxTasksInFlight));
+        this.tasksInFlight = new ArrayDeque<>(maxTasksInFlight);
+        this.readyChunks = ordered ? null : new LinkedBlockingQueue<>();
+
+        // Each worker is checked out by exactly one thread at a time.
+        // Since we have as many workers as threads, a thread never has to wait for one.
+        this.allWorkers = new ArrayList<>(numThreads);
+        this.idleWorkers = new ArrayBlockingQueue<>(numThreads);
+        this.executor = Executors.newFixedThreadPool(numThreads,
+                new ThreadFactoryBuilder().setNameFormat(threadNameFormat).setDaemon(true).build());
+        try {
+            for ( int i = 0; i < numThreads; i++ ) {
+                final W worker = Utils.nonNull(newWorker.get(), "newWorker must not return null");
+                allWorkers.add(worker);
+                idleWorkers.add(worker);
+            }
+        } catch ( final RuntimeException e ) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Queue the given task to run once a thread is free, first consuming results until fewer than the maximum number
+     * of tasks are in flight.
+     */
+    public void submit( final Task<W, R> task ) {
+        Utils.nonNull(task);
+        while ( tasksInFlight.size() == maxTasksInFlight ) {
+            consumeNextTask();
+        }
+
+        final TaskState state = new TaskState(ordered ? new LinkedBlockingQueue<>() : readyChunks);
+        tasksInFlight.addLast(state);
+        executor.execute(() -> runTask(task, state));
+    }
+
+    /**
+     * Wait for all the tasks submitted so far, consuming all of their results.
+     */
+    public void finish() {
+        while ( ! tasksInFlight.isEmpty() ) {
+            consumeNextTask();
+        }
+    }
+
+    /**
+     * @return the workers of all threads. Only to be used once the tasks using them are finished (or the executor
+     *         is closed).
+     */
+    public List<W> getWorkers() {
+        return Collections.unmodifiableList(allWorkers);
+    }
+
+    /**
+     * Stops the threads, abandoning any tasks still in flight, then closes the workers.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+        for ( final W worker : allWorkers ) {
+            try {
+                worker.close();
+            } catch ( final Exception e ) {
+                throw new GATKException("Error closing traversal worker", e);
+            }
+        }
+    }
+
+    /**
+     * Consume the results of tasks until one of them is done: with ordered results, all the results of the earliest
+     * task in flight, otherwise whatever results are ready first.
+     */
+    private void consumeNextTask() {
+        final BlockingQueue<Chunk> chunks;
+        if ( ordered ) {
+            final TaskState task = tasksInFlight.peekFirst();
+            synchronized ( bufferLock ) {
+                headTask = task;
+                bufferLock.notifyAll();
+            }
+            chunks = task.chunks;
+        } else {
+            chunks = readyChunks;
+        }
+
+        boolean taskDone = false;
+        while ( ! taskDone ) {
+            taskDone = consume(takeChunk(chunks));
+        }
+    }
+
+    /**
+     * Hand the results of the given chunk to our consumer, or, if it's the end of its task, rethrow the failure of
+     * the task, if any.
+     *
+     * @return true if the chunk was the end of its task
+     */
+    private boolean consume( final Chunk chunk ) {
+        if ( chunk.results == null ) {
+            tasksInFlight.remove(chunk.task);
+            if ( chunk.failure instanceof RuntimeException ) {
+                throw (RuntimeException)chunk.failure;
+            }
+            if ( chunk.failure instanceof Error ) {
+                throw (Error)chunk.failure;
+            }
+            if ( chunk.failure != null ) {
+                throw new GATKException("Error in traversal task", chunk.failure);
+            }
+            return true;
+        }
+
+        chunk.results.forEach(onResult);
+        synchronized ( bufferLock ) {
+            bufferedResults -= chunk.results.size();
+            chunk.task.bufferedResults -= chunk.results.size();
+            bufferLock.notifyAll();
+        }
+        return false;
+    }
+
+    private Chunk takeChunk( final BlockingQueue<Chunk> chunks ) {
+        try {
+            return chunks.take();
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for a traversal task", e);
+        }
+    }
+
+    /**
+     * Run the given task on the current (pool) thread, then mark the end of its results.
+     */
+    private void runTask( final Task<W, R> task, final TaskState state ) {
+        Throwable failure = null;
+        try {
+            final W worker = idleWorkers.take();
+            try {
+                final ResultSink sink = new ResultSink(state);
+                task.run(worker, sink);
+                sink.flush();
+            } finally {
+                idleWorkers.add(worker);
+            }
+        } catch ( final InterruptedException | CancellationException e ) {
+            // the executor was closed, and nobody is waiting for this task anymore
+            return;
+        } catch ( final Throwable e ) {
+            failure = e;
+        }
+        state.chunks.add(new Chunk(state, null, failure));
+    }
+
+    /**
+     * Buffer the given results of the given task for the main thread, waiting for room in the buffer if need be.
+     */
+    private void buffer( final TaskState task, final List<R> results ) {
+        synchronized ( bufferLock ) {
+            // The task being consumed never waits for the other tasks, which may in turn be waiting for it.
+            // Since its own results are being consumed, it does wait for its previous chunk.
+            while ( bufferedResults + results.size() > maxBufferedResults && ! (task == headTask && task.bufferedResults == 0) ) {
+                try {
+                    bufferLock.wait();
+                } catch ( final InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Traversal was stopped");
+                }
+            }
+            bufferedResults += results.size();
+            task.bufferedResults += results.size();
+            task.chunks.add(new Chunk(task, results, null));
+        }
+    }
+
+    /**
+     * Collects the results of a task into chunks, buffering each of them for the main thread once full.
+     */
+    private final class ResultSink implements Consumer<R> {
+        private final TaskState task;
+        private List<R> results = new ArrayList<>(resultsPerChunk);
+
+        ResultSink( final TaskState task ) {
+            this.task = task;
+        }
+
+        @Override
+        public void accept( final R result ) {
+            results.add(result);
+            if ( results.size() == resultsPerChunk ) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if ( ! results.isEmpty() ) {
+                buffer(task, results);
+                results = new ArrayList<>(resultsPerChunk);
+            }
+        }
+    }
+
+    /**
+     * A submitted task, with the queue in which its results are handed to the main thread
+     */
+    private final class TaskState {
+        private final BlockingQueue<Chunk> chunks;
+        private int bufferedResults = 0;
+
+        TaskState( final BlockingQueue<Chunk> chunks ) {
+            this.chunks = chunks;
+        }
+    }
+
+    /**
+     * Consecutive results of a task, or, if results is null, the end of the task along with its failure (if any)
+     */
+    private final class Chunk {
+        private final TaskState task;
+        private final List<R> results;
+        private final Throwable failure;
+
+        Chunk( final TaskState task, final List<R> results, final Throwable failure ) {
+            this.task = task;
+            this.results = results;
+            this.failure = failure;
+        }
+    }
+}
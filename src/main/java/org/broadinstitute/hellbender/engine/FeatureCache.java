@@ -1,10 +1,12 @@
 package org.broadinstitute.hellbender.engine;
 
+import htsjdk.samtools.util.IntervalTree;
 import htsjdk.tribble.Feature;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 
 import java.util.*;
 
@@ -14,20 +16,24 @@ import java.util.*;
  * and/or {@link FeatureDataSource#queryAndPrefetch(org.broadinstitute.hellbender.utils.SimpleInterval)}.
  *
  * Strategy is to pre-fetch a large number of records AFTER each query interval that produces
- * a cache miss. This optimizes for the use case of intervals with gradually increasing start
- * positions, as many subsequent queries will find their records wholly contained in the cache
- * before we have another cache miss. Performance will be poor for random/non-localized access
- * patterns, or intervals with decreasing start positions.
+ * a cache miss, and to keep the resulting window of records around for as long as our budget allows.
+ * The cache holds several windows, possibly overlapping or on different contigs, in one interval tree per contig,
+ * and evicts the least recently used windows once it holds more than a maximum number of Features. Queries
+ * with gradually increasing start positions will find their records wholly contained in the most recent window,
+ * and queries that back up a little (eg., padded regions) or revisit a recent region will usually find them in
+ * an older window. Performance will be poor for random/non-localized access patterns.
  *
  * Usage:
  * -Test whether each query interval is a cache hit via {@link #cacheHit(org.broadinstitute.hellbender.utils.SimpleInterval)}
  *
- * -If it is a cache hit, trim the cache to the start position of the interval (discarding records that
- *  end before the start of the new interval) via {@link #trimToNewStartPosition(int)}, then retrieve
- *  records up to the desired endpoint using {@link #getCachedFeaturesUpToStopPosition(int)}.
+ * -If it is a cache miss, add a window to the cache using {@link #fill(java.util.Iterator, org.broadinstitute.hellbender.utils.SimpleInterval)},
+ *  pre-fetching a large number of records after the query interval in addition to those actually requested.
  *
- * -If it is a cache miss, reset the cache using {@link #fill(java.util.Iterator, org.broadinstitute.hellbender.utils.SimpleInterval)}, pre-fetching
- *  a large number of records after the query interval in addition to those actually requested.
+ * -Then retrieve the records overlapping the interval using {@link #getCachedFeatures(SimpleInterval)}.
+ *
+ * -Optionally, ask which window to prefetch ahead of the queries using {@link #getWindowToPrefetch(SimpleInterval, double)},
+ *  and add it to the cache using {@link #fill(java.util.Iterator, org.broadinstitute.hellbender.utils.SimpleInterval)}
+ *  once its records are available.
  *
  * @param <CACHED_FEATURE> Type of Feature record we are caching
  */
@@ -35,69 +41,62 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
     private static final Logger logger = LogManager.getLogger(FeatureCache.class);
 
     /**
-     * Our cache of Features, optimized for insertion/removal at both ends.
+     * Default maximum number of Features kept in the cache, across all windows
      */
-    private final Deque<CACHED_FEATURE> cache;
+    public static final int DEFAULT_MAX_CACHED_FEATURES = 50_000;
 
     /**
-     * Our cache currently contains Feature records overlapping this interval
+     * Our cached windows on each contig, keyed by the interval that all Features in the window overlap.
+     * Windows contained in a window added later are discarded.
      */
-    private SimpleInterval cachedInterval;
+    private final Map<String, IntervalTree<Window<CACHED_FEATURE>>> windowsByContig = new HashMap<>();
 
     /**
-     * Number of times we called {@link #cacheHit(SimpleInterval)} and it returned true
+     * All of our cached windows, from the least to the most recently used
      */
-    private int numCacheHits = 0;
+    private final LinkedHashSet<Window<CACHED_FEATURE>> windowsByLastUse = new LinkedHashSet<>();
 
     /**
-     * Number of times we called {@link #cacheHit(SimpleInterval)} and it returned false
+     * Window that satisfied the most recent query, if it is still cached
      */
-    private int numCacheMisses = 0;
+    private Window<CACHED_FEATURE> lastUsedWindow;
 
     /**
-     * Initial capacity of our cache (will grow by doubling if needed)
+     * Maximum number of Features kept in the cache. We may hold more if the windows that satisfied
+     * the most recent query and the most recent fill hold more on their own.
      */
-    private static final int INITIAL_CAPACITY = 1024;
+    private final int maxCachedFeatures;
 
     /**
-     * When we trim our cache to a new start position, this is the maximum number of
-     * Features we expect to need to place into temporary storage for the duration of
-     * the trim operation. Performance only suffers slightly if our estimate is wrong.
+     * Total number of Features in our windows, with empty windows counting as one Feature
      */
-    private static final int EXPECTED_MAX_OVERLAPPING_FEATURES_DURING_CACHE_TRIM = 128;
+    private int numCachedFeatures = 0;
 
     /**
-     * Create an initially-empty FeatureCache with default initial capacity
+     * Number of times we called {@link #cacheHit(SimpleInterval)} and it returned true
      */
-    public FeatureCache() {
-        cache = new ArrayDeque<>(INITIAL_CAPACITY);
-    }
+    private int numCacheHits = 0;
 
     /**
-     * Get the name of the contig on which the Features in our cache are located
-     *
-     * @return the name of the contig on which the Features in our cache are located
+     * Number of times we called {@link #cacheHit(SimpleInterval)} and it returned false
      */
-    public String getContig() {
-        return cachedInterval.getContig();
-    }
+    private int numCacheMisses = 0;
 
     /**
-     * Get the start position of the interval that all Features in our cache overlap
-     *
-     * @return the start position of the interval that all Features in our cache overlap
+     * Create an initially-empty FeatureCache with the default maximum number of Features
      */
-    public int getCacheStart() {
-        return cachedInterval.getStart();
+    public FeatureCache() {
+        this(DEFAULT_MAX_CACHED_FEATURES);
     }
 
     /**
-     * Get the stop position of the interval that all Features in our cache overlap
+     * Create an initially-empty FeatureCache
      *
-     * @return the stop position of the interval that all Features in our cache overlap
+     * @param maxCachedFeatures maximum number of Features to keep in the cache across all windows, must be > 0
      */
-    public int getCacheEnd() {
-        return cachedInterval.getEnd();
+    public FeatureCache( final int maxCachedFeatures ) {
+        Utils.validateArg(maxCachedFeatures > 0, "maxCachedFeatures must be > 0");
+        this.maxCachedFeatures = maxCachedFeatures;
     }
 
     /**
@@ -106,7 +105,18 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
      * @return true if our cache contains no Features, otherwise false
      */
     public boolean isEmpty() {
-        return cache.isEmpty();
+        return windowsByLastUse.stream().allMatch(window -> window.features.isEmpty());
+    }
+
+    /**
+     * @return the intervals covered by our cached windows, from the least to the most recently used
+     */
+    public List<SimpleInterval> getCachedWindows() {
+        final List<SimpleInterval> windows = new ArrayList<>(windowsByLastUse.size());
+        for ( final Window<CACHED_FEATURE> window : windowsByLastUse ) {
+            windows.add(window.interval);
+        }
+        return windows;
     }
 
     /**
@@ -124,24 +134,49 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
     }
 
     /**
-     * Clear our cache and fill it with the records from the provided iterator, preserving their
-     * relative ordering, and update our contig/start/stop to reflect the new interval that all
-     * records in our cache overlap.
+     * Add a window to our cache, filled with the records from the provided iterator, preserving their
+     * relative ordering. Any cached windows contained in the new one are discarded, and then the least
+     * recently used windows are evicted until we are within our budget.
      *
      * Typically each fill operation should involve significant lookahead beyond the region
      * requested so that future queries will be cache hits.
      *
-     * @param featureIter iterator from which to pull Features with which to populate our cache
-     *                    (replacing existing cache contents)
-     * @param interval all Features from featureIter overlap this interval
+     * @param featureIter iterator from which to pull Features with which to populate the new window,
+     *                    sorted by start position
+     * @param interval all Features from featureIter overlap this interval, and all Features overlapping this interval
+     *                 are in featureIter
      */
     public void fill( final Iterator<CACHED_FEATURE> featureIter, final SimpleInterval interval ) {
-        cache.clear();
+        final List<CACHED_FEATURE> features = new ArrayList<>();
+        int maxFeatureSpan = 0;
         while ( featureIter.hasNext() ) {
-            cache.add(featureIter.next());
+            final CACHED_FEATURE feature = featureIter.next();
+            features.add(feature);
+            maxFeatureSpan = Math.max(maxFeatureSpan, feature.getEnd() - feature.getStart());
         }
 
-        cachedInterval = interval;
+        final IntervalTree<Window<CACHED_FEATURE>> contigWindows = windowsByContig.computeIfAbsent(interval.getContig(), contig -> new IntervalTree<>());
+        final List<Window<CACHED_FEATURE>> containedWindows = new ArrayList<>();
+        contigWindows.overlappers(interval.getStart(), interval.getEnd()).forEachRemaining(node -> {
+            if ( interval.contains(node.getValue().interval) ) {
+                containedWindows.add(node.getValue());
+            }
+        });
+        containedWindows.forEach(this::remove);
+
+        final Window<CACHED_FEATURE> window = new Window<>(interval, features, maxFeatureSpan);
+        contigWindows.put(interval.getStart(), interval.getEnd(), window);
+        windowsByLastUse.add(window);
+        numCachedFeatures += window.weight();
+
+        final Iterator<Window<CACHED_FEATURE>> leastRecentlyUsed = windowsByLastUse.iterator();
+        while ( numCachedFeatures > maxCachedFeatures && leastRecentlyUsed.hasNext() ) {
+            final Window<CACHED_FEATURE> candidate = leastRecentlyUsed.next();
+            if ( candidate != window && candidate != lastUsedWindow ) {
+                leastRecentlyUsed.remove();
+                removeFromTree(candidate);
+            }
+        }
     }
 
     /**
@@ -151,7 +186,7 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
      * @return true if all records overlapping the provided interval are already contained in our cache, otherwise false
      */
     public boolean cacheHit( final SimpleInterval interval ) {
-        final boolean cacheHit = cachedInterval != null && cachedInterval.contains(interval);
+        final boolean cacheHit = findWindow(interval) != null;
 
         if ( cacheHit ) {
             ++numCacheHits;
@@ -164,62 +199,61 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
     }
 
     /**
-     * Trims the cache to the specified new start position by discarding all records that end before it
-     * while preserving relative ordering of records.
+     * Returns (but does not remove) all cached Features that overlap the provided interval, in the order in which
+     * they were added to the cache. All of these Features must be cached, as reported by {@link #cacheHit}.
      *
-     * @param newStart new start position on the current contig to which to trim the cache
+     * @param interval the interval that returned Features must overlap
+     * @return all cached Features that overlap the interval
      */
-    public void trimToNewStartPosition( final int newStart ) {
-        if ( newStart > cachedInterval.getEnd() ) {
-            throw new GATKException(String.format("BUG: attempted to trim Feature cache to an improper new start position (%d). Cache stop = %d",
-                    newStart, cachedInterval.getEnd()));
+    public List<CACHED_FEATURE> getCachedFeatures( final SimpleInterval interval ) {
+        final Window<CACHED_FEATURE> window = findWindow(interval);
+        if ( window == null ) {
+            throw new GATKException(String.format("BUG: attempted to retrieve Features overlapping %s, which is not cached", interval));
         }
+        use(window);
 
-        List<CACHED_FEATURE> overlappingFeaturesBeforeNewStart = new ArrayList<>(EXPECTED_MAX_OVERLAPPING_FEATURES_DURING_CACHE_TRIM);
-
-        // In order to trim the cache to the new start position, we need to find
-        // all Features in the cache that start before the new start position,
-        // and discard those that don't overlap the new start while keeping those
-        // that do overlap. We can stop once we find a Feature that starts on or
-        // after the new start position, since the Features are assumed to be sorted
-        // by start position.
-        while ( ! cache.isEmpty() && cache.getFirst().getStart() < newStart ) {
-            CACHED_FEATURE featureBeforeNewStart = cache.removeFirst();
-
-            if ( featureBeforeNewStart.getEnd() >= newStart ) {
-                overlappingFeaturesBeforeNewStart.add(featureBeforeNewStart);
+        // Features that start more than maxFeatureSpan before the interval can't overlap it, so start looking
+        // at the first one that doesn't, and stop once we find one that starts after the interval.
+        final List<CACHED_FEATURE> features = window.features;
+        final List<CACHED_FEATURE> matchingFeatures = new ArrayList<>();
+        for ( int i = firstStartingOnOrAfter(features, interval.getStart() - window.maxFeatureSpan); i < features.size(); i++ ) {
+            final CACHED_FEATURE candidateFeature = features.get(i);
+            if ( candidateFeature.getStart() > interval.getEnd() ) {
+                break; // No more possible matches among the remaining cached Features, so stop looking
+            }
+            if ( candidateFeature.getEnd() >= interval.getStart() ) {
+                matchingFeatures.add(candidateFeature);
             }
         }
-
-        // Add back the Features that started before the new start but overlapped it
-        // in the reverse of the order in which we encountered them so that their original
-        // relative ordering in the cache is restored.
-        for ( int i = overlappingFeaturesBeforeNewStart.size() - 1; i >= 0; --i ) {
-            cache.addFirst(overlappingFeaturesBeforeNewStart.get(i));
-        }
-
-        // Record our new start boundary
-        cachedInterval = new SimpleInterval(cachedInterval.getContig(), newStart, cachedInterval.getEnd());
+        return matchingFeatures;
     }
 
     /**
-     * Returns (but does not remove) all cached Features that overlap the region from the start
-     * of our cache (cacheStart) to the specified stop position.
+     * Determines which window to prefetch ahead of queries that proceed with increasing start positions: once
+     * a query reaches the given fraction of a cached window, the window of the same size starting at the query,
+     * unless the position following the cached window is already cached.
      *
-     * @param stopPosition Endpoint of the interval that returned Features must overlap
-     * @return all cached Features that overlap the region from the start of our cache to the specified stop position
+     * @param interval the most recent query interval, which must be a cache hit
+     * @param prefetchFraction fraction of the cached window the query must reach for the next window to be prefetched,
+     *                         between 0 and 1
+     * @return the window to prefetch, or null if there is none
      */
-    public List<CACHED_FEATURE> getCachedFeaturesUpToStopPosition( final int stopPosition ) {
-        List<CACHED_FEATURE> matchingFeatures = new ArrayList<>(cache.size());
+    public SimpleInterval getWindowToPrefetch( final SimpleInterval interval, final double prefetchFraction ) {
+        final Window<CACHED_FEATURE> window = findWindow(interval);
+        if ( window == null ) {
+            return null;
+        }
 
-        // Find (but do not remove from our cache) all Features that start before or on the provided stop position
-        for ( CACHED_FEATURE candidateFeature : cache ) {
-            if ( candidateFeature.getStart() > stopPosition ) {
-                break; // No more possible matches among the remaining cached Features, so stop looking
-            }
-            matchingFeatures.add(candidateFeature);
+        final SimpleInterval cached = window.interval;
+        if ( interval.getStart() == cached.getStart() ||
+             interval.getEnd() < cached.getStart() + prefetchFraction * cached.size() ||
+             cached.getEnd() == Integer.MAX_VALUE ||
+             findWindow(new SimpleInterval(cached.getContig(), cached.getEnd() + 1, cached.getEnd() + 1)) != null ) {
+            return null;
         }
-        return matchingFeatures;
+
+        final long nextEnd = (long)interval.getStart() + cached.size() - 1;
+        return new SimpleInterval(cached.getContig(), interval.getStart(), (int)Math.min(nextEnd, Integer.MAX_VALUE));
     }
 
     /**
@@ -232,5 +266,83 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
                 getNumCacheHits(),
                 totalQueries));
     }
-}
 
+    /**
+     * @return the cached window containing the interval, or null if there is none
+     */
+    private Window<CACHED_FEATURE> findWindow( final SimpleInterval interval ) {
+        final IntervalTree<Window<CACHED_FEATURE>> contigWindows = windowsByContig.get(interval.getContig());
+        if ( contigWindows == null ) {
+            return null;
+        }
+        if ( lastUsedWindow != null && lastUsedWindow.interval.contains(interval) ) {
+            return lastUsedWindow;
+        }
+        final Iterator<IntervalTree.Node<Window<CACHED_FEATURE>>> overlappers = contigWindows.overlappers(interval.getStart(), interval.getEnd());
+        while ( overlappers.hasNext() ) {
+            final Window<CACHED_FEATURE> window = overlappers.next().getValue();
+            if ( window.interval.contains(interval) ) {
+                return window;
+            }
+        }
+        return null;
+    }
+
+    private void use( final Window<CACHED_FEATURE> window ) {
+        if ( window != lastUsedWindow ) {
+            windowsByLastUse.remove(window);
+            windowsByLastUse.add(window);
+            lastUsedWindow = window;
+        }
+    }
+
+    private void remove( final Window<CACHED_FEATURE> window ) {
+        windowsByLastUse.remove(window);
+        removeFromTree(window);
+    }
+
+    private void removeFromTree( final Window<CACHED_FEATURE> window ) {
+        windowsByContig.get(window.interval.getContig()).remove(window.interval.getStart(), window.interval.getEnd());
+        numCachedFeatures -= window.weight();
+        if ( window == lastUsedWindow ) {
+            lastUsedWindow = null;
+        }
+    }
+
+    private static int firstStartingOnOrAfter( final List<? extends Feature> features, final int position ) {
+        int low = 0;
+        int high = features.size();
+        while ( low < high ) {
+            final int middle = (low + high) >>> 1;
+            if ( features.get(middle).getStart() < position ) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Features overlapping an interval, sorted by start position
+     */
+    private static final class Window<CACHED_FEATURE extends Feature> {
+        private final SimpleInterval interval;
+        private final List<CACHED_FEATURE> features;
+
+        /**
+         * Largest difference between the end and start positions of our Features
+         */
+        private final int maxFeatureSpan;
+
+        private Window( final SimpleInterval interval, final List<CACHED_FEATURE> features, final int maxFeatureSpan ) {
+            this.interval = interval;
+            this.features = features;
+            this.maxFeatureSpan = maxFeatureSpan;
+        }
+
+        private int weight() {
+            return Math.max(1, features.size());
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package org.broadinstitute.hellbender.engine;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.intel.genomicsdb.GenomicsDBFeatureReader;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.tribble.*;
+import htsjdk.tribble.index.IndexFactory;
 import htsjdk.variant.bcf2.BCF2Codec;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFHeader;
@@ -23,9 +25,15 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Enables traversals and queries over sources of Features, which are metadata associated with a location
@@ -46,10 +54,11 @@ import java.util.function.Function;
  * To improve performance in the case of targeted queries by one interval at a time, this class uses a caching
  * scheme that is optimized for the common access pattern of multiple separate queries over intervals with
  * gradually increasing start positions. It optimizes for this use case by pre-fetching records immediately
- * following each interval during a query and caching them. Performance will suffer if the access pattern is
- * random, involves queries over intervals with DECREASING start positions instead of INCREASING start positions,
- * or involves lots of very large jumps forward on the genome or lots of contig switches. Query caching
- * can be disabled, if desired.
+ * following each interval during a query and caching them, keeping several recent windows of records so that
+ * queries backing up a little (or revisiting a recent region) are also satisfied from the cache. Optionally
+ * (see {@link #setQueryPrefetchFraction}), the next window is fetched in the background before queries reach it.
+ * Performance will suffer if the access pattern is random, or involves lots of very large jumps forward on the
+ * genome or lots of contig switches. Query caching can be disabled, if desired.
  *
  * @param <T> The type of Feature returned by this data source
  */
@@ -83,8 +92,8 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
 
     /**
      * Cache containing Features from recent queries initiated via {@link #query(SimpleInterval)} and/or
-     * {@link #queryAndPrefetch(SimpleInterval)}. This is guaranteed to start at the start position of the
-     * most recent query, but will typically end well after the end of the most recent query. Designed to
+     * {@link #queryAndPrefetch(SimpleInterval)}. This holds a window containing the most recent query, which
+     * will typically end well after the end of that query, and a few other recently used windows. Designed to
      * improve performance of the common access pattern involving multiple queries across nearby intervals
      * with gradually increasing start positions.
      */
@@ -99,6 +108,40 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
      */
     private final int queryLookaheadBases;
 
+    /**
+     * Background threads prefetching query windows, shared by all data sources
+     */
+    private static final ExecutorService PREFETCH_THREADS = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("featurePrefetch-thread-%d").setDaemon(true).build());
+
+    /**
+     * Opens another reader over our input, to prefetch query windows in the background without
+     * disturbing {@link #featureReader}. Null if our input doesn't support prefetching.
+     */
+    private final Supplier<FeatureReader<T>> prefetchReaderFactory;
+
+    /**
+     * Reader used to prefetch query windows, by one background thread at a time. Opened on the first prefetch.
+     */
+    private FeatureReader<T> prefetchReader;
+
+    /**
+     * Fraction of a cached window that queries must reach for the following window to be prefetched
+     * in the background. 0 if prefetching is disabled.
+     */
+    private double queryPrefetchFraction = 0.0;
+
+    /**
+     * Window currently being prefetched (null if none), and its Features once fetched
+     */
+    private SimpleInterval pendingPrefetchWindow;
+    private Future<List<T>> pendingPrefetch;
+
+    /**
+     * Number of windows prefetched in the background and added to our cache
+     */
+    private int numPrefetchedWindows = 0;
+
     /**
      * Holds information about the path this datasource reads from.
      */
@@ -254,6 +297,9 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
             throw new GATKException("Found a feature input that was neither GenomicsDB or a Tribble AbstractFeatureReader.  Input was " + featureInput.toString() + ".");
         }
 
+        // GenomicsDB readers are not opened more than once
+        this.prefetchReaderFactory = hasIndex ? () -> getFeatureReader(featureInput, targetFeatureType, cloudWrapper, cloudIndexWrapper, reference) : null;
+
         this.currentIterator = null;
         this.intervalsForTraversal = null;
         this.queryCache = new FeatureCache<>();
@@ -375,6 +421,23 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
         return null;
     }
 
+    /**
+     * Returns the names of the contigs with Features according to the index of this source of Features, in the
+     * order in which they appear in the file, which need not be the order of the sequence dictionary.
+     * Returns null if this data source has no index.
+     */
+    public List<String> getIndexedSequenceNames() {
+        if ( ! hasIndex ) {
+            return null;
+        }
+        if ( featureReader instanceof TabixFeatureReader ) {
+            // the tabix reader lists its contigs in no particular order, unlike the tabix index itself
+            final String absolutePath = IOUtils.getPath(featureInput.getFeaturePath()).toAbsolutePath().toUri().toString();
+            return IndexFactory.loadIndex(Tribble.tabixIndexFile(absolutePath)).getSequenceNames();
+        }
+        return featureReader.getSequenceNames();
+    }
+
     /**
      * Restricts traversals of this data source via {@link #iterator} to only return Features that overlap the provided
      * intervals. Calls to {@link #query(SimpleInterval)} and/or {@link #queryAndPrefetch(SimpleInterval)} are not
@@ -399,6 +462,43 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
     }
 
 
+    /**
+     * Prefetch windows of Features in the background during queries initiated via {@link #query(SimpleInterval)}
+     * and/or {@link #queryAndPrefetch(SimpleInterval)}: once a query reaches the given fraction of the cached window
+     * containing it, the window of the same size that follows is fetched using a separate reader, so that queries
+     * with increasing start positions rarely have to wait for Features to be read.
+     *
+     * Has no effect on inputs that don't have an index, such as GenomicsDB workspaces.
+     *
+     * @param prefetchFraction fraction of a cached window that queries must reach for the next window to be prefetched,
+     *                         between 0 and 1 (0 to disable prefetching)
+     */
+    public void setQueryPrefetchFraction( final double prefetchFraction ) {
+        Utils.validateArg(prefetchFraction >= 0.0 && prefetchFraction <= 1.0, "prefetchFraction must be between 0 and 1");
+        this.queryPrefetchFraction = prefetchReaderFactory != null ? prefetchFraction : 0.0;
+    }
+
+    /**
+     * @return Number of queries satisfied from our cache
+     */
+    public int getQueryCacheHits() {
+        return queryCache.getNumCacheHits();
+    }
+
+    /**
+     * @return Number of queries that had to read Features from our input
+     */
+    public int getQueryCacheMisses() {
+        return queryCache.getNumCacheMisses();
+    }
+
+    /**
+     * @return Number of windows of Features prefetched in the background and added to our cache
+     */
+    public int getNumPrefetchedWindows() {
+        return numPrefetchedWindows;
+    }
+
     /**
      * Gets an iterator over all Features in this data source, restricting traversal to Features
      * overlapping our intervals if intervals were provided via {@link #setIntervalsForTraversal(List)}
@@ -469,23 +569,81 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
                                     "If it's a file, please index it using the bundled tool " + IndexFeatureFile.class.getSimpleName());
         }
 
-        // If the query can be satisfied using existing cache contents, prepare for retrieval
-        // by discarding all Features at the beginning of the cache that end before the start
-        // of our query interval.
-        if ( queryCache.cacheHit(interval) ) {
-            queryCache.trimToNewStartPosition(interval.getStart());
-        }
-        // Otherwise, we have a cache miss, so go to disk to refill our cache.
-        else {
+        addPrefetchedWindowIfReady(interval);
+
+        // If the query can't be satisfied using existing cache contents, we have a cache miss,
+        // so go to disk to add a window to our cache.
+        if ( ! queryCache.cacheHit(interval) ) {
             refillQueryCache(interval);
         }
 
         // Return the subset of our cache that overlaps our query interval
-        return queryCache.getCachedFeaturesUpToStopPosition(interval.getEnd());
+        final List<T> features = queryCache.getCachedFeatures(interval);
+
+        if ( queryPrefetchFraction > 0.0 && pendingPrefetch == null ) {
+            startPrefetch(queryCache.getWindowToPrefetch(interval, queryPrefetchFraction));
+        }
+        return features;
+    }
+
+    /**
+     * Add the window being prefetched to our cache if it has been fetched, or if the query interval overlaps it
+     * (in which case we wait for it rather than reading the same Features again).
+     *
+     * @param interval the next query interval
+     */
+    private void addPrefetchedWindowIfReady( final SimpleInterval interval ) {
+        if ( pendingPrefetch != null && (pendingPrefetch.isDone() || pendingPrefetchWindow.overlaps(interval)) ) {
+            final List<T> prefetchedFeatures = waitForPrefetch();
+            queryCache.fill(prefetchedFeatures.iterator(), pendingPrefetchWindow);
+            ++numPrefetchedWindows;
+            pendingPrefetch = null;
+            pendingPrefetchWindow = null;
+        }
+    }
+
+    /**
+     * Start fetching the Features overlapping the window on a background thread.
+     *
+     * @param window window to prefetch, may be null if there is nothing to prefetch
+     */
+    private void startPrefetch( final SimpleInterval window ) {
+        if ( window == null ) {
+            return;
+        }
+        if ( prefetchReader == null ) {
+            prefetchReader = prefetchReaderFactory.get();
+        }
+
+        final FeatureReader<T> reader = prefetchReader;
+        pendingPrefetchWindow = window;
+        pendingPrefetch = PREFETCH_THREADS.submit(() -> {
+            final List<T> features = new ArrayList<>();
+            try ( CloseableTribbleIterator<T> queryIter = reader.query(window.getContig(), window.getStart(), window.getEnd()) ) {
+                queryIter.forEachRemaining(features::add);
+            }
+            return features;
+        });
+    }
+
+    private List<T> waitForPrefetch() {
+        try {
+            return pendingPrefetch.get();
+        }
+        catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while prefetching from file " + featureInput + " over interval " + pendingPrefetchWindow, e);
+        }
+        catch ( ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new GATKException("Error querying file " + featureInput + " over interval " + pendingPrefetchWindow, e.getCause());
+        }
     }
 
     /**
-     * Refill our cache from disk after a cache miss. Will prefetch Features overlapping an additional
+     * Add a window to our cache from disk after a cache miss. Will prefetch Features overlapping an additional
      * queryLookaheadBases bases after the end of the provided interval, in addition to those overlapping
      * the interval itself.
      *
@@ -542,10 +700,25 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
     public void close() {
         closeOpenIterationIfNecessary();
 
-        logger.debug(String.format("Cache statistics for FeatureInput %s:", featureInput));
+        logger.debug(String.format("Cache statistics for FeatureInput %s (%d windows prefetched):", featureInput, numPrefetchedWindows));
         queryCache.printCacheStatistics();
 
         try {
+            if ( pendingPrefetch != null ) {
+                waitForPrefetch();
+                pendingPrefetch = null;
+            }
+        }
+        finally {
+            closeReaders();
+        }
+    }
+
+    private void closeReaders() {
+        try {
+            if ( prefetchReader != null ) {
+                prefetchReader.close();
+            }
             if ( featureReader != null ) {
                 featureReader.close();
             }
@@ -14,6 +14,7 @@ import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 
 import java.io.File;
 import java.lang.reflect.Field;
@@ -89,6 +90,12 @@ public final class FeatureManager implements AutoCloseable {
      */
     private final Map<FeatureInput<? extends Feature>, FeatureDataSource<? extends Feature>> featureSources;
 
+    /**
+     * Fraction of a cached window that queries must reach for our sources to prefetch the next window
+     * (see {@link FeatureDataSource#setQueryPrefetchFraction}). 0 if prefetching is disabled.
+     */
+    private double queryPrefetchFraction = 0.0;
+
     /**
      * Create a FeatureManager given a CommandLineProgram tool instance, discovering all FeatureInput
      * arguments in the tool and creating query-able FeatureDataSources for them. Uses the default
@@ -200,7 +207,22 @@ public final class FeatureManager implements AutoCloseable {
      */
     void addToFeatureSources(final int featureQueryLookahead, final FeatureInput<? extends Feature> featureInput, final Class<? extends Feature> featureType, final int cloudPrefetchBuffer, final int cloudIndexPrefetchBuffer, final Path reference) {
         // Create a new FeatureDataSource for this file, and add it to our query pool
-        featureSources.put(featureInput, new FeatureDataSource<>(featureInput, featureQueryLookahead, featureType, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, reference));
+        final FeatureDataSource<? extends Feature> featureSource = new FeatureDataSource<>(featureInput, featureQueryLookahead, featureType, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, reference);
+        featureSource.setQueryPrefetchFraction(queryPrefetchFraction);
+        featureSources.put(featureInput, featureSource);
+    }
+
+    /**
+     * Prefetch windows of Features in the background during queries on all of our sources of Features,
+     * including those added later. See {@link FeatureDataSource#setQueryPrefetchFraction}.
+     *
+     * @param prefetchFraction fraction of a cached window that queries must reach for the next window to be prefetched,
+     *                         between 0 and 1 (0 to disable prefetching)
+     */
+    public void setQueryPrefetchFraction( final double prefetchFraction ) {
+        Utils.validateArg(prefetchFraction >= 0.0 && prefetchFraction <= 1.0, "prefetchFraction must be between 0 and 1");
+        queryPrefetchFraction = prefetchFraction;
+        featureSources.values().forEach(featureSource -> featureSource.setQueryPrefetchFraction(prefetchFraction));
     }
 
     /**
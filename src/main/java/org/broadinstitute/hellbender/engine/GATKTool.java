@@ -4,6 +4,7 @@ import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMProgramRecord;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.cram.ref.ReferenceSource;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.tribble.Feature;
 import htsjdk.variant.variantcontext.writer.Options;
@@ -12,6 +13,7 @@ import htsjdk.variant.vcf.VCFHeaderLine;
 import htsjdk.variant.vcf.VCFSimpleHeaderLine;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.barclay.argparser.CommandLinePluginDescriptor;
 import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
 import org.broadinstitute.hellbender.cmdline.GATKPlugin.GATKReadFilterPluginDescriptor;
@@ -65,6 +67,10 @@ public abstract class GATKTool extends CommandLineProgram {
             doc = "Use the given sequence dictionary as the master/canonical sequence dictionary.  Must be a .dict file.", optional = true, common = true)
     private String masterSequenceDictionaryFilename = null;
 
+    // time spent getting each read from the reads data source (decoding it, or waiting for the read-ahead thread)
+    private static final TraversalInstrumentation.Timer READ_DECODE_TIMER = TraversalInstrumentation.timer("GATKTool.readDecode");
+    private static final TraversalInstrumentation.Timer READ_FILTER_TIMER = TraversalInstrumentation.timer("GATKTool.readFilter");
+
     public static final String SECONDS_BETWEEN_PROGRESS_UPDATES_NAME = "secondsBetweenProgressUpdates";
     @Argument(fullName = SECONDS_BETWEEN_PROGRESS_UPDATES_NAME, shortName = SECONDS_BETWEEN_PROGRESS_UPDATES_NAME, doc = "Output traversal statistics every time this many seconds elapse", optional = true, common = true)
     private double secondsBetweenProgressUpdates = ProgressMeter.DEFAULT_SECONDS_BETWEEN_UPDATES;
@@ -116,6 +122,37 @@ public abstract class GATKTool extends CommandLineProgram {
             optional = true)
     public boolean disableBamIndexCaching = false;
 
+    @Argument(fullName = StandardArgumentDefinitions.READ_AHEAD_BATCHES_LONG_NAME,
+            shortName = StandardArgumentDefinitions.READ_AHEAD_BATCHES_SHORT_NAME,
+            doc = "Number of batches of " + ReadsDataSource.READ_AHEAD_BATCH_SIZE + " reads to decode ahead of the traversal on a background thread, while BAM blocks are also decompressed ahead on background threads (0 to disable).",
+            optional = true)
+    public int readAheadBatches = 0;
+
+    @Argument(fullName = StandardArgumentDefinitions.FEATURE_PREFETCH_FRACTION_LONG_NAME,
+            shortName = StandardArgumentDefinitions.FEATURE_PREFETCH_FRACTION_SHORT_NAME,
+            doc = "When querying feature inputs, fetch the next window of features on a background thread once queries reach this fraction of the current window (0 to disable).",
+            optional = true)
+    public double featurePrefetchFraction = 0.0;
+
+    @Argument(fullName = StandardArgumentDefinitions.ENABLE_INSTRUMENTATION_LONG_NAME,
+            shortName = StandardArgumentDefinitions.ENABLE_INSTRUMENTATION_LONG_NAME,
+            doc = "If true, accumulate the per-phase timers and counters of the traversal, and log their totals once it completes. Implied by " +
+                    StandardArgumentDefinitions.INSTRUMENTATION_SUMMARY_LONG_NAME + " and " + StandardArgumentDefinitions.PUBLISH_INSTRUMENTATION_TO_JMX_LONG_NAME + ".",
+            optional = true)
+    public boolean enableInstrumentation = false;
+
+    @Argument(fullName = StandardArgumentDefinitions.INSTRUMENTATION_SUMMARY_LONG_NAME,
+            shortName = StandardArgumentDefinitions.INSTRUMENTATION_SUMMARY_LONG_NAME,
+            doc = "File to which to write the per-phase timers and counters of the traversal once it completes (JSON if the name ends with .json, tab-separated otherwise).",
+            optional = true)
+    public String instrumentationSummary = null;
+
+    @Argument(fullName = StandardArgumentDefinitions.PUBLISH_INSTRUMENTATION_TO_JMX_LONG_NAME,
+            shortName = StandardArgumentDefinitions.PUBLISH_INSTRUMENTATION_TO_JMX_LONG_NAME,
+            doc = "If true, publish snapshots of the per-phase timers and counters through JMX during the traversal, every " + SECONDS_BETWEEN_PROGRESS_UPDATES_NAME + " seconds.",
+            optional = true)
+    public boolean publishInstrumentationToJMX = false;
+
     /**
      * Master sequence dictionary to be used instead of all other dictionaries (if provided).
      */
@@ -251,9 +288,23 @@ public abstract class GATKTool extends CommandLineProgram {
         if (hasReads()) {
             final ReadTransformer preTransformer = makePreReadFilterTransformer();
             final ReadTransformer postTransformer = makePostReadFilterTransformer();
-            return Utils.stream(reads)
+            // only lets the data source skip decoding reads ahead that will be filtered out: all reads are still
+            // returned and filtered here, after the pre-filter transformer, so the filter counts are unaffected
+            reads.setTraversalReadFilter(filter);
+            if ( ! TraversalInstrumentation.isEnabled() ) {
+                return Utils.stream(reads)
+                        .map(preTransformer)
+                        .filter(filter)
+                        .map(postTransformer);
+            }
+            return Utils.stream(READ_DECODE_TIMER.timeNext(reads.iterator()))
                     .map(preTransformer)
-                    .filter(filter)
+                    .filter(read -> {
+                        final long startTime = READ_FILTER_TIMER.start();
+                        final boolean passes = filter.test(read);
+                        READ_FILTER_TIMER.stop(startTime);
+                        return passes;
+                    })
                     .map(postTransformer);
         }
         // returns an empty Stream if there are no reads
@@ -302,25 +353,45 @@ public abstract class GATKTool extends CommandLineProgram {
      * May be overridden by traversals that require custom initialization of the reads data source.
      */
     void initializeReads() {
-        if (! readArguments.getReadFiles().isEmpty()) {
-            SamReaderFactory factory = SamReaderFactory.makeDefault().validationStringency(readArguments.getReadValidationStringency());
-            if (hasReference()) { // pass in reference if available, because CRAM files need it
-                factory = factory.referenceSequence(referenceArguments.getReferenceFile());
-            }
-            else if (hasCramInput()) {
-                throw new UserException.MissingReference("A reference file is required when using CRAM files.");
-            }
+        reads = readArguments.getReadFiles().isEmpty() ? null : openReadsDataSource();
+    }
 
-            if(bamIndexCachingShouldBeEnabled()) {
-                factory = factory.enable(SamReaderFactory.Option.CACHE_FILE_BASED_INDEXES);
-            }
+    /**
+     * Open a new source of reads data over our reads inputs, configured the same way as the engine-wide
+     * source of reads initialized by {@link #initializeReads}. Must only be called if reads inputs were provided.
+     *
+     * Package-private so that engine classes can access it, but concrete tool child classes cannot. Traversals
+     * that need thread-confined readers may call this once per traversal thread.
+     *
+     * @return a new ReadsDataSource that must be closed by the caller
+     */
+    ReadsDataSource openReadsDataSource() {
+        SamReaderFactory factory = SamReaderFactory.makeDefault().validationStringency(readArguments.getReadValidationStringency());
+        if (hasReference()) { // pass in reference if available, because CRAM files need it
+            final File referenceFile = referenceArguments.getReferenceFile();
+            factory = ReferenceTwoBitMappedSource.isTwoBit(referenceFile) ?
+                    factory.referenceSource(new ReferenceSource(new ReferenceTwoBitMappedSource(referenceFile))) :
+                    factory.referenceSequence(referenceFile);
+        }
+        else if (hasCramInput()) {
+            throw new UserException.MissingReference("A reference file is required when using CRAM files.");
+        }
+
+        if(bamIndexCachingShouldBeEnabled()) {
+            factory = factory.enable(SamReaderFactory.Option.CACHE_FILE_BASED_INDEXES);
+        }
 
-            reads = new ReadsDataSource(readArguments.getReadPaths(), readArguments.getReadIndexPaths(), factory, cloudPrefetchBuffer,
-                (cloudIndexPrefetchBuffer < 0 ? cloudPrefetchBuffer : cloudIndexPrefetchBuffer));
+        if ( readAheadBatches < 0 ) {
+            throw new CommandLineException.BadArgumentValue(StandardArgumentDefinitions.READ_AHEAD_BATCHES_LONG_NAME, Integer.toString(readAheadBatches), "must be >= 0");
         }
-        else {
-            reads = null;
+        if ( readAheadBatches > 0 ) {
+            factory = factory.setUseAsyncIo(true);
         }
+
+        final ReadsDataSource readsDataSource = new ReadsDataSource(readArguments.getReadPaths(), readArguments.getReadIndexPaths(), factory, cloudPrefetchBuffer,
+            (cloudIndexPrefetchBuffer < 0 ? cloudPrefetchBuffer : cloudIndexPrefetchBuffer));
+        readsDataSource.setReadAhead(readAheadBatches);
+        return readsDataSource;
     }
 
 
@@ -556,6 +627,12 @@ public abstract class GATKTool extends CommandLineProgram {
         initializeReads(); // Must be initialized after reference, in case we are dealing with CRAM and a reference is required
 
         initializeFeatures();
+        if ( featurePrefetchFraction < 0.0 || featurePrefetchFraction > 1.0 ) {
+            throw new CommandLineException.BadArgumentValue(StandardArgumentDefinitions.FEATURE_PREFETCH_FRACTION_LONG_NAME, Double.toString(featurePrefetchFraction), "must be between 0 and 1");
+        }
+        if ( hasFeatures() ) {
+            features.setQueryPrefetchFraction(featurePrefetchFraction);
+        }
 
         initializeIntervals(); // Must be initialized after reference, reads and features, since intervals currently require a sequence dictionary from another data source
 
@@ -832,15 +909,36 @@ public abstract class GATKTool extends CommandLineProgram {
 
     @Override
     protected final Object doWork() {
+        final Object result;
         try {
             onTraversalStart();
+            startInstrumentation();
             progressMeter.start();
             traverse();
             progressMeter.stop();
-            return onTraversalSuccess();
+            result = onTraversalSuccess();
         } finally {
+            TraversalInstrumentation.stopJmxPublishing();
             closeTool();
         }
+        // reported after closeTool() so that work done while closing (e.g. flushing writers) is included
+        if ( TraversalInstrumentation.isEnabled() ) {
+            TraversalInstrumentation.snapshot().stream().filter(TraversalInstrumentation.Measurement::isTimer).forEach(timer ->
+                    logger.info(String.format("Total time in %s: %.3f seconds", timer.getName(), timer.getTotalSeconds())));
+            if ( instrumentationSummary != null ) {
+                TraversalInstrumentation.writeSummary(instrumentationSummary, progressMeter.elapsedTimeInMinutes() * 60.0);
+            }
+            TraversalInstrumentation.setEnabled(false);
+        }
+        return result;
+    }
+
+    private void startInstrumentation() {
+        TraversalInstrumentation.setEnabled(enableInstrumentation || instrumentationSummary != null || publishInstrumentationToJMX);
+        TraversalInstrumentation.reset();
+        if ( publishInstrumentationToJMX ) {
+            TraversalInstrumentation.startJmxPublishing(secondsBetweenProgressUpdates);
+        }
     }
 
     /**
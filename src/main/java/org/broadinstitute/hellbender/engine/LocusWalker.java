@@ -2,13 +2,18 @@ package org.broadinstitute.hellbender.engine;
 
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMReadGroupRecord;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineException;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.transformers.ReadTransformer;
+import org.broadinstitute.hellbender.utils.IntervalUtils;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.locusiterator.AlignmentContextIteratorBuilder;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.locusiterator.LIBSDownsamplingInfo;
@@ -16,6 +21,7 @@ import org.broadinstitute.hellbender.utils.locusiterator.LocusIteratorByState;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +38,10 @@ import java.util.stream.Collectors;
  * LocusWalker authors must implement the apply() method to process each position, and may optionally implement
  * onTraversalStart(), onTraversalSuccess() and/or closeTool().
  *
+ * Tools that override {@link #makeLocusWorkerFactory} may also be run with more than one traversal thread, in which
+ * case the traversal intervals are divided into shards of up to {@link #readShardSize} loci, each traversed by its
+ * own {@link LocusIteratorByState} over the reads overlapping it, on one of {@link #traversalThreads} threads.
+ *
  * @author Daniel Gomez-Sanchez (magicDGS)
  */
 public abstract class LocusWalker extends GATKTool {
@@ -39,6 +49,18 @@ public abstract class LocusWalker extends GATKTool {
     @Argument(fullName = "maxDepthPerSample", shortName = "maxDepthPerSample", doc = "Maximum number of reads to retain per sample per locus. Reads above this threshold will be downsampled. Set to 0 to disable.", optional = true)
     protected int maxDepthPerSample = defaultMaxDepthPerSample();
 
+    @Argument(fullName = StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, shortName = StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, doc = "Number of locus shards to process concurrently. Values greater than 1 are only supported by some tools. With downsampling enabled, the reads retained by a multithreaded traversal depend on readShardSize but not on the number of threads, and may differ from those retained by a single-threaded traversal.", optional = true)
+    protected int traversalThreads = 1;
+
+    @Advanced
+    @Argument(fullName = "readShardSize", shortName = "readShardSize", doc = "Maximum size of each locus shard, in bases. Only used when running with more than one traversal thread.", optional = true)
+    protected int readShardSize = defaultReadShardSize();
+
+    /**
+     * During multithreaded traversals, the maximum number of loci processed but not yet handed to the tool
+     */
+    private static final int MAX_BUFFERED_LOCI = 100_000;
+
     /**
      * Should the LIBS keep unique reads? Tools that do should override to return {@code true}.
      */
@@ -98,6 +120,14 @@ public abstract class LocusWalker extends GATKTool {
         return 0;
     }
 
+    /**
+     * Returns default value for the {@link #readShardSize} parameter, if none is provided on the command line.
+     * Default implementation returns 100000.
+     */
+    protected int defaultReadShardSize() {
+        return 100000;
+    }
+
     /**
      * Returns the default list of CommandLineReadFilters that are used for this tool. The filters returned
      * by this method are subject to selective enabling/disabling by the user via the command line. The
@@ -135,6 +165,14 @@ public abstract class LocusWalker extends GATKTool {
         if ( hasIntervals() ) {
             reads.setTraversalBounds(intervalArgumentCollection.getTraversalParameters(getHeaderForReads().getSequenceDictionary()));
         }
+
+        if ( traversalThreads < 1 ) {
+            throw new CommandLineException.BadArgumentValue(StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, Integer.toString(traversalThreads), "must be >= 1");
+        }
+
+        if ( readShardSize <= 0 ) {
+            throw new CommandLineException.BadArgumentValue("readShardSize", Integer.toString(readShardSize), "must be > 0");
+        }
     }
 
     /**
@@ -147,6 +185,13 @@ public abstract class LocusWalker extends GATKTool {
      */
     @Override
     public void traverse() {
+        if ( traversalThreads > 1 ) {
+            final CountingReadFilter countedFilter = makeReadFilter();
+            traverseConcurrently(countedFilter);
+            logger.info(countedFilter.getSummaryLine());
+            return;
+        }
+
         final SAMFileHeader header = getHeaderForReads();
         // get the samples from the read groups
         final Set<String> samples = header.getReadGroups().stream()
@@ -156,14 +201,7 @@ public abstract class LocusWalker extends GATKTool {
         // get the filter and transformed iterator
         final Iterator<GATKRead> readIterator = getTransformedReadStream(countedFilter).iterator();
 
-        final AlignmentContextIteratorBuilder alignmentContextIteratorBuilder = new AlignmentContextIteratorBuilder();
-        alignmentContextIteratorBuilder.setDownsamplingInfo(getDownsamplingInfo());
-        alignmentContextIteratorBuilder.setEmitEmptyLoci(emitEmptyLoci());
-        alignmentContextIteratorBuilder.setIncludeDeletions(includeDeletions());
-        alignmentContextIteratorBuilder.setKeepUniqueReadListInLibs(keepUniqueReadListInLibs());
-        alignmentContextIteratorBuilder.setIncludeNs(includeNs());
-
-        final Iterator<AlignmentContext> iterator = alignmentContextIteratorBuilder.build(
+        final Iterator<AlignmentContext> iterator = makeAlignmentContextIteratorBuilder().build(
                 readIterator, header, intervalsForTraversal, getBestAvailableSequenceDictionary(),
                 hasReference());
 
@@ -177,6 +215,203 @@ public abstract class LocusWalker extends GATKTool {
         logger.info(countedFilter.getSummaryLine());
     }
 
+    private AlignmentContextIteratorBuilder makeAlignmentContextIteratorBuilder() {
+        return makeAlignmentContextIteratorBuilder(getDownsamplingInfo());
+    }
+
+    private AlignmentContextIteratorBuilder makeAlignmentContextIteratorBuilder( final LIBSDownsamplingInfo downsamplingInfo ) {
+        final AlignmentContextIteratorBuilder alignmentContextIteratorBuilder = new AlignmentContextIteratorBuilder();
+        alignmentContextIteratorBuilder.setDownsamplingInfo(downsamplingInfo);
+        alignmentContextIteratorBuilder.setEmitEmptyLoci(emitEmptyLoci());
+        alignmentContextIteratorBuilder.setIncludeDeletions(includeDeletions());
+        alignmentContextIteratorBuilder.setKeepUniqueReadListInLibs(keepUniqueReadListInLibs());
+        alignmentContextIteratorBuilder.setIncludeNs(includeNs());
+        return alignmentContextIteratorBuilder;
+    }
+
+    /**
+     * Divide our intervals for traversal (or the whole of the best available sequence dictionary if there are none)
+     * into shards of up to {@link #readShardSize} loci.
+     */
+    private List<SimpleInterval> makeLocusShards() {
+        final List<SimpleInterval> intervals = hasIntervals() ? intervalsForTraversal : IntervalUtils.getAllIntervalsForReference(getBestAvailableSequenceDictionary());
+        final List<SimpleInterval> shards = new ArrayList<>();
+        for ( final SimpleInterval interval : intervals ) {
+            for ( final ShardBoundary shardBoundary : Shard.divideIntervalIntoShards(interval, readShardSize, 0, getBestAvailableSequenceDictionary()) ) {
+                shards.add(shardBoundary.getInterval());
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Process our locus shards on {@link #traversalThreads} threads, handing the records produced for each
+     * locus to the tool's {@link LocusWorker.Factory}.
+     *
+     * @param countedFilter read filter to which the counts of the filters of all traversal threads are added
+     */
+    private void traverseConcurrently( final CountingReadFilter countedFilter ) {
+        final LocusWorker.Factory<?> workerFactory = makeLocusWorkerFactory();
+        if ( workerFactory == null ) {
+            throw new CommandLineException.BadArgumentValue(StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, Integer.toString(traversalThreads),
+                    getClass().getSimpleName() + " does not support multithreaded traversal");
+        }
+
+        traverseConcurrently(workerFactory, countedFilter);
+    }
+
+    private <T> void traverseConcurrently( final LocusWorker.Factory<T> workerFactory, final CountingReadFilter countedFilter ) {
+        final Consumer<ProcessedLocus<T>> onProcessedLocus = processedLocus -> {
+            if ( processedLocus.result != null ) {
+                workerFactory.onResult(processedLocus.result);
+            }
+            progressMeter.update(processedLocus.locus);
+        };
+        try ( final ConcurrentTraversalExecutor<LocusShardWorker<T>, ProcessedLocus<T>> executor = new ConcurrentTraversalExecutor<>(
+                "locusTraversal-thread-%d", traversalThreads, () -> new LocusShardWorker<>(workerFactory.newWorker()),
+                MAX_BUFFERED_LOCI, workerFactory.requiresOrderedResults(), onProcessedLocus) ) {
+            SimpleInterval previousShard = null;
+            final List<SimpleInterval> shards = makeLocusShards();
+            for ( int shardIndex = 0; shardIndex < shards.size(); ++shardIndex ) {
+                final SimpleInterval shard = shards.get(shardIndex);
+
+                // A read overlapping several shards is owned by the first of them, so that it goes through a counting
+                // read filter once, as in a single-threaded traversal. That is the shard in which it starts, or the
+                // first shard of an interval for reads that start before the interval.
+                final int firstOwnedReadStart = previousShard != null && previousShard.getContig().equals(shard.getContig()) ? previousShard.getEnd() + 1 : 1;
+                final int currentShardIndex = shardIndex;
+                executor.submit((worker, processedLoci) ->
+                        worker.processLocusShard(shard, currentShardIndex, firstOwnedReadStart, processedLoci));
+                previousShard = shard;
+            }
+            // A single-threaded traversal also filters the unmapped reads with no position, which have no loci
+            // but are part of the filter counts
+            if ( traversesUnmappedReads() ) {
+                executor.submit((worker, processedLoci) -> worker.filterUnmappedReads());
+            }
+            executor.finish();
+            executor.getWorkers().forEach(worker -> countedFilter.addFilteredCounts(worker.readFilter));
+        }
+    }
+
+    /**
+     * @return true if a single-threaded traversal goes through the unmapped reads with no position, ie. if there
+     *         are no intervals, or they include the unmapped reads
+     */
+    private boolean traversesUnmappedReads() {
+        return ! hasIntervals() || intervalArgumentCollection.getTraversalParameters(getHeaderForReads().getSequenceDictionary()).traverseUnmappedReads();
+    }
+
+    /**
+     * A tool-provided {@link LocusWorker} together with its own, thread-confined sources of reads, reference
+     * and feature data, opened over the same inputs as the engine-wide data sources, and its own read transformers.
+     */
+    private final class LocusShardWorker<T> implements AutoCloseable {
+        private final LocusWorker<T> worker;
+        private final ReadsDataSource workerReads;
+        private final ReferenceDataSource workerReference;
+        private final FeatureManager workerFeatures;
+        private final ReadTransformer preTransformer;
+        private final ReadTransformer postTransformer;
+        // filters the reads owned by the shards processed by this worker
+        private final CountingReadFilter readFilter;
+        // filters the reads owned by another shard, without adding to the counts of readFilter
+        private final ReadFilter unownedReadFilter;
+
+        LocusShardWorker( final LocusWorker<T> worker ) {
+            this.worker = Utils.nonNull(worker);
+            this.workerReads = openReadsDataSource();
+            this.workerReference = hasReference() ? ReferenceDataSource.of(referenceArguments.getReferenceFile()) : null;
+            this.workerFeatures = hasFeatures() ? new FeatureManager(LocusWalker.this, FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES, cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
+                    referenceArguments.getReferencePath()) : null;
+            if ( workerFeatures != null ) {
+                workerFeatures.setQueryPrefetchFraction(featurePrefetchFraction);
+            }
+            this.preTransformer = makePreReadFilterTransformer();
+            this.postTransformer = makePostReadFilterTransformer();
+            this.readFilter = makeReadFilter();
+            this.unownedReadFilter = makeReadFilter();
+        }
+
+        /**
+         * Traverse the loci of the given shard with a {@link LocusIteratorByState} over the reads overlapping it, and
+         * process each locus with our worker, using only this worker's own data sources.
+         *
+         * @param shard loci to traverse
+         * @param shardIndex index of the shard in the traversal, from which the reads are downsampled
+         *                   the same way whichever thread processes it
+         * @param firstOwnedReadStart reads starting at or after this position belong to this shard, and are counted by
+         *                            our counting filter; earlier reads are also traversed by an earlier shard
+         * @param processedLoci consumer of the record produced for each locus in the shard, in order
+         */
+        void processLocusShard( final SimpleInterval shard, final int shardIndex, final int firstOwnedReadStart,
+                                final Consumer<ProcessedLocus<T>> processedLoci ) {
+            final Iterator<GATKRead> readIterator = Utils.stream(workerReads.query(shard))
+                    .map(preTransformer)
+                    .filter(read -> read.getStart() >= firstOwnedReadStart ? readFilter.test(read) : unownedReadFilter.test(read))
+                    .map(postTransformer)
+                    .iterator();
+            final LIBSDownsamplingInfo downsamplingInfo = getDownsamplingInfo();
+            final LIBSDownsamplingInfo shardDownsamplingInfo = new LIBSDownsamplingInfo(downsamplingInfo.isPerformDownsampling(),
+                    downsamplingInfo.getToCoverage(), Utils.getRandomGeneratorForShard(shardIndex));
+            final Iterator<AlignmentContext> iterator = makeAlignmentContextIteratorBuilder(shardDownsamplingInfo).build(
+                    readIterator, getHeaderForReads(), Collections.singletonList(shard), getBestAvailableSequenceDictionary(),
+                    hasReference());
+
+            while ( iterator.hasNext() ) {
+                final AlignmentContext alignmentContext = iterator.next();
+                final SimpleInterval alignmentInterval = new SimpleInterval(alignmentContext);
+                final T result = worker.apply(alignmentContext, new ReferenceContext(workerReference, alignmentInterval), new FeatureContext(workerFeatures, alignmentInterval));
+                processedLoci.accept(new ProcessedLocus<>(result, alignmentInterval));
+            }
+        }
+
+        /**
+         * Run the unmapped reads with no position through our counting filter, as a single-threaded traversal does.
+         */
+        void filterUnmappedReads() {
+            Utils.stream(workerReads.queryUnmapped()).map(preTransformer).forEach(readFilter::test);
+        }
+
+        @Override
+        public void close() {
+            worker.close();
+            workerReads.close();
+            if ( workerReference != null ) {
+                workerReference.close();
+            }
+            if ( workerFeatures != null ) {
+                workerFeatures.close();
+            }
+        }
+    }
+
+    /**
+     * The record produced for a locus during a multithreaded traversal (null if there was none), along with the locus.
+     */
+    private static final class ProcessedLocus<T> {
+        private final T result;
+        private final SimpleInterval locus;
+
+        ProcessedLocus( final T result, final SimpleInterval locus ) {
+            this.result = result;
+            this.locus = locus;
+        }
+    }
+
+    /**
+     * Tools that can process several locus shards concurrently should override this to return a factory for
+     * thread-confined {@link LocusWorker}s. It is only called when running with more than one traversal thread,
+     * after {@link #onTraversalStart}, in which case the workers are used in place of {@link #apply}.
+     *
+     * The default implementation returns null, meaning that the tool only supports single-threaded traversal.
+     *
+     * @return factory for the per-thread workers, or null if multithreaded traversal is not supported
+     */
+    protected LocusWorker.Factory<?> makeLocusWorkerFactory() {
+        return null;
+    }
+
     /**
      * Process an individual AlignmentContext (with optional contextual information). Must be implemented by tool authors.
      * In general, tool authors should simply stream their output from apply(), and maintain as little internal state
@@ -0,0 +1,69 @@
+package org.broadinstitute.hellbender.engine;
+
+/**
+ * A thread-confined processor of loci, used by {@link LocusWalker} when traversing several locus shards
+ * concurrently.
+ *
+ * Each worker is used by at most one traversal thread at a time, so implementations may freely hold
+ * non-thread-safe state. Workers never write output directly: the records they return for each locus are
+ * handed back to {@link Factory#onResult} on the main traversal thread, in genomic order unless the factory
+ * opts out of ordering with {@link Factory#requiresOrderedResults}.
+ *
+ * @param <T> type of record produced for each locus
+ */
+public interface LocusWorker<T> extends AutoCloseable {
+
+    /**
+     * Process an individual AlignmentContext. This is the multithreaded counterpart of {@link LocusWalker#apply}.
+     *
+     * @param alignmentContext current alignment context
+     * @param referenceContext reference bases spanning the current locus
+     * @param featureContext features spanning the current locus
+     * @return record produced for this locus, or null if there is nothing to emit for it
+     */
+    T apply( final AlignmentContext alignmentContext, final ReferenceContext referenceContext, final FeatureContext featureContext );
+
+    /**
+     * Release any resources held by this worker. Called once on the main traversal thread after traversal completes.
+     *
+     * Default implementation does nothing.
+     */
+    @Override
+    default void close() {}
+
+    /**
+     * Creates the per-thread workers for a multithreaded traversal, and consumes the records they produce.
+     *
+     * @param <T> type of record produced for each locus
+     */
+    interface Factory<T> {
+
+        /**
+         * Create a new worker. Called on the main traversal thread once per traversal thread, before any
+         * loci are processed, so implementations need not be thread-safe.
+         *
+         * @return a new worker that shares no mutable state with any other worker
+         */
+        LocusWorker<T> newWorker();
+
+        /**
+         * Consume a single record produced by one of our workers. Called on the main traversal thread only.
+         *
+         * @param result record to consume
+         */
+        void onResult( final T result );
+
+        /**
+         * Factories whose reduction of the records doesn't depend on their order may override this to return
+         * false, in which case the records of each locus shard are handed to {@link #onResult} as soon as they
+         * are ready, rather than after those of all the shards before it, so the records of different shards may
+         * be interleaved. Records within a shard are always in genomic order.
+         *
+         * @return true if the records must be consumed in the same genomic order as a single-threaded traversal
+         *         would have produced them
+         */
+        default boolean requiresOrderedResults() {
+            return true;
+        }
+    }
+}
@@ -31,6 +31,8 @@ import java.util.List;
  */
 public abstract class ReadWalker extends GATKTool {
 
+    private static final TraversalInstrumentation.Timer APPLY_TIMER = TraversalInstrumentation.timer("ReadWalker.apply");
+
     @Override
     public boolean requiresReads() {
         return true;
@@ -93,9 +95,11 @@ public abstract class ReadWalker extends GATKTool {
         getTransformedReadStream(countedFilter)
                 .forEach(read -> {
                     final SimpleInterval readInterval = getReadInterval(read);
+                    final long startTime = APPLY_TIMER.start();
                     apply(read,
                           new ReferenceContext(reference, readInterval), // Will create an empty ReferenceContext if reference or readInterval == null
                           new FeatureContext(features, readInterval));   // Will create an empty FeatureContext if features or readInterval == null
+                    APPLY_TIMER.stop(startTime);
 
                     progressMeter.update(readInterval);
                 });
@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.engine;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterators;
 import htsjdk.samtools.*;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.IOUtil;
@@ -12,13 +13,16 @@ import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import org.broadinstitute.hellbender.utils.iterators.ReadAheadIterator;
 import org.broadinstitute.hellbender.utils.iterators.SAMRecordToReadIterator;
 import org.broadinstitute.hellbender.utils.iterators.SamReaderQueryingIterator;
 import org.broadinstitute.hellbender.utils.nio.SeekableByteChannelPrefetcher;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadConstants;
+import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -36,6 +40,12 @@ import java.util.stream.Collectors;
 public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoCloseable {
     protected static final Logger logger = LogManager.getLogger(ReadsDataSource.class);
 
+    /**
+     * Number of reads handed at a time to the consumer of a traversal or query when reading ahead
+     * (see {@link #setReadAhead}).
+     */
+    public static final int READ_AHEAD_BATCH_SIZE = 1000;
+
     /**
      * Mapping from SamReaders to iterators over the reads from each reader. Only one
      * iterator can be open from a given reader at a time (this is a restriction
@@ -78,6 +88,24 @@ public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoClos
      */
     private boolean indicesAvailable;
 
+    /**
+     * Maximum number of batches of {@link #READ_AHEAD_BATCH_SIZE} reads decoded ahead of the consumer of a
+     * traversal or query, on a background thread. 0 if reads are decoded on the consumer thread.
+     */
+    private int readAheadBatches = 0;
+
+    /**
+     * Filter that the consumer of traversals initiated via {@link #iterator} will apply to the reads, or null.
+     * Reads that certainly fail it are not decoded ahead of the consumer.
+     */
+    private ReadFilter traversalReadFilter = null;
+
+    /**
+     * Read-ahead over the current traversal or query, if reading ahead. Must be closed before the iterators
+     * of our readers, since its background thread may be using them.
+     */
+    private ReadAheadIterator<GATKRead> readAheadIterator;
+
     /**
      * Initialize this data source with a single SAM/BAM file and validation stringency SILENT.
      *
@@ -254,6 +282,34 @@ public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoClos
         return indicesAvailable;
     }
 
+    /**
+     * Decode reads on a background thread, ahead of the consumer, in subsequent traversals and queries.
+     *
+     * The reads returned are the same, and in the same order, as without reading ahead. For BAM inputs, reading ahead
+     * is best combined with asynchronous decompression of the BGZF blocks by a custom SamReaderFactory (see
+     * {@link SamReaderFactory#setUseAsyncIo}), so that inflating, decoding and consuming the reads can all overlap.
+     *
+     * @param batchCount maximum number of batches of {@link #READ_AHEAD_BATCH_SIZE} reads decoded ahead of the consumer
+     *                   (0 to decode reads on the consumer thread)
+     */
+    public void setReadAhead( final int batchCount ) {
+        Utils.validateArg(batchCount >= 0, "batchCount must be >= 0");
+        this.readAheadBatches = batchCount;
+    }
+
+    /**
+     * Tells this data source which filter the consumer of traversals via {@link #iterator} will apply to the reads,
+     * so that, when reading ahead, reads that certainly fail the filter judging by their fixed-width fields alone (see
+     * {@link ReadFilter#mayPass}) are not decoded ahead of the consumer, only to be discarded. These reads are still
+     * returned, so that the consumer can apply the filter (and count them) as usual, and anything it accesses beyond
+     * their fixed-width fields is decoded on demand. Calls to {@link #query} are not affected by this method.
+     *
+     * @param readFilter filter applied by the consumer of the next traversal, or null if none
+     */
+    public void setTraversalReadFilter( final ReadFilter readFilter ) {
+        this.traversalReadFilter = readFilter;
+    }
+
     /**
      * Restricts a traversal of this data source via {@link #iterator} to only return reads which overlap the given intervals.
      * Calls to {@link #query} are not affected by setting these intervals.
@@ -327,7 +383,7 @@ public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoClos
     @Override
     public Iterator<GATKRead> iterator() {
         logger.debug("Preparing readers for traversal");
-        return prepareIteratorsForTraversal(intervalsForTraversal, traverseUnmapped);
+        return prepareIteratorsForTraversal(intervalsForTraversal, traverseUnmapped, traversalReadFilter);
     }
 
     /**
@@ -355,7 +411,7 @@ public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoClos
             raiseExceptionForMissingIndex("Cannot query reads data source by interval unless all files are indexed");
         }
 
-        return prepareIteratorsForTraversal(null, true);
+        return prepareIteratorsForTraversal(null, true, null);
     }
 
     /**
@@ -378,16 +434,17 @@ public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoClos
      * @return Iterator over all reads in this data source, limited to overlap with the supplied intervals
      */
     private Iterator<GATKRead> prepareIteratorsForTraversal( final List<SimpleInterval> queryIntervals ) {
-        return prepareIteratorsForTraversal(queryIntervals, false);
+        return prepareIteratorsForTraversal(queryIntervals, false, null);
     }
 
     /**
      * Prepare iterators over all readers in response to a request for a complete iteration or query
      *
      * @param queryIntervals Intervals to bound the iteration (reads must overlap one of these intervals). If null, iteration is unbounded.
+     * @param readFilter Filter the consumer will apply to the reads, or null. Reads that certainly fail it are not decoded ahead.
      * @return Iterator over all reads in this data source, limited to overlap with the supplied intervals
      */
-    private Iterator<GATKRead> prepareIteratorsForTraversal( final List<SimpleInterval> queryIntervals, final boolean queryUnmapped ) {
+    private Iterator<GATKRead> prepareIteratorsForTraversal( final List<SimpleInterval> queryIntervals, final boolean queryUnmapped, final ReadFilter readFilter ) {
         // htsjdk requires that only one iterator be open at a time per reader, so close out
         // any previous iterations
         closePreviousIterationsIfNecessary();
@@ -421,9 +478,31 @@ public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoClos
             startingIterator = new MergingSamRecordIterator(headerMerger, readers, true);
         }
 
+        if ( readAheadBatches > 0 ) {
+            readAheadIterator = new ReadAheadIterator<>(
+                    Iterators.transform(startingIterator, record -> decodeFields(record, readFilter)),
+                    READ_AHEAD_BATCH_SIZE, readAheadBatches);
+            return readAheadIterator;
+        }
         return new SAMRecordToReadIterator(startingIterator);
     }
 
+    /**
+     * BAM records decode most of their fields lazily, the first time they are accessed. Access them
+     * here so that they are decoded by the thread reading ahead rather than by the consumer, unless the
+     * read certainly fails the consumer's filter, which only needs the fields that are decoded up front.
+     */
+    private static GATKRead decodeFields( final SAMRecord record, final ReadFilter readFilter ) {
+        final GATKRead read = new SAMRecordToGATKReadAdapter(record);
+        if ( readFilter == null || readFilter.mayPass(read) ) {
+            record.getCigar();
+            record.getReadBases();
+            record.getBaseQualities();
+            record.getAttribute(SAMTag.RG.name());
+        }
+        return read;
+    }
+
     /**
      * Reduce the intervals down to only include ones that can actually intersect with this reader
      */
@@ -487,6 +566,11 @@ public final class ReadsDataSource implements GATKDataSource<GATKRead>, AutoClos
      * Close any previously-opened iterations over our readers (htsjdk allows only one open iteration per reader).
      */
     private void closePreviousIterationsIfNecessary() {
+        if ( readAheadIterator != null ) {
+            readAheadIterator.close();
+            readAheadIterator = null;
+        }
+
         for ( Map.Entry<SamReader, CloseableIterator<SAMRecord>> readerEntry : readers.entrySet() ) {
             CloseableIterator<SAMRecord> readerIterator = readerEntry.getValue();
             if ( readerIterator != null ) {
@@ -17,14 +17,18 @@ import java.util.Iterator;
 public interface ReferenceDataSource extends GATKDataSource<Byte>, AutoCloseable {
 
     /**
-     * Initialize this data source using a fasta file.
+     * Initialize this data source using a fasta file, or a .2bit file.
      *
      * The provided fasta file must have companion .fai and .dict files.
+     * A .2bit file (recognized by its extension) is memory-mapped, see {@link ReferenceTwoBitMappedSource}.
      *
-     * @param fastaFile reference fasta file
+     * @param referenceFile reference fasta or .2bit file
      */
-    public static ReferenceDataSource of(final File fastaFile) {
-        return new ReferenceFileSource(fastaFile);
+    public static ReferenceDataSource of(final File referenceFile) {
+        if ( referenceFile != null && ReferenceTwoBitMappedSource.isTwoBit(referenceFile) ) {
+            return new ReferenceTwoBitMappedSource(referenceFile);
+        }
+        return new ReferenceFileSource(referenceFile);
     }
 
 
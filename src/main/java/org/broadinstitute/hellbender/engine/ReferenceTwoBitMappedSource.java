@@ -0,0 +1,377 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.reference.ReferenceSequence;
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Manages queries over a reference in the UCSC .2bit format, which packs the genome two bits per base, with the runs
+ * of Ns kept apart and an index of the offset of each contig in the file.
+ *
+ * The packed bases are memory-mapped once, so that queries only decode the bases they ask for and never go through
+ * a system call, however scattered they are. As the mapping is read-only, all the processes on a machine that use
+ * the same reference share the same pages of the page cache. Queries are thread-safe.
+ *
+ * Like the default {@link ReferenceFileSource}, bases are always returned uppercase: the soft-masking blocks of the
+ * file are ignored. The sequence dictionary is taken from the companion .dict file if there is one (which must agree
+ * with the .2bit contigs), or built from the contig names and lengths in the .2bit file otherwise.
+ *
+ * Also implements {@link ReferenceSequenceFile}, so that it can be used by the engines that take a reference reader.
+ * The contigs are numbered, and {@link #nextSequence} walks through them, in the order of the sequence dictionary,
+ * which may differ from the order of the .2bit file.
+ *
+ * Supports targeted queries over the reference by interval, but does not
+ * yet support complete iteration over the entire reference.
+ */
+public final class ReferenceTwoBitMappedSource implements ReferenceDataSource, ReferenceSequenceFile {
+
+    /**
+     * Extension of the .2bit reference files
+     */
+    public static final String TWO_BIT_EXTENSION = ".2bit";
+
+    private static final int SIGNATURE = 0x1A412743;
+
+    private static final int HEADER_LENGTH = 16;
+
+    /**
+     * Longest possible index entry: the length of the name, the name and a version 1 (64 bit) offset.
+     */
+    private static final int MAXIMUM_INDEX_ENTRY_LENGTH = 1 + 255 + 8;
+
+    /**
+     * Largest region of the file mapped at once. Each contig is entirely within a single mapped region.
+     */
+    private static final long MAXIMUM_MAPPING_LENGTH = Integer.MAX_VALUE;
+
+    /**
+     * The four bases of each packed byte, at [4 * (byte & 0xFF), 4 * (byte & 0xFF) + 4), in the .2bit order T, C, A, G
+     */
+    private static final byte[] UNPACKED_BASES = new byte[256 * 4];
+    static {
+        final byte[] bases = {'T', 'C', 'A', 'G'};
+        for ( int packed = 0; packed < 256; packed++ ) {
+            for ( int i = 0; i < 4; i++ ) {
+                UNPACKED_BASES[4 * packed + i] = bases[(packed >> (6 - 2 * i)) & 3];
+            }
+        }
+    }
+
+    private final File file;
+    private final Map<String, Contig> contigs;
+    private final SAMSequenceDictionary sequenceDictionary;
+    // index in the sequence dictionary of the contig returned by the next call to nextSequence()
+    private int nextSequenceIndex = 0;
+
+    /**
+     * Location of the packed bases of a contig and its runs of Ns
+     */
+    private static final class Contig {
+        private final int length;
+        private final ByteBuffer packedBases;
+        private final int packedBasesOffset;
+        private final int[] nBlockStarts;
+        private final int[] nBlockEnds;
+
+        private Contig(final int length, final ByteBuffer packedBases, final int packedBasesOffset,
+                       final int[] nBlockStarts, final int[] nBlockEnds) {
+            this.length = length;
+            this.packedBases = packedBases;
+            this.packedBasesOffset = packedBasesOffset;
+            this.nBlockStarts = nBlockStarts;
+            this.nBlockEnds = nBlockEnds;
+        }
+    }
+
+    /**
+     * Initialize this data source using a .2bit file.
+     *
+     * @param twoBitFile reference .2bit file
+     */
+    public ReferenceTwoBitMappedSource(final File twoBitFile) {
+        this.file = Utils.nonNull(twoBitFile);
+        if ( ! twoBitFile.canRead() ) {
+            throw new UserException.MissingReference("The specified reference file " + twoBitFile + " does not exist or cannot be read");
+        }
+        try ( final FileChannel channel = FileChannel.open(twoBitFile.toPath(), StandardOpenOption.READ) ) {
+            contigs = readContigs(channel);
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(twoBitFile, e);
+        }
+        sequenceDictionary = makeSequenceDictionary();
+    }
+
+    /**
+     * @return true if the file is a .2bit file, judging by its extension
+     */
+    public static boolean isTwoBit(final File file) {
+        return file.getName().endsWith(TWO_BIT_EXTENSION);
+    }
+
+    private Map<String, Contig> readContigs(final FileChannel channel) throws IOException {
+        final long fileLength = channel.size();
+        final ByteBuffer header = read(channel, 0, HEADER_LENGTH, ByteOrder.LITTLE_ENDIAN);
+        final ByteOrder order;
+        if ( header.getInt(0) == SIGNATURE ) {
+            order = ByteOrder.LITTLE_ENDIAN;
+        } else if ( Integer.reverseBytes(header.getInt(0)) == SIGNATURE ) {
+            order = ByteOrder.BIG_ENDIAN;
+        } else {
+            throw new UserException.MalformedFile(file, "not a .2bit file");
+        }
+        header.order(order);
+        final int version = header.getInt(4);
+        final int contigCount = header.getInt(8);
+        if ( version != 0 && version != 1 ) {
+            throw new UserException.MalformedFile(file, "unsupported .2bit version " + version);
+        }
+
+        // the index: the name and the offset of the record of each contig, in the order of the file
+        final ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH,
+                Math.min(fileLength - HEADER_LENGTH, (long) contigCount * MAXIMUM_INDEX_ENTRY_LENGTH)).order(order);
+        final String[] names = new String[contigCount];
+        final long[] recordOffsets = new long[contigCount];
+        for ( int i = 0; i < contigCount; i++ ) {
+            final byte[] name = new byte[index.get() & 0xFF];
+            index.get(name);
+            names[i] = new String(name, StandardCharsets.US_ASCII);
+            recordOffsets[i] = version == 0 ? index.getInt() & 0xFFFFFFFFL : index.getLong();
+        }
+
+        // the record of each contig: its length, runs of Ns and masked runs, followed by the packed bases
+        final int[] lengths = new int[contigCount];
+        final long[] packedOffsets = new long[contigCount];
+        final int[][] nBlockStarts = new int[contigCount][];
+        final int[][] nBlockEnds = new int[contigCount][];
+        for ( int i = 0; i < contigCount; i++ ) {
+            final ByteBuffer counts = read(channel, recordOffsets[i], 8, order);
+            lengths[i] = counts.getInt(0);
+            final int nBlockCount = counts.getInt(4);
+            final ByteBuffer nBlocks = read(channel, recordOffsets[i] + 8, 8L * nBlockCount + 4, order);
+            nBlockStarts[i] = new int[nBlockCount];
+            nBlockEnds[i] = new int[nBlockCount];
+            for ( int b = 0; b < nBlockCount; b++ ) {
+                nBlockStarts[i][b] = nBlocks.getInt(4 * b);
+                nBlockEnds[i][b] = nBlockStarts[i][b] + nBlocks.getInt(4 * (nBlockCount + b));
+            }
+            final int maskBlockCount = nBlocks.getInt(8 * nBlockCount);
+            packedOffsets[i] = recordOffsets[i] + 8 + 8L * nBlockCount + 4 + 8L * maskBlockCount + 4;
+            if ( lengths[i] < 0 || packedOffsets[i] + packedLength(lengths[i]) > fileLength ) {
+                throw new UserException.MalformedFile(file, "truncated record for contig " + names[i]);
+            }
+        }
+
+        // map the packed bases in as few regions as possible, each one holding whole contigs
+        final Integer[] byOffset = new Integer[contigCount];
+        for ( int i = 0; i < contigCount; i++ ) {
+            byOffset[i] = i;
+        }
+        Arrays.sort(byOffset, Comparator.comparingLong(i -> packedOffsets[i]));
+        final Map<String, Contig> result = new LinkedHashMap<>(contigCount * 2);
+        final Contig[] contigsByIndex = new Contig[contigCount];
+        int first = 0;
+        while ( first < contigCount ) {
+            final long mappingStart = packedOffsets[byOffset[first]];
+            long mappingEnd = mappingStart + packedLength(lengths[byOffset[first]]);
+            int last = first + 1;
+            while ( last < contigCount && packedOffsets[byOffset[last]] + packedLength(lengths[byOffset[last]]) - mappingStart <= MAXIMUM_MAPPING_LENGTH ) {
+                mappingEnd = Math.max(mappingEnd, packedOffsets[byOffset[last]] + packedLength(lengths[byOffset[last]]));
+                last++;
+            }
+            final MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, mappingStart, mappingEnd - mappingStart);
+            for ( int j = first; j < last; j++ ) {
+                final int i = byOffset[j];
+                contigsByIndex[i] = new Contig(lengths[i], mapping, (int) (packedOffsets[i] - mappingStart), nBlockStarts[i], nBlockEnds[i]);
+            }
+            first = last;
+        }
+        for ( int i = 0; i < contigCount; i++ ) {
+            if ( result.put(names[i], contigsByIndex[i]) != null ) {
+                throw new UserException.MalformedFile(file, "duplicated contig " + names[i]);
+            }
+        }
+        return result;
+    }
+
+    private static long packedLength(final int length) {
+        return (length + 3L) / 4;
+    }
+
+    private static ByteBuffer read(final FileChannel channel, final long offset, final long length, final ByteOrder order) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(length)).order(order);
+        while ( buffer.hasRemaining() ) {
+            if ( channel.read(buffer, offset + buffer.position()) < 0 ) {
+                throw new IOException("unexpected end of file");
+            }
+        }
+        return buffer;
+    }
+
+    // The .dict of the reference, if there is one, has the MD5s and other attributes the reads may be validated against.
+    private SAMSequenceDictionary makeSequenceDictionary() {
+        final File dictionaryFile = new File(ReferenceUtils.getFastaDictionaryFileName(file.getPath()));
+        if ( ! dictionaryFile.exists() ) {
+            final List<SAMSequenceRecord> records = new ArrayList<>(contigs.size());
+            contigs.forEach((name, contig) -> records.add(new SAMSequenceRecord(name, contig.length)));
+            return new SAMSequenceDictionary(records);
+        }
+        final SAMSequenceDictionary dictionary = ReferenceUtils.loadFastaDictionary(dictionaryFile);
+        if ( dictionary.size() != contigs.size() ) {
+            throw new UserException.MalformedFile(dictionaryFile, "the dictionary has " + dictionary.size() + " contigs but the reference " + file + " has " + contigs.size());
+        }
+        for ( final SAMSequenceRecord record : dictionary.getSequences() ) {
+            final Contig contig = contigs.get(record.getSequenceName());
+            if ( contig == null || contig.length != record.getSequenceLength() ) {
+                throw new UserException.MalformedFile(dictionaryFile, "contig " + record.getSequenceName() + " of the dictionary does not match the reference " + file);
+            }
+        }
+        return dictionary;
+    }
+
+    /**
+     * Start an iteration over the entire reference. Not yet supported!
+     *
+     * See the BaseUtils class for guidance on how to work with bases in this format.
+     *
+     * @return iterator over all bases in this reference
+     */
+    @Override
+    public Iterator<Byte> iterator() {
+        throw new UnsupportedOperationException("Iteration over entire reference not yet implemented");
+    }
+
+    /**
+     * Query a specific interval on this reference, and get back all bases spanning that interval at once.
+     * Call getBases() on the returned ReferenceSequence to get the actual reference bases. See the BaseUtils
+     * class for guidance on how to work with bases in this format.
+     *
+     * @param contig query interval contig
+     * @param start query interval start
+     * @param stop query interval stop (included)
+     * @return a ReferenceSequence containing all bases spanning the query interval, prefetched
+     */
+    @Override
+    public ReferenceSequence queryAndPrefetch( final String contig, final long start , final long stop) {
+        return getSubsequenceAt(contig, start, stop);
+    }
+
+    @Override
+    public ReferenceSequence getSubsequenceAt( final String contigName, final long start, final long stop ) {
+        final Contig contig = contigs.get(contigName);
+        Utils.validateArg(contig != null, () -> "Contig " + contigName + " not found in reference " + file);
+        Utils.validateArg(start >= 1 && stop >= start - 1 && stop <= contig.length,
+                () -> String.format("Query %s:%d-%d is out of the bounds of the contig, of length %d", contigName, start, stop, contig.length));
+        final byte[] bases = new byte[(int) (stop - start + 1)];
+        unpack(contig, (int) start - 1, bases);
+        return new ReferenceSequence(contigName, sequenceDictionary.getSequenceIndex(contigName), bases);
+    }
+
+    // Fill bases with the bases of the contig from the 0-based position from onwards.
+    private static void unpack(final Contig contig, final int from, final byte[] bases) {
+        final int to = from + bases.length;
+        if ( bases.length > 0 ) {
+            // a bulk copy of the packed bytes out of the mapping is much faster than getting them one at a time
+            final int firstByte = from >> 2;
+            final byte[] packed = new byte[((to - 1) >> 2) - firstByte + 1];
+            final ByteBuffer packedBases = contig.packedBases.duplicate();
+            packedBases.position(contig.packedBasesOffset + firstByte);
+            packedBases.get(packed);
+
+            // the bases in the same byte as the first one, then whole bytes, then the bases in the same byte as the last one.
+            int position = from;
+            int i = 0;
+            for ( ; position < to && (position & 3) != 0; position++ ) {
+                bases[i++] = UNPACKED_BASES[4 * (packed[0] & 0xFF) + (position & 3)];
+            }
+            for ( int b = (position >> 2) - firstByte; position + 4 <= to; position += 4, i += 4, b++ ) {
+                final int unpacked = 4 * (packed[b] & 0xFF);
+                bases[i] = UNPACKED_BASES[unpacked];
+                bases[i + 1] = UNPACKED_BASES[unpacked + 1];
+                bases[i + 2] = UNPACKED_BASES[unpacked + 2];
+                bases[i + 3] = UNPACKED_BASES[unpacked + 3];
+            }
+            for ( ; position < to; position++ ) {
+                bases[i++] = UNPACKED_BASES[4 * (packed[packed.length - 1] & 0xFF) + (position & 3)];
+            }
+        }
+
+        // the runs of Ns are packed as Ts; the first one that may overlap is the last one starting before from.
+        final int[] nBlockStarts = contig.nBlockStarts;
+        final int searchResult = Arrays.binarySearch(nBlockStarts, from);
+        for ( int b = Math.max(0, searchResult >= 0 ? searchResult : -searchResult - 2); b < nBlockStarts.length && nBlockStarts[b] < to; b++ ) {
+            final int nStart = Math.max(from, nBlockStarts[b]);
+            final int nEnd = Math.min(to, contig.nBlockEnds[b]);
+            if ( nStart < nEnd ) {
+                Arrays.fill(bases, nStart - from, nEnd - from, (byte) 'N');
+            }
+        }
+    }
+
+    /**
+     * Get the sequence dictionary for this reference
+     *
+     * @return SAMSequenceDictionary for this reference
+     */
+    @Override
+    public SAMSequenceDictionary getSequenceDictionary() {
+        return sequenceDictionary;
+    }
+
+    @Override
+    public ReferenceSequence getSequence( final String contigName ) {
+        final Contig contig = contigs.get(contigName);
+        Utils.validateArg(contig != null, () -> "Contig " + contigName + " not found in reference " + file);
+        return getSubsequenceAt(contigName, 1, contig.length);
+    }
+
+    @Override
+    public boolean isIndexed() {
+        return true;
+    }
+
+    /**
+     * Unlike queries, iteration through the contigs is not thread-safe.
+     *
+     * @return the whole of the next contig in the order of the sequence dictionary, or null once past the last one
+     */
+    @Override
+    public ReferenceSequence nextSequence() {
+        if ( nextSequenceIndex >= sequenceDictionary.size() ) {
+            return null;
+        }
+        return getSequence(sequenceDictionary.getSequence(nextSequenceIndex++).getSequenceName());
+    }
+
+    /**
+     * Restart the iteration of {@link #nextSequence} from the first contig of the sequence dictionary
+     */
+    @Override
+    public void reset() {
+        nextSequenceIndex = 0;
+    }
+
+    /**
+     * No-op: the mapping is released when this source is garbage collected, as it may still be used by other threads.
+     */
+    @Override
+    public void close() {}
+
+    @Override
+    public String toString() {
+        return file.getAbsolutePath();
+    }
+}
@@ -0,0 +1,499 @@
+package org.broadinstitute.hellbender.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Named timers and counters that walkers, engines and the code they call can use to break down where a traversal
+ * spends its time (read decoding, filtering, activity profile, assembly, PairHMM, genotyping, writing, ...).
+ *
+ * Timers and counters are registered by name with {@link #timer} and {@link #counter}, typically once into a
+ * static final field, and are shared by all the threads of the JVM. Each thread accumulates into its own cell,
+ * so updating a timer or counter costs a {@link ThreadLocal} lookup and, for timers, two calls to
+ * {@link System#nanoTime}. Instrumentation is off unless switched on with {@link #setEnabled}, and updates are
+ * no-ops while it is off.
+ *
+ * {@link GATKTool} resets the accumulators at the start of each traversal, and can write a TSV or JSON summary
+ * at the end of it ({@link #writeSummary}) and publish periodic snapshots through JMX while it runs
+ * ({@link #startJmxPublishing}).
+ */
+public final class TraversalInstrumentation {
+    private static final Logger logger = LogManager.getLogger(TraversalInstrumentation.class);
+
+    /**
+     * Name under which the snapshots are published through JMX.
+     */
+    public static final String JMX_OBJECT_NAME = "org.broadinstitute.hellbender:type=TraversalInstrumentation";
+
+    private static volatile boolean enabled = false;
+
+    private static final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService jmxPublisher = null;
+    private static ObjectName jmxObjectName = null;
+
+    private TraversalInstrumentation() {}
+
+    /**
+     * @return whether timers and counters are currently being updated
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches the updates of all timers and counters on or off. Values accumulated so far are kept.
+     */
+    public static void setEnabled( final boolean enabled ) {
+        TraversalInstrumentation.enabled = enabled;
+    }
+
+    /**
+     * @return the timer with the given name, registered on first use
+     */
+    public static Timer timer( final String name ) {
+        Utils.nonNull(name);
+        Utils.validateArg(!counters.containsKey(name), () -> name + " is already registered as a counter");
+        return timers.computeIfAbsent(name, Timer::new);
+    }
+
+    /**
+     * @return the counter with the given name, registered on first use
+     */
+    public static Counter counter( final String name ) {
+        Utils.nonNull(name);
+        Utils.validateArg(!timers.containsKey(name), () -> name + " is already registered as a timer");
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * Zeroes all the timers and counters. Values being accumulated concurrently may or may not be kept.
+     */
+    public static void reset() {
+        timers.values().forEach(Accumulator::reset);
+        counters.values().forEach(Accumulator::reset);
+    }
+
+    /**
+     * @return the current value of every timer and counter, sorted by name. Values being accumulated
+     * concurrently may or may not be included.
+     */
+    public static List<Measurement> snapshot() {
+        final List<Measurement> result = new ArrayList<>(timers.size() + counters.size());
+        timers.values().forEach(timer -> result.add(timer.measure()));
+        counters.values().forEach(counter -> result.add(counter.measure()));
+        result.sort((m1, m2) -> m1.getName().compareTo(m2.getName()));
+        return result;
+    }
+
+    /**
+     * Writes a summary of the current values of the timers and counters, as JSON if the path ends with ".json"
+     * and as tab-separated values otherwise.
+     *
+     * @param path file to write to
+     * @param elapsedSeconds wall-clock duration of the traversal, used to report throughputs
+     */
+    public static void writeSummary( final String path, final double elapsedSeconds ) {
+        Utils.nonNull(path);
+        try ( final Writer writer = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8) ) {
+            if ( path.endsWith(".json") ) {
+                writeJson(writer, snapshot(), elapsedSeconds);
+            } else {
+                writeTsv(writer, snapshot(), elapsedSeconds);
+            }
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotCreateOutputFile(path, "could not write instrumentation summary", e);
+        }
+    }
+
+    static void writeTsv( final Writer writer, final List<Measurement> measurements, final double elapsedSeconds ) {
+        final PrintWriter out = new PrintWriter(writer);
+        out.println("NAME\tTYPE\tCOUNT\tTOTAL_SECONDS\tMEAN_MICROSECONDS\tCOUNT_PER_SECOND");
+        for ( final Measurement m : measurements ) {
+            out.printf("%s\t%s\t%d\t%s\t%s\t%.3f%n", m.getName(), m.isTimer() ? "timer" : "counter", m.getCount(),
+                    m.isTimer() ? String.format("%.6f", m.getTotalSeconds()) : "",
+                    m.isTimer() ? String.format("%.3f", m.getMeanMicroseconds()) : "",
+                    m.getCount() / elapsedSeconds);
+        }
+        out.flush();
+    }
+
+    static void writeJson( final Writer writer, final List<Measurement> measurements, final double elapsedSeconds ) {
+        final PrintWriter out = new PrintWriter(writer);
+        out.printf("{%n  \"elapsedSeconds\": %.3f,%n  \"measurements\": [", elapsedSeconds);
+        for ( int i = 0; i < measurements.size(); ++i ) {
+            final Measurement m = measurements.get(i);
+            out.printf("%s%n    {\"name\": \"%s\", \"type\": \"%s\", \"count\": %d", i == 0 ? "" : ",",
+                    jsonEscape(m.getName()), m.isTimer() ? "timer" : "counter", m.getCount());
+            if ( m.isTimer() ) {
+                out.printf(", \"totalSeconds\": %.6f, \"meanMicroseconds\": %.3f", m.getTotalSeconds(), m.getMeanMicroseconds());
+            }
+            out.printf(", \"countPerSecond\": %.3f}", m.getCount() / elapsedSeconds);
+        }
+        out.printf("%n  ]%n}%n");
+        out.flush();
+    }
+
+    private static String jsonEscape( final String s ) {
+        final StringBuilder sb = new StringBuilder(s.length());
+        for ( final char c : s.toCharArray() ) {
+            if ( c == '"' || c == '\\' ) {
+                sb.append('\\').append(c);
+            } else if ( c < 0x20 ) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Registers an MXBean under {@link #JMX_OBJECT_NAME} with the platform MBean server, whose attributes are
+     * refreshed with a new snapshot every {@code secondsBetweenSnapshots} seconds on a daemon thread, until
+     * {@link #stopJmxPublishing} is called. Does nothing if snapshots are already being published.
+     */
+    public static synchronized void startJmxPublishing( final double secondsBetweenSnapshots ) {
+        Utils.validateArg(secondsBetweenSnapshots > 0, "secondsBetweenSnapshots must be positive");
+        if ( jmxPublisher != null ) {
+            return;
+        }
+        final Snapshots bean = new Snapshots();
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            jmxObjectName = new ObjectName(JMX_OBJECT_NAME);
+            server.registerMBean(bean, jmxObjectName);
+        } catch ( final JMException e ) {
+            throw new GATKException("Could not register instrumentation MXBean " + JMX_OBJECT_NAME, e);
+        }
+        jmxPublisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "instrumentation-jmx-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long periodMillis = Math.max(1L, (long) (secondsBetweenSnapshots * 1000));
+        jmxPublisher.scheduleAtFixedRate(bean::refresh, 0L, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops publishing snapshots through JMX and unregisters the MXBean, if it was registered.
+     */
+    public static synchronized void stopJmxPublishing() {
+        if ( jmxPublisher == null ) {
+            return;
+        }
+        jmxPublisher.shutdownNow();
+        jmxPublisher = null;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(jmxObjectName);
+        } catch ( final JMException e ) {
+            logger.warn("Could not unregister instrumentation MXBean " + JMX_OBJECT_NAME, e);
+        }
+        jmxObjectName = null;
+    }
+
+    /**
+     * Management interface of the snapshots published through JMX.
+     */
+    public interface SnapshotsMXBean {
+        /**
+         * @return time at which the current snapshot was taken, in milliseconds since the epoch
+         */
+        long getSnapshotTimeMillis();
+
+        /**
+         * @return number of calls of each timer and total of each counter
+         */
+        Map<String, Long> getCounts();
+
+        /**
+         * @return total time accumulated by each timer, in seconds
+         */
+        Map<String, Double> getTimerSeconds();
+    }
+
+    private static final class Snapshots implements SnapshotsMXBean {
+        private volatile long snapshotTimeMillis = 0L;
+        private volatile List<Measurement> snapshot = Collections.emptyList();
+
+        void refresh() {
+            snapshot = TraversalInstrumentation.snapshot();
+            snapshotTimeMillis = System.currentTimeMillis();
+        }
+
+        @Override
+        public long getSnapshotTimeMillis() {
+            return snapshotTimeMillis;
+        }
+
+        @Override
+        public Map<String, Long> getCounts() {
+            final Map<String, Long> result = new LinkedHashMap<>();
+            snapshot.forEach(m -> result.put(m.getName(), m.getCount()));
+            return result;
+        }
+
+        @Override
+        public Map<String, Double> getTimerSeconds() {
+            final Map<String, Double> result = new LinkedHashMap<>();
+            snapshot.stream().filter(Measurement::isTimer).forEach(m -> result.put(m.getName(), m.getTotalSeconds()));
+            return result;
+        }
+    }
+
+    /**
+     * Accumulates a count and a total into one cell per thread, which are only summed when measured.
+     */
+    private abstract static class Accumulator {
+        private final String name;
+        private final ThreadLocal<Cell> threadCell = ThreadLocal.withInitial(this::newCell);
+
+        // the cells of the threads that were still running the last time they were summed; guarded by this
+        private final List<Cell> cells = new ArrayList<>();
+        // sums of the cells of threads that have ended since they were last reset, which have been dropped
+        private long endedThreadsCount = 0L;
+        private long endedThreadsTotal = 0L;
+        // sums of all the cells at the last reset, subtracted from the values measured since
+        private long resetCount = 0L;
+        private long resetTotal = 0L;
+
+        Accumulator( final String name ) {
+            this.name = name;
+        }
+
+        public final String getName() {
+            return name;
+        }
+
+        private synchronized Cell newCell() {
+            dropEndedThreads();
+            final Cell cell = new Cell(Thread.currentThread());
+            cells.add(cell);
+            return cell;
+        }
+
+        final void accumulate( final long count, final long total ) {
+            final Cell cell = threadCell.get();
+            // only the owning thread writes to its cell
+            cell.count += count;
+            cell.total += total;
+        }
+
+        /**
+         * Folds the cells of the threads that have ended into the running totals and stops tracking them. Their
+         * values are final and visible to this thread once {@link Thread#isAlive} has returned false.
+         */
+        private void dropEndedThreads() {
+            final Iterator<Cell> iterator = cells.iterator();
+            while ( iterator.hasNext() ) {
+                final Cell cell = iterator.next();
+                if ( ! cell.owner.isAlive() ) {
+                    endedThreadsCount += cell.count;
+                    endedThreadsTotal += cell.total;
+                    iterator.remove();
+                }
+            }
+        }
+
+        /**
+         * @return the sums of the count and total of all cells, ever
+         */
+        private long[] sum() {
+            dropEndedThreads();
+            long count = endedThreadsCount;
+            long total = endedThreadsTotal;
+            for ( final Cell cell : cells ) {
+                count += cell.count;
+                total += cell.total;
+            }
+            return new long[]{count, total};
+        }
+
+        /**
+         * Starts measuring from zero again. Cells are only ever written by their own thread, so rather than
+         * zeroing them this remembers what they added up to.
+         */
+        final synchronized void reset() {
+            final long[] sums = sum();
+            resetCount = sums[0];
+            resetTotal = sums[1];
+        }
+
+        /**
+         * @return the number of cells of threads that have not been seen to end yet
+         */
+        final synchronized int numThreadCells() {
+            dropEndedThreads();
+            return cells.size();
+        }
+
+        /**
+         * @return the current value of this timer or counter. Values accumulated by threads that are still
+         * running may not be included yet.
+         */
+        public final synchronized Measurement measure() {
+            final long[] sums = sum();
+            return new Measurement(name, this instanceof Timer, sums[0] - resetCount, sums[1] - resetTotal);
+        }
+    }
+
+    /**
+     * Plain fields, so that updating them costs no more than the addition: they are only read (possibly stale)
+     * by snapshots taken while the owning thread is running.
+     */
+    private static final class Cell {
+        private final Thread owner;
+        private long count;
+        private long total;
+
+        private Cell( final Thread owner ) {
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * Accumulates the number of times a section of code ran and the total time it took. Use as
+     * <pre>
+     *     final long startTime = TIMER.start();
+     *     ...
+     *     TIMER.stop(startTime);
+     * </pre>
+     * or report durations measured elsewhere with {@link #record}.
+     */
+    public static final class Timer extends Accumulator {
+        /**
+         * Value returned by {@link #start} when instrumentation is off, which {@link #stop} ignores.
+         */
+        public static final long NOT_STARTED = Long.MIN_VALUE;
+
+        private Timer( final String name ) {
+            super(name);
+        }
+
+        /**
+         * @return the start time to pass to {@link #stop}
+         */
+        public long start() {
+            return enabled ? System.nanoTime() : NOT_STARTED;
+        }
+
+        /**
+         * Records the time elapsed since {@code startTime}, as returned by {@link #start}.
+         */
+        public void stop( final long startTime ) {
+            if ( startTime != NOT_STARTED ) {
+                accumulate(1L, System.nanoTime() - startTime);
+            }
+        }
+
+        /**
+         * Records one run of the section that took the given time.
+         */
+        public void record( final long nanoseconds ) {
+            if ( enabled ) {
+                accumulate(1L, nanoseconds);
+            }
+        }
+
+        /**
+         * @return a view of {@code iterator} whose calls to {@link Iterator#next} are timed by this timer
+         */
+        public <T> Iterator<T> timeNext( final Iterator<T> iterator ) {
+            Utils.nonNull(iterator);
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    final long startTime = start();
+                    final T next = iterator.next();
+                    stop(startTime);
+                    return next;
+                }
+            };
+        }
+    }
+
+    /**
+     * Accumulates a number of events or records.
+     */
+    public static final class Counter extends Accumulator {
+        private Counter( final String name ) {
+            super(name);
+        }
+
+        public void increment() {
+            add(1L);
+        }
+
+        public void add( final long n ) {
+            if ( enabled ) {
+                accumulate(n, 0L);
+            }
+        }
+    }
+
+    /**
+     * The value of a timer or counter at some point in time.
+     */
+    public static final class Measurement {
+        private final String name;
+        private final boolean isTimer;
+        private final long count;
+        private final long totalNanoseconds;
+
+        Measurement( final String name, final boolean isTimer, final long count, final long totalNanoseconds ) {
+            this.name = name;
+            this.isTimer = isTimer;
+            this.count = count;
+            this.totalNanoseconds = totalNanoseconds;
+        }
+
+        public String getName() { return name; }
+
+        public boolean isTimer() { return isTimer; }
+
+        /**
+         * @return number of runs of a timer, or total of a counter
+         */
+        public long getCount() { return count; }
+
+        /**
+         * @return total time accumulated by a timer, in nanoseconds (0 for counters)
+         */
+        public long getTotalNanoseconds() { return totalNanoseconds; }
+
+        public double getTotalSeconds() { return totalNanoseconds * 1e-9; }
+
+        public double getMeanMicroseconds() { return count == 0 ? 0.0 : totalNanoseconds * 1e-3 / count; }
+    }
+}
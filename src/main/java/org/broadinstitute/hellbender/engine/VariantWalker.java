@@ -1,14 +1,29 @@
 package org.broadinstitute.hellbender.engine;
 
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.variant.variantcontext.LazyGenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
+import org.broadinstitute.hellbender.engine.filters.VariantFilter;
 import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.IndexFeatureFile;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * A VariantWalker is a tool that processes a variant at a time from a source of variants, with
@@ -17,6 +32,11 @@ import java.util.Spliterator;
  *
  * VariantWalker authors must implement the {@link #apply} method to process each variant, and may optionally implement
  * {@link #onTraversalStart}, {@link #onTraversalSuccess} and/or {@link #closeTool}.
+ *
+ * Tools whose output for each variant doesn't depend on the variants before it may override
+ * {@link #makeVariantWorkerFactory} to be run with more than one traversal thread, in which case the traversal
+ * intervals are divided into shards of up to {@link #variantShardSize} bases, each read and processed with its
+ * own reader of the driving variants, on one of {@link #traversalThreads} threads.
  */
 public abstract class VariantWalker extends VariantWalkerBase {
 
@@ -25,6 +45,24 @@ public abstract class VariantWalker extends VariantWalkerBase {
     @Argument(fullName = StandardArgumentDefinitions.VARIANT_LONG_NAME, shortName = StandardArgumentDefinitions.VARIANT_SHORT_NAME, doc = "A VCF file containing variants", common = false, optional = false)
     public String drivingVariantFile;
 
+    @Argument(fullName = StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, shortName = StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, doc = "Number of variant shards to process concurrently. Values greater than 1 are only supported by some tools, and require an indexed source of variants.", optional = true)
+    protected int traversalThreads = 1;
+
+    @Advanced
+    @Argument(fullName = "variantShardSize", shortName = "variantShardSize", doc = "Maximum size of each variant shard, in bases. Only used when running with more than one traversal thread.", optional = true)
+    protected int variantShardSize = defaultVariantShardSize();
+
+    /**
+     * During multithreaded traversals, the approximate number of genotypes held by the variants processed but not yet
+     * handed to the tool
+     */
+    private static final int MAX_BUFFERED_GENOTYPES = 10_000_000;
+
+    /**
+     * During multithreaded traversals, the maximum number of variants processed but not yet handed to the tool
+     */
+    private static final int MAX_BUFFERED_VARIANTS = 10_000;
+
     // NOTE: keeping the driving source of variants separate from other, supplementary FeatureInputs in our FeatureManager in GATKTool
     //we do add the driving source to the Feature manager but we do need to treat it differently and thus this field.
     private FeatureDataSource<VariantContext> drivingVariants;
@@ -45,6 +83,22 @@ public abstract class VariantWalker extends VariantWalkerBase {
         if ( hasIntervals() ) {
             drivingVariants.setIntervalsForTraversal(intervalsForTraversal);
         }
+
+        if ( traversalThreads < 1 ) {
+            throw new CommandLineException.BadArgumentValue(StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, Integer.toString(traversalThreads), "must be >= 1");
+        }
+
+        if ( variantShardSize <= 0 ) {
+            throw new CommandLineException.BadArgumentValue("variantShardSize", Integer.toString(variantShardSize), "must be > 0");
+        }
+    }
+
+    /**
+     * Returns default value for the {@link #variantShardSize} parameter, if none is provided on the command line.
+     * Default implementation returns 100000.
+     */
+    protected int defaultVariantShardSize() {
+        return 100000;
     }
 
     @Override
@@ -85,6 +139,216 @@ public abstract class VariantWalker extends VariantWalkerBase {
         return (VCFHeader)header;
     }
 
+    @Override
+    public void traverse() {
+        if ( traversalThreads > 1 ) {
+            traverseConcurrently();
+            return;
+        }
+        super.traverse();
+    }
+
+    /**
+     * Divide our intervals for traversal (or, if there are none, every contig with variants according to the index
+     * of the driving variants, in their order in the file) into shards of up to {@link #variantShardSize} bases.
+     */
+    private List<SimpleInterval> makeVariantShards() {
+        final List<SimpleInterval> shards = new ArrayList<>();
+        if ( hasIntervals() ) {
+            for ( final SimpleInterval interval : intervalsForTraversal ) {
+                addVariantShards(interval.getContig(), interval.getStart(), interval.getEnd(), shards);
+            }
+            return shards;
+        }
+
+        // Contigs are taken from the index rather than from a sequence dictionary, so that variants on contigs missing
+        // from the dictionary are not lost, and so that the variants come out in the same order as when traversing
+        // the file from start to end.
+        final List<String> contigs = drivingVariants.getIndexedSequenceNames();
+        if ( contigs == null ) {
+            throw new UserException("Input " + drivingVariantFile + " must support random access to enable multithreaded traversal. " +
+                                    "If it's a file, please index it using the bundled tool " + IndexFeatureFile.class.getSimpleName());
+        }
+        final SAMSequenceDictionary variantsDictionary = getSequenceDictionaryForDrivingVariants();
+        final SAMSequenceDictionary bestDictionary = getBestAvailableSequenceDictionary();
+        for ( final String contig : contigs ) {
+            final int length = Math.max(getContigLength(variantsDictionary, contig), getContigLength(bestDictionary, contig));
+            if ( length <= 0 ) {
+                shards.add(new SimpleInterval(contig, 1, Integer.MAX_VALUE));
+                continue;
+            }
+            // the last shard of each contig reaches past its end, so that no variant beyond the length in the
+            // dictionary is lost
+            addVariantShards(contig, 1, length, shards);
+            final SimpleInterval lastShard = shards.remove(shards.size() - 1);
+            shards.add(new SimpleInterval(contig, lastShard.getStart(), Integer.MAX_VALUE));
+        }
+        return shards;
+    }
+
+    /**
+     * @return the length of the given contig in the given dictionary, or 0 if either is missing
+     */
+    private static int getContigLength( final SAMSequenceDictionary dictionary, final String contig ) {
+        final SAMSequenceRecord record = dictionary != null ? dictionary.getSequence(contig) : null;
+        return record != null ? record.getSequenceLength() : 0;
+    }
+
+    private void addVariantShards( final String contig, final int start, final int end, final List<SimpleInterval> shards ) {
+        for ( long shardStart = start; shardStart <= end; shardStart += variantShardSize ) {
+            shards.add(new SimpleInterval(contig, (int)shardStart, (int)Math.min(shardStart + variantShardSize - 1, end)));
+        }
+    }
+
+    /**
+     * Process our variant shards on {@link #traversalThreads} threads, handing the records produced for each
+     * variant to the tool's {@link VariantWorker.Factory} in the order of the variants.
+     */
+    private void traverseConcurrently() {
+        final VariantWorker.Factory<?> workerFactory = makeVariantWorkerFactory();
+        if ( workerFactory == null ) {
+            throw new CommandLineException.BadArgumentValue(StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, Integer.toString(traversalThreads),
+                    getClass().getSimpleName() + " does not support multithreaded traversal with the given arguments");
+        }
+
+        traverseConcurrently(workerFactory);
+    }
+
+    private <T> void traverseConcurrently( final VariantWorker.Factory<T> workerFactory ) {
+        final Consumer<ProcessedVariant<T>> onProcessedVariant = processedVariant -> {
+            if ( processedVariant.result != null ) {
+                workerFactory.onResult(processedVariant.result);
+            }
+            progressMeter.update(processedVariant.variantInterval);
+        };
+        try ( final ConcurrentTraversalExecutor<VariantShardWorker<T>, ProcessedVariant<T>> executor = new ConcurrentTraversalExecutor<>(
+                "variantTraversal-thread-%d", traversalThreads, () -> new VariantShardWorker<>(workerFactory.newWorker()),
+                getMaxBufferedVariants(), true, onProcessedVariant) ) {
+            SimpleInterval previousShard = null;
+            for ( final SimpleInterval shard : makeVariantShards() ) {
+                final SimpleInterval shardBefore = previousShard;
+                executor.submit((worker, processedVariants) -> worker.processVariantShard(shard, shardBefore, processedVariants));
+                previousShard = shard;
+            }
+            executor.finish();
+        }
+    }
+
+    /**
+     * The number of variants processed during a multithreaded traversal but not yet handed to the tool is bounded so
+     * that their genotypes, which are decoded up front, take up about as much memory as {@link #MAX_BUFFERED_GENOTYPES}
+     * genotypes, but with at least one variant per thread and at most {@link #MAX_BUFFERED_VARIANTS}.
+     */
+    private int getMaxBufferedVariants() {
+        final int numSamples = Math.max(1, getHeaderForVariants().getNGenotypeSamples());
+        return Math.min(MAX_BUFFERED_VARIANTS, Math.max(traversalThreads, MAX_BUFFERED_GENOTYPES / numSamples));
+    }
+
+    /**
+     * A tool-provided {@link VariantWorker} together with its own, thread-confined reader of the driving variants and
+     * sources of reads, reference and feature data, opened over the same inputs as the engine-wide data sources.
+     */
+    private final class VariantShardWorker<T> implements AutoCloseable {
+        private final VariantWorker<T> worker;
+        private final FeatureDataSource<VariantContext> workerDrivingVariants;
+        private final ReadsDataSource workerReads;
+        private final ReferenceDataSource workerReference;
+        private final FeatureManager workerFeatures;
+        private final VariantFilter variantFilter;
+        private final CountingReadFilter readFilter;
+
+        VariantShardWorker( final VariantWorker<T> worker ) {
+            this.worker = Utils.nonNull(worker);
+            this.workerDrivingVariants = new FeatureDataSource<>(drivingVariantsFeatureInput, FEATURE_CACHE_LOOKAHEAD, VariantContext.class, cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
+                    referenceArguments.getReferencePath());
+            this.workerReads = hasReads() ? openReadsDataSource() : null;
+            this.workerReference = hasReference() ? ReferenceDataSource.of(referenceArguments.getReferenceFile()) : null;
+            // like the engine-wide feature manager, this includes the driving variants
+            this.workerFeatures = new FeatureManager(VariantWalker.this, FEATURE_CACHE_LOOKAHEAD, cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
+                    referenceArguments.getReferencePath());
+            workerFeatures.addToFeatureSources(0, drivingVariantsFeatureInput, VariantContext.class, cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
+                    referenceArguments.getReferencePath());
+            workerFeatures.setQueryPrefetchFraction(featurePrefetchFraction);
+            this.variantFilter = makeVariantFilter();
+            this.readFilter = makeReadFilter();
+        }
+
+        /**
+         * Read the variants of the given shard and process each of them with our worker, using only this worker's
+         * own data sources.
+         *
+         * @param shard interval whose variants are to be processed
+         * @param previousShard the shard before this one, or null for the first shard. Variants overlapping it are
+         *                      processed with that shard, as a single-threaded traversal only returns them once.
+         * @param processedVariants consumer of the record produced for each variant in the shard, in order
+         */
+        void processVariantShard( final SimpleInterval shard, final SimpleInterval previousShard, final Consumer<ProcessedVariant<T>> processedVariants ) {
+            workerDrivingVariants.setIntervalsForTraversal(Collections.singletonList(shard));
+            final Iterator<VariantContext> iterator = workerDrivingVariants.iterator();
+
+            while ( iterator.hasNext() ) {
+                final VariantContext variant = iterator.next();
+                if ( (previousShard != null && previousShard.overlaps(variant)) || ! variantFilter.test(variant) ) {
+                    continue;
+                }
+                // Decode the genotypes on this thread, since decoding uses our reader's codec, which may be busy with
+                // the next shard by the time the tool gets to the record.
+                if ( variant.getGenotypes() instanceof LazyGenotypesContext ) {
+                    ((LazyGenotypesContext)variant.getGenotypes()).decode();
+                }
+
+                final SimpleInterval variantInterval = new SimpleInterval(variant);
+                final T result = worker.apply(variant,
+                        new ReadsContext(workerReads, variantInterval, readFilter),
+                        new ReferenceContext(workerReference, variantInterval),
+                        new FeatureContext(workerFeatures, variantInterval));
+                processedVariants.accept(new ProcessedVariant<>(result, variantInterval));
+            }
+        }
+
+        @Override
+        public void close() {
+            worker.close();
+            workerDrivingVariants.close();
+            if ( workerReads != null ) {
+                workerReads.close();
+            }
+            if ( workerReference != null ) {
+                workerReference.close();
+            }
+            workerFeatures.close();
+        }
+    }
+
+    /**
+     * The record produced for a variant during a multithreaded traversal (null if there was none), along with the
+     * interval of the variant.
+     */
+    private static final class ProcessedVariant<T> {
+        private final T result;
+        private final SimpleInterval variantInterval;
+
+        ProcessedVariant( final T result, final SimpleInterval variantInterval ) {
+            this.result = result;
+            this.variantInterval = variantInterval;
+        }
+    }
+
+    /**
+     * Tools whose output for each variant doesn't depend on the variants before it (or on the order in which the
+     * variants are processed) may override this to return a factory for thread-confined {@link VariantWorker}s.
+     * It is only called when running with more than one traversal thread, after {@link #onTraversalStart}, in
+     * which case the workers are used in place of {@link #apply}.
+     *
+     * The default implementation returns null, meaning that the tool only supports single-threaded traversal.
+     *
+     * @return factory for the per-thread workers, or null if multithreaded traversal is not supported (possibly
+     *         only with the given arguments)
+     */
+    protected VariantWorker.Factory<?> makeVariantWorkerFactory() {
+        return null;
+    }
+
     /**
      * Close all data sources.
      *
@@ -0,0 +1,60 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.variant.variantcontext.VariantContext;
+
+/**
+ * A thread-confined processor of variants, used by {@link VariantWalker} when traversing several variant shards
+ * concurrently.
+ *
+ * Each worker is used by at most one traversal thread at a time, so implementations may freely hold
+ * non-thread-safe state, but the record produced for a variant must not depend on the variants processed
+ * before it. Workers never write output directly: the records they return for each variant are handed back
+ * to {@link Factory#onResult} on the main traversal thread, in the same order as a single-threaded traversal.
+ *
+ * @param <T> type of record produced for each variant
+ */
+public interface VariantWorker<T> extends AutoCloseable {
+
+    /**
+     * Process an individual variant. This is the multithreaded counterpart of {@link VariantWalkerBase#apply}.
+     *
+     * @param variant current variant, with its genotypes already decoded
+     * @param readsContext reads overlapping the current variant
+     * @param referenceContext reference bases spanning the current variant
+     * @param featureContext features spanning the current variant
+     * @return record produced for this variant, or null if there is nothing to emit for it
+     */
+    T apply( final VariantContext variant, final ReadsContext readsContext, final ReferenceContext referenceContext, final FeatureContext featureContext );
+
+    /**
+     * Release any resources held by this worker. Called once on the main traversal thread after traversal completes.
+     *
+     * Default implementation does nothing.
+     */
+    @Override
+    default void close() {}
+
+    /**
+     * Creates the per-thread workers for a multithreaded traversal, and consumes the records they produce.
+     *
+     * @param <T> type of record produced for each variant
+     */
+    interface Factory<T> {
+
+        /**
+         * Create a new worker. Called on the main traversal thread once per traversal thread, before any
+         * variants are processed, so implementations need not be thread-safe.
+         *
+         * @return a new worker that shares no mutable state with any other worker
+         */
+        VariantWorker<T> newWorker();
+
+        /**
+         * Consume a single record produced by one of our workers. Called on the main traversal thread only,
+         * in the order of the variants that produced the records.
+         *
+         * @param result record to consume
+         */
+        void onResult( final T result );
+    }
+}
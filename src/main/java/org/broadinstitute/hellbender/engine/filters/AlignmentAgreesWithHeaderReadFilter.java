@@ -29,4 +29,9 @@ public final class AlignmentAgreesWithHeaderReadFilter extends ReadFilter implem
     public boolean test( GATKRead read ) {
         return ReadUtils.alignmentAgreesWithHeader(samHeader, read);
     }
+
+    @Override
+    public boolean isRawFieldEvaluable() {
+        return true;
+    }
 }
@@ -75,6 +75,17 @@ public class CountingReadFilter extends ReadFilter {
         filteredCount = 0;
     }
 
+    /**
+     * Add the counts of other, which must have been made in the same way as this filter (eg., by another call to
+     * {@link org.broadinstitute.hellbender.engine.GATKTool#makeReadFilter}), to ours. This lets reads be filtered by
+     * one copy of a filter per thread, and the counts be reported as if by a single filter.
+     */
+    public void addFilteredCounts(final CountingReadFilter other) {
+        Utils.nonNull(other);
+        Utils.validateArg(other.getClass() == getClass() && other.getName().equals(getName()), "Cannot add the counts of a different filter");
+        filteredCount += other.filteredCount;
+    }
+
     public String getName() {return delegateFilter.getClass().getSimpleName();}
 
     // Returns a summary line with filter counts organized by level
@@ -130,6 +141,21 @@ public class CountingReadFilter extends ReadFilter {
         return accept;
     }
 
+    // Same as test, but without counting, so that mayPass has no side effects
+    protected boolean testWithoutCounting(final GATKRead read) {
+        return delegateFilter.test(read);
+    }
+
+    @Override
+    public boolean isRawFieldEvaluable() {
+        return delegateFilter.isRawFieldEvaluable();
+    }
+
+    @Override
+    public boolean mayPass(final GATKRead read) {
+        return delegateFilter.mayPass(read);
+    }
+
     private static class CountingNegateReadFilter extends CountingReadFilter {
         private static final long serialVersionUID = 1L;
 
@@ -148,10 +174,31 @@ public class CountingReadFilter extends ReadFilter {
             return accept;
         }
 
+        @Override
+        protected boolean testWithoutCounting(GATKRead read) {
+            return !delegateCountingFilter.testWithoutCounting(read);
+        }
+
+        @Override
+        public boolean isRawFieldEvaluable() {
+            return delegateCountingFilter.isRawFieldEvaluable();
+        }
+
+        @Override
+        public boolean mayPass(GATKRead read) {
+            return !isRawFieldEvaluable() || testWithoutCounting(read);
+        }
+
         @Override
         public String getName() {
             return "Not " + delegateCountingFilter.getName();
         }
+
+        @Override
+        public void addFilteredCounts(final CountingReadFilter other) {
+            super.addFilteredCounts(other);
+            delegateCountingFilter.addFilteredCounts(((CountingNegateReadFilter)other).delegateCountingFilter);
+        }
     }
 
     /**
@@ -194,6 +241,18 @@ public class CountingReadFilter extends ReadFilter {
             this.rhs.resetFilteredCount();
         }
 
+        @Override
+        public void addFilteredCounts(final CountingReadFilter other) {
+            super.addFilteredCounts(other);
+            this.lhs.addFilteredCounts(((CountingBinopReadFilter)other).lhs);
+            this.rhs.addFilteredCounts(((CountingBinopReadFilter)other).rhs);
+        }
+
+        @Override
+        public boolean isRawFieldEvaluable() {
+            return lhs.isRawFieldEvaluable() && rhs.isRawFieldEvaluable();
+        }
+
         @Override
         public abstract String getName();
     }
@@ -219,6 +278,16 @@ public class CountingReadFilter extends ReadFilter {
             return accept;
         }
 
+        @Override
+        protected boolean testWithoutCounting(final GATKRead read) {
+            return lhs.testWithoutCounting(read) && rhs.testWithoutCounting(read);
+        }
+
+        @Override
+        public boolean mayPass(final GATKRead read) {
+            return lhs.mayPass(read) && rhs.mayPass(read);
+        }
+
         @Override
         public String getName() {
             return "(" + lhs.getName() + " AND " + rhs.getName() + ")";
@@ -245,6 +314,16 @@ public class CountingReadFilter extends ReadFilter {
             return accept;
         }
 
+        @Override
+        protected boolean testWithoutCounting(final GATKRead read) {
+            return lhs.testWithoutCounting(read) || rhs.testWithoutCounting(read);
+        }
+
+        @Override
+        public boolean mayPass(final GATKRead read) {
+            return lhs.mayPass(read) || rhs.mayPass(read);
+        }
+
         @Override
         public String getName() {
             return "(" + lhs.getName() + " OR " + rhs.getName() + ")";
@@ -31,4 +31,9 @@ public final class FragmentLengthReadFilter extends ReadFilter implements Serial
         //Note fragment length is negative if mate maps to lower position than read so we take absolute value.
         return Math.abs(read.getFragmentLength()) <= maxFragmentLength;
     }
+
+    @Override
+    public boolean isRawFieldEvaluable() {
+        return true;
+    }
 }
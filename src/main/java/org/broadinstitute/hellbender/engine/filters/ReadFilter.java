@@ -44,6 +44,9 @@ public abstract class ReadFilter implements Predicate<GATKRead>, Serializable {
         public boolean test( GATKRead read ) {
             return !delegate.test(read);
         }
+
+        @Override
+        public boolean isRawFieldEvaluable() { return delegate.isRawFieldEvaluable(); }
     }
 
     protected abstract static class ReadFilterBinOp extends ReadFilter {
@@ -58,6 +61,9 @@ public abstract class ReadFilter implements Predicate<GATKRead>, Serializable {
             this.lhs = lhs;
             this.rhs = rhs;
         }
+
+        @Override
+        public boolean isRawFieldEvaluable() { return lhs.isRawFieldEvaluable() && rhs.isRawFieldEvaluable(); }
     }
 
     @VisibleForTesting
@@ -68,6 +74,9 @@ public abstract class ReadFilter implements Predicate<GATKRead>, Serializable {
 
         @Override
         public boolean test( GATKRead read ) { return lhs.test(read) && rhs.test(read); }
+
+        @Override
+        public boolean mayPass( GATKRead read ) { return lhs.mayPass(read) && rhs.mayPass(read); }
     }
 
     private static class ReadFilterOr extends ReadFilterBinOp {
@@ -77,6 +86,9 @@ public abstract class ReadFilter implements Predicate<GATKRead>, Serializable {
 
         @Override
         public boolean test( GATKRead read ) { return lhs.test(read) || rhs.test(read);}
+
+        @Override
+        public boolean mayPass( GATKRead read ) { return lhs.mayPass(read) || rhs.mayPass(read); }
     }
 
     // It turns out, this is necessary. Please don't remove it.
@@ -132,4 +144,25 @@ public abstract class ReadFilter implements Predicate<GATKRead>, Serializable {
 
     @Override
     public abstract boolean test( GATKRead read );
+
+    /**
+     * Whether this filter only looks at the fixed-width fields of a read (flags, mapping quality, contig and start),
+     * which BAM records decode up front, so that it can be evaluated on a record before its CIGAR, bases, qualities
+     * and attributes are decoded. The default implementation returns false; filters must only override it to return
+     * true if their {@link #test} accesses nothing else.
+     */
+    public boolean isRawFieldEvaluable() { return false; }
+
+    /**
+     * Evaluates only the raw-field-evaluable parts of this filter (see {@link #isRawFieldEvaluable}).
+     *
+     * Unlike {@link #test}, this method must not have any side effects (e.g., it does not update the counts of
+     * {@link CountingReadFilter}), so that it can be called on a read before, and on a different thread from, the
+     * call to {@link #test} that actually filters it.
+     *
+     * @return false if the read certainly fails this filter, true if it may pass it
+     */
+    public boolean mayPass( final GATKRead read ) {
+        return !isRawFieldEvaluable() || test(read);
+    }
 }
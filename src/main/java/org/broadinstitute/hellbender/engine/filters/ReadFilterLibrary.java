@@ -18,6 +18,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Do not filter out any read")
     public static class AllowAllReadsReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read){return true;}}
 
     /** Filter out reads containing skipped region from the reference (CIGAR strings with 'N' operator). */
@@ -32,6 +33,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Keep only reads that are first of pair")
     public static class FirstOfPairReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test (final GATKRead read) {
             return read.isFirstOfPair();}}
 
@@ -53,6 +55,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Filter out reads with fragment length different from zero")
     public static class NonZeroFragmentLengthReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read){
             return read.getFragmentLength() != 0;}}
 
@@ -82,6 +85,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Filter out unmapped reads")
     public static class MappedReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read) {
             return !read.isUnmapped();}}
 
@@ -89,6 +93,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Filter out reads without available mapping quality")
     public static class MappingQualityAvailableReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read) {
             return read.getMappingQuality() != QualityUtils.MAPPING_QUALITY_UNAVAILABLE;}}
 
@@ -96,6 +101,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Filter out reads with mapping quality equal to zero")
     public static class MappingQualityNotZeroReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read) {
             return read.getMappingQuality() != 0;}}
 
@@ -107,6 +113,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Keep only reads whose mate maps to the same contig or is unmapped", extraDocs = MappedReadFilter.class)
     public static class MateOnSameContigOrNoMappedMateReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read){
             return ! read.isPaired() ||
                     read.mateIsUnmapped() ||
@@ -121,6 +128,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Keep only reads with mates mapped on the different strand", extraDocs = MappedReadFilter.class)
     public static class MateDifferentStrandReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read){
             return read.isPaired() &&
                     ! read.isUnmapped() &&
@@ -141,6 +149,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Filter out reads marked as duplicate")
     public static class NotDuplicateReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read){
             return ! read.isDuplicate();}}
 
@@ -148,6 +157,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Filter out reads representing secondary alignments")
     public static class NotSecondaryAlignmentReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read) {
             return !read.isSecondaryAlignment();}}
 
@@ -155,6 +165,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Filter out reads representing supplementary alignments")
     public static class NotSupplementaryAlignmentReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read) {
             return !read.isSupplementaryAlignment();}}
 
@@ -162,6 +173,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Filter out unpaired reads")
     public static class PairedReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read) {
             return read.isPaired();}}
 
@@ -169,6 +181,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Filter out reads failing platfor/vendor quality checks")
     public static class PassesVendorQualityCheckReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read){
             return ! read.failsVendorQualityCheck();}}
 
@@ -176,6 +189,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Keep only reads that are properly paired")
     public static class ProperlyPairedReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read) {
             return read.isProperlyPaired();}}
 
@@ -194,6 +208,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY)
     public static class PrimaryLineReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read) {
             return ! read.isSecondaryAlignment() && ! read.isSupplementaryAlignment();}}
 
@@ -214,6 +229,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Keep only paired reads that are second of pair")
     public static class SecondOfPairReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test (final GATKRead read) {
             return read.isSecondOfPair();}}
 
@@ -231,6 +247,7 @@ public final class ReadFilterLibrary {
     @DocumentedFeature(groupName=HelpConstants.DOC_CAT_READFILTERS, groupSummary=HelpConstants.DOC_CAT_READFILTERS_SUMMARY, summary = "Keep only reads with a valid alignment start", extraDocs = MappedReadFilter.class)
     public static class ValidAlignmentStartReadFilter extends ReadFilter {
         private static final long serialVersionUID = 1L;
+        @Override public boolean isRawFieldEvaluable(){return true;}
         @Override public boolean test(final GATKRead read){
             return read.isUnmapped() || read.getStart() > 0;}}
 
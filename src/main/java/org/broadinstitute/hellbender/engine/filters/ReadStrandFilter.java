@@ -26,4 +26,9 @@ public final class ReadStrandFilter extends ReadFilter {
     public boolean test( final GATKRead read ) {
         return read.isReverseStrand() == keepOnlyReverse;
     }
+
+    @Override
+    public boolean isRawFieldEvaluable() {
+        return true;
+    }
 }
@@ -76,4 +76,9 @@ public final class WellformedReadFilter extends ReadFilter {
     public boolean test(final GATKRead read ) {
         return wellFormedFilter.test(read);
     }
+
+    @Override
+    public boolean mayPass(final GATKRead read) {
+        return wellFormedFilter == null || wellFormedFilter.mayPass(read);
+    }
 }
@@ -12,6 +12,7 @@ import scala.Tuple2;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Joins an RDD of GATKReads to variant data using a broadcast strategy.
@@ -33,7 +34,7 @@ public final class BroadcastJoinReadsWithVariants {
     public static JavaPairRDD<GATKRead, Iterable<GATKVariant>> join(final JavaRDD<GATKRead> reads, final JavaRDD<GATKVariant> variants) {
         final JavaSparkContext ctx = new JavaSparkContext(reads.context());
         final Broadcast<IntervalsSkipList<GATKVariant>> variantsBroadcast = ctx.broadcast(new IntervalsSkipList<>(variants.collect()));
-        return reads.mapToPair(r -> getOverlapping(r, variantsBroadcast.getValue()));
+        return reads.mapToPair(r -> getOverlapping(r, variantsBroadcast.getValue()::getOverlapping));
     }
 
     /**
@@ -45,12 +46,12 @@ public final class BroadcastJoinReadsWithVariants {
      * @return an RDD that contains each read along with the overlapping variants
      */
     public static JavaPairRDD<GATKRead, Iterable<GATKVariant>> join(final JavaRDD<GATKRead> reads, final List<String> variantsPaths) {
-        return reads.mapToPair(r -> getOverlapping(r, KnownSitesCache.getVariants(variantsPaths)));
+        return reads.mapToPair(r -> getOverlapping(r, KnownSitesCache.getVariants(variantsPaths)::getOverlapping));
     }
 
-    private static Tuple2<GATKRead, Iterable<GATKVariant>> getOverlapping(final GATKRead read, final IntervalsSkipList<GATKVariant> intervalsSkipList) {
+    private static Tuple2<GATKRead, Iterable<GATKVariant>> getOverlapping(final GATKRead read, final Function<SimpleInterval, List<GATKVariant>> overlappingVariants) {
         if (SimpleInterval.isValid(read.getContig(), read.getStart(), read.getEnd())) {
-            return new Tuple2<>(read, intervalsSkipList.getOverlapping(new SimpleInterval(read)));
+            return new Tuple2<>(read, overlappingVariants.apply(new SimpleInterval(read)));
         } else {
             //Sometimes we have reads that do not form valid intervals (reads that do not consume any ref bases, eg CIGAR 61S90I
             //In those cases, we'll just say that nothing overlaps the read
@@ -13,6 +13,9 @@ import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.spark.serializer.KryoRegistrator;
 import org.bdgenomics.adam.serialization.ADAMKryoRegistrator;
 import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
+import org.broadinstitute.hellbender.utils.read.markduplicates.CompactPairedEnds;
+import org.broadinstitute.hellbender.utils.read.markduplicates.CompactReadEnd;
+import org.broadinstitute.hellbender.utils.read.markduplicates.CompactReadsKey;
 import org.broadinstitute.hellbender.utils.read.markduplicates.PairedEnds;
 
 import java.util.Collections;
@@ -55,6 +58,9 @@ public class GATKRegistrator implements KryoRegistrator {
 
         //register to avoid writing the full name of this class over and over
         kryo.register(PairedEnds.class, new FieldSerializer<>(kryo, PairedEnds.class));
+        kryo.register(CompactPairedEnds.class, new FieldSerializer<>(kryo, CompactPairedEnds.class));
+        kryo.register(CompactReadEnd.class, new FieldSerializer<>(kryo, CompactReadEnd.class));
+        kryo.register(CompactReadsKey.class, new FieldSerializer<>(kryo, CompactReadsKey.class));
 
         // register the ADAM data types using Avro serialization, including:
         //     AlignmentRecord
@@ -4,8 +4,10 @@ import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.collections.IntervalsSkipList;
 import org.broadinstitute.hellbender.utils.variant.GATKVariant;
+import org.broadinstitute.hellbender.utils.variant.MappedKnownSitesIndex;
 import org.broadinstitute.hellbender.utils.variant.VariantContextVariantAdapter;
 
 import java.util.*;
@@ -14,28 +16,45 @@ import java.util.stream.Collectors;
 /**
  * A cache of known sites by file path, with the property that there is only one copy of each collection of known sites per JVM.
  * This class is an alternative for cases that can't use a Spark broadcast due to its 2GB limitation.
+ *
+ * Known sites indexes written by {@link org.broadinstitute.hellbender.tools.walkers.bqsr.IndexKnownSites} are
+ * memory-mapped rather than loaded, so they must be on a local file system on every executor.
  */
 class KnownSitesCache {
 
     private static final Logger log = LogManager.getLogger(KnownSitesCache.class);
 
-    private static final Map<List<String>, IntervalsSkipList<GATKVariant>> PATHS_TO_VARIANTS = new HashMap<>();
+    private static final Map<List<String>, KnownSites> PATHS_TO_VARIANTS = new HashMap<>();
 
-    public static synchronized IntervalsSkipList<GATKVariant> getVariants(List<String> paths) {
+    public static synchronized KnownSites getVariants(List<String> paths) {
         if (PATHS_TO_VARIANTS.containsKey(paths)) {
             return PATHS_TO_VARIANTS.get(paths);
         }
-        IntervalsSkipList<GATKVariant> variants = retrieveVariants(paths);
+        KnownSites variants = retrieveVariants(paths);
         PATHS_TO_VARIANTS.put(paths, variants);
         return variants;
     }
 
-    private static IntervalsSkipList<GATKVariant> retrieveVariants(List<String> paths) {
-        return new IntervalsSkipList<>(paths
+    /**
+     * @return true if any of the paths is a known sites index, rather than a file of variants
+     */
+    public static boolean hasKnownSitesIndex(List<String> paths) {
+        return paths.stream().anyMatch(MappedKnownSitesIndex::isKnownSitesIndexFile);
+    }
+
+    private static KnownSites retrieveVariants(List<String> paths) {
+        final List<MappedKnownSitesIndex> indexes = paths
+                .stream()
+                .filter(MappedKnownSitesIndex::isKnownSitesIndexFile)
+                .map(MappedKnownSitesIndex::map)
+                .collect(Collectors.toList());
+        final List<GATKVariant> variants = paths
                 .stream()
+                .filter(path -> !MappedKnownSitesIndex.isKnownSitesIndexFile(path))
                 .map(KnownSitesCache::loadFromFeatureDataSource)
                 .flatMap(Collection::stream)
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList());
+        return new KnownSites(variants.isEmpty() ? null : new IntervalsSkipList<>(variants), indexes);
     }
 
     private static List<GATKVariant> loadFromFeatureDataSource(String path) {
@@ -56,4 +75,28 @@ class KnownSitesCache {
         }
         return wrappedResults;
     }
+
+    /**
+     * The known sites of a list of paths: those loaded from files of variants, and those in known sites indexes
+     */
+    static final class KnownSites {
+        private final IntervalsSkipList<GATKVariant> variants;
+        private final List<MappedKnownSitesIndex> indexes;
+
+        private KnownSites(final IntervalsSkipList<GATKVariant> variants, final List<MappedKnownSitesIndex> indexes) {
+            this.variants = variants;
+            this.indexes = indexes;
+        }
+
+        /**
+         * Returns all the known sites that overlap the query. You may modify the returned list.
+         */
+        public List<GATKVariant> getOverlapping(final SimpleInterval query) {
+            final List<GATKVariant> overlapping = variants == null ? new ArrayList<>() : variants.getOverlapping(query);
+            for (final MappedKnownSitesIndex index : indexes) {
+                overlapping.addAll(index.getOverlapping(query));
+            }
+            return overlapping;
+        }
+    }
 }
@@ -10,9 +10,11 @@ import org.broadinstitute.hellbender.cmdline.programgroups.CopyNumberProgramGrou
 import org.broadinstitute.hellbender.engine.AlignmentContext;
 import org.broadinstitute.hellbender.engine.FeatureContext;
 import org.broadinstitute.hellbender.engine.LocusWalker;
+import org.broadinstitute.hellbender.engine.LocusWorker;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.engine.filters.MappingQualityReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
+import org.broadinstitute.hellbender.tools.copynumber.allelic.alleliccount.AllelicCount;
 import org.broadinstitute.hellbender.tools.copynumber.allelic.alleliccount.AllelicCountCollector;
 import org.broadinstitute.hellbender.utils.Nucleotide;
 
@@ -140,4 +142,20 @@ public final class CollectAllelicCounts extends LocusWalker {
         final byte refAsByte = referenceContext.getBase();
         allelicCountCollector.collectAtLocus(Nucleotide.valueOf(refAsByte), alignmentContext.getBasePileup(), alignmentContext.getLocation(), minimumBaseQuality);
     }
+
+    @Override
+    protected LocusWorker.Factory<AllelicCount> makeLocusWorkerFactory() {
+        return new LocusWorker.Factory<AllelicCount>() {
+            @Override
+            public LocusWorker<AllelicCount> newWorker() {
+                return (alignmentContext, referenceContext, featureContext) -> AllelicCountCollector.countAtLocus(
+                        Nucleotide.valueOf(referenceContext.getBase()), alignmentContext.getBasePileup(), alignmentContext.getLocation(), minimumBaseQuality);
+            }
+
+            @Override
+            public void onResult(final AllelicCount result) {
+                allelicCountCollector.getAllelicCounts().add(result);
+            }
+        };
+    }
 }
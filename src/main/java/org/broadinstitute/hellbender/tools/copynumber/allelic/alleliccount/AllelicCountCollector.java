@@ -40,6 +40,22 @@ public final class AllelicCountCollector {
      * @param minBaseQuality minimum base quality in the read for that read to count at that position.  Must be greater than or equal to 0.
      */
     public void collectAtLocus(final Nucleotide refBase, final ReadPileup pileup, final Locatable locus, final int minBaseQuality) {
+        final AllelicCount allelicCount = countAtLocus(refBase, pileup, locus, minBaseQuality);
+        if (allelicCount != null) {
+            allelicCounts.add(allelicCount);
+        }
+    }
+
+    /**
+     * Count the reference and alternate alleles at a specific locus, without adding them to this class.
+     *
+     * @param refBase single nucleotide of the reference.  Not {@code null}
+     * @param pileup associated pileup at the locus.  Not {@code null}
+     * @param locus position in genome to collect alellic counts.  Not {@code null}
+     * @param minBaseQuality minimum base quality in the read for that read to count at that position.  Must be greater than or equal to 0.
+     * @return the allelic count at the locus, or {@code null} if the reference base is not one of {@link #BASES}
+     */
+    public static AllelicCount countAtLocus(final Nucleotide refBase, final ReadPileup pileup, final Locatable locus, final int minBaseQuality) {
         Utils.nonNull(refBase);
         Utils.nonNull(pileup);
         Utils.nonNull(locus);
@@ -48,7 +64,7 @@ public final class AllelicCountCollector {
         if (!BASES.contains(refBase)) {
             logger.warn(String.format("The reference position at %s has an unknown base call (value: %s). Skipping...",
                     locus, refBase.toString()));
-            return;
+            return null;
         }
 
         final Nucleotide.Counter nucleotideCounter = new Nucleotide.Counter();
@@ -63,9 +79,9 @@ public final class AllelicCountCollector {
         final int altReadCount = totalBaseCount - refReadCount;                                 //we take alt = total - ref instead of the actual alt count
         final Nucleotide altBase = inferAltFromPileupBaseCounts(nucleotideCounter, refBase);
 
-        allelicCounts.add(new AllelicCount(
+        return new AllelicCount(
                 new SimpleInterval(locus.getContig(), locus.getStart(), locus.getEnd()),
-                refReadCount, altReadCount, refBase, altBase));
+                refReadCount, altReadCount, refBase, altBase);
     }
 
     /**
@@ -4,6 +4,7 @@ import org.apache.commons.math3.linear.DefaultRealMatrixChangingVisitor;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.exceptions.GATKException;
@@ -20,8 +21,10 @@ import org.broadinstitute.hellbender.utils.hmm.ViterbiAlgorithm;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
 
 /**
  * Parent class for those tools that make CNV segment calls based on a {@link XHMMModel}.
@@ -33,6 +36,8 @@ public abstract class XHMMSegmentCallerBase extends CommandLineProgram {
 
     public static final String ZSCORE_DIMENSION_FULL_NAME = "standardizeBy";
     public static final String ZSCORE_DIMENSION_SHORT_NAME = "standardizeBy";
+    public static final String HMM_THREADS_FULL_NAME = "hmmThreads";
+    public static final String HMM_THREADS_SHORT_NAME = "hmmThreads";
 
     @ArgumentCollection
     protected XHMMArgumentCollection modelArguments = new XHMMArgumentCollection();
@@ -80,6 +85,18 @@ public abstract class XHMMSegmentCallerBase extends CommandLineProgram {
     )
     protected File outputFile;
 
+    /**
+     * The number of threads on which to run the forward-backward and Viterbi algorithms, one sample at a time.
+     * The results do not depend on the number of threads.
+     */
+    @Argument(
+            doc = "Number of threads on which to run the forward-backward and Viterbi algorithms",
+            fullName = HMM_THREADS_FULL_NAME,
+            shortName = HMM_THREADS_SHORT_NAME,
+            optional = true
+    )
+    protected int hmmThreads = 1;
+
     @ArgumentCollection
     protected final TargetArgumentCollection targetArguments = new TargetArgumentCollection(() -> inputFile);
 
@@ -90,6 +107,9 @@ public abstract class XHMMSegmentCallerBase extends CommandLineProgram {
 
     @Override
     protected final Object doWork() {
+        if (hmmThreads < 1) {
+            throw new CommandLineException.BadArgumentValue(HMM_THREADS_FULL_NAME, Integer.toString(hmmThreads), "must be at least 1");
+        }
         final XHMMModel model = modelArguments.createModel();
         final TargetCollection<Target> targets = targetArguments.readTargetCollection(false);
         final ReadCountCollection inputCounts = readAndSortCountsByTargetCoordinates(targets);
@@ -111,17 +131,17 @@ public abstract class XHMMSegmentCallerBase extends CommandLineProgram {
      */
     private void runForwardBackwardAndViterbi(final XHMMModel model, final TargetCollection<Target> targets,
                                               final ReadCountCollection inputCounts) {
-        sampleForwardBackwardResults = new ArrayList<>(inputCounts.columnNames().size());
-        sampleBestPaths = new ArrayList<>(inputCounts.columnNames().size());
-        for (int sampleIndex = 0; sampleIndex < inputCounts.columnNames().size(); sampleIndex++) {
-            final List<XHMMEmissionData> emissionData = DoubleStream.of(inputCounts.counts().getColumn(sampleIndex))
-                    .mapToObj(XHMMEmissionData::new)
-                    .collect(Collectors.toList());
-            final ForwardBackwardAlgorithm.Result<XHMMEmissionData, Target, CopyNumberTriState> fbResult =
-                    ForwardBackwardAlgorithm.apply(emissionData, targets.targets(), model);
-            final List<CopyNumberTriState> bestPath = ViterbiAlgorithm.apply(emissionData, targets.targets(), model);
-            sampleForwardBackwardResults.add(fbResult);
-            sampleBestPaths.add(bestPath);
+        final List<List<XHMMEmissionData>> sampleEmissionData = IntStream.range(0, inputCounts.columnNames().size())
+                .mapToObj(sampleIndex -> DoubleStream.of(inputCounts.counts().getColumn(sampleIndex))
+                        .mapToObj(XHMMEmissionData::new)
+                        .collect(Collectors.toList()))
+                .collect(Collectors.toList());
+        final ForkJoinPool pool = new ForkJoinPool(hmmThreads);
+        try {
+            sampleForwardBackwardResults = ForwardBackwardAlgorithm.applyBatch(sampleEmissionData, targets.targets(), model, pool);
+            sampleBestPaths = ViterbiAlgorithm.applyBatch(sampleEmissionData, targets.targets(), model, pool);
+        } finally {
+            pool.shutdown();
         }
     }
 
@@ -44,7 +44,8 @@ import java.util.function.Function;
 
 /**
  * This tool imports GVCFs to GenomicsDB. To run this tool,
- * 1. A single interval must be provided
+ * 1. One or more intervals must be provided. When there is more than one, each interval is
+ *    imported into its own workspace, a subdirectory of the workspace named after the interval
  * 2. The tool accepts multiple GVCFs each of which must contain data
  *    for one sample
  * 3. The path to the GenomicsDB workspace must be specified
@@ -74,6 +75,7 @@ public final class GenomicsDBImport extends GATKTool {
     public static final String SAMPLE_NAME_MAP_LONG_NAME = "sampleNameMap";
     public static final String VALIDATE_SAMPLE_MAP_LONG_NAME = "validateSampleNameMap";
     public static final String VCF_INITIALIZER_THREADS_LONG_NAME = "readerThreads";
+    public static final String MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL = "maxNumIntervalsToImportInParallel";
 
     @Argument(fullName = WORKSPACE_ARG_NAME,
               shortName = WORKSPACE_ARG_NAME,
@@ -167,7 +169,16 @@ public final class GenomicsDBImport extends GATKTool {
             minValue = 1)
     private int vcfInitializerThreads = 1;
 
-    //executor service used when vcfInitializerThreads > 1
+    @Advanced
+    @Argument(fullName = MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL,
+            shortName = MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL,
+            doc = "Max number of intervals to import in parallel; higher values may improve performance, but require more" +
+                    " memory and a higher number of file descriptors open at the same time",
+            optional = true,
+            minValue = 1)
+    private int maxNumIntervalsToImportInParallel = 1;
+
+    //executor service used when vcfInitializerThreads > 1, shared by all of the intervals
     private ExecutorService inputPreloadExecutorService;
 
     @Override
@@ -194,9 +205,12 @@ public final class GenomicsDBImport extends GATKTool {
     @Override
     public String getProgressMeterRecordLabel() { return "batches"; }
 
-    // Intervals from command line (singleton for now)
+    // Intervals from command line
     private List<ChromosomeInterval> intervals;
 
+    // Workspace each interval is imported into, in the same order as intervals
+    private List<String> intervalWorkspaces;
+
     // Linked hash map between sample names and corresponding GVCF file name
     private LinkedHashMap<String, Path> sampleNameToVcfPath = new LinkedHashMap<>();
 
@@ -206,12 +220,6 @@ public final class GenomicsDBImport extends GATKTool {
     // sequence dictionary created from the merged header
     private SAMSequenceDictionary mergedHeaderSequenceDictionary;
 
-    // Path to vidmap file to be written by GenomicsDBImporter
-    private File vidMapJSONFile;
-
-    // Path to callsetmap file to be written by GenomicsDBImporter
-    private File callsetMapJSONFile;
-
     // GenomicsDB callset map protobuf structure containing all callset names
     // used to write the callset json file on traversal success
     private GenomicsDBCallsetsMapProto.CallsetMappingPB callsetMappingPB;
@@ -336,14 +344,23 @@ public final class GenomicsDBImport extends GATKTool {
     @Override
     public void onTraversalStart() {
 
-        final File workspaceDir = overwriteOrCreateWorkspace();
-
-        vidMapJSONFile = new File(workspaceDir + "/" + GenomicsDBConstants.DEFAULT_VIDMAP_FILE_NAME);
-        callsetMapJSONFile = new File (workspaceDir + "/" + GenomicsDBConstants.DEFAULT_CALLSETMAP_FILE_NAME);
+        if (intervalWorkspaces.size() > 1) {
+            // the workspace is only a directory holding the workspace of each interval
+            final File workspaceDir = new File(workspace);
+            if (overwriteExistingWorkspace) {
+                IOUtils.tryDelete(workspaceDir);
+            }
+            if (!workspaceDir.isDirectory() && !workspaceDir.mkdirs()) {
+                throw new UserException("Error creating directory for the GenomicsDB workspaces: " + workspaceDir);
+            }
+        }
 
-        logger.info("Vid Map JSON file will be written to " + vidMapJSONFile);
-        logger.info("Callset Map JSON file will be written to " + callsetMapJSONFile);
-        logger.info("Importing to array - " + workspace + "/" + GenomicsDBConstants.DEFAULT_ARRAY_NAME);
+        for (final String intervalWorkspace : intervalWorkspaces) {
+            final File workspaceDir = overwriteOrCreateWorkspace(intervalWorkspace);
+            logger.info("Vid Map JSON file will be written to " + getVidMapJSONFile(workspaceDir));
+            logger.info("Callset Map JSON file will be written to " + getCallsetMapJSONFile(workspaceDir));
+            logger.info("Importing to array - " + intervalWorkspace + "/" + GenomicsDBConstants.DEFAULT_ARRAY_NAME);
+        }
 
         // Passing in false here so that sample names will be sorted.
         // This is needed for consistent ordering across partitions/machines
@@ -366,13 +383,60 @@ public final class GenomicsDBImport extends GATKTool {
 
     /**
      * A complete traversal from start to finish. This method will import all samples
-     * specified in the input GVCF files.
+     * specified in the input GVCF files into every interval, importing up to
+     * maxNumIntervalsToImportInParallel intervals at the same time.
      */
     @Override
     public void traverse() {
         // Force the progress meter to update after every batch
         progressMeter.setRecordsBetweenTimeChecks(1L);
 
+        final int numThreads = Math.min(maxNumIntervalsToImportInParallel, intervals.size());
+        if (numThreads == 1) {
+            for (int i = 0; i < intervals.size(); i++) {
+                importInterval(i);
+            }
+            return;
+        }
+
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("intervalImporter-thread-%d")
+                .setDaemon(true)
+                .build();
+        final ExecutorService intervalImportExecutorService = Executors.newFixedThreadPool(numThreads, threadFactory);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(intervals.size());
+            for (int i = 0; i < intervals.size(); i++) {
+                final int intervalIndex = i;
+                futures.add(intervalImportExecutorService.submit(() -> importInterval(intervalIndex)));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while importing intervals", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Error importing an interval", e.getCause());
+        } finally {
+            intervalImportExecutorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Import all samples, batch by batch, into the workspace of one interval.
+     * May be called for several intervals at the same time.
+     *
+     * @param intervalIndex index of the interval in intervals
+     */
+    private void importInterval(final int intervalIndex) {
+        final ChromosomeInterval interval = intervals.get(intervalIndex);
+        final String intervalWorkspace = intervalWorkspaces.get(intervalIndex);
+        final String intervalDescription = intervals.size() > 1 ? " of interval " + intervalWorkspace : "";
+
         final int sampleCount = sampleNameToVcfPath.size();
         final int updatedBatchSize = (batchSize == DEFAULT_ZERO_BATCH_SIZE) ? sampleCount : batchSize;
         final int totalBatchCount = (sampleCount/updatedBatchSize) + (sampleCount%updatedBatchSize==0 ? 0 : 1);
@@ -383,31 +447,33 @@ public final class GenomicsDBImport extends GATKTool {
 
             final Map<String, FeatureReader<VariantContext>> sampleToReaderMap =
                     inputPreloadExecutorService != null
-                            ? getFeatureReadersInParallel(sampleNameToVcfPath, updatedBatchSize, i)
+                            ? getFeatureReadersInParallel(sampleNameToVcfPath, updatedBatchSize, i, interval)
                             : getFeatureReadersSerially(sampleNameToVcfPath, updatedBatchSize, i);
 
-            logger.info("Importing batch " + batchCount + " with " + sampleToReaderMap.size() + " samples");
+            logger.info("Importing batch " + batchCount + intervalDescription + " with " + sampleToReaderMap.size() + " samples");
             final long variantContextBufferSize = vcfBufferSizePerSample * sampleToReaderMap.size();
             final GenomicsDBImportConfiguration.ImportConfiguration importConfiguration =
-                    createImportConfiguration(workspace, GenomicsDBConstants.DEFAULT_ARRAY_NAME,
+                    createImportConfiguration(intervalWorkspace, GenomicsDBConstants.DEFAULT_ARRAY_NAME,
                             variantContextBufferSize, segmentSize,
                             i, (i+updatedBatchSize-1));
 
             try {
-                importer = new GenomicsDBImporter(sampleToReaderMap, mergedHeaderLines, intervals.get(0), validateSampleToReaderMap, importConfiguration);
+                importer = new GenomicsDBImporter(sampleToReaderMap, mergedHeaderLines, interval, validateSampleToReaderMap, importConfiguration);
             } catch (final IOException e) {
-                throw new UserException("Error initializing GenomicsDBImporter in batch " + batchCount, e);
+                throw new UserException("Error initializing GenomicsDBImporter in batch " + batchCount + intervalDescription, e);
             } catch (final IllegalArgumentException iae) {
                 throw new GATKException("Null feature reader found in sampleNameMap file: " + sampleNameMapFile, iae);
             }
             try {
                 importer.importBatch();
             } catch (final IOException e) {
-                throw new UserException("GenomicsDB import failed in batch " + batchCount, e);
+                throw new UserException("GenomicsDB import failed in batch " + batchCount + intervalDescription, e);
             }
             closeReaders(sampleToReaderMap);
-            progressMeter.update(intervals.get(0));
-            logger.info("Done importing batch " + batchCount + "/" + totalBatchCount);
+            synchronized (progressMeter) {
+                progressMeter.update(interval);
+            }
+            logger.info("Done importing batch " + batchCount + "/" + totalBatchCount + intervalDescription);
         }
     }
 
@@ -419,22 +485,28 @@ public final class GenomicsDBImport extends GATKTool {
             logger.info("Import of all batches to GenomicsDB completed!");
         }
 
-        // Write the vid and callset map JSON files
-        try {
-            GenomicsDBImporter.writeVidMapJSONFile(vidMapJSONFile.getAbsolutePath(), mergedHeaderLines);
-        } catch (final FileNotFoundException fe) {
-            throw new UserException("Unable to write vid map JSON file " + vidMapJSONFile.getAbsolutePath(), fe);
-        }
-        try {
-            GenomicsDBImporter.writeCallsetMapJSONFile(callsetMapJSONFile.getAbsolutePath(), callsetMappingPB);
-        } catch (final FileNotFoundException fe) {
-            throw new UserException("Unable to write callset map JSON file " + callsetMapJSONFile.getAbsolutePath(), fe);
-        }
+        for (final String intervalWorkspace : intervalWorkspaces) {
+            final File workspaceDir = new File(intervalWorkspace);
 
-        if (doConsolidation) {
-            logger.info("GenomicsDB consolidation started");
-            GenomicsDBImporter.consolidateTileDBArray(workspace, GenomicsDBConstants.DEFAULT_ARRAY_NAME);
-            logger.info("GenomicsDB consolidation completed");
+            // Write the vid and callset map JSON files
+            final File vidMapJSONFile = getVidMapJSONFile(workspaceDir);
+            try {
+                GenomicsDBImporter.writeVidMapJSONFile(vidMapJSONFile.getAbsolutePath(), mergedHeaderLines);
+            } catch (final FileNotFoundException fe) {
+                throw new UserException("Unable to write vid map JSON file " + vidMapJSONFile.getAbsolutePath(), fe);
+            }
+            final File callsetMapJSONFile = getCallsetMapJSONFile(workspaceDir);
+            try {
+                GenomicsDBImporter.writeCallsetMapJSONFile(callsetMapJSONFile.getAbsolutePath(), callsetMappingPB);
+            } catch (final FileNotFoundException fe) {
+                throw new UserException("Unable to write callset map JSON file " + callsetMapJSONFile.getAbsolutePath(), fe);
+            }
+
+            if (doConsolidation) {
+                logger.info("GenomicsDB consolidation started for " + intervalWorkspace);
+                GenomicsDBImporter.consolidateTileDBArray(intervalWorkspace, GenomicsDBConstants.DEFAULT_ARRAY_NAME);
+                logger.info("GenomicsDB consolidation completed for " + intervalWorkspace);
+            }
         }
 
         return true;
@@ -447,10 +519,12 @@ public final class GenomicsDBImport extends GATKTool {
      * @param sampleNametoPath  Sample name to file name mapping
      * @param batchSize  Current batch size
      * @param lowerSampleIndex  0-based Lower bound of sample index -- inclusive
+     * @param interval  Interval that will be imported from the readers
      * @return  Feature readers to be imported in the current batch
      */
     private Map<String, FeatureReader<VariantContext>> getFeatureReadersInParallel(final LinkedHashMap<String, Path> sampleNametoPath,
-                                                                                   final int batchSize, final int lowerSampleIndex) {
+                                                                                   final int batchSize, final int lowerSampleIndex,
+                                                                                   final ChromosomeInterval interval) {
         final Map<String, FeatureReader<VariantContext>> sampleToReaderMap = new LinkedHashMap<>();
         logger.info("Starting batch input file preload");
         final List<Future<FeatureReader<VariantContext>>> futures = new ArrayList<>();
@@ -460,7 +534,7 @@ public final class GenomicsDBImport extends GATKTool {
             futures.add(inputPreloadExecutorService.submit(() -> {
                 final Path variantPath = sampleNametoPath.get(sampleName);
                 try {
-                    return new InitializedQueryWrapper(getReaderFromPath(variantPath), intervals.get(0));
+                    return new InitializedQueryWrapper(getReaderFromPath(variantPath), interval);
                 } catch (final IOException e) {
                     throw new UserException.CouldNotReadInputFile("Couldn't read file: " + variantPath.toUri(), e);
                 }
@@ -577,14 +651,23 @@ public final class GenomicsDBImport extends GATKTool {
         }
     }
 
+    private static File getVidMapJSONFile(final File workspaceDir) {
+        return new File(workspaceDir + "/" + GenomicsDBConstants.DEFAULT_VIDMAP_FILE_NAME);
+    }
+
+    private static File getCallsetMapJSONFile(final File workspaceDir) {
+        return new File(workspaceDir + "/" + GenomicsDBConstants.DEFAULT_CALLSETMAP_FILE_NAME);
+    }
+
     /**
      * Input argument "overwriteExistingWorkspace" defaults to false.
      * The tool creates a new workspace if it doesn't exist. Deletes
      * an existing workspace if argument is true
      *
+     * @param workspace  Path of the workspace
      * @return  The workspace directory
      */
-    private File overwriteOrCreateWorkspace() {
+    private File overwriteOrCreateWorkspace(final String workspace) {
         final File workspaceDir = new File(workspace);
 
         if (overwriteExistingWorkspace) {
@@ -629,23 +712,43 @@ public final class GenomicsDBImport extends GATKTool {
             }
 
             intervals = new ArrayList<>();
+            intervalWorkspaces = new ArrayList<>();
 
             final List<SimpleInterval> simpleIntervalList =
                 intervalArgumentCollection.getIntervals(intervalDictionary);
 
-            if (simpleIntervalList.size() > 1) {
-                throw new UserException("More than one interval specified. The tool takes only one");
-            }
-
+            final Set<String> workspaceNames = new HashSet<>();
             for (final SimpleInterval simpleInterval : simpleIntervalList) {
                 intervals.add(new ChromosomeInterval(simpleInterval.getContig(),
                   simpleInterval.getStart(), simpleInterval.getEnd()));
+
+                if (simpleIntervalList.size() == 1) {
+                    intervalWorkspaces.add(workspace);
+                } else {
+                    final String workspaceName = getIntervalWorkspaceName(simpleInterval);
+                    if (!workspaceNames.add(workspaceName)) {
+                        throw new UserException("More than one interval would be imported into the workspace " + workspaceName + ", including " + simpleInterval);
+                    }
+                    intervalWorkspaces.add(workspace + "/" + workspaceName);
+                }
             }
         } else {
             throw new UserException("No intervals specified");
         }
     }
 
+    /**
+     * Name of the subdirectory of the workspace into which interval is imported when there is more than one interval.
+     * Characters of the contig name that are not safe in a file name are replaced with '_'.
+     *
+     * @param interval  An interval to import
+     * @return  A name of the form contig_start_end
+     */
+    @VisibleForTesting
+    static String getIntervalWorkspaceName(final Locatable interval) {
+        return interval.getContig().replaceAll("[^A-Za-z0-9._-]", "_") + "_" + interval.getStart() + "_" + interval.getEnd();
+    }
+
     @Override
     public void onShutdown(){
         if( inputPreloadExecutorService != null) {
@@ -18,7 +18,8 @@ public final class PSFilterArgumentCollection implements Serializable {
             fullName = "isHostAligned",
             optional = true)
     public boolean alignedInput = false;
-    @Argument(doc = "Path to host kmer library generated with PathSeqBuildKmers. Skipped if not specified.",
+    @Argument(doc = "Path to host kmer library generated with PathSeqBuildKmers. Skipped if not specified. Libraries in " +
+            "the memory-mapped format must be on local disk on every executor.",
             fullName = "kmerLibraryPath",
             optional = true)
     public String kmerLibPath = null;
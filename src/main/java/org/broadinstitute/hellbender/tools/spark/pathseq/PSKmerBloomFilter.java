@@ -4,6 +4,7 @@ import com.esotericsoftware.kryo.DefaultSerializer;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import htsjdk.samtools.util.BinaryCodec;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
 import org.broadinstitute.hellbender.utils.Utils;
@@ -70,6 +71,14 @@ public final class PSKmerBloomFilter extends PSKmerCollection {
         output.close();
     }
 
+    /**
+     * Writes the filter in the format read by {@link PSMappedKmerCollection}
+     */
+    void writeMappable(final BinaryCodec codec) {
+        PSMappedKmerCollection.writeHeader(codec, PSMappedKmerCollection.BLOOM_FILTER_MAGIC, kmerSize, kmerMask, falsePositiveProbability);
+        kmerSet.writeMappable(codec);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
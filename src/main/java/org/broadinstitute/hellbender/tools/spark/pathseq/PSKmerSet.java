@@ -4,6 +4,7 @@ import com.esotericsoftware.kryo.DefaultSerializer;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import htsjdk.samtools.util.BinaryCodec;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 import org.broadinstitute.hellbender.tools.spark.utils.LargeLongHopscotchSet;
 import org.broadinstitute.hellbender.tools.spark.utils.LongIterator;
@@ -74,6 +75,14 @@ public final class PSKmerSet extends PSKmerCollection {
         output.close();
     }
 
+    /**
+     * Writes the set in the format read by {@link PSMappedKmerCollection}
+     */
+    void writeMappable(final BinaryCodec codec) {
+        PSMappedKmerCollection.writeHeader(codec, PSMappedKmerCollection.HOPSCOTCH_SET_MAGIC, kmerSize, kmerMask, getFalsePositiveProbability());
+        kmerSet.writeMappable(codec);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.spark.pathseq;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import htsjdk.samtools.util.BinaryCodec;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.engine.datasources.ReferenceFileSource;
@@ -15,10 +16,12 @@ import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * PathSeq utilities for kmer libraries
@@ -27,6 +30,8 @@ public class PSKmerUtils {
 
     public static final String HOPSCOTCH_SET_EXTENSION = ".hss";
     public static final String BLOOM_FILTER_EXTENSION = ".bfi";
+    public static final String MAPPED_HOPSCOTCH_SET_EXTENSION = ".mhss";
+    public static final String MAPPED_BLOOM_FILTER_EXTENSION = ".mbfi";
     private static final Logger logger = LogManager.getLogger(PSKmerUtils.class);
 
     /**
@@ -111,28 +116,65 @@ public class PSKmerUtils {
         output.close();
     }
 
+    /**
+     * Whether the file name ends with the extension, ignoring case. Used both when writing and when reading a kmer
+     * library, so that any file written under a given name is read back in the same format.
+     */
+    private static boolean hasExtension(final String uri, final String extension) {
+        return uri.toLowerCase().endsWith(extension.toLowerCase());
+    }
+
+    private static String withExtension(final String uri, final String extension) {
+        return hasExtension(uri, extension) ? uri : uri + extension;
+    }
+
     public static void writeKmerSet(final String uri, final PSKmerSet set) {
-        String filePath = uri;
-        if (!uri.toLowerCase().endsWith(HOPSCOTCH_SET_EXTENSION.toLowerCase())) {
-            filePath = filePath + HOPSCOTCH_SET_EXTENSION;
-        }
+        final String filePath = withExtension(uri, HOPSCOTCH_SET_EXTENSION);
         writeKryoObject(set, filePath);
     }
 
     public static void writeKmerBloomFilter(final String uri, final PSKmerBloomFilter bloomFilter) {
-        String filePath = uri;
-        if (!uri.toLowerCase().endsWith(BLOOM_FILTER_EXTENSION.toLowerCase())) {
-            filePath = filePath + BLOOM_FILTER_EXTENSION;
-        }
+        final String filePath = withExtension(uri, BLOOM_FILTER_EXTENSION);
         writeKryoObject(bloomFilter, filePath);
     }
 
+    /**
+     * Writes little-endian binary data to a URI.
+     */
+    private static void writeLittleEndian(final String uri, final Consumer<BinaryCodec> writer) {
+        final BinaryCodec codec = new BinaryCodec(new BufferedOutputStream(BucketUtils.createFile(uri)));
+        writer.accept(codec);
+        codec.close();
+    }
+
+    /**
+     * Writes the set in a format that is memory-mapped rather than deserialized when read
+     */
+    public static void writeMappedKmerSet(final String uri, final PSKmerSet set) {
+        final String filePath = withExtension(uri, MAPPED_HOPSCOTCH_SET_EXTENSION);
+        writeLittleEndian(filePath, set::writeMappable);
+    }
+
+    /**
+     * Writes the Bloom filter in a format that is memory-mapped rather than deserialized when read
+     */
+    public static void writeMappedKmerBloomFilter(final String uri, final PSKmerBloomFilter bloomFilter) {
+        final String filePath = withExtension(uri, MAPPED_BLOOM_FILTER_EXTENSION);
+        writeLittleEndian(filePath, bloomFilter::writeMappable);
+    }
+
+    /**
+     * Reads a kmer set or Bloom filter. Files in one of the mapped formats are memory-mapped, and must be local.
+     */
     public static PSKmerCollection readKmerFilter(final String uri) {
+        if (hasExtension(uri, MAPPED_HOPSCOTCH_SET_EXTENSION) || hasExtension(uri, MAPPED_BLOOM_FILTER_EXTENSION)) {
+            return PSMappedKmerCollection.map(uri);
+        }
         final Input input = new Input(BucketUtils.openFile(uri));
         final Kryo kryo = new Kryo();
-        if (uri.endsWith(HOPSCOTCH_SET_EXTENSION)) {
+        if (hasExtension(uri, HOPSCOTCH_SET_EXTENSION)) {
             return kryo.readObject(input, PSKmerSet.class);
-        } else if (uri.endsWith(BLOOM_FILTER_EXTENSION)) {
+        } else if (hasExtension(uri, BLOOM_FILTER_EXTENSION)) {
             return kryo.readObject(input, PSKmerBloomFilter.class);
         }
         throw new UserException.BadInput("Unknown kmer set extension in file name " + uri);
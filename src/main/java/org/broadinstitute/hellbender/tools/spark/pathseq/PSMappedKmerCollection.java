@@ -0,0 +1,93 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import htsjdk.samtools.util.BinaryCodec;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
+import org.broadinstitute.hellbender.tools.spark.utils.MappedLargeLongHopscotchSet;
+import org.broadinstitute.hellbender.tools.spark.utils.MappedLongArray;
+import org.broadinstitute.hellbender.tools.spark.utils.MappedLongBloomFilter;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Kmer set or Bloom filter that is memory-mapped from a file written by {@link PSKmerSet#writeMappable} or
+ * {@link PSKmerBloomFilter#writeMappable} and queried in place, rather than deserialized onto the heap.
+ *
+ * The file is a sequence of little-endian longs: a magic number telling a hash set from a Bloom filter, the kmer size,
+ * the kmer mask, the bits of the false positive probability, and then the set or the filter itself.
+ */
+public final class PSMappedKmerCollection extends PSKmerCollection {
+
+    static final long HOPSCOTCH_SET_MAGIC = 0x315353486d4b5350L; // "PSKmHSS1" when read as bytes
+    static final long BLOOM_FILTER_MAGIC = 0x314946426d4b5350L; // "PSKmBFI1" when read as bytes
+    private static final int HEADER_LONGS = 4;
+
+    private final LongPredicate maskedKmerSet;
+    private final int kmerSize;
+    private final SVKmerShort kmerMask;
+    private final double falsePositiveProbability;
+
+    private PSMappedKmerCollection(final LongPredicate maskedKmerSet, final int kmerSize, final SVKmerShort kmerMask,
+                                   final double falsePositiveProbability) {
+        this.maskedKmerSet = maskedKmerSet;
+        this.kmerSize = kmerSize;
+        this.kmerMask = kmerMask;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    /**
+     * Map a kmer set or Bloom filter file, which must be on a local file system
+     */
+    public static PSMappedKmerCollection map(final String path) {
+        Utils.nonNull(path);
+        final MappedLongArray array = new MappedLongArray(IOUtils.getPath(path));
+        if (array.size() < HEADER_LONGS) {
+            throw new UserException.BadInput("Mapped kmer file " + path + " is truncated");
+        }
+        final long magic = array.get(0);
+        final int kmerSize = (int) array.get(1);
+        final SVKmerShort kmerMask = new SVKmerShort(array.get(2));
+        final double falsePositiveProbability = Double.longBitsToDouble(array.get(3));
+        if (magic == HOPSCOTCH_SET_MAGIC) {
+            return new PSMappedKmerCollection(new MappedLargeLongHopscotchSet(array, HEADER_LONGS)::contains,
+                    kmerSize, kmerMask, falsePositiveProbability);
+        } else if (magic == BLOOM_FILTER_MAGIC) {
+            return new PSMappedKmerCollection(new MappedLongBloomFilter(array, HEADER_LONGS)::contains,
+                    kmerSize, kmerMask, falsePositiveProbability);
+        }
+        throw new UserException.BadInput("File " + path + " is not a mapped kmer set or Bloom filter");
+    }
+
+    static void writeHeader(final BinaryCodec codec, final long magic, final int kmerSize, final SVKmerShort kmerMask,
+                            final double falsePositiveProbability) {
+        codec.writeLong(magic);
+        codec.writeLong(kmerSize);
+        codec.writeLong(kmerMask.getLong());
+        codec.writeLong(Double.doubleToLongBits(falsePositiveProbability));
+    }
+
+    /**
+     * Input should not be canonicalized/masked
+     */
+    @Override
+    public boolean contains(final SVKmerShort rawKmer) {
+        return maskedKmerSet.test(canonicalizeAndMask(rawKmer, kmerSize, kmerMask));
+    }
+
+    @Override
+    public int kmerSize() {
+        return kmerSize;
+    }
+
+    @Override
+    public SVKmerShort getMask() {
+        return kmerMask;
+    }
+
+    @Override
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+}
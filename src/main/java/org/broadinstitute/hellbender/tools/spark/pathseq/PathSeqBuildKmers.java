@@ -28,7 +28,9 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
 
     @Argument(doc = "File for kmer library output. Extension will be automatically added if not present ("
             + PSKmerUtils.HOPSCOTCH_SET_EXTENSION + " for hash set or "
-            + PSKmerUtils.BLOOM_FILTER_EXTENSION + " for Bloom filter)",
+            + PSKmerUtils.BLOOM_FILTER_EXTENSION + " for Bloom filter, "
+            + PSKmerUtils.MAPPED_HOPSCOTCH_SET_EXTENSION + " and " + PSKmerUtils.MAPPED_BLOOM_FILTER_EXTENSION
+            + " in the memory-mapped format)",
             shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
             fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME)
     public String outputFile;
@@ -63,6 +65,12 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
             optional = true)
     public int kmerSpacing = 1;
 
+    @Argument(doc = "Write the hash set or Bloom filter in a format that PathSeqFilterSpark memory-maps and queries in place, " +
+            "instead of deserializing it on every executor. The file must then be on local disk wherever it is read.",
+            fullName = "memoryMappedFormat",
+            optional = true)
+    public boolean memoryMappedFormat = false;
+
     /**
      * Get the list of distinct kmers in the reference, and write them to a file as a HopScotch set or Bloom filter.
      */
@@ -82,12 +90,20 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
             final LongBloomFilter bloomFilter = PSKmerUtils.longArrayCollectionToBloomFilter(maskedKmerCollection, numLongs, bloomFpp);
             final PSKmerBloomFilter kmerBloomFilter = new PSKmerBloomFilter(bloomFilter, kmerSize, kmerMask, numLongs);
             logger.info("Theoretical Bloom filter false positive probability: " + kmerBloomFilter.getFalsePositiveProbability());
-            PSKmerUtils.writeKmerBloomFilter(outputFile, kmerBloomFilter);
+            if (memoryMappedFormat) {
+                PSKmerUtils.writeMappedKmerBloomFilter(outputFile, kmerBloomFilter);
+            } else {
+                PSKmerUtils.writeKmerBloomFilter(outputFile, kmerBloomFilter);
+            }
         } else {
             logger.info("Building kmer hash set...");
             final LargeLongHopscotchSet kmerHopscotchSet = PSKmerUtils.longArrayCollectionToSet(maskedKmerCollection, numLongs);
             final PSKmerSet kmerSet = new PSKmerSet(kmerHopscotchSet, kmerSize, kmerMask);
-            PSKmerUtils.writeKmerSet(outputFile, kmerSet);
+            if (memoryMappedFormat) {
+                PSKmerUtils.writeMappedKmerSet(outputFile, kmerSet);
+            } else {
+                PSKmerUtils.writeKmerSet(outputFile, kmerSet);
+            }
         }
         return null;
     }
@@ -145,6 +145,8 @@ public class StructuralVariationDiscoveryArgumentCollection implements Serializa
          * This is a path to a file of kmers that appear too frequently in the reference to be usable as probes to localize
          * reads.  We don't calculate it here, because it depends only on the reference.
          * The program FindBadGenomicKmersSpark can produce such a list for you.
+         * A file with the .mkmers extension, as written by FindBadGenomicKmersSpark with --memoryMappedFormat, is
+         * memory-mapped by each executor instead of being read and broadcast. It must be on local disk on every node.
          */
         @Argument(doc = "file containing ubiquitous kmer list. see FindBadGenomicKmersSpark to generate it.",
                 fullName = "kmersToIgnore")
@@ -20,6 +20,7 @@ import org.broadinstitute.hellbender.engine.datasources.ReferenceMultiSource;
 import org.broadinstitute.hellbender.engine.spark.GATKSparkTool;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.tools.spark.sv.StructuralVariationDiscoveryArgumentCollection;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.MappedSVKmerSet;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVDUSTFilteredKmerizer;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmer;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerLong;
@@ -33,7 +34,10 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -65,6 +69,11 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
             fullName = "highCopyFasta", optional = true)
     private String highCopyFastaFilename;
 
+    @Argument(doc = "Write the kmers in a format that FindBreakpointEvidenceSpark memory-maps and queries in place, " +
+            "instead of reading and broadcasting them. The file must then be on local disk wherever it is read.",
+            fullName = "memoryMappedFormat", optional = true)
+    private boolean memoryMappedFormat = false;
+
     @Override
     public boolean requiresReference() {
         return true;
@@ -78,6 +87,10 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
         if ( hdr != null ) dict = hdr.getSequenceDictionary();
         final PipelineOptions options = getAuthenticatedGCSOptions();
         final ReferenceMultiSource referenceMultiSource = getReference();
+        if ( memoryMappedFormat ) {
+            writeMappedKmers(ctx, referenceMultiSource, options, dict);
+            return;
+        }
         Collection<SVKmer> killList = findBadGenomicKmers(ctx, kSize, maxDUSTScore, referenceMultiSource, options, dict);
         if ( highCopyFastaFilename != null ) {
             killList = uniquify(killList, processFasta(kSize, maxDUSTScore, highCopyFastaFilename, options));
@@ -86,6 +99,37 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
         SVUtils.writeKmersFile(kSize, outputFile, killList);
     }
 
+    /**
+     * Write the high copy number kmers as a {@link MappedSVKmerSet}. Only their fingerprints are collected, and the
+     * set is built straight into the file, so the driver never holds the kmers or the set on its heap.
+     */
+    private void writeMappedKmers( final JavaSparkContext ctx,
+                                   final ReferenceMultiSource referenceMultiSource,
+                                   final PipelineOptions options,
+                                   final SAMSequenceDictionary dict ) {
+        final JavaRDD<byte[]> refRDD = SVUtils.getRefRDD(ctx, kSize, referenceMultiSource, options, dict,
+                                                                REF_RECORD_LEN, REF_RECORDS_PER_PARTITION);
+        final List<long[]> fingerprintsList = processRefRDDFingerprints(kSize, maxDUSTScore, MAX_KMER_FREQ, refRDD);
+        if ( highCopyFastaFilename != null ) {
+            fingerprintsList.add(fingerprints(processFasta(kSize, maxDUSTScore, highCopyFastaFilename, options).iterator(), 0));
+        }
+
+        final long[] fingerprints = new long[fingerprintsList.stream().mapToInt(arr -> arr.length).sum()];
+        int nFingerprints = 0;
+        for ( final long[] arr : fingerprintsList ) {
+            System.arraycopy(arr, 0, fingerprints, nFingerprints, arr.length);
+            nFingerprints += arr.length;
+        }
+        fingerprintsList.clear();
+
+        String mappedFile = outputFile;
+        if ( !MappedSVKmerSet.isMappedKmerSetFile(mappedFile) ) {
+            mappedFile = mappedFile + MappedSVKmerSet.MAPPED_KMER_SET_EXTENSION;
+        }
+        final long nKmers = MappedSVKmerSet.write(mappedFile, kSize, fingerprints, Runtime.getRuntime().availableProcessors());
+        logger.info("Wrote " + nKmers + " high copy number kmers to " + mappedFile);
+    }
+
     /** Find high copy number kmers in the reference sequence */
     @VisibleForTesting
     static List<SVKmer> findBadGenomicKmers( final JavaSparkContext ctx,
@@ -164,6 +208,39 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
                                                           final int maxDUSTScore,
                                                           final int maxKmerFreq,
                                                           final JavaRDD<byte[]> refRDD ) {
+        return highFreqKmers(kSize, maxDUSTScore, maxKmerFreq, refRDD).collect();
+    }
+
+    /**
+     * Same as processRefRDD, but collects just the {@link SVKmerLong#fingerprint}s of the kmers, as one array
+     * per partition.
+     */
+    @VisibleForTesting static List<long[]> processRefRDDFingerprints( final int kSize,
+                                                                      final int maxDUSTScore,
+                                                                      final int maxKmerFreq,
+                                                                      final JavaRDD<byte[]> refRDD ) {
+        final int arrayCap = REF_RECORDS_PER_PARTITION/100;
+        return new ArrayList<>(highFreqKmers(kSize, maxDUSTScore, maxKmerFreq, refRDD)
+                .mapPartitions(kmerItr -> Collections.singletonList(fingerprints(kmerItr, arrayCap)).iterator())
+                .collect());
+    }
+
+    private static long[] fingerprints( final Iterator<SVKmer> kmerItr, final int arrayCap ) {
+        long[] fingerprints = new long[arrayCap];
+        int nFingerprints = 0;
+        while ( kmerItr.hasNext() ) {
+            if ( nFingerprints == fingerprints.length ) {
+                fingerprints = Arrays.copyOf(fingerprints, 2*nFingerprints + 1);
+            }
+            fingerprints[nFingerprints++] = ((SVKmerLong)kmerItr.next()).fingerprint();
+        }
+        return Arrays.copyOf(fingerprints, nFingerprints);
+    }
+
+    private static JavaRDD<SVKmer> highFreqKmers( final int kSize,
+                                                  final int maxDUSTScore,
+                                                  final int maxKmerFreq,
+                                                  final JavaRDD<byte[]> refRDD ) {
         final int nPartitions = refRDD.getNumPartitions();
         final int hashSize = 2*REF_RECORDS_PER_PARTITION;
         final int arrayCap = REF_RECORDS_PER_PARTITION/100;
@@ -200,8 +277,7 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
                         if ( kmerAndCount.grabCount() > maxKmerFreq ) highFreqKmers.add(kmerAndCount.getKey());
                     }
                     return highFreqKmers.iterator();
-                })
-                .collect();
+                });
     }
 
     @VisibleForTesting static List<SVKmer> processFasta( final int kSize,
@@ -38,6 +38,8 @@ import scala.Tuple3;
 import java.io.*;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -355,14 +357,25 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
             final SVReadFilter filter,
             final Logger logger)
     {
-        final Set<SVKmer> kmerKillSet =
-                SVUtils.readKmersFile(params.kSize,
-                                        params.kmersToIgnoreFile,
-                                        new SVKmerLong(params.kSize));
-        log("Ignoring " + kmerKillSet.size() + " genomically common kmers.", logger);
-
-        final Tuple2<List<AlignedAssemblyOrExcuse>, List<KmerAndInterval>> kmerIntervalsAndDispositions =
-                getKmerIntervals(params, ctx, qNamesMultiMap, nIntervals, kmerKillSet, unfilteredReads, filter);
+        final Tuple2<List<AlignedAssemblyOrExcuse>, List<KmerAndInterval>> kmerIntervalsAndDispositions;
+        if ( MappedSVKmerSet.isMappedKmerSetFile(params.kmersToIgnoreFile) ) {
+            // each executor maps the file once for all its tasks, so there's nothing to load or broadcast
+            final String kmerKillSetFile = params.kmersToIgnoreFile;
+            final int kSize = params.kSize;
+            // checks the file up front, and is reused by the tasks if they run in this JVM
+            MappedSVKmerSet.getShared(kmerKillSetFile, kSize);
+            log("Ignoring the genomically common kmers in " + kmerKillSetFile + ".", logger);
+            kmerIntervalsAndDispositions = getKmerIntervals(params, ctx, qNamesMultiMap, nIntervals,
+                    () -> MappedSVKmerSet.getShared(kmerKillSetFile, kSize)::contains, unfilteredReads, filter);
+        } else {
+            final Set<SVKmer> kmerKillSet =
+                    SVUtils.readKmersFile(params.kSize,
+                                            params.kmersToIgnoreFile,
+                                            new SVKmerLong(params.kSize));
+            log("Ignoring " + kmerKillSet.size() + " genomically common kmers.", logger);
+            kmerIntervalsAndDispositions =
+                    getKmerIntervals(params, ctx, qNamesMultiMap, nIntervals, kmerKillSet, unfilteredReads, filter);
+        }
         final HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> kmerMultiMap =
                 new HopscotchUniqueMultiMap<>(kmerIntervalsAndDispositions._2());
         log("Discovered " + kmerMultiMap.size() + " kmers.", logger);
@@ -513,6 +526,12 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
         return qNames;
     }
 
+    /**
+     * Serializable source of the kill set of kmers, called on the executors to get the kmers to ignore.
+     */
+    private interface KmerKillSetSource extends Serializable, Supplier<Predicate<SVKmer>> {
+    }
+
     /** find kmers for each interval */
     @VisibleForTesting static Tuple2<List<AlignedAssemblyOrExcuse>, List<KmerAndInterval>> getKmerIntervals(
             final FindBreakpointEvidenceSparkArgumentCollection params,
@@ -522,8 +541,23 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
             final Set<SVKmer> kmerKillSet,
             final JavaRDD<GATKRead> unfilteredReads,
             final SVReadFilter filter ) {
-
         final Broadcast<Set<SVKmer>> broadcastKmerKillSet = ctx.broadcast(kmerKillSet);
+        final Tuple2<List<AlignedAssemblyOrExcuse>, List<KmerAndInterval>> result =
+                getKmerIntervals(params, ctx, qNamesMultiMap, nIntervals,
+                        () -> broadcastKmerKillSet.value()::contains, unfilteredReads, filter);
+        broadcastKmerKillSet.destroy();
+        return result;
+    }
+
+    private static Tuple2<List<AlignedAssemblyOrExcuse>, List<KmerAndInterval>> getKmerIntervals(
+            final FindBreakpointEvidenceSparkArgumentCollection params,
+            final JavaSparkContext ctx,
+            final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap,
+            final int nIntervals,
+            final KmerKillSetSource kmerKillSetSource,
+            final JavaRDD<GATKRead> unfilteredReads,
+            final SVReadFilter filter ) {
+
         final Broadcast<HopscotchUniqueMultiMap<String, Integer, QNameAndInterval>> broadcastQNameAndIntervalsMultiMap =
                 ctx.broadcast(qNamesMultiMap);
 
@@ -541,7 +575,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                         new FlatMapGluer<>(
                                 new QNameKmerizer(
                                         broadcastQNameAndIntervalsMultiMap.value(),
-                                        broadcastKmerKillSet.value(), kSize, maxDUSTScore, filter),
+                                        kmerKillSetSource.get(), kSize, maxDUSTScore, filter),
                                 readItr), false)
                 .reduceByKey(Integer::sum)
                 .mapPartitions(itr ->
@@ -549,7 +583,6 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                 .collect();
 
         broadcastQNameAndIntervalsMultiMap.destroy();
-        broadcastKmerKillSet.destroy();
 
         final int[] intervalKmerCounts = new int[nIntervals];
         for ( final KmerAndInterval kmerAndInterval : kmerIntervals ) {
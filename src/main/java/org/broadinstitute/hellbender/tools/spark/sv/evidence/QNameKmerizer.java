@@ -10,23 +10,24 @@ import scala.Tuple2;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Class that acts as a mapper from a stream of reads to a stream of KmerAndIntervals.
- * The template names of reads to kmerize, along with a set of kmers to ignore are passed in (by broadcast).
+ * The template names of reads to kmerize, along with a set of kmers to ignore are passed in (by broadcast, or, for
+ * the kmers to ignore, by memory-mapping a {@link org.broadinstitute.hellbender.tools.spark.sv.utils.MappedSVKmerSet}).
  */
 public final class QNameKmerizer implements Function<GATKRead, Iterator<Tuple2<KmerAndInterval, Integer>>> {
     private final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNameAndIntervalMultiMap;
-    private final Set<SVKmer> kmersToIgnore;
+    private final Predicate<SVKmer> kmersToIgnore;
     private final int kSize;
     private final int maxDUSTScore;
     private final SVReadFilter filter;
     private final ArrayList<Tuple2<KmerAndInterval, Integer>> tupleList = new ArrayList<>();
 
     public QNameKmerizer( final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNameAndIntervalMultiMap,
-                          final Set<SVKmer> kmersToIgnore, final int kSize, final int maxDUSTScore,
+                          final Predicate<SVKmer> kmersToIgnore, final int kSize, final int maxDUSTScore,
                           final SVReadFilter filter ) {
         this.qNameAndIntervalMultiMap = qNameAndIntervalMultiMap;
         this.kmersToIgnore = kmersToIgnore;
@@ -45,7 +46,7 @@ public final class QNameKmerizer implements Function<GATKRead, Iterator<Tuple2<K
             final int intervalId = names.next().getIntervalId();
             SVDUSTFilteredKmerizer.stream(read.getBases(), kSize, maxDUSTScore, new SVKmerLong())
                     .map(kmer -> kmer.canonical(kSize))
-                    .filter(kmer -> !kmersToIgnore.contains(kmer))
+                    .filter(kmer -> !kmersToIgnore.test(kmer))
                     .map(kmer -> new KmerAndInterval(kmer, intervalId))
                     .forEach(kmerCountAndInterval -> tupleList.add(new Tuple2<>(kmerCountAndInterval, 1)));
         }
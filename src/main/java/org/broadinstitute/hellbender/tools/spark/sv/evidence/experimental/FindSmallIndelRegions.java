@@ -17,6 +17,7 @@ import org.broadinstitute.hellbender.cmdline.programgroups.StructuralVariationSp
 import org.broadinstitute.hellbender.engine.spark.GATKSparkTool;
 import org.broadinstitute.hellbender.tools.spark.sv.discovery.SimpleSVType;
 import org.broadinstitute.hellbender.tools.spark.sv.evidence.*;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.FlatSVIntervalTree;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVInterval;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVIntervalTree;
 import org.broadinstitute.hellbender.exceptions.GATKException;
@@ -83,8 +84,9 @@ public final class FindSmallIndelRegions extends GATKSparkTool {
             }
         }
         final Broadcast<ReadMetadata> broadcastReadMetadata = ctx.broadcast(readMetadata);
-        final SVIntervalTree<SVTypeLen> trueIntervals = readTruthFile(truthFile, readMetadata.getContigNameMap());
-        final Broadcast<SVIntervalTree<SVTypeLen>> broadcastTrueIntervals = ctx.broadcast(trueIntervals);
+        final FlatSVIntervalTree<SVTypeLen> trueIntervals =
+                new FlatSVIntervalTree<>(readTruthFile(truthFile, readMetadata.getContigNameMap()));
+        final Broadcast<FlatSVIntervalTree<SVTypeLen>> broadcastTrueIntervals = ctx.broadcast(trueIntervals);
         allReads
             .mapPartitions(readItr -> {
                 final List<String> statList = new ArrayList<>(EVIDENCE_SIZE_GUESS);
@@ -197,12 +199,12 @@ public final class FindSmallIndelRegions extends GATKSparkTool {
     }
 
     static final class KSWindowStatusFinder extends KSWindowFinder {
-        private final SVIntervalTree<SVTypeLen> trueIntervals;
+        private final FlatSVIntervalTree<SVTypeLen> trueIntervals;
         private final String cdfDir;
 
         public KSWindowStatusFinder( final ReadMetadata readMetadata,
                                      final SVReadFilter filter,
-                                     final SVIntervalTree<SVTypeLen> trueIntervals,
+                                     final FlatSVIntervalTree<SVTypeLen> trueIntervals,
                                      final String cdfDir ) {
             super(readMetadata, filter);
             this.trueIntervals = trueIntervals;
@@ -0,0 +1,424 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable set of intervals with associated values, built all at once from intervals that are already sorted,
+ * and answering the same queries as an {@link SVIntervalTree} that holds the same entries.
+ * <p>
+ * Instead of a tree of linked nodes, the intervals are laid out in sorted order in a few parallel primitive arrays,
+ * which are read as an implicit, perfectly balanced binary tree: the node at each index has a level equal to the
+ * number of trailing 1 bits of the index, and its children are half a subtree away on either side.  Each node is
+ * augmented with the largest end of the intervals in its subtree, so overlapping intervals are found just like in an
+ * augmented interval tree.  This takes a fraction of the memory of an {@link SVIntervalTree}, which makes it a better
+ * choice for broadcasting to executors an interval map that doesn't change once built.
+ * <p>
+ * Its Kryo serialization is the same as that of an {@link SVIntervalTree}, so either can read what the other wrote.
+ * Entries can't be modified, so {@link SVIntervalTree.Entry#setValue} and the iterators' remove method throw
+ * UnsupportedOperationException.  Thread-safe once built.
+ */
+@DefaultSerializer(FlatSVIntervalTree.Serializer.class)
+public final class FlatSVIntervalTree<V> implements Iterable<SVIntervalTree.Entry<V>> {
+    // below this level, overlap queries just scan the subtree
+    private static final int MAX_SCANNED_LEVEL = 3;
+
+    private final int size;
+    private final int[] contigs;
+    private final int[] starts;
+    private final int[] ends;
+    private final V[] values;
+    // largest end key of the intervals in the subtree rooted at each index
+    private final long[] maxEndKeys;
+    private final int rootLevel;
+
+    /**
+     * Copy the entries of a tree.
+     */
+    public FlatSVIntervalTree( final SVIntervalTree<V> tree ) {
+        this(Utils.nonNull(tree).size(), tree.iterator());
+    }
+
+    /**
+     * Build from sorted, distinct intervals and their associated values.
+     *
+     * @param intervals Intervals in strictly increasing order.
+     * @param values The value associated with each of the intervals, which may be null.
+     */
+    public FlatSVIntervalTree( final List<SVInterval> intervals, final List<V> values ) {
+        this(validateSizes(intervals, values), new Iterator<SVIntervalTree.Entry<V>>() {
+            private int idx = 0;
+            @Override public boolean hasNext() { return idx < intervals.size(); }
+            @Override public SVIntervalTree.Entry<V> next() {
+                final int entryIdx = idx++;
+                return simpleEntry(intervals.get(entryIdx), values.get(entryIdx));
+            }
+        });
+    }
+
+    private static int validateSizes( final List<SVInterval> intervals, final List<?> values ) {
+        Utils.nonNull(intervals);
+        Utils.nonNull(values);
+        Utils.validateArg(intervals.size() == values.size(), "There must be one value for each interval.");
+        return intervals.size();
+    }
+
+    private static <V> SVIntervalTree.Entry<V> simpleEntry( final SVInterval interval, final V value ) {
+        return new SVIntervalTree.Entry<V>() {
+            @Override public SVInterval getInterval() { return interval; }
+            @Override public V getValue() { return value; }
+            @Override public V setValue( final V value ) { throw new UnsupportedOperationException(); }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private FlatSVIntervalTree( final int size, final Iterator<SVIntervalTree.Entry<V>> sortedEntries ) {
+        this.size = size;
+        contigs = new int[size];
+        starts = new int[size];
+        ends = new int[size];
+        values = (V[])new Object[size];
+        SVInterval prevInterval = null;
+        for ( int idx = 0; idx != size; ++idx ) {
+            final SVIntervalTree.Entry<V> entry = sortedEntries.next();
+            final SVInterval interval = Utils.nonNull(entry.getInterval(), "Intervals must not be null.");
+            if ( prevInterval != null && prevInterval.compareTo(interval) >= 0 ) {
+                throw new IllegalArgumentException("Intervals are not sorted, or are repeated: " + prevInterval +
+                        " is followed by " + interval);
+            }
+            contigs[idx] = interval.getContig();
+            starts[idx] = interval.getStart();
+            ends[idx] = interval.getEnd();
+            values[idx] = entry.getValue();
+            prevInterval = interval;
+        }
+        maxEndKeys = new long[size];
+        rootLevel = buildIndex();
+    }
+
+    @SuppressWarnings("unchecked")
+    private FlatSVIntervalTree( final Kryo kryo, final Input input ) {
+        this(input.readInt(), new Iterator<SVIntervalTree.Entry<V>>() {
+            private final SVInterval.Serializer intervalSerializer = new SVInterval.Serializer();
+            @Override public boolean hasNext() { return true; }
+            @Override public SVIntervalTree.Entry<V> next() {
+                final SVInterval interval = intervalSerializer.read(kryo, input, SVInterval.class);
+                return simpleEntry(interval, (V)kryo.readClassAndObject(input));
+            }
+        });
+    }
+
+    private void serialize( final Kryo kryo, final Output output ) {
+        final SVInterval.Serializer intervalSerializer = new SVInterval.Serializer();
+        output.writeInt(size);
+        for ( int idx = 0; idx != size; ++idx ) {
+            intervalSerializer.write(kryo, output, new SVInterval(contigs[idx], starts[idx], ends[idx]));
+            kryo.writeClassAndObject(output, values[idx]);
+        }
+    }
+
+    /**
+     * Fill in maxEndKeys, bottom up.
+     *
+     * @return The level of the root of the tree, or -1 if there are no intervals.
+     */
+    private int buildIndex() {
+        if ( size == 0 ) return -1;
+        int lastIdx = 0;
+        long lastMaxEndKey = 0L;
+        for ( int idx = 0; idx < size; idx += 2 ) {
+            lastIdx = idx;
+            lastMaxEndKey = maxEndKeys[idx] = endKey(idx);
+        }
+        int level = 1;
+        for ( ; 1L << level <= size; ++level ) {
+            final int halfWidth = 1 << (level - 1);
+            for ( int idx = (halfWidth << 1) - 1; idx < size; idx += halfWidth << 2 ) {
+                final long leftMaxEndKey = maxEndKeys[idx - halfWidth];
+                final long rightMaxEndKey = idx + halfWidth < size ? maxEndKeys[idx + halfWidth] : lastMaxEndKey;
+                maxEndKeys[idx] = Math.max(endKey(idx), Math.max(leftMaxEndKey, rightMaxEndKey));
+            }
+            // move up to the parent of the last node that exists at this level
+            lastIdx = ((lastIdx >> level) & 1) != 0 ? lastIdx - halfWidth : lastIdx + halfWidth;
+            if ( lastIdx < size && maxEndKeys[lastIdx] > lastMaxEndKey ) lastMaxEndKey = maxEndKeys[lastIdx];
+        }
+        return level - 1;
+    }
+
+    /**
+     * Map a position to a long that sorts in the same order as (contig, position) pairs.
+     * Two intervals overlap if and only if the start key of each is less than the end key of the other.
+     */
+    private static long key( final int contig, final int position ) {
+        return ((long)contig << 32) | ((position ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    private long startKey( final int idx ) { return key(contigs[idx], starts[idx]); }
+    private long endKey( final int idx ) { return key(contigs[idx], ends[idx]); }
+
+    private int compare( final SVInterval interval, final int idx ) {
+        int result = Integer.compare(interval.getContig(), contigs[idx]);
+        if ( result == 0 ) {
+            result = Integer.compare(interval.getStart(), starts[idx]);
+            if ( result == 0 ) result = Integer.compare(interval.getEnd(), ends[idx]);
+        }
+        return result;
+    }
+
+    /**
+     * @return The index of the first interval greater than or equal to the specified interval, which is size() if
+     * there is none.
+     */
+    private int lowerBound( final SVInterval interval ) {
+        int lo = 0;
+        int hi = size;
+        while ( lo < hi ) {
+            final int mid = (lo + hi) >>> 1;
+            if ( compare(interval, mid) > 0 ) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private Entry entry( final int idx ) {
+        return idx >= 0 && idx < size ? new Entry(idx) : null;
+    }
+
+    /**
+     * Return the number of intervals.
+     */
+    public int size() { return size; }
+
+    /**
+     * Find an interval.
+     *
+     * @param interval The interval sought.
+     * @return The entry for that interval, or null.
+     */
+    public SVIntervalTree.Entry<V> find( final SVInterval interval ) {
+        final int idx = getIndex(interval);
+        return idx < 0 ? null : new Entry(idx);
+    }
+
+    /**
+     * Find the nth interval.
+     *
+     * @param idx The rank of the interval sought (from 0 to size()-1).
+     * @return The entry for the nth interval, or null if there is none.
+     */
+    public SVIntervalTree.Entry<V> findByIndex( final int idx ) { return entry(idx); }
+
+    /**
+     * Find the rank of the specified interval.
+     *
+     * @param interval The interval for which the index is sought.
+     * @return The rank of that interval, or -1 if it isn't present.
+     */
+    public int getIndex( final SVInterval interval ) {
+        final int idx = lowerBound(interval);
+        return idx < size && compare(interval, idx) == 0 ? idx : -1;
+    }
+
+    /**
+     * Find the least interval.
+     *
+     * @return The earliest interval, or null if there are none.
+     */
+    public SVIntervalTree.Entry<V> min() { return entry(0); }
+
+    /**
+     * Find the earliest interval greater than or equal to the specified interval.
+     *
+     * @param interval The interval sought.
+     * @return The earliest >= interval, or null if there is none.
+     */
+    public SVIntervalTree.Entry<V> min( final SVInterval interval ) { return entry(lowerBound(interval)); }
+
+    /**
+     * Find the greatest interval.
+     *
+     * @return The latest interval, or null if there are none.
+     */
+    public SVIntervalTree.Entry<V> max() { return entry(size - 1); }
+
+    /**
+     * Find the latest interval less than or equal to the specified interval.
+     *
+     * @param interval The interval sought.
+     * @return The latest <= interval, or null if there is none.
+     */
+    public SVIntervalTree.Entry<V> max( final SVInterval interval ) {
+        final int idx = lowerBound(interval);
+        return entry(idx < size && compare(interval, idx) == 0 ? idx : idx - 1);
+    }
+
+    /**
+     * Find the earliest interval that overlaps the specified interval.
+     *
+     * @param interval The interval sought.
+     * @return The earliest overlapping interval, or null if there is none.
+     */
+    public SVIntervalTree.Entry<V> minOverlapper( final SVInterval interval ) {
+        final OverlapIterator itr = new OverlapIterator(interval);
+        return itr.hasNext() ? itr.next() : null;
+    }
+
+    /**
+     * Return true if any interval overlaps the specified interval.
+     */
+    public boolean hasOverlapper( final SVInterval interval ) { return new OverlapIterator(interval).hasNext(); }
+
+    /**
+     * Return an iterator over all the intervals, in order.
+     */
+    @Override
+    public Iterator<SVIntervalTree.Entry<V>> iterator() { return new FwdIterator(0); }
+
+    /**
+     * Return an iterator over all intervals greater than or equal to the specified interval.
+     *
+     * @param interval The minimum interval.
+     */
+    public Iterator<SVIntervalTree.Entry<V>> iterator( final SVInterval interval ) {
+        return new FwdIterator(lowerBound(interval));
+    }
+
+    /**
+     * Return an iterator over all intervals overlapping the specified interval, in order.
+     *
+     * @param interval Interval to overlap.
+     */
+    public Iterator<SVIntervalTree.Entry<V>> overlappers( final SVInterval interval ) {
+        return new OverlapIterator(interval);
+    }
+
+    private final class Entry implements SVIntervalTree.Entry<V> {
+        private final int idx;
+
+        Entry( final int idx ) { this.idx = idx; }
+
+        @Override
+        public SVInterval getInterval() { return new SVInterval(contigs[idx], starts[idx], ends[idx]); }
+
+        @Override
+        public V getValue() { return values[idx]; }
+
+        @Override
+        public V setValue( final V value ) {
+            throw new UnsupportedOperationException("FlatSVIntervalTree entries are immutable.");
+        }
+    }
+
+    private final class FwdIterator implements Iterator<SVIntervalTree.Entry<V>> {
+        private int idx;
+
+        FwdIterator( final int idx ) { this.idx = idx; }
+
+        @Override
+        public boolean hasNext() { return idx < size; }
+
+        @Override
+        public SVIntervalTree.Entry<V> next() {
+            if ( idx >= size ) {
+                throw new NoSuchElementException("No next element.");
+            }
+            return new Entry(idx++);
+        }
+    }
+
+    /**
+     * Walks the implicit tree in order, skipping the subtrees whose intervals all end before the query starts, and
+     * stopping once intervals start after the query ends.
+     */
+    private final class OverlapIterator implements Iterator<SVIntervalTree.Entry<V>> {
+        private final long queryStartKey;
+        private final long queryEndKey;
+        // stack of nodes yet to visit, with a flag telling whether the left subtree was already pushed
+        private final int[] stackIdxs;
+        private final int[] stackLevels;
+        private final boolean[] stackLeftDone;
+        private int stackSize;
+        // range of indices of a small subtree that's being scanned
+        private int scanIdx;
+        private int scanEnd;
+        private int nextIdx;
+
+        OverlapIterator( final SVInterval interval ) {
+            queryStartKey = key(interval.getContig(), interval.getStart());
+            queryEndKey = key(interval.getContig(), interval.getEnd());
+            final int stackCapacity = 2 * (rootLevel + 1);
+            stackIdxs = new int[stackCapacity];
+            stackLevels = new int[stackCapacity];
+            stackLeftDone = new boolean[stackCapacity];
+            if ( rootLevel >= 0 ) push((1 << rootLevel) - 1, rootLevel, false);
+            nextIdx = advance();
+        }
+
+        @Override
+        public boolean hasNext() { return nextIdx >= 0; }
+
+        @Override
+        public SVIntervalTree.Entry<V> next() {
+            if ( nextIdx < 0 ) {
+                throw new NoSuchElementException("No next element.");
+            }
+            final Entry result = new Entry(nextIdx);
+            nextIdx = advance();
+            return result;
+        }
+
+        private void push( final int idx, final int level, final boolean leftDone ) {
+            stackIdxs[stackSize] = idx;
+            stackLevels[stackSize] = level;
+            stackLeftDone[stackSize] = leftDone;
+            stackSize += 1;
+        }
+
+        private int advance() {
+            while ( true ) {
+                while ( scanIdx < scanEnd ) {
+                    final int idx = scanIdx++;
+                    if ( startKey(idx) >= queryEndKey ) {
+                        scanIdx = scanEnd;
+                    } else if ( queryStartKey < endKey(idx) ) {
+                        return idx;
+                    }
+                }
+                if ( stackSize == 0 ) return -1;
+                stackSize -= 1;
+                final int idx = stackIdxs[stackSize];
+                final int level = stackLevels[stackSize];
+                if ( level <= MAX_SCANNED_LEVEL ) {
+                    scanIdx = idx >> level << level;
+                    scanEnd = Math.min(scanIdx + (1 << (level + 1)) - 1, size);
+                } else if ( !stackLeftDone[stackSize] ) {
+                    push(idx, level, true);
+                    final int leftIdx = idx - (1 << (level - 1));
+                    if ( leftIdx >= size || maxEndKeys[leftIdx] > queryStartKey ) push(leftIdx, level - 1, false);
+                } else if ( idx < size && startKey(idx) < queryEndKey ) {
+                    push(idx + (1 << (level - 1)), level - 1, false);
+                    if ( queryStartKey < endKey(idx) ) return idx;
+                }
+            }
+        }
+    }
+
+    public static final class Serializer<T> extends com.esotericsoftware.kryo.Serializer<FlatSVIntervalTree<T>> {
+        @Override
+        public void write( final Kryo kryo, final Output output, final FlatSVIntervalTree<T> tree ) {
+            tree.serialize(kryo, output);
+        }
+
+        @Override
+        public FlatSVIntervalTree<T> read( final Kryo kryo, final Input input, final Class<FlatSVIntervalTree<T>> klass ) {
+            return new FlatSVIntervalTree<>(kryo, input);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.spark.utils.MappableLongHopscotchSetWriter;
+import org.broadinstitute.hellbender.tools.spark.utils.MappedLargeLongHopscotchSet;
+import org.broadinstitute.hellbender.tools.spark.utils.MappedLongArray;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Set of kmers memory-mapped from a file written by {@link #write}, and queried in place rather than read onto the heap.
+ * Every executor on a machine shares the same pages, and nothing needs to be broadcast.
+ *
+ * Kmers are stored as their {@link SVKmerLong#fingerprint}, so a kmer that isn't in the set tests as present with a
+ * probability of about (number of kmers in the set) / 2^63, i.e., never, in practice.
+ *
+ * The file is a sequence of little-endian longs: a magic number, the kmer size, and then the set of fingerprints in the
+ * layout read by {@link MappedLargeLongHopscotchSet}. It must be on a local file system wherever it is read.
+ */
+public final class MappedSVKmerSet {
+
+    public static final String MAPPED_KMER_SET_EXTENSION = ".mkmers";
+    static final long MAGIC = 0x314c494b6d4b5653L; // "SVKmKIL1" when read as bytes
+    private static final int HEADER_LONGS = 2;
+
+    // the one mapping of each file per JVM, shared by all the tasks of an executor
+    private static final Map<String, MappedSVKmerSet> SHARED_MAPPINGS = new HashMap<>();
+
+    private final int kSize;
+    private final MappedLargeLongHopscotchSet fingerprints;
+
+    private MappedSVKmerSet( final int kSize, final MappedLargeLongHopscotchSet fingerprints ) {
+        this.kSize = kSize;
+        this.fingerprints = fingerprints;
+    }
+
+    public static boolean isMappedKmerSetFile( final String path ) {
+        return path.endsWith(MAPPED_KMER_SET_EXTENSION);
+    }
+
+    /**
+     * Map a file of kmers of the given size, which must be on a local file system.
+     */
+    public static MappedSVKmerSet map( final String path, final int kSize ) {
+        Utils.nonNull(path);
+        final MappedLongArray array = new MappedLongArray(IOUtils.getPath(path));
+        if ( array.size() < HEADER_LONGS || array.get(0) != MAGIC ) {
+            throw new UserException.BadInput("File " + path + " is not a mapped kmer set");
+        }
+        checkKSize(path, array.get(1), kSize);
+        return new MappedSVKmerSet(kSize, new MappedLargeLongHopscotchSet(array, HEADER_LONGS));
+    }
+
+    /**
+     * Get the mapping of a file of kmers of the given size that is shared by all the callers in this JVM, mapping the
+     * file the first time it is asked for. Use this rather than {@link #map} wherever a file is looked up per task or
+     * per partition.
+     */
+    public static synchronized MappedSVKmerSet getShared( final String path, final int kSize ) {
+        Utils.nonNull(path);
+        final MappedSVKmerSet shared = SHARED_MAPPINGS.get(path);
+        if ( shared != null ) {
+            checkKSize(path, shared.kSize, kSize);
+            return shared;
+        }
+        final MappedSVKmerSet kmers = map(path, kSize);
+        SHARED_MAPPINGS.put(path, kmers);
+        return kmers;
+    }
+
+    private static void checkKSize( final String path, final long actualKSize, final int kSize ) {
+        if ( actualKSize != kSize ) {
+            throw new UserException.BadInput("Mapped kmer set " + path + " has K=" + actualKSize +
+                    " but we were expecting K=" + kSize);
+        }
+    }
+
+    /**
+     * Write a set of kmers, given as their fingerprints, to a local file, building it with several threads.
+     *
+     * @param fingerprints fingerprints of the kmers, which may contain duplicates; reordered in place
+     * @return number of distinct kmers written
+     */
+    public static long write( final String path, final int kSize, final long[] fingerprints, final int numThreads ) {
+        Utils.nonNull(path);
+        return MappableLongHopscotchSetWriter.write(IOUtils.getPath(path), new long[]{MAGIC, kSize}, fingerprints, numThreads);
+    }
+
+    /**
+     * @param kmer an {@link SVKmerLong}
+     */
+    public boolean contains( final SVKmer kmer ) {
+        return fingerprints.contains(((SVKmerLong)kmer).fingerprint());
+    }
+}
@@ -137,6 +137,14 @@ public class SVKmerLong extends SVKmer implements Comparable<SVKmerLong>  {
         return (int)SVUtils.fnvLong64(SVUtils.fnvLong64(valHigh), valLow);
     }
 
+    /**
+     * A 63-bit (i.e., non-negative) hash of the kmer, for storing sets of kmers as sets of longs.
+     * Unlike the kmer itself, this fits in a long for any K, at the cost of a tiny chance of two kmers colliding.
+     */
+    public final long fingerprint() {
+        return SVUtils.fnvLong64(SVUtils.fnvLong64(valHigh), valLow) & Long.MAX_VALUE;
+    }
+
     /**
      * SVKmerLong comparison is consistent with equals.
      * It's also the same as the lexicographic ordering you'd get using toString on the Kmers.
@@ -46,6 +46,10 @@ public final class MarkDuplicatesSpark extends GATKSparkTool {
     @Argument(shortName = "DS", fullName = "DUPLICATE_SCORING_STRATEGY", doc = "The scoring strategy for choosing the non-duplicate among candidates.")
     public MarkDuplicatesScoringStrategy duplicatesScoringStrategy = MarkDuplicatesScoringStrategy.SUM_OF_BASE_QUALITIES;
 
+    @Argument(shortName = "SLIM", fullName = "SLIM_SHUFFLE", doc = "Shuffle only compact records of the read ends rather than whole reads, " +
+            "and set the duplicate flags on the reads in their original partitions.", optional = true)
+    public boolean slimShuffle = false;
+
     @ArgumentCollection
     protected OpticalDuplicatesArgumentCollection opticalDuplicatesArgumentCollection = new OpticalDuplicatesArgumentCollection();
 
@@ -57,6 +61,22 @@ public final class MarkDuplicatesSpark extends GATKSparkTool {
     public static JavaRDD<GATKRead> mark(final JavaRDD<GATKRead> reads, final SAMFileHeader header,
                                          final MarkDuplicatesScoringStrategy scoringStrategy,
                                          final OpticalDuplicateFinder opticalDuplicateFinder, final int numReducers) {
+        return mark(reads, header, scoringStrategy, opticalDuplicateFinder, numReducers, false);
+    }
+
+    /**
+     * Marks the duplicates among the reads.
+     * @param slimShuffle whether to shuffle compact records of the read ends rather than the reads themselves,
+     *                    see {@link MarkDuplicatesSparkUtils#transformReadsSlim}. The duplicates are the same either
+     *                    way, but the output keeps the partitioning and order of the input only in this mode.
+     */
+    public static JavaRDD<GATKRead> mark(final JavaRDD<GATKRead> reads, final SAMFileHeader header,
+                                         final MarkDuplicatesScoringStrategy scoringStrategy,
+                                         final OpticalDuplicateFinder opticalDuplicateFinder, final int numReducers,
+                                         final boolean slimShuffle) {
+        if (slimShuffle) {
+            return MarkDuplicatesSparkUtils.transformReadsSlim(header, scoringStrategy, opticalDuplicateFinder, reads, numReducers);
+        }
 
         JavaRDD<GATKRead> primaryReads = reads.filter(v1 -> !ReadUtils.isNonPrimary(v1));
         JavaRDD<GATKRead> nonPrimaryReads = reads.filter(v1 -> ReadUtils.isNonPrimary(v1));
@@ -71,7 +91,7 @@ public final class MarkDuplicatesSpark extends GATKSparkTool {
         final OpticalDuplicateFinder finder = opticalDuplicatesArgumentCollection.READ_NAME_REGEX != null ?
                 new OpticalDuplicateFinder(opticalDuplicatesArgumentCollection.READ_NAME_REGEX, opticalDuplicatesArgumentCollection.OPTICAL_DUPLICATE_PIXEL_DISTANCE, null) : null;
 
-        final JavaRDD<GATKRead> finalReadsForMetrics = mark(reads, getHeaderForReads(), duplicatesScoringStrategy, finder, getRecommendedNumReducers());
+        final JavaRDD<GATKRead> finalReadsForMetrics = mark(reads, getHeaderForReads(), duplicatesScoringStrategy, finder, getRecommendedNumReducers(), slimShuffle);
 
         if (metricsFile != null) {
             final JavaPairRDD<String, DuplicationMetrics> metricsByLibrary = MarkDuplicatesSparkUtils.generateMetrics(getHeaderForReads(), finalReadsForMetrics);
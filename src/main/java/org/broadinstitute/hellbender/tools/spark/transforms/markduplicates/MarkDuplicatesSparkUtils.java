@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.spark.transforms.markduplicates;
 import com.google.common.collect.*;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.metrics.MetricsFile;
+import org.apache.spark.Partitioner;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.broadinstitute.hellbender.engine.AuthHolder;
@@ -88,6 +89,205 @@ public class MarkDuplicatesSparkUtils {
         return markPairedEnds(keyedPairs, scoringStrategy, finder, header);
     }
 
+    /**
+     * Same as {@link #transformReads}, but only compact {@link CompactReadEnd} records are shuffled rather than
+     * whole reads, and the primary and non-primary reads are both expected in {@code reads}:
+     * (0) index the reads with <code>zipWithUniqueId</code>, and project each primary read onto a
+     *     {@link CompactReadEnd} carrying its index.
+     * (1)-(5) as in {@link #transformReads}, on the records (see {@link #markDuplicateRecords}).
+     * (6) the result is the (small) set of indices of the duplicates and of the best pairs with their optical
+     *     duplicate counts, which is sent back to the partitions the reads came from, where the duplicate flags
+     *     and optical duplicate attributes are set on the reads (see {@link #applyDuplicateFlags}).
+     *
+     * The reads are not shuffled at all: the output has the same partitioning and order as the input. Since
+     * {@code reads} is traversed twice, callers may want to cache it.
+     */
+    static JavaRDD<GATKRead> transformReadsSlim(final SAMFileHeader header, final MarkDuplicatesScoringStrategy scoringStrategy, final OpticalDuplicateFinder finder, final JavaRDD<GATKRead> reads, final int numReducers) {
+        final Map<String, Short> libraryIndices = CompactReadEnd.libraryIndices(header);
+        final JavaPairRDD<GATKRead, Long> indexedReads = reads.zipWithUniqueId();
+        final JavaPairRDD<String, CompactReadEnd> keyedRecords = indexedReads
+                .filter(indexedRead -> !ReadUtils.isNonPrimary(indexedRead._1()))
+                .mapToPair(indexedRead -> new Tuple2<>(ReadsKey.keyForRead(header, indexedRead._1()),
+                        CompactReadEnd.of(header, libraryIndices, scoringStrategy, indexedRead._2(), indexedRead._1())));
+
+        final JavaPairRDD<String, Iterable<CompactReadEnd>> groupedRecords;
+        if (SAMFileHeader.SortOrder.queryname.equals(header.getSortOrder())) {
+            // records are in the same order as the reads, so perform grouping within the partition (no shuffle)
+            groupedRecords = spanRecordsByKey(keyedRecords);
+        } else {
+            groupedRecords = keyedRecords.groupByKey(numReducers);
+        }
+
+        final JavaPairRDD<Long, Integer> duplicateFlags = markDuplicateRecords(groupedRecords, finder, numReducers);
+        return applyDuplicateFlags(indexedReads, duplicateFlags);
+    }
+
+    /**
+     * Value of the flags returned by {@link #markDuplicateRecords} for reads that are duplicates; the non-negative
+     * values are optical duplicate counts, for the first read of the best pair of each group.
+     */
+    static final int DUPLICATE_FLAG = -1;
+
+    /**
+     * Groups the pairs and fragments made out of the records, which are grouped by read group and name, and picks
+     * the duplicates among them as {@link #markPairedEnds} does.
+     * @return the flags of the reads, keyed by read index: {@link #DUPLICATE_FLAG} for duplicates, or the number of
+     * optical duplicates in the group for the first read of each best pair; reads with no flag are not duplicates.
+     */
+    static JavaPairRDD<Long, Integer> markDuplicateRecords(final JavaPairRDD<String, Iterable<CompactReadEnd>> groupedRecords,
+                                                           final OpticalDuplicateFinder finder, final int numReducers) {
+        final JavaPairRDD<CompactReadsKey, Iterable<CompactPairedEnds>> keyedPairs = groupedRecords.flatMapToPair(keyedRecords -> {
+            final List<Tuple2<CompactReadsKey, CompactPairedEnds>> out = Lists.newArrayList();
+            // Write each record out as a pair with only the first slot filled
+            for (final CompactReadEnd record : keyedRecords._2()) {
+                final CompactPairedEnds pair = CompactPairedEnds.of(record);
+                out.add(new Tuple2<>(pair.keyForFragment(), pair));
+            }
+            // Write each paired record with a mapped mate as a pair
+            final List<CompactReadEnd> sorted = Lists.newArrayList(Iterables.filter(keyedRecords._2(), CompactReadEnd::hasMappedMate));
+            sorted.sort(CompactReadEnd.PAIRING_ORDER);
+            CompactPairedEnds pair = null;
+            for (final CompactReadEnd record : sorted) {
+                if (pair == null) {
+                    pair = CompactPairedEnds.of(record);
+                } else {
+                    pair.and(record);
+                    out.add(new Tuple2<>(pair.key(), pair));
+                    pair = null;
+                }
+            }
+            if (pair != null) {
+                out.add(new Tuple2<>(pair.key(), pair));
+            }
+            return out.iterator();
+        }).groupByKey(numReducers);
+
+        return keyedPairs.flatMapToPair(keyedPair -> {
+            final List<Tuple2<Long, Integer>> out = Lists.newArrayList();
+            if (keyedPair._1().isFragment()) {
+                markFragmentRecords(keyedPair._2(), out);
+                return out.iterator();
+            }
+
+            // As in Picard, unpaired ends left alone.
+            final Comparator<CompactPairedEnds> pairedEndsComparator =
+                    Comparator.comparingInt(CompactPairedEnds::score).reversed()
+                            .thenComparing(CompactPairedEnds::first, CompactReadEnd.COORDINATE_ORDER);
+            final List<CompactPairedEnds> scored = Utils.stream(keyedPair._2()).filter(pe -> pe.second() != null)
+                    .sorted(pairedEndsComparator).collect(Collectors.toList());
+            if (scored.isEmpty()) {
+                return out.iterator();
+            }
+
+            for (final CompactPairedEnds pe : Iterables.skip(scored, 1)) {
+                out.add(new Tuple2<>(pe.first().getReadIndex(), DUPLICATE_FLAG));
+                out.add(new Tuple2<>(pe.second().getReadIndex(), DUPLICATE_FLAG));
+            }
+
+            int numOpticalDuplicates = 0;
+            if (finder != null) {
+                for (final CompactPairedEnds pe : scored) {
+                    finder.addLocationInformation(pe.first().getName(), pe);
+                }
+                // Split by orientation and count duplicates in each group separately, as markPairedEnds does.
+                final ImmutableListMultimap<Byte, CompactPairedEnds> groupByOrientation = Multimaps.index(scored, CompactPairedEnds::getOrientationForOpticalDuplicates);
+                if (groupByOrientation.containsKey(ReadEnds.FR) && groupByOrientation.containsKey(ReadEnds.RF)) {
+                    numOpticalDuplicates = countOpticalDuplicates(finder, new ArrayList<>(groupByOrientation.get(ReadEnds.FR)))
+                            + countOpticalDuplicates(finder, new ArrayList<>(groupByOrientation.get(ReadEnds.RF)));
+                } else {
+                    numOpticalDuplicates = countOpticalDuplicates(finder, new ArrayList<>(scored));
+                }
+            }
+            out.add(new Tuple2<>(scored.get(0).first().getReadIndex(), numOpticalDuplicates));
+            return out.iterator();
+        });
+    }
+
+    private static void markFragmentRecords(final Iterable<CompactPairedEnds> pairedEnds, final List<Tuple2<Long, Integer>> out) {
+        final Map<Boolean, List<CompactReadEnd>> byPairing = Utils.stream(pairedEnds).map(CompactPairedEnds::first)
+                .collect(Collectors.partitioningBy(CompactReadEnd::hasMappedMate));
+        if (byPairing.get(true).isEmpty()) {
+            // There are no paired reads, mark all but the highest scoring fragment as duplicate.
+            final Comparator<CompactReadEnd> fragmentsComparator =
+                    Comparator.comparingInt(CompactReadEnd::getScore).reversed().thenComparing(CompactReadEnd.COORDINATE_ORDER);
+            final List<CompactReadEnd> frags = byPairing.get(false).stream().sorted(fragmentsComparator).collect(Collectors.toList());
+            for (final CompactReadEnd record : Iterables.skip(frags, 1)) {
+                out.add(new Tuple2<>(record.getReadIndex(), DUPLICATE_FLAG));
+            }
+        } else {
+            // There are paired ends so we mark all fragments as duplicates.
+            for (final CompactReadEnd record : byPairing.get(false)) {
+                out.add(new Tuple2<>(record.getReadIndex(), DUPLICATE_FLAG));
+            }
+        }
+    }
+
+    /**
+     * Sets the duplicate flag and optical duplicate attribute of the primary reads from their flags, as returned by
+     * {@link #markDuplicateRecords}. The flags are partitioned the same way as the reads, which were indexed by
+     * <code>zipWithUniqueId</code>, so that the reads are neither shuffled nor reordered. Non-primary reads are
+     * left untouched.
+     */
+    static JavaRDD<GATKRead> applyDuplicateFlags(final JavaPairRDD<GATKRead, Long> indexedReads, final JavaPairRDD<Long, Integer> flags) {
+        final JavaPairRDD<Long, Integer> partitionedFlags = flags.partitionBy(new ReadIndexPartitioner(indexedReads.getNumPartitions()));
+        return indexedReads.zipPartitions(partitionedFlags, (readsIterator, flagsIterator) -> {
+            final Map<Long, Integer> flagsByIndex = new HashMap<>();
+            flagsIterator.forEachRemaining(flag -> flagsByIndex.put(flag._1(), flag._2()));
+            return Iterators.transform(readsIterator, indexedRead -> {
+                final GATKRead read = indexedRead._1();
+                if (!ReadUtils.isNonPrimary(read)) {
+                    final Integer flag = flagsByIndex.get(indexedRead._2());
+                    read.setIsDuplicate(flag != null && flag == DUPLICATE_FLAG);
+                    if (flag != null && flag != DUPLICATE_FLAG) {
+                        read.setAttribute(OPTICAL_DUPLICATE_TOTAL_ATTRIBUTE_NAME, flag);
+                    }
+                }
+                return read;
+            });
+        });
+    }
+
+    /**
+     * Sends each read index to the partition the read came from, given that the indices were assigned by
+     * <code>zipWithUniqueId</code>, which gives the ids k, n+k, 2*n+k, ... to the reads of the k-th of n partitions.
+     */
+    private static final class ReadIndexPartitioner extends Partitioner {
+        private static final long serialVersionUID = 1L;
+
+        private final int numPartitions;
+
+        ReadIndexPartitioner(final int numPartitions) {
+            this.numPartitions = numPartitions;
+        }
+
+        @Override
+        public int numPartitions() {
+            return numPartitions;
+        }
+
+        @Override
+        public int getPartition(final Object key) {
+            return (int) ((Long) key % numPartitions);
+        }
+    }
+
+    static JavaPairRDD<String, Iterable<CompactReadEnd>> spanRecordsByKey(final JavaPairRDD<String, CompactReadEnd> keyedRecords) {
+        final JavaPairRDD<String, Tuple2<String, CompactReadEnd>> nameRecordPairs = keyedRecords.mapToPair(keyedRecord -> new Tuple2<>(keyedRecord._2().getName(), keyedRecord));
+        return spanByKey(nameRecordPairs).flatMapToPair(namedRecords -> {
+            // for each name, separate records by key (group name)
+            final List<Tuple2<String, Iterable<CompactReadEnd>>> out = Lists.newArrayList();
+            final ListMultimap<String, CompactReadEnd> multi = LinkedListMultimap.create();
+            for (final Tuple2<String, CompactReadEnd> keyedRecord : namedRecords._2()) {
+                multi.put(keyedRecord._1(), keyedRecord._2());
+            }
+            for (final String key : multi.keySet()) {
+                // list from Multimap is not serializable by Kryo, so put in a new array list
+                out.add(new Tuple2<>(key, Lists.newArrayList(multi.get(key))));
+            }
+            return out.iterator();
+        });
+    }
+
     static JavaPairRDD<String, Iterable<GATKRead>> spanReadsByKey(final SAMFileHeader header, final JavaRDD<GATKRead> reads) {
         JavaPairRDD<String, GATKRead> nameReadPairs = reads.mapToPair(read -> new Tuple2<>(read.getName(), read));
         return spanByKey(nameReadPairs).flatMapToPair(namedRead -> {
@@ -218,7 +418,7 @@ public class MarkDuplicatesSparkUtils {
         });
     }
 
-    private static int countOpticalDuplicates(OpticalDuplicateFinder finder, List<PairedEnds> scored) {
+    private static int countOpticalDuplicates(OpticalDuplicateFinder finder, List<? extends OpticalDuplicateFinder.PhysicalLocation> scored) {
         final boolean[] opticalDuplicateFlags = finder.findOpticalDuplicates(scored);
         int numOpticalDuplicates = 0;
         for (final boolean b : opticalDuplicateFlags) {
@@ -5,6 +5,7 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.google.common.annotations.VisibleForTesting;
+import htsjdk.samtools.util.BinaryCodec;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 
@@ -25,17 +26,8 @@ public final class LargeLongHopscotchSet implements Serializable {
     private final int numSets;
 
     public LargeLongHopscotchSet(final long numElements) {
-        Utils.validateArg(numElements > 0, "Number of elements must be greater than 0");
-
-        int elementsPerPartition = (int) Math.sqrt(numElements);
-        int partitions;
-        try {
-            partitions = SetSizeUtils.getLegalSizeBelow(elementsPerPartition);
-        } catch (final IllegalArgumentException e) {
-            //If there were no legal sizes small enough, just use 1 set
-            partitions = 1;
-        }
-        elementsPerPartition = (int) ((numElements / partitions) + 1);
+        final int partitions = numPartitions(numElements);
+        final int elementsPerPartition = (int) ((numElements / partitions) + 1);
 
         sets = new ArrayList<>();
         for (int i = 0; i < partitions; i++) {
@@ -44,6 +36,19 @@ public final class LargeLongHopscotchSet implements Serializable {
         numSets = sets.size();
     }
 
+    /**
+     * Number of partitions of a set sized for the given number of elements
+     */
+    static int numPartitions(final long numElements) {
+        Utils.validateArg(numElements > 0, "Number of elements must be greater than 0");
+        try {
+            return SetSizeUtils.getLegalSizeBelow((int) Math.sqrt(numElements));
+        } catch (final IllegalArgumentException e) {
+            //If there were no legal sizes small enough, just use 1 set
+            return 1;
+        }
+    }
+
     @SuppressWarnings("unchecked")
     protected LargeLongHopscotchSet(final Kryo kryo, final Input stream) {
         final boolean oldReferences = kryo.getReferences();
@@ -58,7 +63,7 @@ public final class LargeLongHopscotchSet implements Serializable {
         kryo.setReferences(oldReferences);
     }
 
-    private static int longHash(final long entryVal) {
+    static int longHash(final long entryVal) {
         return (int) SVUtils.fnvLong64(entryVal);
     }
 
@@ -74,6 +79,22 @@ public final class LargeLongHopscotchSet implements Serializable {
         kryo.setReferences(oldReferences);
     }
 
+    /**
+     * Writes the set in a layout that can be queried in place by {@link MappedLargeLongHopscotchSet}, as little-endian
+     * longs: the number of partitions, the capacity of each partition, and then the buckets and status bytes of each
+     * partition (see {@link LongHopscotchSet#writeMappable}).
+     */
+    public void writeMappable(final BinaryCodec codec) {
+        Utils.nonNull(codec);
+        codec.writeLong(numSets);
+        for (final LongHopscotchSet set : sets) {
+            codec.writeLong(set.capacity());
+        }
+        for (final LongHopscotchSet set : sets) {
+            set.writeMappable(codec);
+        }
+    }
+
     public boolean add(final long entryValue) {
         final int hashValue = longHash(entryValue);
         final int setIndex = setIndexOf(hashValue);
@@ -5,6 +5,7 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.google.common.annotations.VisibleForTesting;
+import htsjdk.samtools.util.BinaryCodec;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.exceptions.GATKException;
@@ -39,7 +40,7 @@ public final class LongBloomFilter {
             4294967311L, 8589934609L, 17179869209L, 34359738337L, 68719476767L,
             137438953481L, 274877906951L, 549755813881L, 1099511627791L};
 
-    private final static long HASH_SEED_2 = 0x6cebe6dca7f118a6L;
+    final static long HASH_SEED_2 = 0x6cebe6dca7f118a6L;
 
     public LongBloomFilter(final long numElements, final double fpp) {
         Utils.validateArg(numElements > 0, "Number of elements must be greater than 0");
@@ -107,6 +108,29 @@ public final class LongBloomFilter {
         }
     }
 
+    /**
+     * Writes the filter in a layout that can be queried in place by {@link MappedLongBloomFilter}, as little-endian
+     * longs: the number of bits, the number of hashes, and then the bits themselves. Bit i of the filter is bit i % 64
+     * of long i / 64, which is just the bytes of the buckets one after the other, padded with zeros to a whole number
+     * of longs.
+     */
+    public void writeMappable(final BinaryCodec codec) {
+        Utils.nonNull(codec);
+        codec.writeLong(totalBits);
+        codec.writeLong(numHashes);
+        for (final byte[] bucketArray : buckets) {
+            codec.writeBytes(bucketArray);
+        }
+        codec.writeBytes(new byte[(int) (mappableBitsLongs(totalBits) * Long.BYTES - totalBuckets)]);
+    }
+
+    /**
+     * Number of longs taking up the bits of a filter of the given size, as written by writeMappable()
+     */
+    static long mappableBitsLongs(final long totalBits) {
+        return (totalBits + Long.SIZE - 1) / Long.SIZE;
+    }
+
     public static long getOptimalNumberOfBits(final long numElements, final double fpp) {
         return (long) Math.ceil(-numElements * Math.log(fpp) / (Math.log(2) * Math.log(2)));
     }
@@ -141,7 +165,7 @@ public final class LongBloomFilter {
         final long hash1 = SVUtils.fnvLong64(entryValue);
         final long hash2 = SVUtils.fnvLong64(HASH_SEED_2, entryValue);
         for (int i = 0; i < numHashes; i++) {
-            final long bitIndex = applyHashFunction(i, hash1, hash2);
+            final long bitIndex = applyHashFunction(i, hash1, hash2, totalBits);
             final int bucketArray = bitIndexToBucketArray(bitIndex);
             final int bucketIndex = bitIndexToBucketIndex(bitIndex);
             buckets[bucketArray][bucketIndex] |= bucketMask(bitIndex);
@@ -153,7 +177,7 @@ public final class LongBloomFilter {
         final long hash1 = SVUtils.fnvLong64(key);
         final long hash2 = SVUtils.fnvLong64(HASH_SEED_2, key);
         for (int i = 0; i < numHashes; i++) {
-            final long bitIndex = applyHashFunction(i, hash1, hash2);
+            final long bitIndex = applyHashFunction(i, hash1, hash2, totalBits);
             final int bucketArray = bitIndexToBucketArray(bitIndex);
             final int bucketIndex = bitIndexToBucketIndex(bitIndex);
             if ((bucketMask(bitIndex) & buckets[bucketArray][bucketIndex]) == 0) return false;
@@ -182,7 +206,7 @@ public final class LongBloomFilter {
      * Kirsch and Mitzenmacher. 2008. Less hashing, same performance: Building a better Bloom filter. Random
      * Structures & Algorithms. 33:2, 187-218.
      */
-    private long applyHashFunction(final int i, final long fnvHash1, final long fnvHash2) {
+    static long applyHashFunction(final int i, final long fnvHash1, final long fnvHash2, final long totalBits) {
         final long result = (fnvHash1+ i * fnvHash2) % totalBits;
         return result < 0 ? result + totalBits : result;
     }
@@ -5,6 +5,7 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.google.common.annotations.VisibleForTesting;
+import htsjdk.samtools.util.BinaryCodec;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 
@@ -120,6 +121,26 @@ public final class LongHopscotchSet implements Serializable {
         }
     }
 
+    /**
+     * Writes the buckets and their status bytes just as they are in memory, in the layout read by
+     * {@link MappedLargeLongHopscotchSet}: capacity little-endian longs, followed by the capacity status bytes padded
+     * with zeros to a whole number of longs.
+     */
+    void writeMappable(final BinaryCodec codec) {
+        for (final long bucket : buckets) {
+            codec.writeLong(bucket);
+        }
+        codec.writeBytes(status);
+        codec.writeBytes(new byte[mappableStatusLongs(capacity) * Long.BYTES - capacity]);
+    }
+
+    /**
+     * Number of longs taking up the status bytes of a set of the given capacity, as written by writeMappable()
+     */
+    static int mappableStatusLongs(final int capacity) {
+        return (capacity + Long.BYTES - 1) / Long.BYTES;
+    }
+
     public final boolean add(final long entryValue) {
         final int hashValue = longHash(entryValue);
         return add(entryValue, hashValue);
@@ -0,0 +1,166 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import htsjdk.samtools.util.BinaryCodec;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes a set of longs straight to a file that {@link MappedLargeLongHopscotchSet} can map, without ever holding the
+ * whole set on the heap. The file has the same layout and membership as if the values had been added to a
+ * {@link LargeLongHopscotchSet} sized for them, and written with {@link LargeLongHopscotchSet#writeMappable}.
+ *
+ * The values are first grouped in place by the partition they hash to. The partitions, which share nothing, are then
+ * built concurrently, each by a single thread, and written to their own range of the file in partition order. Only a
+ * few partitions per thread are on the heap at any time, and each of them holds roughly the square root of the number
+ * of values.
+ */
+public final class MappableLongHopscotchSetWriter {
+
+    private static final int PARTITIONS_IN_FLIGHT_PER_THREAD = 2;
+
+    private MappableLongHopscotchSetWriter() {}
+
+    /**
+     * @param path  file to write
+     * @param header  longs to write ahead of the set, e.g. a file header; the set starts at index header.length
+     * @param values  non-negative values to put in the set, which may contain duplicates; reordered in place
+     * @param numThreads  number of threads building partitions of the set
+     * @return number of distinct values in the set
+     */
+    public static long write(final Path path, final long[] header, final long[] values, final int numThreads) {
+        Utils.nonNull(path);
+        Utils.nonNull(header);
+        Utils.nonNull(values);
+        Utils.validateArg(numThreads > 0, "Number of threads must be positive");
+
+        final int numSets = LargeLongHopscotchSet.numPartitions(Math.max(values.length, 1));
+        final int[] partitionStarts = groupByPartition(values, numSets);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads,
+                new ThreadFactoryBuilder().setNameFormat("mappableSetWriter-thread-%d").setDaemon(true).build());
+        try ( final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE) ) {
+            // the capacities of the partitions come first, but are only known once they're built
+            final long[] capacities = new long[numSets];
+            channel.position((long) (header.length + 1 + numSets) * Long.BYTES);
+            final BinaryCodec codec = new BinaryCodec(new BufferedOutputStream(Channels.newOutputStream(channel)));
+
+            final int maxPartitionsInFlight = numThreads * PARTITIONS_IN_FLIGHT_PER_THREAD;
+            final Deque<Future<LongHopscotchSet>> partitionsInFlight = new ArrayDeque<>(maxPartitionsInFlight);
+            int nextPartition = 0;
+            long size = 0;
+            for ( int partition = 0; partition < numSets; ++partition ) {
+                while ( nextPartition < numSets && partitionsInFlight.size() < maxPartitionsInFlight ) {
+                    final int start = partitionStarts[nextPartition];
+                    final int end = partitionStarts[nextPartition + 1];
+                    partitionsInFlight.addLast(executor.submit(() -> buildPartition(values, start, end)));
+                    ++nextPartition;
+                }
+                final LongHopscotchSet set = getPartition(partitionsInFlight.removeFirst());
+                capacities[partition] = set.capacity();
+                size += set.size();
+                set.writeMappable(codec);
+            }
+            codec.getOutputStream().flush();
+
+            final ByteBuffer prefix = ByteBuffer.allocate((header.length + 1 + numSets) * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for ( final long val : header ) {
+                prefix.putLong(val);
+            }
+            prefix.putLong(numSets);
+            for ( final long capacity : capacities ) {
+                prefix.putLong(capacity);
+            }
+            prefix.flip();
+            long position = 0;
+            while ( prefix.hasRemaining() ) {
+                position += channel.write(prefix, position);
+            }
+            return size;
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotCreateOutputFile(path.toString(), "could not write the hash set", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reorders the values so that those of each partition are contiguous, in partition order (an in-place
+     * American flag sort on the partition index).
+     *
+     * @return start of each partition in values, followed by values.length
+     */
+    private static int[] groupByPartition(final long[] values, final int numSets) {
+        final int[] partitionStarts = new int[numSets + 1];
+        for ( final long val : values ) {
+            Utils.validateArg(val >= 0, "Tried to add negative entry to a hopscotch set");
+            partitionStarts[partitionOf(val, numSets) + 1] += 1;
+        }
+        for ( int partition = 0; partition < numSets; ++partition ) {
+            partitionStarts[partition + 1] += partitionStarts[partition];
+        }
+
+        final int[] nextSlot = new int[numSets];
+        System.arraycopy(partitionStarts, 0, nextSlot, 0, numSets);
+        for ( int partition = 0; partition < numSets; ++partition ) {
+            while ( nextSlot[partition] < partitionStarts[partition + 1] ) {
+                // move the value in the next unsettled slot of this partition to where it belongs, and carry on
+                // with the value it displaces, until we find one that belongs here
+                long val = values[nextSlot[partition]];
+                int valPartition;
+                while ( (valPartition = partitionOf(val, numSets)) != partition ) {
+                    final int slot = nextSlot[valPartition]++;
+                    final long displaced = values[slot];
+                    values[slot] = val;
+                    val = displaced;
+                }
+                values[nextSlot[partition]++] = val;
+            }
+        }
+        return partitionStarts;
+    }
+
+    private static int partitionOf(final long val, final int numSets) {
+        return Integer.remainderUnsigned(LargeLongHopscotchSet.longHash(val), numSets);
+    }
+
+    private static LongHopscotchSet buildPartition(final long[] values, final int start, final int end) {
+        final LongHopscotchSet set = new LongHopscotchSet(end - start);
+        for ( int idx = start; idx < end; ++idx ) {
+            final long val = values[idx];
+            set.add(val, LargeLongHopscotchSet.longHash(val));
+        }
+        return set;
+    }
+
+    private static LongHopscotchSet getPartition(final Future<LongHopscotchSet> partition) {
+        try {
+            return partition.get();
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for a hash set partition to be built", e);
+        } catch ( final ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new GATKException("Error building a hash set partition", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+/**
+ * Read-only view of a {@link LargeLongHopscotchSet} written with {@link LargeLongHopscotchSet#writeMappable}, queried
+ * in place in a {@link MappedLongArray} without deserializing anything. Membership is identical to that of the set that
+ * was written.
+ */
+public final class MappedLargeLongHopscotchSet {
+
+    private final MappedLongArray array;
+    private final int numSets;
+    private final int[] capacities;
+    private final long[] bucketsStart; // index of the first bucket of each partition in array
+    private final long[] statusStart; // byte position of the first status byte of each partition in array
+    private final long endIndex;
+
+    /**
+     * @param array  mapped data
+     * @param startIndex  index in array of the first long written by {@link LargeLongHopscotchSet#writeMappable}
+     */
+    public MappedLargeLongHopscotchSet(final MappedLongArray array, final long startIndex) {
+        this.array = Utils.nonNull(array);
+        numSets = (int) array.get(startIndex);
+        Utils.validateArg(numSets > 0, "Mapped hopscotch set must have at least one partition");
+        capacities = new int[numSets];
+        bucketsStart = new long[numSets];
+        statusStart = new long[numSets];
+        long index = startIndex + 1 + numSets;
+        for (int i = 0; i < numSets; i++) {
+            capacities[i] = (int) array.get(startIndex + 1 + i);
+            bucketsStart[i] = index;
+            index += capacities[i];
+            statusStart[i] = index * Long.BYTES;
+            index += LongHopscotchSet.mappableStatusLongs(capacities[i]);
+        }
+        Utils.validateArg(index <= array.size(), "Mapped hopscotch set is truncated");
+        endIndex = index;
+    }
+
+    /**
+     * @return index in the array of the first long after the set
+     */
+    public long getEndIndex() {
+        return endIndex;
+    }
+
+    public boolean contains(final long key) {
+        final int hash = LargeLongHopscotchSet.longHash(key);
+        final int set = Integer.remainderUnsigned(hash, numSets);
+        final int capacity = capacities[set];
+        final long buckets = bucketsStart[set];
+        final long status = statusStart[set];
+
+        // same walk along the chain as LongHopscotchSet.contains()
+        int bucketIndex = hash % capacity;
+        if (bucketIndex < 0) bucketIndex += capacity;
+        byte bucketStatus = array.getByte(status + bucketIndex);
+        if ((bucketStatus & Byte.MIN_VALUE) == 0) return false;
+        if ((array.get(buckets + bucketIndex) & Long.MAX_VALUE) == key) return true;
+        int offset;
+        while ((offset = bucketStatus & Byte.MAX_VALUE) != 0) {
+            bucketIndex += offset;
+            if (bucketIndex >= capacity) bucketIndex -= capacity;
+            if ((array.get(buckets + bucketIndex) & Long.MAX_VALUE) == key) return true;
+            bucketStatus = array.getByte(status + bucketIndex);
+        }
+        return false;
+    }
+}
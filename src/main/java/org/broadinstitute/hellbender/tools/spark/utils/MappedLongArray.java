@@ -0,0 +1,83 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only array of little-endian longs memory-mapped from a local file, which may be larger than the 2GB limit of a
+ * single mapping. The file is mapped in chunks of CHUNK_LONGS longs, each accessed through a {@link LongBuffer}.
+ * Individual bytes can also be read, addressed by their position in the file.
+ *
+ * Nothing is copied onto the heap, so the data is shared through the page cache by every thread and process that maps
+ * the same file, and only the pages that are actually queried are ever read from disk. All of the accessors use absolute
+ * indices and are safe to call from several threads.
+ */
+public final class MappedLongArray {
+
+    // 2^27 longs, ie. 1GB per mapping
+    private static final int CHUNK_SHIFT = 27;
+    private static final long CHUNK_LONGS = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_LONGS - 1;
+    private static final int CHUNK_BYTES_SHIFT = CHUNK_SHIFT + 3;
+    private static final long CHUNK_BYTES_MASK = (CHUNK_LONGS << 3) - 1;
+
+    private final long size;
+    private final ByteBuffer[] byteChunks;
+    private final LongBuffer[] longChunks;
+
+    /**
+     * @param path  path to a file on a file system that supports memory-mapping, whose length is a multiple of 8 bytes
+     */
+    public MappedLongArray(final Path path) {
+        Utils.nonNull(path);
+        try ( final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ) {
+            final long length = channel.size();
+            if ( length % Long.BYTES != 0 ) {
+                throw new UserException.MalformedFile("Length of " + path.toUri() + " is not a multiple of " + Long.BYTES + " bytes");
+            }
+            size = length / Long.BYTES;
+            final int numChunks = (int) ((size + CHUNK_LONGS - 1) >>> CHUNK_SHIFT);
+            byteChunks = new ByteBuffer[numChunks];
+            longChunks = new LongBuffer[numChunks];
+            for ( int i = 0; i < numChunks; i++ ) {
+                final long start = (long) i << CHUNK_BYTES_SHIFT;
+                final long chunkLength = Math.min(CHUNK_LONGS << 3, length - start);
+                byteChunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, chunkLength).order(ByteOrder.LITTLE_ENDIAN);
+                longChunks[i] = byteChunks[i].asLongBuffer();
+            }
+        } catch ( final UnsupportedOperationException e ) {
+            throw new UserException.CouldNotReadInputFile(path, "The file must be on a local file system to be memory-mapped", e);
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(path, "Could not map the file", e);
+        }
+    }
+
+    /**
+     * @return number of longs in the array
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @param index  index of a long in the array
+     */
+    public long get(final long index) {
+        return longChunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+    }
+
+    /**
+     * @param bytePosition  position of a byte in the file
+     */
+    public byte getByte(final long bytePosition) {
+        return byteChunks[(int) (bytePosition >>> CHUNK_BYTES_SHIFT)].get((int) (bytePosition & CHUNK_BYTES_MASK));
+    }
+}
@@ -0,0 +1,49 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+
+/**
+ * Read-only view of a {@link LongBloomFilter} written with {@link LongBloomFilter#writeMappable}, queried in place in
+ * a {@link MappedLongArray} without deserializing anything. Answers are identical to those of the filter that was
+ * written.
+ */
+public final class MappedLongBloomFilter {
+
+    private final MappedLongArray array;
+    private final long totalBits;
+    private final int numHashes;
+    private final long bitsStart; // index of the first long of bits in array
+    private final long endIndex;
+
+    /**
+     * @param array  mapped data
+     * @param startIndex  index in array of the first long written by {@link LongBloomFilter#writeMappable}
+     */
+    public MappedLongBloomFilter(final MappedLongArray array, final long startIndex) {
+        this.array = Utils.nonNull(array);
+        totalBits = array.get(startIndex);
+        numHashes = (int) array.get(startIndex + 1);
+        Utils.validateArg(totalBits > 0 && numHashes > 0, "Mapped Bloom filter has no bits or no hashes");
+        bitsStart = startIndex + 2;
+        endIndex = bitsStart + LongBloomFilter.mappableBitsLongs(totalBits);
+        Utils.validateArg(endIndex <= array.size(), "Mapped Bloom filter is truncated");
+    }
+
+    /**
+     * @return index in the array of the first long after the filter
+     */
+    public long getEndIndex() {
+        return endIndex;
+    }
+
+    public boolean contains(final long key) {
+        final long hash1 = SVUtils.fnvLong64(key);
+        final long hash2 = SVUtils.fnvLong64(LongBloomFilter.HASH_SEED_2, key);
+        for (int i = 0; i < numHashes; i++) {
+            final long bitIndex = LongBloomFilter.applyHashFunction(i, hash1, hash2, totalBits);
+            if ((array.get(bitsStart + (bitIndex >>> 6)) & (1L << (bitIndex & 63))) == 0) return false;
+        }
+        return true;
+    }
+}
@@ -5,6 +5,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
@@ -20,12 +21,14 @@ import org.broadinstitute.hellbender.utils.recalibration.BaseRecalibrationEngine
 import org.broadinstitute.hellbender.utils.recalibration.QuantizationInfo;
 import org.broadinstitute.hellbender.utils.recalibration.RecalUtils;
 import org.broadinstitute.hellbender.utils.recalibration.RecalibrationArgumentCollection;
+import org.broadinstitute.hellbender.utils.variant.MappedKnownSitesIndex;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * First pass of the base quality score recalibration -- Generates recalibration table based on various covariates
@@ -98,8 +101,18 @@ public final class BaseRecalibrator extends ReadWalker {
      * use -XL my.interval.list to skip over processing those sites. Please note however that the statistics reported by the tool will not accurately
      * reflected those sites skipped by the -XL argument.
      */
-    @Argument(fullName = "knownSites", shortName = "knownSites", doc = "One or more databases of known polymorphic sites used to exclude regions around known polymorphisms from analysis.", optional = false)
-    private List<FeatureInput<Feature>> knownSites;
+    @Argument(fullName = "knownSites", shortName = "knownSites", doc = "One or more databases of known polymorphic sites used to exclude regions around known polymorphisms from analysis.", optional = true)
+    private List<FeatureInput<Feature>> knownSites = new ArrayList<>();
+
+    public static final String KNOWN_SITES_INDEX_LONG_NAME = "knownSitesIndex";
+
+    /**
+     * Known sites may also be given as indexes written by {@link IndexKnownSites}, which are memory-mapped rather than
+     * parsed, and queried in place. They must be on a local file system. At least one of --knownSites and
+     * --knownSitesIndex is required.
+     */
+    @Argument(fullName = KNOWN_SITES_INDEX_LONG_NAME, shortName = KNOWN_SITES_INDEX_LONG_NAME, doc = "One or more indexes of known polymorphic sites, written by IndexKnownSites, used in the same way as --knownSites.", optional = true)
+    private List<String> knownSitesIndexPaths = new ArrayList<>();
 
     /**
      * After the header, data records occur one per line until the end of the file. The first several items on a line are the
@@ -110,8 +123,29 @@ public final class BaseRecalibrator extends ReadWalker {
     @Argument(shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME, fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, doc = "The output recalibration table file to create", optional = false)
     private File recalTableFile = null;
 
+    /**
+     * With more than one thread, reads are handed to the threads in batches of {@link #READS_PER_BATCH}. The
+     * recalibration data of each batch is collected separately, and added to the total in the order of the batches,
+     * so the recalibration report does not depend on the number of threads. It is the same as with a single thread,
+     * except that fractional mismatches (with -enableBAQ) may be summed in a different order, and so differ by
+     * rounding error.
+     */
+    @Argument(fullName = StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, shortName = StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, doc = "Number of threads on which to process reads", optional = true)
+    private int traversalThreads = 1;
+
+    /**
+     * Number of reads handed to a traversal thread at a time
+     */
+    private static final int READS_PER_BATCH = 1000;
+
     private BaseRecalibrationEngine recalibrationEngine;
 
+    private List<MappedKnownSitesIndex> knownSitesIndexes;
+
+    // only used for multithreaded traversals
+    private ConcurrentTraversalExecutor<RecalibrationWorker, BaseRecalibrationEngine> executor;
+    private ReadBatch currentBatch;
+
     private ReferenceDataSource referenceDataSource; // datasource for the reference. We're using a different one from the engine itself to avoid messing with its caches.
 
     /**
@@ -136,9 +170,25 @@ public final class BaseRecalibrator extends ReadWalker {
 
         Utils.warnOnNonIlluminaReadGroups(getHeaderForReads(), logger);
 
+        if ( traversalThreads < 1 ) {
+            throw new CommandLineException.BadArgumentValue(StandardArgumentDefinitions.TRAVERSAL_THREADS_NAME, Integer.toString(traversalThreads), "must be >= 1");
+        }
+
+        if ( knownSites.isEmpty() && knownSitesIndexPaths.isEmpty() ) {
+            throw new CommandLineException.MissingArgument("knownSites", "At least one source of known sites is required, either with --knownSites or with --" + KNOWN_SITES_INDEX_LONG_NAME);
+        }
+        knownSitesIndexes = knownSitesIndexPaths.stream().map(MappedKnownSitesIndex::map).collect(Collectors.toList());
+
         recalibrationEngine = new BaseRecalibrationEngine(recalArgs, getHeaderForReads());
         recalibrationEngine.logCovariatesUsed();
         referenceDataSource = ReferenceDataSource.of(referenceArguments.getReferenceFile());
+
+        if ( traversalThreads > 1 ) {
+            // the data of each batch is merged on this thread, in the order of the batches
+            executor = new ConcurrentTraversalExecutor<>("baseRecalibrator-thread-%d", traversalThreads, RecalibrationWorker::new,
+                    traversalThreads, true, recalibrationEngine::mergeData);
+            currentBatch = new ReadBatch();
+        }
     }
 
     @Override
@@ -177,11 +227,39 @@ public final class BaseRecalibrator extends ReadWalker {
      */
     @Override
     public void apply( GATKRead read, ReferenceContext ref, FeatureContext featureContext ) {
-        recalibrationEngine.processRead(read, referenceDataSource, featureContext.getValues(knownSites));
+        if ( executor == null ) {
+            recalibrationEngine.processRead(read, referenceDataSource, featureContext.getValues(knownSites), knownSitesIndexes);
+            return;
+        }
+
+        // known sites have to be looked up here, since the feature data sources can only be used on this thread
+        currentBatch.add(read, featureContext.getValues(knownSites));
+        if ( currentBatch.reads.size() == READS_PER_BATCH ) {
+            submitCurrentBatch();
+        }
+    }
+
+    private void submitCurrentBatch() {
+        final ReadBatch batch = currentBatch;
+        executor.submit((worker, batchData) -> batchData.accept(worker.processBatch(batch)));
+        currentBatch = new ReadBatch();
+    }
+
+    /**
+     * Wait for all reads to be processed by the traversal threads, and for their data to be merged into {@link #recalibrationEngine}.
+     */
+    private void finishConcurrentTraversal() {
+        if ( ! currentBatch.reads.isEmpty() ) {
+            submitCurrentBatch();
+        }
+        executor.finish();
     }
 
     @Override
     public Object onTraversalSuccess() {
+        if ( executor != null ) {
+            finishConcurrentTraversal();
+        }
         recalibrationEngine.finalizeData();
 
         logger.info("Calculating quantized quality scores...");
@@ -204,6 +282,16 @@ public final class BaseRecalibrator extends ReadWalker {
         quantizationInfo = new QuantizationInfo(recalibrationEngine.getFinalRecalibrationTables(), recalArgs.QUANTIZING_LEVELS);
     }
 
+    @Override
+    public void closeTool() {
+        if ( executor != null ) {
+            executor.close();
+        }
+        if ( referenceDataSource != null ) {
+            referenceDataSource.close();
+        }
+    }
+
     private void generateReport() {
         try ( PrintStream recalTableStream = new PrintStream(recalTableFile) ) {
             RecalUtils.outputRecalibrationReport(recalTableStream, recalArgs, quantizationInfo, recalibrationEngine.getFinalRecalibrationTables(), recalibrationEngine.getCovariates());
@@ -212,4 +300,40 @@ public final class BaseRecalibrator extends ReadWalker {
             throw new UserException.CouldNotCreateOutputFile(recalTableFile, e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Consecutive reads, with the known sites overlapping each of them, to be processed by a traversal thread
+     */
+    private static final class ReadBatch {
+        private final List<GATKRead> reads = new ArrayList<>(READS_PER_BATCH);
+        private final List<List<Feature>> knownSites = new ArrayList<>(READS_PER_BATCH);
+
+        private void add( final GATKRead read, final List<Feature> knownSitesForRead ) {
+            reads.add(read);
+            knownSites.add(knownSitesForRead);
+        }
+    }
+
+    /**
+     * A recalibration engine together with its own reference reader, confined to one traversal thread at a time
+     */
+    private final class RecalibrationWorker implements AutoCloseable {
+        private final BaseRecalibrationEngine engine = new BaseRecalibrationEngine(recalArgs, getHeaderForReads());
+        private final ReferenceDataSource workerReference = ReferenceDataSource.of(referenceArguments.getReferenceFile());
+
+        /**
+         * @return the recalibration data of the reads of the given batch alone
+         */
+        private BaseRecalibrationEngine processBatch( final ReadBatch batch ) {
+            for ( int i = 0; i < batch.reads.size(); i++ ) {
+                engine.processRead(batch.reads.get(i), workerReference, batch.knownSites.get(i), knownSitesIndexes);
+            }
+            return engine.takeData();
+        }
+
+        @Override
+        public void close() {
+            workerReference.close();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.broadinstitute.hellbender.tools.walkers.bqsr;
+
+import htsjdk.tribble.Feature;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineException;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.cmdline.programgroups.VariantProgramGroup;
+import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.utils.variant.MappedKnownSitesIndex;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Writes the positions of the known sites in one or more Feature-containing files (VCF, BCF, BED, etc.) to a compact
+ * binary index, which BQSR can memory-map instead of parsing the files at startup.
+ *
+ * <h3>Example</h3>
+ * <pre>
+ * ./gatk-launch IndexKnownSites \
+ *   --knownSites dbsnp_138.b37.vcf \
+ *   --knownSites Mills_and_1000G_gold_standard.indels.b37.vcf \
+ *   -O knownSites.b37.ksi
+ * </pre>
+ *
+ * The index can then be given to BaseRecalibrator with --knownSitesIndex, or to the Spark BQSR tools with --knownSites.
+ * It must be on a local file system wherever it is used.
+ */
+@CommandLineProgramProperties(
+        summary = "Writes the positions of known sites of variation to a memory-mappable index for BQSR",
+        oneLineSummary = "Index known sites of variation for BQSR",
+        programGroup = VariantProgramGroup.class
+)
+@DocumentedFeature
+public final class IndexKnownSites extends CommandLineProgram {
+    private static final Logger logger = LogManager.getLogger(IndexKnownSites.class);
+
+    private static final int CLOUD_PREFETCH_BUFFER = 40; // only used for GCS
+
+    @Argument(fullName = "knownSites", shortName = "knownSites", doc = "One or more databases of known polymorphic sites to index.", optional = false)
+    public List<String> knownSites;
+
+    @Argument(shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME, fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            doc = "The index file to create, which must end in " + MappedKnownSitesIndex.KNOWN_SITES_INDEX_EXTENSION, optional = false)
+    public String output;
+
+    @Override
+    protected Object doWork() {
+        if ( !MappedKnownSitesIndex.isKnownSitesIndexFile(output) ) {
+            throw new CommandLineException.BadArgumentValue(StandardArgumentDefinitions.OUTPUT_LONG_NAME, output, "must end in " + MappedKnownSitesIndex.KNOWN_SITES_INDEX_EXTENSION);
+        }
+
+        final MappedKnownSitesIndex.Builder sites = new MappedKnownSitesIndex.Builder();
+        for ( final String path : knownSites ) {
+            try ( final FeatureDataSource<Feature> dataSource = new FeatureDataSource<>(path, null, 0, null, CLOUD_PREFETCH_BUFFER, CLOUD_PREFETCH_BUFFER) ) {
+                long count = 0;
+                final Iterator<Feature> iterator = dataSource.iterator();
+                while ( iterator.hasNext() ) {
+                    sites.add(iterator.next());
+                    if ( ++count % 1000000 == 0 ) {
+                        logger.info("Number of sites read from " + path + ": " + count);
+                    }
+                }
+                logger.info("Read " + count + " sites from " + path);
+            }
+        }
+
+        final long numSites = MappedKnownSitesIndex.write(output, sites);
+        logger.info("Wrote " + numSites + " distinct sites to " + output);
+        return numSites;
+    }
+}
@@ -275,11 +275,35 @@ public final class VariantFiltration extends VariantWalker {
 
     @Override
     public void apply(final VariantContext variant, final ReadsContext readsContext, final ReferenceContext ref, final FeatureContext featureContext) {
+        writer.add(filterVariant(variant, featureContext));
+    }
+
+    /**
+     * Each variant is filtered independently of the others, so they can be filtered on any traversal thread.
+     */
+    @Override
+    protected VariantWorker.Factory<VariantContext> makeVariantWorkerFactory() {
+        return new VariantWorker.Factory<VariantContext>() {
+            @Override
+            public VariantWorker<VariantContext> newWorker() {
+                return (variant, readsContext, ref, featureContext) -> filterVariant(variant, featureContext);
+            }
 
+            @Override
+            public void onResult(final VariantContext result) {
+                writer.add(result);
+            }
+        };
+    }
+
+    /**
+     * @return the variant with the filters (and mask) that apply to it
+     */
+    private VariantContext filterVariant(final VariantContext variant, final FeatureContext featureContext) {
         final VariantContext vc1 = invalidatePreviousFilters ? (new VariantContextBuilder(variant)).unfiltered().make() : variant;
         final VariantContext vc = isMaskFilterPresent(vc1) ? vc1: addMaskIfCoversVariant(vc1, featureContext);
 
-        filter(vc, featureContext);
+        return filter(vc, featureContext);
     }
 
     /**
@@ -302,7 +326,7 @@ public final class VariantFiltration extends VariantWalker {
         return vc.getFilters() != null && vc.getFilters().contains(maskName);
     }
 
-    private void filter(final VariantContext vc, final FeatureContext featureContext) {
+    private VariantContext filter(final VariantContext vc, final FeatureContext featureContext) {
         final VariantContextBuilder builder = new VariantContextBuilder(vc);
 
         // make new Genotypes based on filters
@@ -330,7 +354,7 @@ public final class VariantFiltration extends VariantWalker {
             builder.filters(filters);
         }
 
-        writer.add(builder.make());
+        return builder.make();
     }
 
     /**
@@ -9,6 +9,7 @@ import org.broadinstitute.hellbender.cmdline.argumentcollections.DbsnpArgumentCo
 import org.broadinstitute.hellbender.engine.FeatureInput;
 import org.broadinstitute.hellbender.tools.walkers.genotyper.StandardCallerArgumentCollection;
 import org.broadinstitute.hellbender.utils.haplotype.HaplotypeBAMWriter;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -140,6 +141,14 @@ public abstract class AssemblyBasedCallerArgumentCollection extends StandardCall
     @Argument(fullName = "dontGenotype", shortName = "dontGenotype", doc = "Perform assembly but do not genotype variants", optional = true)
     public boolean dontGenotype = false;
 
+    /**
+     * The Smith-Waterman implementation used to align the assembled haplotypes to the reference and the reads to their
+     * best haplotype. All implementations produce identical alignments; they only differ in their runtime and memory use.
+     */
+    @Advanced
+    @Argument(fullName = "smithWatermanImplementation", shortName = "smithWatermanImplementation", doc = "Which Smith-Waterman implementation to use for haplotype and read realignment", optional = true)
+    public SmithWatermanAligner.Implementation smithWatermanImplementation = SmithWatermanAligner.Implementation.COMPACT;
+
     @Advanced
     @Argument(fullName = "dontUseSoftClippedBases", shortName = "dontUseSoftClippedBases", doc = "Do not analyze soft clipped bases in the reads", optional = true)
     public boolean dontUseSoftClippedBases = false;
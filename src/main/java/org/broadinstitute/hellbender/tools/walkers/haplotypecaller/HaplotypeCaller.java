@@ -2,6 +2,8 @@ package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.util.Locatable;
+import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
@@ -16,9 +18,13 @@ import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.fasta.CachingIndexedFastaSequenceFile;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.variant.writers.GVCFWriter;
+import org.broadinstitute.hellbender.utils.variant.writers.HomRefSites;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 
@@ -194,6 +200,29 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
         return hcEngine;
     }
 
+    /**
+     * When running with more than one traversal thread, each thread gets its own HaplotypeCallerEngine
+     * (with its own reference reader), and the calls are written to our single VCF/GVCF writer in genomic order.
+     */
+    @Override
+    protected AssemblyRegionWorker.Factory<Locatable> makeAssemblyRegionWorkerFactory() {
+        if ( hcArgs.bamOutputPath != null ) {
+            throw new UserException("The -bamout argument is not supported when running with more than one traversal thread");
+        }
+
+        return new AssemblyRegionWorker.Factory<Locatable>() {
+            @Override
+            public AssemblyRegionWorker<Locatable> newWorker() {
+                return new HaplotypeCallerWorker(new HaplotypeCallerEngine(hcArgs, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), getReferenceReader(referenceArguments)));
+            }
+
+            @Override
+            public void onResult( final Locatable result ) {
+                write(result);
+            }
+        };
+    }
+
     @Override
     public void onTraversalStart() {
         final ReferenceSequenceFile referenceReader = getReferenceReader(referenceArguments);
@@ -205,9 +234,12 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
         hcEngine.writeHeader(vcfWriter, sequenceDictionary, getDefaultToolVCFHeaderLines());
     }
 
-    private static CachingIndexedFastaSequenceFile getReferenceReader(ReferenceInputArgumentCollection referenceArguments) {
-        final CachingIndexedFastaSequenceFile referenceReader;
+    private static ReferenceSequenceFile getReferenceReader(ReferenceInputArgumentCollection referenceArguments) {
+        final ReferenceSequenceFile referenceReader;
         final File reference = new File(referenceArguments.getReferenceFileName());
+        if ( ReferenceTwoBitMappedSource.isTwoBit(reference) ) {
+            return new ReferenceTwoBitMappedSource(reference);
+        }
         try {
             referenceReader = new CachingIndexedFastaSequenceFile(reference);
         } catch (FileNotFoundException e) {
@@ -218,7 +250,52 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
 
     @Override
     public void apply(final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext ) {
-        hcEngine.callRegion(region, featureContext).forEach(vcfWriter::add);
+        if ( hcEngine.streamsReferenceConfidence(region) ) {
+            ((GVCFWriter) vcfWriter).add(hcEngine.referenceConfidenceSites(region));
+        } else {
+            hcEngine.callRegion(region, featureContext).forEach(vcfWriter::add);
+        }
+    }
+
+    /**
+     * Writes a result of {@link HaplotypeCallerWorker}: either a VariantContext, or the {@link HomRefSites} of an
+     * inactive region when the reference confidence is count-based
+     */
+    private void write( final Locatable result ) {
+        if ( result instanceof HomRefSites ) {
+            ((GVCFWriter) vcfWriter).add((HomRefSites) result);
+        } else {
+            vcfWriter.add((VariantContext) result);
+        }
+    }
+
+    /**
+     * Calls variants using a HaplotypeCallerEngine confined to a single traversal thread
+     */
+    private static final class HaplotypeCallerWorker implements AssemblyRegionWorker<Locatable> {
+        private final HaplotypeCallerEngine engine;
+
+        HaplotypeCallerWorker( final HaplotypeCallerEngine engine ) {
+            this.engine = engine;
+        }
+
+        @Override
+        public AssemblyRegionEvaluator assemblyRegionEvaluator() {
+            return engine;
+        }
+
+        @Override
+        public List<Locatable> apply( final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext ) {
+            if ( engine.streamsReferenceConfidence(region) ) {
+                return Collections.singletonList(engine.referenceConfidenceSites(region));
+            }
+            return new ArrayList<>(engine.callRegion(region, featureContext));
+        }
+
+        @Override
+        public void close() {
+            engine.shutdown();
+        }
     }
 
     @Override
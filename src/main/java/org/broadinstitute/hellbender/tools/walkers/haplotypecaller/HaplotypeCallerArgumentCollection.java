@@ -78,6 +78,18 @@ public class HaplotypeCallerArgumentCollection extends AssemblyBasedCallerArgume
     @Argument(fullName = "indelSizeToEliminateInRefModel", shortName = "ERCIS", doc = "The size of an indel to check for in the reference model", optional = true)
     public int indelSizeToEliminateInRefModel = 10;
 
+    /**
+     * In GVCF mode, compute the reference confidence of inactive regions from per-site counts of base qualities
+     * and write it straight into the hom-ref blocks, rather than building a pileup and a VariantContext for every
+     * position. The per-site GQs, depths and PLs are those of the default pileup-based model up to rounding: the
+     * likelihoods are summed in a different order, so a GQ or PL that is right at a rounding boundary may differ by
+     * one. A site whose GQ is at the edge of a GQ band may then fall into the adjacent band, which moves the
+     * boundaries of the hom-ref blocks around it.
+     */
+    @Advanced
+    @Argument(fullName = "countBasedReferenceConfidence", doc = "In GVCF mode, compute the reference confidence of inactive regions from base quality counts", optional = true)
+    public boolean countBasedReferenceConfidence = false;
+
 
     @Advanced
     @Argument(fullName = "useAllelesTrigger", shortName = "allelesTrigger", doc = "Use additional trigger on variants found in an external alleles file", optional = true)
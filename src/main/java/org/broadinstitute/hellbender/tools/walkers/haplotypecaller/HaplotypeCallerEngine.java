@@ -41,6 +41,7 @@ import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 import org.broadinstitute.hellbender.utils.variant.HomoSapiensConstants;
 import org.broadinstitute.hellbender.utils.variant.writers.GVCFWriter;
+import org.broadinstitute.hellbender.utils.variant.writers.HomRefSites;
 
 import java.io.File;
 import java.util.*;
@@ -61,6 +62,10 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
     private static final Logger logger = LogManager.getLogger(HaplotypeCallerEngine.class);
 
+    private static final TraversalInstrumentation.Timer ASSEMBLY_TIMER = TraversalInstrumentation.timer("HaplotypeCaller.assembly");
+    private static final TraversalInstrumentation.Timer LIKELIHOODS_TIMER = TraversalInstrumentation.timer("HaplotypeCaller.readLikelihoods");
+    private static final TraversalInstrumentation.Timer GENOTYPING_TIMER = TraversalInstrumentation.timer("HaplotypeCaller.genotyping");
+
     private final HaplotypeCallerArgumentCollection hcArgs;
 
     private final SAMFileHeader readsHeader;
@@ -72,6 +77,9 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
     // the genotyping engine for the isActive() determination
     private MinimalGenotypingEngine activeRegionEvaluationGenotyperEngine = null;
 
+    // computes the isActive() likelihoods of single-sample pileups without allocating
+    private RefVsAnyActivityEvaluator singleSampleActivityEvaluator = null;
+
     private ReadThreadingAssembler assemblyEngine = null;
 
     private ReadLikelihoodCalculationEngine likelihoodCalculationEngine = null;
@@ -164,6 +172,7 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         minTailQuality = (byte)(hcArgs.minBaseQualityScore - 1);
 
         initializeActiveRegionEvaluationGenotyperEngine();
+        singleSampleActivityEvaluator = new RefVsAnyActivityEvaluator(activeRegionEvaluationGenotyperEngine.getConfiguration().genotypeArgs.samplePloidy);
 
         if (annotationEngine == null) {
             annotationEngine = VariantAnnotatorEngine.ofSelectedMinusExcluded(hcArgs.annotationGroupsToUse, hcArgs.annotationsToUse, hcArgs.annotationsToExclude, hcArgs.dbsnp.dbsnp, hcArgs.comps);
@@ -418,16 +427,20 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
             return new ActivityProfileState(ref.getInterval(), 0.0);
         }
 
+        if (samplesList.numberOfSamples() == 1) {
+            // Faster implementation for the common single-sample case (eg., when doing GVCF output), which happens for
+            // every covered locus: compute the likelihoods straight from the pileup, and avoid building genotypes and
+            // the costly and over complicated Exact AFCalculator machinery.
+            final double[] genotypeLikelihoods = singleSampleActivityEvaluator.calcGenotypeLikelihoodsOfRefVsAny(context.getBasePileup(), ref.getBase(), hcArgs.minBaseQualityScore);
+            final double isActiveProb = activeRegionEvaluationGenotyperEngine.calculateSingleSampleRefVsAnyActiveStateProfileValue(genotypeLikelihoods);
+            final double averageHQSoftClips = singleSampleActivityEvaluator.getAverageHQSoftClips();
+            return new ActivityProfileState(ref.getInterval(), isActiveProb, averageHQSoftClips > AVERAGE_HQ_SOFTCLIPS_HQ_BASES_THRESHOLD ? ActivityProfileState.Type.HIGH_QUALITY_SOFT_CLIPS : ActivityProfileState.Type.NONE, averageHQSoftClips );
+        }
+
         final int ploidy = activeRegionEvaluationGenotyperEngine.getConfiguration().genotypeArgs.samplePloidy;
         final List<Allele> noCall = GATKVariantContextUtils.noCallAlleles(ploidy); // used to noCall all genotypes until the exact model is applied
 
-        final Map<String, AlignmentContext> splitContexts;
-        if (samplesList.numberOfSamples() == 1) {
-            //If we know a priori that there's just one sample, take a shortcut and dont examine each read in the pileup
-            splitContexts = context.splitContextBySampleName(samplesList.getSample(0), readsHeader);
-        } else {
-            splitContexts = context.splitContextBySampleName(readsHeader);
-        }
+        final Map<String, AlignmentContext> splitContexts = context.splitContextBySampleName(readsHeader);
 
         final GenotypesContext genotypes = GenotypesContext.create(splitContexts.keySet().size());
         final MathUtils.RunningAverage averageHQSoftClips = new MathUtils.RunningAverage();
@@ -442,8 +455,7 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         final double isActiveProb;
 
         if (genotypes.size() == 1) {
-            // Faster implementation avoiding the costly and over complicated Exact AFCalculator machinery:
-            // This is the case when doing GVCF output.
+            // Faster implementation avoiding the costly and over complicated Exact AFCalculator machinery
             isActiveProb = activeRegionEvaluationGenotyperEngine.calculateSingleSampleRefVsAnyActiveStateProfileValue(genotypes.get(0).getLikelihoods().getAsVector());
         } else {
             final VariantCallContext vcOut = activeRegionEvaluationGenotyperEngine.calculateGenotypes(new VariantContextBuilder("HCisActive!", context.getContig(), context.getLocation().getStart(), context.getLocation().getEnd(), alleles).genotypes(genotypes).make(), GenotypeLikelihoodsCalculationModel.SNP, readsHeader);
@@ -488,7 +500,9 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         }
 
         // run the local assembler, getting back a collection of information on how we should proceed
+        final long assemblyStartTime = ASSEMBLY_TIMER.start();
         final AssemblyResultSet untrimmedAssemblyResult =  AssemblyBasedCallerUtils.assembleReads(region, givenAlleles, hcArgs, readsHeader, samplesList, logger, referenceReader, assemblyEngine);
+        ASSEMBLY_TIMER.stop(assemblyStartTime);
 
         final SortedSet<VariantContext> allVariationEvents = untrimmedAssemblyResult.getVariationEvents();
         // TODO - line bellow might be unnecessary : it might be that assemblyResult will always have those alleles anyway
@@ -536,72 +550,81 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         final Map<String,List<GATKRead>> reads = splitReadsBySample(regionForGenotyping.getReads());
 
         // Calculate the likelihoods: CPU intensive part.
+        final long likelihoodsStartTime = LIKELIHOODS_TIMER.start();
         final ReadLikelihoods<Haplotype> readLikelihoods =
                 likelihoodCalculationEngine.computeReadLikelihoods(assemblyResult, samplesList, reads);
-
-        // Realign reads to their best haplotype.
-        final Map<GATKRead, GATKRead> readRealignments = AssemblyBasedCallerUtils.realignReadsToTheirBestHaplotype(readLikelihoods, assemblyResult.getReferenceHaplotype(), assemblyResult.getPaddedReferenceLoc());
-        readLikelihoods.changeReads(readRealignments);
-
-        // Note: we used to subset down at this point to only the "best" haplotypes in all samples for genotyping, but there
-        //  was a bad interaction between that selection and the marginalization that happens over each event when computing
-        //  GLs.  In particular, for samples that are heterozygous non-reference (B/C) the marginalization for B treats the
-        //  haplotype containing C as reference (and vice versa).  Now this is fine if all possible haplotypes are included
-        //  in the genotyping, but we lose information if we select down to a few haplotypes.  [EB]
-
-        final HaplotypeCallerGenotypingEngine.CalledHaplotypes calledHaplotypes = genotypingEngine.assignGenotypeLikelihoods(
-                haplotypes,
-                readLikelihoods,
-                perSampleFilteredReadList,
-                assemblyResult.getFullReferenceWithPadding(),
-                assemblyResult.getPaddedReferenceLoc(),
-                regionForGenotyping.getSpan(),
-                features,
-                (hcArgs.assemblerArgs.consensusMode ? Collections.<VariantContext>emptyList() : givenAlleles),
-                emitReferenceConfidence(),
-                readsHeader);
-
-        if ( haplotypeBAMWriter.isPresent() ) {
-            final Set<Haplotype> calledHaplotypeSet = new HashSet<>(calledHaplotypes.getCalledHaplotypes());
-            if ( hcArgs.disableOptimizations ) {
-                calledHaplotypeSet.add(assemblyResult.getReferenceHaplotype());
+        LIKELIHOODS_TIMER.stop(likelihoodsStartTime);
+
+        try {
+            // Realign reads to their best haplotype.
+            final Map<GATKRead, GATKRead> readRealignments = AssemblyBasedCallerUtils.realignReadsToTheirBestHaplotype(readLikelihoods, assemblyResult.getReferenceHaplotype(), assemblyResult.getPaddedReferenceLoc(), hcArgs.smithWatermanImplementation.getAligner());
+            readLikelihoods.changeReads(readRealignments);
+
+            // Note: we used to subset down at this point to only the "best" haplotypes in all samples for genotyping, but there
+            //  was a bad interaction between that selection and the marginalization that happens over each event when computing
+            //  GLs.  In particular, for samples that are heterozygous non-reference (B/C) the marginalization for B treats the
+            //  haplotype containing C as reference (and vice versa).  Now this is fine if all possible haplotypes are included
+            //  in the genotyping, but we lose information if we select down to a few haplotypes.  [EB]
+
+            final long genotypingStartTime = GENOTYPING_TIMER.start();
+            final HaplotypeCallerGenotypingEngine.CalledHaplotypes calledHaplotypes = genotypingEngine.assignGenotypeLikelihoods(
+                    haplotypes,
+                    readLikelihoods,
+                    perSampleFilteredReadList,
+                    assemblyResult.getFullReferenceWithPadding(),
+                    assemblyResult.getPaddedReferenceLoc(),
+                    regionForGenotyping.getSpan(),
+                    features,
+                    (hcArgs.assemblerArgs.consensusMode ? Collections.<VariantContext>emptyList() : givenAlleles),
+                    emitReferenceConfidence(),
+                    readsHeader);
+            GENOTYPING_TIMER.stop(genotypingStartTime);
+
+            if ( haplotypeBAMWriter.isPresent() ) {
+                final Set<Haplotype> calledHaplotypeSet = new HashSet<>(calledHaplotypes.getCalledHaplotypes());
+                if ( hcArgs.disableOptimizations ) {
+                    calledHaplotypeSet.add(assemblyResult.getReferenceHaplotype());
+                }
+                haplotypeBAMWriter.get().writeReadsAlignedToHaplotypes(haplotypes, assemblyResult.getPaddedReferenceLoc(), haplotypes,
+                                                                 calledHaplotypeSet, readLikelihoods);
             }
-            haplotypeBAMWriter.get().writeReadsAlignedToHaplotypes(haplotypes, assemblyResult.getPaddedReferenceLoc(), haplotypes,
-                                                             calledHaplotypeSet, readLikelihoods);
-        }
 
-        if( hcArgs.debug) {
-            logger.info("----------------------------------------------------------------------------------");
-        }
-
-        if ( emitReferenceConfidence() ) {
-            if ( !containsCalls(calledHaplotypes) ) {
-                // no called all of the potential haplotypes
-                return referenceModelForNoVariation(region, false);
+            if( hcArgs.debug) {
+                logger.info("----------------------------------------------------------------------------------");
             }
-            else {
-                final List<VariantContext> result = new LinkedList<>();
-                // output left-flanking non-variant section:
-                if (trimmingResult.hasLeftFlankingRegion()) {
-                    result.addAll(referenceModelForNoVariation(trimmingResult.nonVariantLeftFlankRegion(), false));
+
+            if ( emitReferenceConfidence() ) {
+                if ( !containsCalls(calledHaplotypes) ) {
+                    // no called all of the potential haplotypes
+                    return referenceModelForNoVariation(region, false);
                 }
-                // output variant containing region.
-                result.addAll(referenceConfidenceModel.calculateRefConfidence(assemblyResult.getReferenceHaplotype(),
-                        calledHaplotypes.getCalledHaplotypes(), assemblyResult.getPaddedReferenceLoc(), regionForGenotyping,
-                        readLikelihoods, genotypingEngine.getPloidyModel(), calledHaplotypes.getCalls()));
-                // output right-flanking non-variant section:
-                if (trimmingResult.hasRightFlankingRegion()) {
-                    result.addAll(referenceModelForNoVariation(trimmingResult.nonVariantRightFlankRegion(), false));
+                else {
+                    final List<VariantContext> result = new LinkedList<>();
+                    // output left-flanking non-variant section:
+                    if (trimmingResult.hasLeftFlankingRegion()) {
+                        result.addAll(referenceModelForNoVariation(trimmingResult.nonVariantLeftFlankRegion(), false));
+                    }
+                    // output variant containing region.
+                    result.addAll(referenceConfidenceModel.calculateRefConfidence(assemblyResult.getReferenceHaplotype(),
+                            calledHaplotypes.getCalledHaplotypes(), assemblyResult.getPaddedReferenceLoc(), regionForGenotyping,
+                            readLikelihoods, genotypingEngine.getPloidyModel(), calledHaplotypes.getCalls()));
+                    // output right-flanking non-variant section:
+                    if (trimmingResult.hasRightFlankingRegion()) {
+                        result.addAll(referenceModelForNoVariation(trimmingResult.nonVariantRightFlankRegion(), false));
+                    }
+                    return result;
                 }
-                return result;
             }
-        }
-        else {
-            //TODO this should be updated once reducible annotations are handled properly.
-            return calledHaplotypes.getCalls()
-                    .stream()
-                    .map(RMSMappingQuality.getInstance()::finalizeRawMQ)
-                    .collect(Collectors.toList());
+            else {
+                //TODO this should be updated once reducible annotations are handled properly.
+                return calledHaplotypes.getCalls()
+                        .stream()
+                        .map(RMSMappingQuality.getInstance()::finalizeRawMQ)
+                        .collect(Collectors.toList());
+            }
+        } finally {
+            // so that the next region processed by this thread reuses the likelihood buffers
+            readLikelihoods.release();
         }
     }
 
@@ -611,6 +634,37 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
                 .anyMatch(Genotype::isCalled);
     }
 
+    /**
+     * @param region an assembly region
+     * @return true if the reference confidence of the region should be computed by {@link #referenceConfidenceSites}
+     *         and written with {@link GVCFWriter#add(HomRefSites)} rather than through {@link #callRegion}
+     */
+    public boolean streamsReferenceConfidence( final AssemblyRegion region ) {
+        return hcArgs.countBasedReferenceConfidence && hcArgs.emitReferenceConfidence == ReferenceConfidenceMode.GVCF
+                && ! hcArgs.justDetermineActiveRegions && ! region.isActive();
+    }
+
+    /**
+     * Compute the reference confidence of an inactive region from per-site base quality counts.
+     *
+     * Equivalent to {@link #callRegion} on a region for which {@link #streamsReferenceConfidence} is true,
+     * but produces the sites compactly instead of as one VariantContext per position.
+     *
+     * @param region an inactive assembly region
+     * @return the reference confidence of every site in the region's span
+     */
+    public HomRefSites referenceConfidenceSites( final AssemblyRegion region ) {
+        Utils.validateArg(streamsReferenceConfidence(region), "region must be inactive and count-based GVCF mode must be on");
+        if ( hcArgs.sampleNameToUse != null ) {
+            removeReadsFromAllSamplesExcept(hcArgs.sampleNameToUse, region);
+        }
+        finalizeRegion(region);
+        filterNonPassingReads(region);
+
+        final Haplotype refHaplotype = AssemblyBasedCallerUtils.createReferenceHaplotype(region, region.getExtendedSpan(), referenceReader);
+        return referenceConfidenceModel.calculateRefConfidenceSites(refHaplotype, region, genotypingEngine.getPloidyModel().samplePloidy(0));
+    }
+
     /**
      * Create an ref model result (ref model or no calls depending on mode) for an active region without any variation
      * (not is active, or assembled to just ref)
@@ -0,0 +1,131 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import org.broadinstitute.hellbender.utils.MathUtils;
+import org.broadinstitute.hellbender.utils.QualityUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.pileup.PileupElement;
+import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
+import org.broadinstitute.hellbender.utils.read.AlignmentUtils;
+
+import java.util.Arrays;
+
+/**
+ * Computes the ref-vs-any genotype likelihoods of a single-sample pileup for {@link HaplotypeCallerEngine#isActive},
+ * into buffers that are reused from one locus to the next.
+ *
+ * The likelihoods are the same as those of
+ * {@link ReferenceConfidenceModel#calcGenotypeLikelihoodsOfRefVsAny(int, ReadPileup, byte, byte, MathUtils.RunningAverage)}
+ * after they have been through a Genotype's PL field, ie., rounded to integer phred-scaled values normalized to the most
+ * likely genotype, which is what isActive() used to pass on to the genotyping engine.
+ *
+ * Instances are not thread-safe.
+ */
+final class RefVsAnyActivityEvaluator {
+
+    private final int likelihoodCount;
+    private final double log10Ploidy;
+
+    // MathUtils.log10(i) for every possible allele count i
+    private final double[] log10AlleleCounts;
+
+    private final double[] genotypeLikelihoods;
+
+    // mean number of high quality soft clips per soft-clipped read, updated exactly as MathUtils.RunningAverage does
+    private double hqSoftClipsMean;
+    private long hqSoftClipsCount;
+
+    /**
+     * @param ploidy ploidy assumed for the sample, must be > 0
+     */
+    RefVsAnyActivityEvaluator( final int ploidy ) {
+        Utils.validateArg(ploidy > 0, "ploidy must be > 0");
+        likelihoodCount = ploidy + 1;
+        log10Ploidy = MathUtils.log10(ploidy);
+        log10AlleleCounts = new double[likelihoodCount];
+        for ( int i = 0; i < likelihoodCount; i++ ) {
+            log10AlleleCounts[i] = MathUtils.log10(i);
+        }
+        genotypeLikelihoods = new double[likelihoodCount];
+    }
+
+    /**
+     * Calculate the genotype likelihoods of the sample in pileup for being hom-ref contrasted with being ref vs. alt
+     *
+     * @param pileup the read backed pileup containing the data we want to evaluate
+     * @param refBase the reference base at this pileup position
+     * @param minBaseQual the min base quality for a read in the pileup at the pileup position to be included in the calculation
+     * @return log10 genotype likelihoods, rounded as in a PL field. The array is overwritten by the next call.
+     */
+    double[] calcGenotypeLikelihoodsOfRefVsAny( final ReadPileup pileup, final byte refBase, final byte minBaseQual ) {
+        Arrays.fill(genotypeLikelihoods, 0.0);
+        hqSoftClipsMean = 0.0;
+        hqSoftClipsCount = 0;
+
+        int readCount = 0;
+        for ( final PileupElement p : pileup ) {
+            final byte qual = p.isDeletion() ? ReferenceConfidenceModel.REF_MODEL_DELETION_QUAL : p.getQual();
+            if ( !p.isDeletion() && qual <= minBaseQual ) {
+                continue;
+            }
+            readCount++;
+            addPileupElement(p, refBase, qual);
+        }
+
+        final double denominator = readCount * log10Ploidy;
+        for ( int i = 0; i < likelihoodCount; i++ ) {
+            genotypeLikelihoods[i] += -denominator;
+        }
+
+        roundAsPLs();
+        return genotypeLikelihoods;
+    }
+
+    /**
+     * @return the mean number of high quality soft clipped bases of the alt reads next to a soft clip in the last
+     *         pileup evaluated, or 0 if there were none
+     */
+    double getAverageHQSoftClips() {
+        return hqSoftClipsMean;
+    }
+
+    private void addPileupElement( final PileupElement element, final byte refBase, final byte qual ) {
+        final boolean isAlt = ReferenceConfidenceModel.isAlt(element, refBase);
+        final double referenceLikelihood;
+        final double nonRefLikelihood;
+        if ( isAlt ) {
+            nonRefLikelihood = QualityUtils.qualToProbLog10(qual);
+            referenceLikelihood = QualityUtils.qualToErrorProbLog10(qual) + MathUtils.LOG10_ONE_THIRD;
+        } else {
+            referenceLikelihood = QualityUtils.qualToProbLog10(qual);
+            nonRefLikelihood = QualityUtils.qualToErrorProbLog10(qual) + MathUtils.LOG10_ONE_THIRD;
+        }
+        // Homozygous likelihoods don't need the logSum trick.
+        genotypeLikelihoods[0] += referenceLikelihood + log10Ploidy;
+        genotypeLikelihoods[likelihoodCount - 1] += nonRefLikelihood + log10Ploidy;
+        // Heterozygous likelihoods need the logSum trick:
+        for ( int i = 1, j = likelihoodCount - 2; i < likelihoodCount - 1; i++, j-- ) {
+            genotypeLikelihoods[i] += MathUtils.approximateLog10SumLog10(
+                    referenceLikelihood + log10AlleleCounts[j],
+                    nonRefLikelihood + log10AlleleCounts[i]);
+        }
+        if ( isAlt && element.isNextToSoftClip() ) {
+            final double softClips = AlignmentUtils.calcNumHighQualitySoftClips(element.getRead(), ReferenceConfidenceModel.HQ_BASE_QUALITY_SOFTCLIP_THRESHOLD);
+            hqSoftClipsCount++;
+            hqSoftClipsMean += (softClips - hqSoftClipsMean) / hqSoftClipsCount;
+        }
+    }
+
+    /**
+     * Round the likelihoods the way htsjdk's GenotypeLikelihoods does converting them to PLs and back
+     */
+    private void roundAsPLs() {
+        double max = Double.NEGATIVE_INFINITY;
+        for ( final double likelihood : genotypeLikelihoods ) {
+            max = Math.max(max, likelihood);
+        }
+        for ( int i = 0; i < likelihoodCount; i++ ) {
+            final int pl = (int)Math.round(Math.min(-10.0 * (genotypeLikelihoods[i] - max), Integer.MAX_VALUE));
+            genotypeLikelihoods[i] = pl / -10.0;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import htsjdk.variant.vcf.VCFHeaderLine;
 import htsjdk.variant.vcf.VCFSimpleHeaderLine;
 import org.broadinstitute.hellbender.engine.AlignmentContext;
 import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.genotyper.PloidyModel;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
@@ -24,8 +25,10 @@ import org.broadinstitute.hellbender.utils.pileup.PileupElement;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
 import org.broadinstitute.hellbender.utils.read.AlignmentUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+import org.broadinstitute.hellbender.utils.variant.writers.HomRefSites;
 
 import java.util.*;
 
@@ -41,6 +44,17 @@ public final class ReferenceConfidenceModel {
     private final SampleList samples;
     private final int indelInformativeDepthIndelSize;
 
+    /**
+     * Per-quality genotype likelihood contributions used by {@link #calculateRefConfidenceSites}, for the last ploidy
+     * it was called with.
+     */
+    private double[][] refVsAnyLikelihoodTable = null;
+
+    /**
+     * Number of base quality bins per position and per ref/non-ref evidence in {@link #calculateRefConfidenceSites}.
+     */
+    private static final int QUAL_COUNT_BINS = Byte.MAX_VALUE + 1;
+
     /**
      * Surrogate quality score for no base calls.
      * <p>
@@ -48,7 +62,7 @@ public final class ReferenceConfidenceModel {
      * when assessing the confidence on the hom-ref call at that site.
      * </p>
      */
-    private static final byte REF_MODEL_DELETION_QUAL = 30;
+    static final byte REF_MODEL_DELETION_QUAL = 30;
 
     /**
      * Base calls with quality threshold lower than this number won't be considered when assessing the
@@ -60,7 +74,7 @@ public final class ReferenceConfidenceModel {
      * Only base calls with quality strictly greater than this constant,
      * will be considered high quality if they are part of a soft-clip.
      */
-    private static final byte HQ_BASE_QUALITY_SOFTCLIP_THRESHOLD = 28;
+    static final byte HQ_BASE_QUALITY_SOFTCLIP_THRESHOLD = 28;
 
     //TODO change this: https://github.com/broadinstitute/gsa-unstable/issues/1108
     protected static final int MAX_N_INDEL_INFORMATIVE_READS = 40; // more than this is overkill because GQs are capped at 99 anyway
@@ -181,6 +195,216 @@ public final class ReferenceConfidenceModel {
         return results;
     }
 
+    /**
+     * Calculate the reference confidence for a single sample over a region in which no variation is called
+     *
+     * Computes the same GQ, DP and PLs at each position of {@code activeRegion.getSpan()} as
+     * {@link #calculateRefConfidence} given only the reference haplotype and no variant calls (up to the rounding of
+     * the floating-point sums, which are accumulated in a different order), but much more cheaply: instead of building
+     * a pileup and a VariantContext per position, it walks the cigar of each read once, accumulating per position a
+     * histogram of the base qualities of the reads that support the reference and of those that don't, and the number
+     * of indel informative reads. The likelihoods of each position are then a dot product of its histogram with
+     * per-quality tables.
+     *
+     * @param refHaplotype the reference haplotype, used to get the reference bases across activeRegion.getExtendedSpan()
+     * @param activeRegion the region we want to get the reference confidence over, with its reads already filtered
+     * @param ploidy the ploidy of the sample
+     * @return the reference confidence of each position of {@code activeRegion.getSpan()}
+     */
+    public HomRefSites calculateRefConfidenceSites(final Haplotype refHaplotype,
+                                                   final AssemblyRegion activeRegion,
+                                                   final int ploidy) {
+        Utils.nonNull(refHaplotype, "refHaplotype cannot be null");
+        Utils.nonNull(activeRegion, "activeRegion cannot be null");
+        Utils.validateArg( refHaplotype.length() == activeRegion.getExtendedSpan().size(), () -> "refHaplotype " + refHaplotype.length() + " and activeRegion location size " + activeRegion.getSpan().size() + " are different");
+        Utils.validateArg( ploidy > 0, "ploidy must be positive");
+
+        final SimpleInterval refSpan = activeRegion.getSpan();
+        final int numSites = refSpan.size();
+        final byte[] ref = refHaplotype.getBases();
+        final int globalRefOffset = refSpan.getStart() - activeRegion.getExtendedSpan().getStart();
+
+        final int[] qualCounts = new int[numSites * 2 * QUAL_COUNT_BINS];
+        final int[] indelInformativeCounts = new int[numSites];
+        for ( final GATKRead read : activeRegion.getReads() ) {
+            if ( read.getStart() <= refSpan.getEnd() && read.getEnd() >= refSpan.getStart() ) {
+                countRefVsAnyEvidence(read, refSpan, ref, globalRefOffset, qualCounts, indelInformativeCounts);
+            }
+        }
+
+        final int likelihoodCount = ploidy + 1;
+        final double log10Ploidy = MathUtils.log10(ploidy);
+        final double[][] likelihoodTable = refVsAnyLikelihoodTable(ploidy);
+        final byte[] refBases = Arrays.copyOfRange(ref, globalRefOffset, globalRefOffset + numSites);
+        final int[] gqs = new int[numSites];
+        final int[] dps = new int[numSites];
+        final int[] pls = new int[numSites * likelihoodCount];
+        final double[] genotypeLikelihoods = new double[likelihoodCount];
+        for ( int site = 0; site < numSites; site++ ) {
+            Arrays.fill(genotypeLikelihoods, 0.0);
+            int readCount = 0;
+            final int siteOffset = site * 2 * QUAL_COUNT_BINS;
+            for ( int bin = 0; bin < 2 * QUAL_COUNT_BINS; bin++ ) {
+                final int count = qualCounts[siteOffset + bin];
+                if ( count != 0 ) {
+                    readCount += count;
+                    final double[] binLikelihoods = likelihoodTable[bin];
+                    for ( int i = 0; i < likelihoodCount; i++ ) {
+                        genotypeLikelihoods[i] += count * binLikelihoods[i];
+                    }
+                }
+            }
+            final double denominator = readCount * log10Ploidy;
+            for ( int i = 0; i < likelihoodCount; i++ ) {
+                genotypeLikelihoods[i] -= denominator;
+            }
+            // cap the het and hom var likelihoods by the hom ref likelihood
+            for ( int i = 1; i < likelihoodCount; i++ ) {
+                genotypeLikelihoods[i] = Math.min(genotypeLikelihoods[i], genotypeLikelihoods[0]);
+            }
+
+            // as in makeReferenceConfidenceVariantContext, take the least confident of the SNP and indel GLs
+            final GenotypeLikelihoods snpGLs = GenotypeLikelihoods.fromLog10Likelihoods(genotypeLikelihoods.clone());
+            final GenotypeLikelihoods indelGLs = getIndelPLs(ploidy, indelInformativeCounts[site]);
+            final int[] sitePLs = getGLwithWorstGQ(indelGLs, snpGLs).getAsPLs();
+            System.arraycopy(sitePLs, 0, pls, site * likelihoodCount, likelihoodCount);
+            gqs[site] = GATKVariantContextUtils.calculateGQFromPLs(sitePLs);
+            dps[site] = readCount;
+        }
+
+        return new HomRefSites(refSpan.getContig(), refSpan.getStart(), samples.getSample(0), ploidy, refBases, gqs, dps, pls);
+    }
+
+    /**
+     * Walk the cigar of a read, and add the evidence it gives at each position of refSpan to the counts, as the
+     * element of the read in the pileup of that position would in {@link #calcGenotypeLikelihoodsOfRefVsAny} and
+     * {@link #calcNIndelInformativeReads}.
+     *
+     * @param qualCounts for each position of refSpan, the number of reads supporting the reference with each base
+     *                   quality followed by the number of reads not supporting it with each base quality
+     * @param indelInformativeCounts for each position of refSpan, the number of indel informative reads (capped at
+     *                               {@link #MAX_N_INDEL_INFORMATIVE_READS})
+     */
+    private void countRefVsAnyEvidence(final GATKRead read, final SimpleInterval refSpan, final byte[] ref,
+                                       final int globalRefOffset, final int[] qualCounts, final int[] indelInformativeCounts) {
+        final List<CigarElement> elements = read.getCigarElements();
+        final int numElements = elements.size();
+        final int spanStart = refSpan.getStart();
+        final int spanEnd = refSpan.getEnd();
+        int readOffset = 0;
+        int genomePosition = read.getStart();
+
+        for ( int c = 0; c < numElements; c++ ) {
+            final CigarElement element = elements.get(c);
+            final CigarOperator operator = element.getOperator();
+            final int length = element.getLength();
+            if ( operator == CigarOperator.I || operator == CigarOperator.S ) {
+                readOffset += length;
+                continue;
+            } else if ( ! operator.consumesReferenceBases() ) { // hard clips and pads
+                continue;
+            } else if ( operator == CigarOperator.D && readOffset == 0 ) {
+                // same as LocusIteratorByState
+                throw new UserException.MalformedRead(read, "read starts with deletion. Cigar: " + read.getCigar().toString() + ". Although the SAM spec technically permits such reads, this is often indicative of malformed files.");
+            }
+
+            // pileup elements at the reference skips of a read are left out of the pileups
+            if ( operator != CigarOperator.N ) {
+                final int first = Math.max(genomePosition, spanStart);
+                final int last = Math.min(genomePosition + length - 1, spanEnd);
+                for ( int position = first; position <= last; position++ ) {
+                    if ( ReadUtils.isBaseInsideAdaptor(read, position) ) {
+                        continue;
+                    }
+                    final int site = position - spanStart;
+                    final int offsetInElement = position - genomePosition;
+                    if ( operator == CigarOperator.D ) {
+                        // deletions are always evidence of a non-reference event, and are not indel informative
+                        qualCounts[(site * 2 + 1) * QUAL_COUNT_BINS + REF_MODEL_DELETION_QUAL]++;
+                        continue;
+                    }
+
+                    final int baseOffset = readOffset + offsetInElement;
+                    final boolean atStart = offsetInElement == 0;
+                    final boolean atEnd = offsetInElement == length - 1;
+                    final boolean beforeDeletionStart = atEnd && nearestOnGenomeOperator(elements, c, 1) == CigarOperator.D;
+                    final boolean afterDeletionEnd = atStart && nearestOnGenomeOperator(elements, c, -1) == CigarOperator.D;
+                    final CigarOperator nextOperator = atEnd && c + 1 < numElements ? elements.get(c + 1).getOperator() : null;
+                    final CigarOperator previousOperator = atStart && c > 0 ? elements.get(c - 1).getOperator() : null;
+                    final boolean beforeInsertion = nextOperator == CigarOperator.I;
+                    final boolean isAlt = read.getBase(baseOffset) != ref[site + globalRefOffset]
+                            || beforeDeletionStart || afterDeletionEnd || beforeInsertion
+                            || previousOperator == CigarOperator.I
+                            || previousOperator == CigarOperator.S || nextOperator == CigarOperator.S;
+
+                    final byte qual = read.getBaseQuality(baseOffset);
+                    if ( qual > BASE_QUAL_THRESHOLD ) {
+                        qualCounts[(site * 2 + (isAlt ? 1 : 0)) * QUAL_COUNT_BINS + qual]++;
+                    }
+
+                    // further indel informative reads can't change the indel PLs once we've reached the cap
+                    if ( ! beforeDeletionStart && ! beforeInsertion && indelInformativeCounts[site] < MAX_N_INDEL_INFORMATIVE_READS
+                            && isReadInformativeAboutIndelsOfSize(read, baseOffset, ref, site + globalRefOffset, indelInformativeDepthIndelSize) ) {
+                        indelInformativeCounts[site]++;
+                    }
+                }
+            }
+
+            if ( operator.consumesReadBases() ) {
+                readOffset += length;
+            }
+            genomePosition += length;
+        }
+
+        if ( numElements > 0 && elements.get(numElements - 1).getOperator() == CigarOperator.D ) {
+            // same as LocusIteratorByState
+            throw new UserException.MalformedRead(read, "read ends with deletion. Cigar: " + read.getCigar().toString() + ". Although the SAM spec technically permits such reads, this is often indicative of malformed files.");
+        }
+    }
+
+    /**
+     * @return the operator of the nearest cigar element before (direction -1) or after (direction 1) element c that
+     * is aligned to the genome, or null if there is none
+     */
+    private static CigarOperator nearestOnGenomeOperator(final List<CigarElement> elements, final int c, final int direction) {
+        for ( int i = c + direction; i >= 0 && i < elements.size(); i += direction ) {
+            final CigarOperator operator = elements.get(i).getOperator();
+            if ( operator.isAlignment() || operator == CigarOperator.D ) {
+                return operator;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the genotype likelihoods (before normalization by the ploidy) contributed by one read in
+     * {@link #calcGenotypeLikelihoodsOfRefVsAny}, for each base quality of a read supporting the reference
+     * followed by each base quality of a read not supporting it
+     */
+    private double[][] refVsAnyLikelihoodTable(final int ploidy) {
+        if ( refVsAnyLikelihoodTable != null && refVsAnyLikelihoodTable[0].length == ploidy + 1 ) {
+            return refVsAnyLikelihoodTable;
+        }
+        final int likelihoodCount = ploidy + 1;
+        final double log10Ploidy = MathUtils.log10(ploidy);
+        final double[][] table = new double[2 * QUAL_COUNT_BINS][likelihoodCount];
+        for ( int bin = 0; bin < 2 * QUAL_COUNT_BINS; bin++ ) {
+            final boolean isAlt = bin >= QUAL_COUNT_BINS;
+            final byte qual = (byte) (bin % QUAL_COUNT_BINS);
+            final double referenceLikelihood = isAlt ? QualityUtils.qualToErrorProbLog10(qual) + MathUtils.LOG10_ONE_THIRD : QualityUtils.qualToProbLog10(qual);
+            final double nonRefLikelihood = isAlt ? QualityUtils.qualToProbLog10(qual) : QualityUtils.qualToErrorProbLog10(qual) + MathUtils.LOG10_ONE_THIRD;
+            table[bin][0] = referenceLikelihood + log10Ploidy;
+            table[bin][likelihoodCount - 1] = nonRefLikelihood + log10Ploidy;
+            for (int i = 1, j = likelihoodCount - 2; i < likelihoodCount - 1; i++, j--) {
+                table[bin][i] = MathUtils.approximateLog10SumLog10(
+                        referenceLikelihood + MathUtils.log10(j),
+                        nonRefLikelihood + MathUtils.log10(i));
+            }
+        }
+        refVsAnyLikelihoodTable = table;
+        return table;
+    }
+
     private VariantContext makeReferenceConfidenceVariantContext(final int ploidy,
                                                                  final byte[] ref,
                                                                  final String sampleName,
@@ -322,8 +546,7 @@ public final class ReferenceConfidenceModel {
     }
 
     private void applyPileupElementRefVsNonRefLikelihoodAndCount(final byte refBase, final int likelihoodCount, final double log10Ploidy, final RefVsAnyResult result, final PileupElement element, final byte qual, final MathUtils.RunningAverage hqSoftClips) {
-        final boolean isAlt = element.getBase() != refBase || element.isDeletion() || element.isBeforeDeletionStart()
-                || element.isAfterDeletionEnd() || element.isBeforeInsertion() || element.isAfterInsertion() || element.isNextToSoftClip();
+        final boolean isAlt = isAlt(element, refBase);
         final double referenceLikelihood;
         final double nonRefLikelihood;
         if (isAlt) {
@@ -350,6 +573,14 @@ public final class ReferenceConfidenceModel {
         }
     }
 
+    /**
+     * @return true if the pileup element counts as evidence of a non-reference event in the ref-vs-any model
+     */
+    static boolean isAlt(final PileupElement element, final byte refBase) {
+        return element.getBase() != refBase || element.isDeletion() || element.isBeforeDeletionStart()
+                || element.isAfterDeletionEnd() || element.isBeforeInsertion() || element.isAfterInsertion() || element.isNextToSoftClip();
+    }
+
     /**
      * Get a list of pileups that span the entire active region span, in order, one for each position
      */
@@ -0,0 +1,117 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Map from kmers of a single size to values, queried directly by the position of the kmer in a sequence so that
+ * no {@link Kmer} object is needed for the kmers that can be packed.
+ *
+ * As in {@link KmerSet}, kmers that can be packed by {@link PackedKmers} are kept in a primitive long map and
+ * the rest are kept as {@link Kmer}s.
+ *
+ * @param <V> the type of the values
+ */
+final class KmerMap<V> {
+    private final int kmerSize;
+    private final boolean packable;
+    private final Long2ObjectOpenHashMap<V> packedKmers = new Long2ObjectOpenHashMap<>();
+    private final Map<Kmer, V> otherKmers = new HashMap<>();
+
+    /**
+     * @param kmerSize the size of the kmers in this map, must be >= 1
+     */
+    KmerMap(final int kmerSize) {
+        Utils.validateArg(kmerSize > 0, () -> "kmerSize must be > 0 but got " + kmerSize);
+        this.kmerSize = kmerSize;
+        this.packable = PackedKmers.canPack(kmerSize);
+    }
+
+    /**
+     * @return the value of the kmer starting at start in bases, or null if the kmer isn't in the map
+     */
+    V get(final byte[] bases, final int start) {
+        final long packed = pack(bases, start);
+        return packed != PackedKmers.NOT_PACKED ? packedKmers.get(packed) : otherKmers.get(new Kmer(bases, start, kmerSize));
+    }
+
+    /**
+     * @return the value of kmer, or null if the kmer isn't in the map (including when it's not of the size of this map)
+     */
+    V get(final Kmer kmer) {
+        Utils.nonNull(kmer);
+        return kmer.length() == kmerSize ? get(kmer.bases(), 0) : null;
+    }
+
+    /**
+     * @return true if the kmer starting at start in bases is in the map
+     */
+    boolean containsKey(final byte[] bases, final int start) {
+        final long packed = pack(bases, start);
+        return packed != PackedKmers.NOT_PACKED ? packedKmers.containsKey(packed) : otherKmers.containsKey(new Kmer(bases, start, kmerSize));
+    }
+
+    /**
+     * Map the kmer starting at start in bases to value.  bases must not be modified afterwards, as they may back the key
+     * @return the previous value of the kmer, or null if there wasn't one
+     */
+    V put(final byte[] bases, final int start, final V value) {
+        final long packed = pack(bases, start);
+        return packed != PackedKmers.NOT_PACKED ? packedKmers.put(packed, value) : otherKmers.put(new Kmer(bases, start, kmerSize), value);
+    }
+
+    /**
+     * Map the kmer starting at start in bases to value, unless it's already in the map.  bases must not be modified
+     * afterwards, as they may back the key
+     * @return the current value of the kmer, or null if there wasn't one and the kmer is now mapped to value
+     */
+    V putIfAbsent(final byte[] bases, final int start, final V value) {
+        final long packed = pack(bases, start);
+        if ( packed == PackedKmers.NOT_PACKED ) {
+            return otherKmers.putIfAbsent(new Kmer(bases, start, kmerSize), value);
+        }
+        final V current = packedKmers.get(packed);
+        if ( current == null ) {
+            packedKmers.put(packed, value);
+        }
+        return current;
+    }
+
+    /**
+     * Remove the kmer starting at start in bases
+     * @return the value of the removed kmer, or null if it wasn't in the map
+     */
+    V remove(final byte[] bases, final int start) {
+        final long packed = pack(bases, start);
+        return packed != PackedKmers.NOT_PACKED ? packedKmers.remove(packed) : otherKmers.remove(new Kmer(bases, start, kmerSize));
+    }
+
+    int size() {
+        return packedKmers.size() + otherKmers.size();
+    }
+
+    void clear() {
+        packedKmers.clear();
+        otherKmers.clear();
+    }
+
+    /**
+     * @return a new non-null collection of the values in the map, in no particular order
+     */
+    Collection<V> values() {
+        final Collection<V> values = new ArrayList<>(size());
+        values.addAll(packedKmers.values());
+        values.addAll(otherKmers.values());
+        return values;
+    }
+
+    private long pack(final byte[] bases, final int start) {
+        return packable ? PackedKmers.pack(bases, start, kmerSize) : PackedKmers.NOT_PACKED;
+    }
+}
@@ -0,0 +1,118 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Set of kmers of a single size, queried directly by the position of the kmer in a sequence so that
+ * no {@link Kmer} object is needed for the kmers that can be packed.
+ *
+ * Kmers that can be packed by {@link PackedKmers} are kept in a primitive long set; the rest (those with
+ * bases other than A, C, G or T, or all kmers if the size is too big to pack) are kept as {@link Kmer}s.
+ */
+final class KmerSet {
+    private final int kmerSize;
+    private final boolean packable;
+    private final LongOpenHashSet packedKmers = new LongOpenHashSet();
+    private final Set<Kmer> otherKmers = new HashSet<>();
+
+    /**
+     * @param kmerSize the size of the kmers in this set, must be >= 1
+     */
+    KmerSet(final int kmerSize) {
+        Utils.validateArg(kmerSize > 0, () -> "kmerSize must be > 0 but got " + kmerSize);
+        this.kmerSize = kmerSize;
+        this.packable = PackedKmers.canPack(kmerSize);
+    }
+
+    /**
+     * Add the kmer starting at start in bases
+     * @return true if the kmer wasn't already in the set
+     */
+    boolean add(final byte[] bases, final int start) {
+        final long packed = pack(bases, start);
+        return packed != PackedKmers.NOT_PACKED ? packedKmers.add(packed) : otherKmers.add(new Kmer(bases, start, kmerSize));
+    }
+
+    /**
+     * Add all the kmers starting in bases[from, to - kmer size], adding those that were already in this set to repeated.
+     *
+     * Packs each kmer from the previous one, so that it costs a single base rather than the whole kmer
+     *
+     * @param repeated the set of kmers seen more than once, must have the same kmer size as this set
+     */
+    void addAll(final byte[] bases, final int from, final int to, final KmerSet repeated) {
+        Utils.validateArg(repeated.kmerSize == kmerSize, "kmer sizes must match");
+        final long mask = packable ? (1L << (2 * kmerSize)) - 1 : 0;
+        long packed = 0;
+        int packableBases = 0; // number of bases up to the current one that can be packed
+        for ( int i = from; i < to; i++ ) {
+            final int code = PackedKmers.code(bases[i]);
+            packed = ((packed << 2) | (code & 3)) & mask;
+            packableBases = code < 0 ? 0 : packableBases + 1;
+
+            final int start = i - kmerSize + 1;
+            if ( start < from ) {
+                continue;
+            }
+            if ( packable && packableBases >= kmerSize ) {
+                if ( ! packedKmers.add(packed) ) {
+                    repeated.packedKmers.add(packed);
+                }
+            } else {
+                final Kmer kmer = new Kmer(bases, start, kmerSize);
+                if ( ! otherKmers.add(kmer) ) {
+                    repeated.otherKmers.add(kmer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add all the kmers in other, which must have the same kmer size as this set
+     */
+    void addAll(final KmerSet other) {
+        Utils.validateArg(other.kmerSize == kmerSize, "kmer sizes must match");
+        packedKmers.addAll(other.packedKmers);
+        otherKmers.addAll(other.otherKmers);
+    }
+
+    /**
+     * @return true if the kmer starting at start in bases is in the set
+     */
+    boolean contains(final byte[] bases, final int start) {
+        final long packed = pack(bases, start);
+        return packed != PackedKmers.NOT_PACKED ? packedKmers.contains(packed) : otherKmers.contains(new Kmer(bases, start, kmerSize));
+    }
+
+    int size() {
+        return packedKmers.size() + otherKmers.size();
+    }
+
+    boolean isEmpty() {
+        return packedKmers.isEmpty() && otherKmers.isEmpty();
+    }
+
+    void clear() {
+        packedKmers.clear();
+        otherKmers.clear();
+    }
+
+    /**
+     * Get the kmers in this set as {@link Kmer} objects.  For debugging and testing, as it unpacks every kmer
+     * @return a new non-null set
+     */
+    Set<Kmer> toKmers() {
+        final Set<Kmer> kmers = new HashSet<>(otherKmers);
+        packedKmers.forEach(packed -> kmers.add(new Kmer(PackedKmers.unpack(packed, kmerSize))));
+        return kmers;
+    }
+
+    private long pack(final byte[] bases, final int start) {
+        return packable ? PackedKmers.pack(bases, start, kmerSize) : PackedKmers.NOT_PACKED;
+    }
+}
@@ -0,0 +1,89 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import java.util.Arrays;
+
+/**
+ * Packs kmers of up to {@link #MAX_PACKED_LENGTH} bases into a single long, two bits per base.
+ *
+ * Only the bases A, C, G and T can be packed, so that two packed kmers of the same length are equal if and only if
+ * their bases are.  Kmers with any other base (N, IUPAC codes, lowercase bases) are reported as {@link #NOT_PACKED}.
+ */
+final class PackedKmers {
+
+    /**
+     * The longest kmer that fits in a long.  One less than 32 so that packed kmers are never negative.
+     */
+    static final int MAX_PACKED_LENGTH = 31;
+
+    /**
+     * Returned by {@link #pack} for kmers that cannot be packed.  Never the packed value of a kmer.
+     */
+    static final long NOT_PACKED = -1L;
+
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    /**
+     * The two-bit code of each base, or -1 for the bases that cannot be packed
+     */
+    private static final byte[] CODES = new byte[256];
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        for ( int code = 0; code < BASES.length; code++ ) {
+            CODES[BASES[code]] = (byte) code;
+        }
+    }
+
+    private PackedKmers() { }
+
+    /**
+     * @param length the length of the kmers
+     * @return true if kmers of this length fit in a long
+     */
+    static boolean canPack(final int length) {
+        return length <= MAX_PACKED_LENGTH;
+    }
+
+    /**
+     * Pack the kmer bases[start, start + length)
+     *
+     * @param bases the bases containing the kmer
+     * @param start the start of the kmer in bases
+     * @param length the length of the kmer, must be <= {@link #MAX_PACKED_LENGTH}
+     * @return the packed kmer, or {@link #NOT_PACKED} if the kmer has a base other than A, C, G or T
+     */
+    static long pack(final byte[] bases, final int start, final int length) {
+        // a table lookup and a check at the end, rather than a branch per base, as the bases are unpredictable
+        long packed = 0;
+        int unpackable = 0;
+        for ( int i = start, stop = start + length; i < stop; i++ ) {
+            final int code = code(bases[i]);
+            unpackable |= code;
+            packed = (packed << 2) | (code & 3);
+        }
+        return unpackable < 0 ? NOT_PACKED : packed;
+    }
+
+    /**
+     * @return the two-bit code of base, or a negative value if it cannot be packed
+     */
+    static int code(final byte base) {
+        return CODES[base & 0xFF];
+    }
+
+    /**
+     * Unpack a kmer packed by {@link #pack}
+     *
+     * @param packed the packed kmer
+     * @param length the length of the kmer
+     * @return a new array with the bases of the kmer
+     */
+    static byte[] unpack(final long packed, final int length) {
+        final byte[] bases = new byte[length];
+        long remaining = packed;
+        for ( int i = length - 1; i >= 0; i-- ) {
+            bases[i] = BASES[(int) (remaining & 3)];
+            remaining >>>= 2;
+        }
+        return bases;
+    }
+}
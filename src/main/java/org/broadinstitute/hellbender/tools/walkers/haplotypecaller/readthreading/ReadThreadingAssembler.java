@@ -20,6 +20,7 @@ import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 import org.broadinstitute.hellbender.utils.read.CigarUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
 import java.io.File;
@@ -67,6 +68,8 @@ public final class ReadThreadingAssembler {
     private File debugGraphOutputPath = null;  //Where to write debug graphs, if unset it defaults to the current working dir
     private File graphOutputPath = null;
 
+    private SmithWatermanAligner aligner = SmithWatermanAligner.Implementation.COMPACT.getAligner();
+
     public ReadThreadingAssembler(final int maxAllowedPathsForReadThreadingAssembler, final List<Integer> kmerSizes, final boolean dontIncreaseKmerSizesForCycles, final boolean allowNonUniqueKmersInRef, final int numPruningSamples) {
         Utils.validateArg( maxAllowedPathsForReadThreadingAssembler >= 1, "numBestHaplotypesPerGraph should be >= 1 but got " + maxAllowedPathsForReadThreadingAssembler);
         this.kmerSizes = kmerSizes;
@@ -207,7 +210,7 @@ public final class ReadThreadingAssembler {
                 final KBestHaplotype kBestHaplotype = bestHaplotypes.next();
                 final Haplotype h = kBestHaplotype.haplotype();
                 if( !returnHaplotypes.contains(h) ) {
-                    final Cigar cigar = CigarUtils.calculateCigar(refHaplotype.getBases(), h.getBases());
+                    final Cigar cigar = CigarUtils.calculateCigar(refHaplotype.getBases(), h.getBases(), aligner);
 
                     if ( cigar == null ) {
                         failedCigars++; // couldn't produce a meaningful alignment of haplotype to reference, fail quietly
@@ -488,8 +491,8 @@ public final class ReadThreadingAssembler {
         // look at all chains in the graph that terminate in a non-ref node (dangling sources and sinks) and see if
         // we can recover them by merging some N bases from the chain back into the reference
         if ( recoverDanglingBranches ) {
-            rtgraph.recoverDanglingTails(pruneFactor, minDanglingBranchLength);
-            rtgraph.recoverDanglingHeads(pruneFactor, minDanglingBranchLength);
+            rtgraph.recoverDanglingTails(pruneFactor, minDanglingBranchLength, aligner);
+            rtgraph.recoverDanglingHeads(pruneFactor, minDanglingBranchLength, aligner);
         }
 
         // remove all heading and trailing paths
@@ -620,6 +623,13 @@ public final class ReadThreadingAssembler {
         this.minDanglingBranchLength = minDanglingBranchLength;
     }
 
+    /**
+     * Set the Smith-Waterman aligner used to align the haplotypes to the reference and to merge dangling branches
+     */
+    public void setSmithWatermanAligner(final SmithWatermanAligner aligner) {
+        this.aligner = Utils.nonNull(aligner);
+    }
+
     @VisibleForTesting
     void setJustReturnRawGraph(final boolean justReturnRawGraph) {
         this.justReturnRawGraph = justReturnRawGraph;
@@ -74,7 +74,7 @@ public final class FilterMutectCalls extends VariantWalker {
 
     private VariantContextWriter vcfWriter;
 
-    private final List<VariantContext> unfilteredCalls = new ArrayList<>();
+    private Mutect2FilteringEngine filteringEngine;
 
 
     @Override
@@ -92,24 +92,44 @@ public final class FilterMutectCalls extends VariantWalker {
         final VCFHeader vcfHeader = new VCFHeader(headerLines, inputHeader.getGenotypeSamples());
         vcfWriter = createVCFWriter(new File(outputVcf));
         vcfWriter.writeHeader(vcfHeader);
+
+        final String tumorSample = getHeaderForVariants().getMetaDataLine(Mutect2Engine.TUMOR_SAMPLE_KEY_IN_VCF_HEADER).getValue();
+        filteringEngine = new Mutect2FilteringEngine(MTFAC, tumorSample);
     }
 
     @Override
     public Object onTraversalSuccess() {
-        final String tumorSample = getHeaderForVariants().getMetaDataLine(Mutect2Engine.TUMOR_SAMPLE_KEY_IN_VCF_HEADER).getValue();
-        final Mutect2FilteringEngine filteringEngine = new Mutect2FilteringEngine(MTFAC, tumorSample);
-        // TODO: implement sophisticated filtering
-        for (final VariantContext vc : unfilteredCalls) {
-            final VariantContextBuilder vcb = new VariantContextBuilder(vc);
-            vcb.filters(filteringEngine.calculateFilters(MTFAC, vc));
-            vcfWriter.add(vcb.make());
-        }
         return "SUCCESS";
     }
 
     @Override
     public void apply(final VariantContext vc, final ReadsContext readsContext, final ReferenceContext refContext, final FeatureContext fc) {
-        unfilteredCalls.add(vc);
+        vcfWriter.add(filterCall(vc));
+    }
+
+    /**
+     * Each call is filtered independently of the others, so they can be filtered on any traversal thread.
+     */
+    @Override
+    protected VariantWorker.Factory<VariantContext> makeVariantWorkerFactory() {
+        return new VariantWorker.Factory<VariantContext>() {
+            @Override
+            public VariantWorker<VariantContext> newWorker() {
+                return (vc, readsContext, refContext, fc) -> filterCall(vc);
+            }
+
+            @Override
+            public void onResult(final VariantContext result) {
+                vcfWriter.add(result);
+            }
+        };
+    }
+
+    private VariantContext filterCall(final VariantContext vc) {
+        // TODO: implement sophisticated filtering
+        final VariantContextBuilder vcb = new VariantContextBuilder(vc);
+        vcb.filters(filteringEngine.calculateFilters(MTFAC, vc));
+        return vcb.make();
     }
 
     @Override
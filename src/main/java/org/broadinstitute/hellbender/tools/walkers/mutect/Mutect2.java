@@ -13,6 +13,7 @@ import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.programgroups.VariantProgramGroup;
 import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
@@ -227,6 +228,29 @@ public final class Mutect2 extends AssemblyRegionWalker {
     @Override
     public AssemblyRegionEvaluator assemblyRegionEvaluator() { return m2Engine; }
 
+    /**
+     * When running with more than one traversal thread, each thread gets its own Mutect2Engine
+     * (with its own reference reader), and the calls are written to our single VCF writer in genomic order.
+     */
+    @Override
+    protected AssemblyRegionWorker.Factory<VariantContext> makeAssemblyRegionWorkerFactory() {
+        if ( MTAC.bamOutputPath != null ) {
+            throw new UserException("The -bamout argument is not supported when running with more than one traversal thread");
+        }
+
+        return new AssemblyRegionWorker.Factory<VariantContext>() {
+            @Override
+            public AssemblyRegionWorker<VariantContext> newWorker() {
+                return new Mutect2Worker(new Mutect2Engine(MTAC, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), referenceArguments.getReferenceFileName()));
+            }
+
+            @Override
+            public void onResult( final VariantContext result ) {
+                vcfWriter.add(result);
+            }
+        };
+    }
+
     @Override
     public void onTraversalStart() {
         m2Engine = new Mutect2Engine(MTAC, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), referenceArguments.getReferenceFileName());
@@ -245,6 +269,32 @@ public final class Mutect2 extends AssemblyRegionWalker {
         m2Engine.callRegion(region, referenceContext, featureContext).forEach(vcfWriter::add);
     }
 
+    /**
+     * Calls somatic variants using a Mutect2Engine confined to a single traversal thread
+     */
+    private static final class Mutect2Worker implements AssemblyRegionWorker<VariantContext> {
+        private final Mutect2Engine engine;
+
+        Mutect2Worker( final Mutect2Engine engine ) {
+            this.engine = engine;
+        }
+
+        @Override
+        public AssemblyRegionEvaluator assemblyRegionEvaluator() {
+            return engine;
+        }
+
+        @Override
+        public List<VariantContext> apply( final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext ) {
+            return engine.callRegion(region, referenceContext, featureContext);
+        }
+
+        @Override
+        public void close() {
+            engine.shutdown();
+        }
+    }
+
     @Override
     public void closeTool() {
         if ( vcfWriter != null ) {
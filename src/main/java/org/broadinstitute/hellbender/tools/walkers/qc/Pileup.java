@@ -137,6 +137,31 @@ public final class Pileup extends LocusWalker {
 
     @Override
     public void apply(AlignmentContext alignmentContext, ReferenceContext referenceContext, FeatureContext featureContext) {
+        out.print(pileupLine(alignmentContext, referenceContext, featureContext));
+    }
+
+    /**
+     * The lines of each locus only depend on the locus, so they can be computed on any traversal thread.
+     */
+    @Override
+    protected LocusWorker.Factory<String> makeLocusWorkerFactory() {
+        return new LocusWorker.Factory<String>() {
+            @Override
+            public LocusWorker<String> newWorker() {
+                return Pileup.this::pileupLine;
+            }
+
+            @Override
+            public void onResult(final String result) {
+                out.print(result);
+            }
+        };
+    }
+
+    /**
+     * Format the pileup line (with its line terminator) of a locus
+     */
+    private String pileupLine(final AlignmentContext alignmentContext, final ReferenceContext referenceContext, final FeatureContext featureContext) {
         final String features = getFeaturesString(featureContext);
         final ReadPileup basePileup = alignmentContext.getBasePileup();
         final StringBuilder s = new StringBuilder();
@@ -150,7 +175,7 @@ public final class Pileup extends LocusWalker {
             s.append(" ").append(createVerboseOutput(basePileup));
         }
         s.append("\n");
-        out.print(s.toString());
+        return s.toString();
     }
 
     /**
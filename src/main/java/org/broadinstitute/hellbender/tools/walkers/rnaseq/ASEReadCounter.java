@@ -167,6 +167,34 @@ public class ASEReadCounter extends LocusWalker {
 
     @Override
     public void apply(AlignmentContext alignmentContext, ReferenceContext referenceContext, FeatureContext featureContext) {
+        final String line = lineForLocus(alignmentContext, referenceContext, featureContext);
+        if (line != null) {
+            outputStream.println(line);
+        }
+    }
+
+    /**
+     * The line of each locus only depends on the locus, so it can be computed on any traversal thread.
+     */
+    @Override
+    protected LocusWorker.Factory<String> makeLocusWorkerFactory() {
+        return new LocusWorker.Factory<String>() {
+            @Override
+            public LocusWorker<String> newWorker() {
+                return ASEReadCounter.this::lineForLocus;
+            }
+
+            @Override
+            public void onResult(final String result) {
+                outputStream.println(result);
+            }
+        };
+    }
+
+    /**
+     * @return the output line for a locus, or null if there is none
+     */
+    private String lineForLocus(final AlignmentContext alignmentContext, final ReferenceContext referenceContext, final FeatureContext featureContext) {
         final String contig = alignmentContext.getContig();
         final long position = alignmentContext.getPosition();
 
@@ -177,18 +205,18 @@ public class ASEReadCounter extends LocusWalker {
             throw new UserException("More then one variant context at position: " + contig + ":" + position);
         }
         if (VCs == null || VCs.isEmpty()) {
-            return;
+            return null;
         }
 
         final VariantContext vc = VCs.get(0);
         if (!vc.isBiallelic()) {
             logger.warn("Ignoring site: cannot run ASE on non-biallelic sites: " + vc.toString());
-            return;
+            return null;
         }
 
         if (vc.getHetCount() < 1) {
             logger.warn("Ignoring site: variant is not het at postion: " + contig + ":" + position);
-            return;
+            return null;
         }
 
         if (vc.getNAlleles() == 1 || vc.getAlternateAllele(0).getBases().length == 0) {
@@ -201,10 +229,7 @@ public class ASEReadCounter extends LocusWalker {
         final ReadPileup pileup = filterPileup(alignmentContext.getBasePileup(), countType);
 
         // count up the depths of all and QC+ bases
-        final String line = calculateLineForSite(pileup, siteID, refAllele, altAllele);
-        if (line != null) {
-            outputStream.println(line);
-        }
+        return calculateLineForSite(pileup, siteID, refAllele, altAllele);
     }
 
     @Override
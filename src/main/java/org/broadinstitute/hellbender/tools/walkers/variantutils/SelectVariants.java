@@ -31,6 +31,7 @@ import org.broadinstitute.hellbender.engine.filters.VariantIDsVariantFilter;
 import org.broadinstitute.hellbender.engine.filters.VariantFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.VariantTypesVariantFilter;
 import org.broadinstitute.hellbender.engine.VariantWalker;
+import org.broadinstitute.hellbender.engine.VariantWorker;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.annotator.ChromosomeCounts;
 import org.broadinstitute.hellbender.tools.walkers.genotyper.AlleleSubsettingUtils;
@@ -433,6 +434,7 @@ public final class SelectVariants extends VariantWalker {
 
     private final List<Allele> diploidNoCallAlleles = GATKVariantContextUtils.noCallAlleles(2);
 
+    // only used by single-threaded traversals: each traversal thread has a cache of its own
     private final Map<Integer, Integer> ploidyToNumberOfAlleles = new LinkedHashMap<Integer, Integer>();
 
     /**
@@ -505,33 +507,70 @@ public final class SelectVariants extends VariantWalker {
 
     @Override
     public void apply(VariantContext vc, ReadsContext readsContext, ReferenceContext ref, FeatureContext featureContext) {
+        final VariantContext selected = selectVariant(vc, featureContext, ploidyToNumberOfAlleles);
+        if (selected != null) {
+            vcfWriter.add(selected);
+        }
+    }
+
+    /**
+     * Variants are selected independently of each other, unless they are selected at random or by mendelian
+     * violations (which are counted across variants), so they can otherwise be selected on any traversal thread.
+     * Each worker keeps its own record of the anyploid PL index caches it has initialized, so that workers don't
+     * have to wait for each other to check it.
+     */
+    @Override
+    protected VariantWorker.Factory<VariantContext> makeVariantWorkerFactory() {
+        if (selectRandomFraction || fractionGenotypes > 0 || mendelianViolations) {
+            return null;
+        }
+        return new VariantWorker.Factory<VariantContext>() {
+            @Override
+            public VariantWorker<VariantContext> newWorker() {
+                final Map<Integer, Integer> workerPloidyToNumberOfAlleles = new LinkedHashMap<>();
+                return (variant, readsContext, ref, featureContext) -> selectVariant(variant, featureContext, workerPloidyToNumberOfAlleles);
+            }
+
+            @Override
+            public void onResult(final VariantContext result) {
+                vcfWriter.add(result);
+            }
+        };
+    }
+
+    /**
+     * @param ploidyToNumberOfAlleles largest number of alleles for which the anyploid PL index cache was initialized,
+     *                                for each ploidy, by the calling thread
+     * @return the subsetted variant if it is selected, otherwise null
+     */
+    private VariantContext selectVariant(VariantContext vc, final FeatureContext featureContext, final Map<Integer, Integer> ploidyToNumberOfAlleles) {
 
         if (fullyDecode) {
             vc = vc.fullyDecode(getHeaderForVariants(), lenientVCFProcessing);
         }
 
         if (mendelianViolations && invertLogic((mv.countFamilyViolations(sampleDB, samples, vc) == 0), invertMendelianViolations)) {
-            return;
+            return null;
         }
 
         if (discordanceOnly && !isDiscordant(vc, featureContext.getValues(discordanceTrack))) {
-            return;
+            return null;
         }
 
         if (concordanceOnly && !isConcordant(vc, featureContext.getValues(concordanceTrack))) {
-            return;
+            return null;
         }
 
         if (alleleRestriction.equals(NumberAlleleRestriction.BIALLELIC) && !vc.isBiallelic()) {
-            return;
+            return null;
         }
 
         if (alleleRestriction.equals(NumberAlleleRestriction.MULTIALLELIC) && vc.isBiallelic()) {
-            return;
+            return null;
         }
 
         if (containsIndelLargerOrSmallerThan(vc, maxIndelSize, minIndelSize)) {
-            return;
+            return null;
         }
 
         if (considerFilteredGenotypes()) {
@@ -539,18 +578,18 @@ public final class SelectVariants extends VariantWalker {
             final double fractionFilteredGenotypes = samples.isEmpty() ? 0.0 : numFilteredSamples / samples.size();
             if (numFilteredSamples > maxFilteredGenotypes || numFilteredSamples < minFilteredGenotypes ||
                     fractionFilteredGenotypes > maxFractionFilteredGenotypes || fractionFilteredGenotypes < minFractionFilteredGenotypes)
-                return;
+                return null;
         }
 
         if (considerNoCallGenotypes()) {
             final int numNoCallSamples = numNoCallGenotypes(vc);
             final double fractionNoCallGenotypes = samples.isEmpty() ? 0.0 : ((double) numNoCallSamples) / samples.size();
             if (numNoCallSamples > maxNOCALLnumber || fractionNoCallGenotypes > maxNOCALLfraction)
-                return;
+                return null;
         }
 
         // Initialize the cache of PL index to a list of alleles for each ploidy.
-        initalizeAlleleAnyploidIndicesCache(vc);
+        initalizeAlleleAnyploidIndicesCache(vc, ploidyToNumberOfAlleles);
 
         final VariantContext sub = subsetRecord(vc, preserveAlleles, removeUnusedAlternates);
         final VariantContextBuilder builder = new VariantContextBuilder(vc);
@@ -581,9 +620,10 @@ public final class SelectVariants extends VariantWalker {
 
             if (!failedJexlMatch &&
                     (!selectRandomFraction || Utils.getRandomGenerator().nextDouble() < fractionRandom)) {
-                vcfWriter.add(filteredGenotypeToNocall);
+                return filteredGenotypeToNocall;
             }
         }
+        return null;
     }
 
     /**
@@ -608,8 +648,9 @@ public final class SelectVariants extends VariantWalker {
      * Initialize the cache of PL index to a list of alleles for each ploidy.
      *
      * @param vc    Variant Context
+     * @param ploidyToNumberOfAlleles largest number of alleles for which the cache was initialized, for each ploidy
     */
-    private void initalizeAlleleAnyploidIndicesCache(final VariantContext vc) {
+    private static void initalizeAlleleAnyploidIndicesCache(final VariantContext vc, final Map<Integer, Integer> ploidyToNumberOfAlleles) {
         if (vc.getType() != VariantContext.Type.NO_VARIATION) { // Bypass if not a variant
             for (final Genotype g : vc.getGenotypes()) {
                 if (g.getPloidy() != 0) {
@@ -16,6 +16,7 @@ import org.broadinstitute.hellbender.engine.FeatureContext;
 import org.broadinstitute.hellbender.engine.ReadsContext;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.engine.VariantWalker;
+import org.broadinstitute.hellbender.engine.VariantWorker;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
@@ -191,13 +192,35 @@ public final class VariantsToTable extends VariantWalker {
     @Override
     public void apply(final VariantContext vc, final ReadsContext readsContext, final ReferenceContext ref, final FeatureContext featureContext) {
         if ( showFiltered || vc.isNotFiltered() ) {
-            nRecords++;
-            final List<List<String>> records = extractFields(vc);
-            if (moltenizeOutput){
-                records.forEach(record -> emitMoltenizedOutput(record));
-            } else {
-                records.forEach(record -> outputStream.println(Utils.join("\t", record)));
+            emitRecords(extractFields(vc));
+        }
+    }
+
+    /**
+     * The fields of each variant are extracted independently of the others, so they can be extracted on any
+     * traversal thread. The records are numbered (for moltenized output) as they are emitted, in order.
+     */
+    @Override
+    protected VariantWorker.Factory<List<List<String>>> makeVariantWorkerFactory() {
+        return new VariantWorker.Factory<List<List<String>>>() {
+            @Override
+            public VariantWorker<List<List<String>>> newWorker() {
+                return (vc, readsContext, ref, featureContext) -> showFiltered || vc.isNotFiltered() ? extractFields(vc) : null;
+            }
+
+            @Override
+            public void onResult(final List<List<String>> result) {
+                emitRecords(result);
             }
+        };
+    }
+
+    private void emitRecords(final List<List<String>> records) {
+        nRecords++;
+        if (moltenizeOutput){
+            records.forEach(record -> emitMoltenizedOutput(record));
+        } else {
+            records.forEach(record -> outputStream.println(Utils.join("\t", record)));
         }
     }
 
@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.walkers.vqsr;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 
@@ -10,6 +11,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 import Jama.Matrix;
 
@@ -17,6 +22,9 @@ class GaussianMixtureModel {
 
     protected final static Logger logger = LogManager.getLogger(GaussianMixtureModel.class);
 
+    // number of data in each of the tasks into which passes over the data are split
+    private final static int CHUNK_SIZE = 4096;
+
     private final List<MultivariateGaussian> gaussians;
     private final double shrinkage;
     private final double dirichletParameter;
@@ -59,7 +67,13 @@ class GaussianMixtureModel {
 
     }
 
-    public void initializeRandomModel( final List<VariantDatum> data, final int numKMeansIterations ) {
+    /*
+     * The methods that train the model take a pool on which to run their passes over the data, or null to run them
+     * on the calling thread. Every sum over the data is still accumulated in the order of the data, so the trained
+     * model does not depend on the number of threads.
+     */
+
+    public void initializeRandomModel( final VariantDataColumns data, final int numKMeansIterations, final ForkJoinPool pool ) {
 
         // initialize random Gaussian means // BUGBUG: this is broken up this way to match the order of calls to rand.nextDouble() in the old code
         for( final MultivariateGaussian gaussian : gaussians ) {
@@ -68,7 +82,7 @@ class GaussianMixtureModel {
 
         // initialize means using K-means algorithm
         logger.info( "Initializing model with " + numKMeansIterations + " k-means iterations..." );
-        initializeMeansUsingKMeans( data, numKMeansIterations );
+        initializeMeansUsingKMeans( data, numKMeansIterations, pool );
 
         // initialize uniform mixture coefficients, random covariance matrices, and initial hyperparameters
         for( final MultivariateGaussian gaussian : gaussians ) {
@@ -81,74 +95,136 @@ class GaussianMixtureModel {
         }
     }
 
-    private void initializeMeansUsingKMeans( final List<VariantDatum> data, final int numIterations ) {
+    private void initializeMeansUsingKMeans( final VariantDataColumns data, final int numIterations, final ForkJoinPool pool ) {
 
+        final int[] assignments = new int[data.size()];
+        final int[] numAssigned = new int[gaussians.size()];
         int ttt = 0;
         while( ttt++ < numIterations ) {
             // E step: assign each variant to the nearest cluster
-            for( final VariantDatum datum : data ) {
-                double minDistance = Double.MAX_VALUE;
-                MultivariateGaussian minGaussian = null;
-                datum.assignment = minGaussian;
-                for( final MultivariateGaussian gaussian : gaussians ) {
-                    final double dist = gaussian.calculateDistanceFromMeanSquared( datum );
-                    if( dist < minDistance ) {
-                        minDistance = dist;
-                        minGaussian = gaussian;
+            forEachChunk(pool, data.size(), (from, to) -> {
+                final double[] annotations = new double[data.getNumAnnotations()];
+                for( int datumIndex = from; datumIndex < to; datumIndex++ ) {
+                    data.getAnnotations(datumIndex, annotations);
+                    double minDistance = Double.MAX_VALUE;
+                    int minGaussian = -1;
+                    for( int gaussianIndex = 0; gaussianIndex < gaussians.size(); gaussianIndex++ ) {
+                        final double dist = gaussians.get(gaussianIndex).calculateDistanceFromMeanSquared( annotations );
+                        if( dist < minDistance ) {
+                            minDistance = dist;
+                            minGaussian = gaussianIndex;
+                        }
                     }
+                    assignments[datumIndex] = minGaussian;
                 }
-                datum.assignment = minGaussian;
-            }
+            });
 
             // M step: update gaussian means based on assigned variants
-            for( final MultivariateGaussian gaussian : gaussians ) {
-                gaussian.zeroOutMu();
-                int numAssigned = 0;
-
-                for( final VariantDatum datum : data ) {
-                    if( datum.assignment.equals(gaussian) ) {
-                        numAssigned++;
-                        gaussian.incrementMu( datum );
-                    }
+            Arrays.fill(numAssigned, 0);
+            for( final int assignment : assignments ) {
+                numAssigned[assignment]++;
+            }
+            // one pass over each annotation column adds every datum to the sum of its own Gaussian, in the order of the data
+            forEachTask(pool, data.getNumAnnotations(), jjj -> {
+                final double[] column = data.getColumn(jjj);
+                final double[] sums = new double[gaussians.size()];
+                for( int datumIndex = 0; datumIndex < column.length; datumIndex++ ) {
+                    sums[assignments[datumIndex]] += column[datumIndex];
+                }
+                for( int gaussianIndex = 0; gaussianIndex < gaussians.size(); gaussianIndex++ ) {
+                    gaussians.get(gaussianIndex).mu[jjj] = sums[gaussianIndex];
                 }
-                if( numAssigned != 0 ) {
-                    gaussian.divideEqualsMu( ((double) numAssigned) );
+            });
+            // in order, so that the random draws are made in the same order for any number of threads
+            for( int gaussianIndex = 0; gaussianIndex < gaussians.size(); gaussianIndex++ ) {
+                if( numAssigned[gaussianIndex] != 0 ) {
+                    gaussians.get(gaussianIndex).divideEqualsMu( ((double) numAssigned[gaussianIndex]) );
                 } else {
-                    gaussian.initializeRandomMu( Utils.getRandomGenerator() );
+                    gaussians.get(gaussianIndex).initializeRandomMu( Utils.getRandomGenerator() );
                 }
             }
         }
     }
 
-    public void expectationStep( final List<VariantDatum> data ) {
+    public void expectationStep( final VariantDataColumns data, final ForkJoinPool pool ) {
 
         for( final MultivariateGaussian gaussian : gaussians ) {
             gaussian.precomputeDenominatorForVariationalBayes( getSumHyperParameterLambda() );
         }
 
-        for( final VariantDatum datum : data ) {
-            final double[] pVarInGaussianLog10 = gaussians.stream().mapToDouble(g -> g.evaluateDatumLog10(datum)).toArray();
-            final double[] pVarInGaussianNormalized = MathUtils.normalizeLog10DeleteMePlease( pVarInGaussianLog10, false);
-            int gaussianIndex = 0;
-            for( final MultivariateGaussian gaussian : gaussians ) {
-                gaussian.assignPVarInGaussian( pVarInGaussianNormalized[gaussianIndex++] );
+        forEachChunk(pool, data.size(), (from, to) -> {
+            final double[] annotations = new double[data.getNumAnnotations()];
+            final double[] pVarInGaussianLog10 = new double[gaussians.size()];
+            for( int datumIndex = from; datumIndex < to; datumIndex++ ) {
+                data.getAnnotations(datumIndex, annotations);
+                for( int gaussianIndex = 0; gaussianIndex < gaussians.size(); gaussianIndex++ ) {
+                    pVarInGaussianLog10[gaussianIndex] = gaussians.get(gaussianIndex).evaluateDatumLog10( annotations );
+                }
+                final double[] pVarInGaussianNormalized = MathUtils.normalizeLog10DeleteMePlease( pVarInGaussianLog10, false);
+                for( int gaussianIndex = 0; gaussianIndex < gaussians.size(); gaussianIndex++ ) {
+                    gaussians.get(gaussianIndex).setPVarInGaussian( datumIndex, pVarInGaussianNormalized[gaussianIndex] );
+                }
             }
-        }
+        });
     }
 
-    public void maximizationStep( final List<VariantDatum> data ) {
-        gaussians.forEach(g -> g.maximizeGaussian( data, empiricalMu, empiricalSigma, shrinkage, dirichletParameter, priorCounts));
+    public void maximizationStep( final VariantDataColumns data, final ForkJoinPool pool ) {
+        maximizeMuAndSigma( data, 1E-10, pool );
+        gaussians.forEach(g -> g.finishMaximizeGaussian( empiricalMu, empiricalSigma, shrinkage, dirichletParameter, priorCounts));
     }
 
     private double getSumHyperParameterLambda() {
         return gaussians.stream().mapToDouble(g -> g.hyperParameter_lambda).sum();
     }
 
-    public void evaluateFinalModelParameters( final List<VariantDatum> data ) {
-        gaussians.forEach(g -> g.evaluateFinalModelParameters(data));
+    public void evaluateFinalModelParameters( final VariantDataColumns data, final ForkJoinPool pool ) {
+        maximizeMuAndSigma( data, 0.0, pool );
+        gaussians.forEach(MultivariateGaussian::finishFinalModelParameters);
         normalizePMixtureLog10();
     }
 
+    // the means of all Gaussians, and then every row of every covariance matrix, as independent tasks
+    private void maximizeMuAndSigma( final VariantDataColumns data, final double initialSumProb, final ForkJoinPool pool ) {
+        final int numAnnotations = data.getNumAnnotations();
+        forEachTask(pool, gaussians.size(), gaussianIndex -> gaussians.get(gaussianIndex).maximizeMu( data, initialSumProb ));
+        forEachTask(pool, gaussians.size() * numAnnotations, task ->
+                gaussians.get(task / numAnnotations).maximizeSigmaRow( data, task % numAnnotations ));
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        void apply( int from, int to );
+    }
+
+    private static void forEachChunk( final ForkJoinPool pool, final int size, final ChunkTask task ) {
+        final int numChunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        forEachTask(pool, numChunks, chunk -> task.apply(chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE)));
+    }
+
+    /**
+     * Runs the tasks numbered from 0 to numTasks - 1, on the pool if there is one, and otherwise in order on the
+     * calling thread. Returns once all of them are done.
+     */
+    static void forEachTask( final ForkJoinPool pool, final int numTasks, final IntConsumer task ) {
+        if( pool == null ) {
+            for( int iii = 0; iii < numTasks; iii++ ) {
+                task.accept(iii);
+            }
+            return;
+        }
+        try {
+            pool.submit(() -> IntStream.range(0, numTasks).parallel().forEach(task)).get();
+        } catch( final ExecutionException e ) {
+            if( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Error while training the Gaussian mixture model", e.getCause());
+        } catch( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while training the Gaussian mixture model", e);
+        }
+    }
+
     public double normalizePMixtureLog10() {
         double sumDiff = 0.0;
         final double sumPK = gaussians.stream().mapToDouble(g -> g.sumProb).sum();
@@ -190,12 +266,38 @@ class GaussianMixtureModel {
         return MathUtils.log10sumLog10(values);
     }
 
-    public double evaluateDatum( final VariantDatum datum ) {
+    /**
+     * Evaluates, on the pool if there is one, every datum that has all its annotations. Data with missing annotations
+     * are marginalized over random draws, which must be made in the order of the data, so they are left to
+     * {@link #evaluateDatum}.
+     *
+     * @return the lod of each datum, or NaN for those with missing annotations
+     */
+    public double[] evaluateDataWithAllAnnotations( final List<VariantDatum> data, final ForkJoinPool pool ) {
+        final double[] lods = new double[data.size()];
+        forEachChunk(pool, data.size(), (from, to) -> {
+            for( int datumIndex = from; datumIndex < to; datumIndex++ ) {
+                final VariantDatum datum = data.get(datumIndex);
+                lods[datumIndex] = hasMissingAnnotation(datum) ? Double.NaN : evaluateDatumWithAllAnnotations(datum);
+            }
+        });
+        return lods;
+    }
+
+    public static boolean hasMissingAnnotation( final VariantDatum datum ) {
         for( final boolean isNull : datum.isNull ) {
             if( isNull ) {
-                return evaluateDatumMarginalized( datum );
+                return true;
             }
         }
+        return false;
+    }
+
+    public double evaluateDatum( final VariantDatum datum ) {
+        return hasMissingAnnotation(datum) ? evaluateDatumMarginalized( datum ) : evaluateDatumWithAllAnnotations( datum );
+    }
+
+    private double evaluateDatumWithAllAnnotations( final VariantDatum datum ) {
         // Fill an array with the log10 probability coming from each Gaussian and then use MathUtils to sum them up correctly
         final double[] pVarInGaussianLog10 = new double[gaussians.size()];
         int gaussianIndex = 0;
@@ -4,10 +4,8 @@ import org.apache.commons.math3.special.Gamma;
 
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.MathUtils;
-import org.broadinstitute.hellbender.utils.collections.ExpandingArrayList;
 
 import java.util.Arrays;
-import java.util.List;
 import java.util.Random;
 
 import Jama.Matrix;
@@ -23,13 +21,11 @@ class MultivariateGaussian {
     private double cachedDenomLog10;
     private Matrix cachedSigmaInverse;
     final private double[] pVarInGaussian;
-    int pVarInGaussianIndex;
 
     public MultivariateGaussian( final int numVariants, final int numAnnotations  ) {
         mu = new double[numAnnotations];
         sigma = new Matrix(numAnnotations, numAnnotations);
         pVarInGaussian = new double[numVariants];
-        pVarInGaussianIndex = 0;
     }
 
     public void zeroOutMu() {
@@ -67,18 +63,8 @@ class MultivariateGaussian {
         sigma.setMatrix(0, mu.length - 1, 0, mu.length - 1, tmp);
     }
 
-    public double calculateDistanceFromMeanSquared( final VariantDatum datum ) {
-        return MathUtils.distanceSquared( datum.annotations, mu );
-    }
-
-    public void incrementMu( final VariantDatum datum ) {
-        incrementMu( datum, 1.0 );
-    }
-
-    public void incrementMu( final VariantDatum datum, final double prob ) {
-        for( int jjj = 0; jjj < mu.length; jjj++ ) {
-            mu[jjj] += prob * datum.annotations[jjj];
-        }
+    public double calculateDistanceFromMeanSquared( final double[] annotations ) {
+        return MathUtils.distanceSquared( annotations, mu );
     }
 
     public void divideEqualsMu( final double x ) {
@@ -125,45 +111,86 @@ class MultivariateGaussian {
     }
 
     public double evaluateDatumLog10( final VariantDatum datum ) {
+        return evaluateDatumLog10( datum.annotations );
+    }
+
+    public double evaluateDatumLog10( final double[] annotations ) {
         double sumKernel = 0.0;
         final double[] crossProdTmp = new double[mu.length];
         Arrays.fill(crossProdTmp, 0.0);
         for( int iii = 0; iii < mu.length; iii++ ) {
             for( int jjj = 0; jjj < mu.length; jjj++ ) {
-                crossProdTmp[iii] += (datum.annotations[jjj] - mu[jjj]) * cachedSigmaInverse.get(jjj, iii);
+                crossProdTmp[iii] += (annotations[jjj] - mu[jjj]) * cachedSigmaInverse.get(jjj, iii);
             }
         }
         for( int iii = 0; iii < mu.length; iii++ ) {
-            sumKernel += crossProdTmp[iii] * (datum.annotations[iii] - mu[iii]);
+            sumKernel += crossProdTmp[iii] * (annotations[iii] - mu[iii]);
         }
 
         return (( -0.5 * sumKernel ) / Math.log(10.0)) + cachedDenomLog10; // This is the definition of a Gaussian PDF Log10
     }
 
-    public void assignPVarInGaussian( final double pVar ) {
-        pVarInGaussian[pVarInGaussianIndex++] = pVar;
+    public void setPVarInGaussian( final int datumIndex, final double pVar ) {
+        pVarInGaussian[datumIndex] = pVar;
     }
 
     public void resetPVarInGaussian() {
         Arrays.fill(pVarInGaussian, 0.0);
-        pVarInGaussianIndex = 0;
     }
 
-    public void maximizeGaussian(final List<VariantDatum> data, final double[] empiricalMu, final Matrix empiricalSigma,
-                                 final double SHRINKAGE, final double DIRICHLET_PARAMETER, final double DEGREES_OF_FREEDOM ) {
-        sumProb = 1E-10;
-        final Matrix wishart = new Matrix(mu.length, mu.length);
-        zeroOutMu();
-        zeroOutSigma();
-
-        int datumIndex = 0;
-        for( final VariantDatum datum : data ) {
-            final double prob = pVarInGaussian[datumIndex++];
-            sumProb += prob;
-            incrementMu( datum, prob );
+    /*
+     * The maximization of a Gaussian is split into a pass over the data for the mean, one pass for each row of the
+     * covariance matrix, which can all run concurrently once the mean is known, and a final update of the parameters.
+     * Each sum is accumulated in the order of the data, so the results do not depend on how the passes are scheduled.
+     */
+
+    /**
+     * Sets sumProb and the mean to the weighted sum and the weighted mean of the data.
+     *
+     * @param initialSumProb initial value of the sum of the weights
+     */
+    public void maximizeMu( final VariantDataColumns data, final double initialSumProb ) {
+        final int numData = data.size();
+        sumProb = initialSumProb;
+        for( int datumIndex = 0; datumIndex < numData; datumIndex++ ) {
+            sumProb += pVarInGaussian[datumIndex];
+        }
+        for( int jjj = 0; jjj < mu.length; jjj++ ) {
+            final double[] column = data.getColumn(jjj);
+            double sum = 0.0;
+            for( int datumIndex = 0; datumIndex < numData; datumIndex++ ) {
+                sum += pVarInGaussian[datumIndex] * column[datumIndex];
+            }
+            mu[jjj] = sum;
         }
         divideEqualsMu( sumProb );
+    }
+
+    /**
+     * Sets one row of the covariance matrix to the weighted sum of the outer products of the deviations of the data
+     * from the mean computed by {@link #maximizeMu}.
+     */
+    public void maximizeSigmaRow( final VariantDataColumns data, final int iii ) {
+        final int numData = data.size();
+        final double[] rowColumn = data.getColumn(iii);
+        for( int jjj = 0; jjj < mu.length; jjj++ ) {
+            final double[] column = data.getColumn(jjj);
+            double sum = 0.0;
+            for( int datumIndex = 0; datumIndex < numData; datumIndex++ ) {
+                final double deltaMu = pVarInGaussian[datumIndex] * (rowColumn[datumIndex] - mu[iii]);
+                sum += deltaMu * (column[datumIndex] - mu[jjj]);
+            }
+            sigma.set(iii, jjj, sum);
+        }
+    }
 
+    /**
+     * Completes a variational Bayes maximization step, after {@link #maximizeMu} (starting from a sum of weights of
+     * 1E-10) and {@link #maximizeSigmaRow} for every row.
+     */
+    public void finishMaximizeGaussian( final double[] empiricalMu, final Matrix empiricalSigma,
+                                        final double SHRINKAGE, final double DIRICHLET_PARAMETER, final double DEGREES_OF_FREEDOM ) {
+        final Matrix wishart = new Matrix(mu.length, mu.length);
         final double shrinkageFactor = (SHRINKAGE * sumProb) / (SHRINKAGE + sumProb);
         for( int iii = 0; iii < mu.length; iii++ ) {
             double deltaMu = shrinkageFactor * (mu[iii] - empiricalMu[iii]);
@@ -172,19 +199,6 @@ class MultivariateGaussian {
             }
         }
 
-        datumIndex = 0;
-        final Matrix pVarSigma = new Matrix(mu.length, mu.length);
-        for( final VariantDatum datum : data ) {
-            final double prob = pVarInGaussian[datumIndex++];
-            for( int iii = 0; iii < mu.length; iii++ ) {
-                double deltaMu = prob * (datum.annotations[iii]-mu[iii]);
-                for( int jjj = 0; jjj < mu.length; jjj++ ) {
-                    pVarSigma.set(iii, jjj, deltaMu * (datum.annotations[jjj]-mu[jjj]));
-                }
-            }
-            sigma.plusEquals( pVarSigma );
-        }
-
         sigma.plusEquals( empiricalSigma );
         sigma.plusEquals( wishart );
 
@@ -199,32 +213,13 @@ class MultivariateGaussian {
         resetPVarInGaussian(); // clean up some memory
     }
 
-    public void evaluateFinalModelParameters( final List<VariantDatum> data ) {
-        sumProb = 0.0;
-        zeroOutMu();
-        zeroOutSigma();
-
-        int datumIndex = 0;
-        for( final VariantDatum datum : data ) {
-            final double prob = pVarInGaussian[datumIndex++];
-            sumProb += prob;
-            incrementMu( datum, prob );
-        }
-        divideEqualsMu( sumProb );
-
-        datumIndex = 0;
-        final Matrix pVarSigma = new Matrix(mu.length, mu.length);
-        for( final VariantDatum datum : data ) {
-            final double prob = pVarInGaussian[datumIndex++];
-            for( int iii = 0; iii < mu.length; iii++ ) {
-                for( int jjj = 0; jjj < mu.length; jjj++ ) {
-                    pVarSigma.set(iii, jjj, prob * (datum.annotations[iii]-mu[iii]) * (datum.annotations[jjj]-mu[jjj]));
-                }
-            }
-            sigma.plusEquals( pVarSigma );
-        }
+    /**
+     * Completes the evaluation of the final model parameters, after {@link #maximizeMu} (starting from a sum of
+     * weights of 0) and {@link #maximizeSigmaRow} for every row.
+     */
+    public void finishFinalModelParameters() {
         sigma.timesEquals( 1.0 / sumProb );
 
         resetPVarInGaussian(); // clean up some memory
     }
-}
\ No newline at end of file
+}
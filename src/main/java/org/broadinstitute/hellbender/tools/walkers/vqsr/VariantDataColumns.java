@@ -0,0 +1,58 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.List;
+
+/**
+ * The annotations of a list of {@link VariantDatum}, in column-major order: one array per annotation, indexed by
+ * the position of the datum in the list. Training a {@link GaussianMixtureModel} makes many passes over the same
+ * data, most of which accumulate statistics one or two annotations at a time, and these can then stream through
+ * contiguous arrays instead of chasing one small array per datum.
+ */
+final class VariantDataColumns {
+
+    private final double[][] columns;
+    private final int size;
+
+    public VariantDataColumns( final List<VariantDatum> data ) {
+        Utils.nonEmpty(data, "No data found.");
+        size = data.size();
+        final int numAnnotations = data.get(0).annotations.length;
+        columns = new double[numAnnotations][size];
+        for( int datumIndex = 0; datumIndex < size; datumIndex++ ) {
+            final double[] annotations = data.get(datumIndex).annotations;
+            Utils.validateArg(annotations.length == numAnnotations, "All data must have the same number of annotations");
+            for( int iii = 0; iii < numAnnotations; iii++ ) {
+                columns[iii][datumIndex] = annotations[iii];
+            }
+        }
+    }
+
+    /**
+     * @return the number of data
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getNumAnnotations() {
+        return columns.length;
+    }
+
+    /**
+     * @return the values of one annotation for all data, which must not be modified
+     */
+    public double[] getColumn( final int annotation ) {
+        return columns[annotation];
+    }
+
+    /**
+     * Copies the annotations of one datum into the given array, which must have room for all of them
+     */
+    public void getAnnotations( final int datumIndex, final double[] annotations ) {
+        for( int iii = 0; iii < columns.length; iii++ ) {
+            annotations[iii] = columns[iii][datumIndex];
+        }
+    }
+}
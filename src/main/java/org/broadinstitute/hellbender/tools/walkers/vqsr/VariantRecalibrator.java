@@ -404,6 +404,10 @@ public class VariantRecalibrator extends MultiVariantWalker {
     @Override
     public void onTraversalStart() {
 
+        if ( VRAC.MODELING_THREADS < 1 ) {
+            throw new CommandLineException.BadArgumentValue("modelingThreads", Integer.toString(VRAC.MODELING_THREADS), "must be at least 1");
+        }
+
         dataManager = new VariantDataManager( new ArrayList<>(USE_ANNOTATIONS), VRAC );
 
         if (RSCRIPT_FILE != null) {
@@ -65,6 +65,14 @@ final class VariantRecalibratorArgumentCollection {
     @Argument(fullName = "numKMeans", shortName = "nKM", doc = "Number of k-means iterations", optional = true)
     public int NUM_KMEANS_ITERATIONS = 100;
 
+    /**
+     * The number of threads on which to train the Gaussian mixture models and evaluate the variants against them.
+     * The models and the VQSLOD scores do not depend on the number of threads.
+     */
+    @Advanced
+    @Argument(fullName = "modelingThreads", shortName = "modelingThreads", doc = "Number of threads on which to train and evaluate the Gaussian mixture models", optional = true)
+    public int MODELING_THREADS = 1;
+
     /**
      * If a variant has annotations more than -std standard deviations away from mean, it won't be used for building
      * the Gaussian mixture model.
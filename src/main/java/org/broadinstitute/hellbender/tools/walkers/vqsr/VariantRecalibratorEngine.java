@@ -6,6 +6,7 @@ import org.apache.logging.log4j.LogManager;
 import org.broadinstitute.hellbender.utils.Utils;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class VariantRecalibratorEngine {
 
@@ -44,7 +45,12 @@ public class VariantRecalibratorEngine {
                 VRAC.SHRINKAGE,
                 VRAC.DIRICHLET_PARAMETER,
                 VRAC.PRIOR_COUNTS );
-        variationalBayesExpectationMaximization( model, data );
+        final ForkJoinPool pool = createModelingPool();
+        try {
+            variationalBayesExpectationMaximization( model, new VariantDataColumns(data), pool );
+        } finally {
+            shutdownModelingPool(pool);
+        }
         return model;
     }
 
@@ -60,8 +66,17 @@ public class VariantRecalibratorEngine {
         }
 
         logger.info("Evaluating full set of " + data.size() + " variants...");
-        for( final VariantDatum datum : data ) {
-            final double thisLod = evaluateDatum( datum, model );
+        final ForkJoinPool pool = createModelingPool();
+        final double[] lods;
+        try {
+            lods = model.evaluateDataWithAllAnnotations( data, pool );
+        } finally {
+            shutdownModelingPool(pool);
+        }
+        // in order, since both the marginalization over missing annotations and the contrastive evaluation draw random numbers
+        for( int datumIndex = 0; datumIndex < data.size(); datumIndex++ ) {
+            final VariantDatum datum = data.get(datumIndex);
+            final double thisLod = GaussianMixtureModel.hasMissingAnnotation(datum) ? evaluateDatum( datum, model ) : lods[datumIndex];
             if( Double.isNaN(thisLod) ) {
                 logger.warn("Evaluate datum returned a NaN.");
                 model.failedToConverge = true;
@@ -99,21 +114,32 @@ public class VariantRecalibratorEngine {
     // Private Methods used for generating a GaussianMixtureModel
     /////////////////////////////
 
-    private void variationalBayesExpectationMaximization( final GaussianMixtureModel model, final List<VariantDatum> data ) {
+    // null when there is a single thread, in which case the model does all its work on the calling thread
+    private ForkJoinPool createModelingPool() {
+        return VRAC.MODELING_THREADS > 1 ? new ForkJoinPool(VRAC.MODELING_THREADS) : null;
+    }
+
+    private static void shutdownModelingPool( final ForkJoinPool pool ) {
+        if( pool != null ) {
+            pool.shutdown();
+        }
+    }
+
+    private void variationalBayesExpectationMaximization( final GaussianMixtureModel model, final VariantDataColumns data, final ForkJoinPool pool ) {
 
-        model.initializeRandomModel( data, VRAC.NUM_KMEANS_ITERATIONS );
+        model.initializeRandomModel( data, VRAC.NUM_KMEANS_ITERATIONS, pool );
 
         // The VBEM loop
         model.normalizePMixtureLog10();
-        model.expectationStep( data );
+        model.expectationStep( data, pool );
         double currentChangeInMixtureCoefficients;
         int iteration = 0;
         logger.info("Finished iteration " + iteration + ".");
         while( iteration < VRAC.MAX_ITERATIONS ) {
             iteration++;
-            model.maximizationStep( data );
+            model.maximizationStep( data, pool );
             currentChangeInMixtureCoefficients = model.normalizePMixtureLog10();
-            model.expectationStep( data );
+            model.expectationStep( data, pool );
             if( iteration % 5 == 0 ) { // cut down on the number of output lines so that users can read the warning messages
                 logger.info("Finished iteration " + iteration + ". \tCurrent change in mixture coefficients = " + String.format("%.5f", currentChangeInMixtureCoefficients));
             }
@@ -123,7 +149,7 @@ public class VariantRecalibratorEngine {
             }
         }
 
-        model.evaluateFinalModelParameters( data );
+        model.evaluateFinalModelParameters( data, pool );
     }
 
     /////////////////////////////
@@ -61,6 +61,18 @@ public final class Utils {
         randomDataGenerator.reSeed(GATK_RANDOM_SEED);
     }
 
+    /**
+     * Returns a new random number generator for one shard of a traversal, seeded from the GATK seed and the index of
+     * the shard, so that what is drawn for a shard doesn't depend on which thread processes it, or when.
+     *
+     * @param shardIndex index of the shard in the traversal (>= 0)
+     */
+    public static Random getRandomGeneratorForShard( final long shardIndex ) {
+        validateArg(shardIndex >= 0, "shardIndex must be >= 0");
+        // spread consecutive shard indices over the seed space, as nearby seeds give correlated first draws
+        return new Random(GATK_RANDOM_SEED ^ ((shardIndex + 1) * 0x9E3779B97F4A7C15L));
+    }
+
     private static final int TEXT_WARNING_WIDTH = 68;
     private static final String TEXT_WARNING_PREFIX = "* ";
     private static final String TEXT_WARNING_BORDER = StringUtils.repeat('*', TEXT_WARNING_PREFIX.length() + TEXT_WARNING_WIDTH);
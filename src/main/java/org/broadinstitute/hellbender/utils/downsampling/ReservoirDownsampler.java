@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Reservoir Downsampler: Selects n reads out of a stream whose size is not known in advance, with
@@ -51,6 +52,11 @@ public final class ReservoirDownsampler extends ReadsDownsampler {
      */
     private int totalReadsSeen;
 
+    /**
+     * Source of the random choices of the reads to retain
+     */
+    private final Random rng;
+
 
     /**
      * Construct a ReservoirDownsampler
@@ -65,12 +71,25 @@ public final class ReservoirDownsampler extends ReadsDownsampler {
      *                           elements.
      */
     public ReservoirDownsampler(final int targetSampleSize, final boolean expectFewOverflows ) {
+        this(targetSampleSize, expectFewOverflows, Utils.getRandomGenerator());
+    }
+
+    /**
+     * Construct a ReservoirDownsampler that makes its random choices with the given random number generator,
+     * rather than the GATK-wide one
+     *
+     * @param targetSampleSize Size of the reservoir used by this downsampler.
+     * @param expectFewOverflows see {@link #ReservoirDownsampler(int, boolean)}
+     * @param rng source of the random choices of the reads to retain. Non-null.
+     */
+    public ReservoirDownsampler(final int targetSampleSize, final boolean expectFewOverflows, final Random rng ) {
         if ( targetSampleSize <= 0 ) {
             throw new IllegalArgumentException("Cannot do reservoir downsampling with a sample size <= 0");
         }
 
         this.targetSampleSize = targetSampleSize;
         this.expectFewOverflows = expectFewOverflows;
+        this.rng = Utils.nonNull(rng);
         clearItems();
         resetStats();
     }
@@ -100,7 +119,7 @@ public final class ReservoirDownsampler extends ReadsDownsampler {
                 isLinkedList = false;
             }
 
-            final int randomSlot = Utils.getRandomGenerator().nextInt(totalReadsSeen);
+            final int randomSlot = rng.nextInt(totalReadsSeen);
             if ( randomSlot < targetSampleSize ) {
                 reservoir.set(randomSlot, newRead);
             }
@@ -0,0 +1,90 @@
+package org.broadinstitute.hellbender.utils.genotyper;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-thread pool of the flat likelihood buffers used by {@link ReadLikelihoods}.
+ *
+ * <p>
+ *     Each thread gets its own pool, so no synchronization is needed and buffers released by the read-likelihoods of
+ *     one assembly region are handed out to the read-likelihoods of the next region processed by the same thread.
+ * </p>
+ *
+ * <p>
+ *     The pool is bounded both in the number of buffers and in their total size, so that a region with exceptionally
+ *     deep coverage does not pin its memory for the rest of the run.
+ * </p>
+ */
+final class LikelihoodBufferPool {
+
+    /**
+     * Maximum number of buffers kept per thread.
+     */
+    private static final int MAXIMUM_BUFFER_COUNT = 32;
+
+    /**
+     * Maximum total number of likelihoods (doubles) kept per thread, i.e. 32MB.
+     */
+    private static final long MAXIMUM_TOTAL_LENGTH = 4L << 20;
+
+    private static final ThreadLocal<LikelihoodBufferPool> POOLS = ThreadLocal.withInitial(LikelihoodBufferPool::new);
+
+    private final List<double[]> buffers = new ArrayList<>(MAXIMUM_BUFFER_COUNT);
+
+    private long totalLength = 0;
+
+    private LikelihoodBufferPool() { }
+
+    /**
+     * Returns a buffer with at least the requested length from the calling thread's pool, or a new one if the pool
+     * has none large enough.
+     *
+     * @param minimumLength the minimum length of the buffer, 0 or greater.
+     * @return never {@code null}. The content of the buffer is undefined.
+     */
+    static double[] acquire(final int minimumLength) {
+        Utils.validateArg(minimumLength >= 0, "the minimum length cannot be negative");
+        return POOLS.get().acquireBuffer(minimumLength);
+    }
+
+    /**
+     * Returns a buffer to the calling thread's pool.  The caller must not use the buffer afterwards.
+     *
+     * @param buffer the buffer to return.
+     */
+    static void release(final double[] buffer) {
+        Utils.nonNull(buffer);
+        POOLS.get().releaseBuffer(buffer);
+    }
+
+    private double[] acquireBuffer(final int minimumLength) {
+        // best fit, so that small requests do not take the buffers needed by large ones.
+        int bestIndex = -1;
+        for (int i = 0; i < buffers.size(); i++) {
+            final int length = buffers.get(i).length;
+            if (length >= minimumLength && (bestIndex == -1 || length < buffers.get(bestIndex).length)) {
+                bestIndex = i;
+            }
+        }
+        if (bestIndex == -1) {
+            return new double[minimumLength];
+        }
+        final int lastIndex = buffers.size() - 1;
+        final double[] result = buffers.get(bestIndex);
+        buffers.set(bestIndex, buffers.get(lastIndex));
+        buffers.remove(lastIndex);
+        totalLength -= result.length;
+        return result;
+    }
+
+    private void releaseBuffer(final double[] buffer) {
+        if (buffer.length == 0 || buffers.size() >= MAXIMUM_BUFFER_COUNT || totalLength + buffer.length > MAXIMUM_TOTAL_LENGTH) {
+            return;
+        }
+        buffers.add(buffer);
+        totalLength += buffer.length;
+    }
+}
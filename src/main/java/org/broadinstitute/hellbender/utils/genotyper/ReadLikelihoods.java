@@ -41,12 +41,22 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     private final GATKRead[][] readsBySampleIndex;
 
     /**
-     * Indexed per sample, allele and finally read (within sample).
+     * Indexed per sample, then flattened allele-major with a stride of {@link #readCapacityBySampleIndex read capacity}.
      * <p>
-     *     valuesBySampleIndex[s][a][r] == lnLk(R_r | A_a) where R_r comes from Sample s.
+     *     valuesBySampleIndex[s][a * readCapacityBySampleIndex[s] + r] == lnLk(R_r | A_a) where R_r comes from Sample s.
+     * </p>
+     * <p>
+     *     Each array may have room for more reads and alleles than present, so that they can be added in place. Arrays
+     *     come from the {@link LikelihoodBufferPool} of the creating thread and go back to it on {@link #release}.
      * </p>
      */
-    private final double[][][] valuesBySampleIndex;
+    private final double[][] valuesBySampleIndex;
+
+    /**
+     * Number of reads that fit in each allele row of {@link #valuesBySampleIndex}, per sample.
+     * Never less than the number of reads in the sample.
+     */
+    private final int[] readCapacityBySampleIndex;
 
     /**
      * Sample list
@@ -123,7 +133,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
         readsBySampleIndex = new GATKRead[sampleCount][];
         readListBySampleIndex = (List<GATKRead>[])new List[sampleCount];
-        valuesBySampleIndex = new double[sampleCount][][];
+        valuesBySampleIndex = new double[sampleCount][];
+        readCapacityBySampleIndex = new int[sampleCount];
         referenceAlleleIndex = findReferenceAllele(alleles);
 
         readIndexBySampleIndex = new Object2IntMap[sampleCount];
@@ -140,11 +151,13 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                             final SampleList samples,
                             final GATKRead[][] readsBySampleIndex,
                             final Object2IntMap<GATKRead>[] readIndex,
-                            final double[][][] values) {
+                            final double[][] values,
+                            final int[] readCapacities) {
         this.samples = samples;
         this.alleles = alleles;
         this.readsBySampleIndex = readsBySampleIndex;
         this.valuesBySampleIndex = values;
+        this.readCapacityBySampleIndex = readCapacities;
         this.readIndexBySampleIndex = readIndex;
         final int sampleCount = samples.numberOfSamples();
         this.readListBySampleIndex = (List<GATKRead>[])new List[sampleCount];
@@ -172,8 +185,10 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 : reads.toArray(new GATKRead[reads.size()]);
         final int sampleReadCount = readsBySampleIndex[sampleIndex].length;
 
-        final double[][] sampleValues = new double[alleleCount][sampleReadCount];
+        final double[] sampleValues = LikelihoodBufferPool.acquire(alleleCount * sampleReadCount);
+        Arrays.fill(sampleValues, 0, alleleCount * sampleReadCount, 0.0);
         valuesBySampleIndex[sampleIndex] = sampleValues;
+        readCapacityBySampleIndex[sampleIndex] = sampleReadCount;
     }
 
     /**
@@ -184,7 +199,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final int sampleCount = samples.numberOfSamples();
         final int alleleCount = alleles.numberOfAlleles();
 
-        final double[][][] newLikelihoodValues = new double[sampleCount][alleleCount][];
+        final double[][] newLikelihoodValues = new double[sampleCount][];
 
         @SuppressWarnings({"unchecked", "rawtypes"})
         final Object2IntMap<GATKRead>[] newReadIndexBySampleIndex = new Object2IntMap[sampleCount];
@@ -192,9 +207,9 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
         for (int s = 0; s < sampleCount; s++) {
             newReadsBySampleIndex[s] = readsBySampleIndex[s].clone();
-            for (int a = 0; a < alleleCount; a++) {
-                newLikelihoodValues[s][a] = valuesBySampleIndex[s][a].clone();
-            }
+            final int valueCount = alleleCount * readCapacityBySampleIndex[s];
+            newLikelihoodValues[s] = LikelihoodBufferPool.acquire(valueCount);
+            System.arraycopy(valuesBySampleIndex[s], 0, newLikelihoodValues[s], 0, valueCount);
         }
 
         // Finally we create the new read-likelihood
@@ -203,7 +218,27 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 samples,
                 newReadsBySampleIndex,
                 newReadIndexBySampleIndex,
-                newLikelihoodValues);
+                newLikelihoodValues,
+                readCapacityBySampleIndex.clone());
+    }
+
+    /**
+     * Returns the likelihood arrays of this collection to the calling thread's buffer pool, so that read-likelihood
+     * collections created afterwards by the same thread can reuse them.
+     *
+     * <p>
+     *     Calling this method is optional; it saves the allocation (and garbage collection) of the arrays of
+     *     collections that are created repeatedly, e.g. once per assembly region or per event.
+     *     This collection, and any {@link #sampleMatrix sample matrix} obtained from it, cannot be used afterwards.
+     * </p>
+     */
+    public void release() {
+        for (int s = 0; s < valuesBySampleIndex.length; s++) {
+            if (valuesBySampleIndex[s] != null) {
+                LikelihoodBufferPool.release(valuesBySampleIndex[s]);
+                valuesBySampleIndex[s] = null;
+            }
+        }
     }
 
 
@@ -347,47 +382,48 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         }
 
         for (int s = 0; s < valuesBySampleIndex.length; s++) {
-            final double[][] sampleValues = valuesBySampleIndex[s];
+            final double[] sampleValues = valuesBySampleIndex[s];
+            final int readCapacity = readCapacityBySampleIndex[s];
             final int readCount = readsBySampleIndex[s].length;
             for (int r = 0; r < readCount; r++) {
-                normalizeLikelihoodsPerRead(bestToZero, maximumLikelihoodDifferenceCap, sampleValues, s, r);
+                normalizeLikelihoodsPerRead(bestToZero, maximumLikelihoodDifferenceCap, sampleValues, readCapacity, s, r);
             }
         }
     }
 
     // Does the normalizeLikelihoods job for each read.
     private void normalizeLikelihoodsPerRead(final boolean bestToZero, final double maximumBestAltLikelihoodDifference,
-                                             final double[][] sampleValues, final int sampleIndex, final int readIndex) {
+                                             final double[] sampleValues, final int readCapacity, final int sampleIndex, final int readIndex) {
 
         final BestAllele bestAlternativeAllele = searchBestAllele(sampleIndex,readIndex,false);
 
         final double worstLikelihoodCap = bestAlternativeAllele.likelihood + maximumBestAltLikelihoodDifference;
 
         final double referenceLikelihood = referenceAlleleIndex == MISSING_REF ? Double.NEGATIVE_INFINITY :
-                sampleValues[referenceAlleleIndex][readIndex];
+                sampleValues[referenceAlleleIndex * readCapacity + readIndex];
 
         final double bestAbsoluteLikelihood = Math.max(bestAlternativeAllele.likelihood, referenceLikelihood);
 
-        final int alleleCount = alleles.numberOfAlleles();
+        final int end = alleles.numberOfAlleles() * readCapacity;
         if (bestToZero) {
             if (bestAbsoluteLikelihood == Double.NEGATIVE_INFINITY) {
-                for (int a = 0; a < alleleCount; a++) {
-                    sampleValues[a][readIndex] = 0;
+                for (int i = readIndex; i < end; i += readCapacity) {
+                    sampleValues[i] = 0;
                 }
             } else if (worstLikelihoodCap != Double.NEGATIVE_INFINITY) {
-                for (int a = 0; a < alleleCount; a++) {
-                    sampleValues[a][readIndex] = (sampleValues[a][readIndex] < worstLikelihoodCap ? worstLikelihoodCap : sampleValues[a][readIndex]) - bestAbsoluteLikelihood;
+                for (int i = readIndex; i < end; i += readCapacity) {
+                    sampleValues[i] = (sampleValues[i] < worstLikelihoodCap ? worstLikelihoodCap : sampleValues[i]) - bestAbsoluteLikelihood;
                 }
             } else {
-                for (int a = 0; a < alleleCount; a++) {
-                    sampleValues[a][readIndex] -= bestAbsoluteLikelihood;
+                for (int i = readIndex; i < end; i += readCapacity) {
+                    sampleValues[i] -= bestAbsoluteLikelihood;
                 }
             }
         } else {
             // Guarantee to be the case by enclosing code.
-            for (int a = 0; a < alleleCount; a++) {
-                if (sampleValues[a][readIndex] < worstLikelihoodCap) {
-                    sampleValues[a][readIndex] = worstLikelihoodCap;
+            for (int i = readIndex; i < end; i += readCapacity) {
+                if (sampleValues[i] < worstLikelihoodCap) {
+                    sampleValues[i] = worstLikelihoodCap;
                 }
             }
         }
@@ -442,16 +478,17 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
             return new BestAllele(sampleIndex, readIndex, -1, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
         }
 
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
+        final double[] sampleValues = valuesBySampleIndex[sampleIndex];
+        final int readCapacity = readCapacityBySampleIndex[sampleIndex];
         int bestAlleleIndex = canBeReference || referenceAlleleIndex != 0 ? 0 : 1;
 
-        double bestLikelihood = sampleValues[bestAlleleIndex][readIndex];
+        double bestLikelihood = sampleValues[bestAlleleIndex * readCapacity + readIndex];
         double secondBestLikelihood = Double.NEGATIVE_INFINITY;
         for (int a = bestAlleleIndex + 1; a < alleleCount; a++) {
             if (!canBeReference && referenceAlleleIndex == a) {
                 continue;
             }
-            final double candidateLikelihood = sampleValues[a][readIndex];
+            final double candidateLikelihood = sampleValues[a * readCapacity + readIndex];
             if (candidateLikelihood > bestLikelihood) {
                 bestAlleleIndex = a;
                 secondBestLikelihood = bestLikelihood;
@@ -529,21 +566,27 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
             referenceAlleleIndex = oldAlleleCount + indexOfReferenceInAllelesToAdd.getAsInt();
         }
 
-        //copy old allele likelihoods and set new allele likelihoods to the default value
+        //set new allele likelihoods to the default value, growing the arrays only if there is no room left for them
         for (int s = 0; s < samples.numberOfSamples(); s++) {
-            final int sampleReadCount = readsBySampleIndex[s].length;
-            final double[][] newValuesBySampleIndex = Arrays.copyOf(valuesBySampleIndex[s], newAlleleCount);
-            for (int a = oldAlleleCount; a < newAlleleCount; a++) {
-                newValuesBySampleIndex[a] = new double[sampleReadCount];
-                if (defaultLikelihood != 0.0) {
-                    Arrays.fill(newValuesBySampleIndex[a], defaultLikelihood);
-                }
-            }
-            valuesBySampleIndex[s] = newValuesBySampleIndex;
+            final int readCapacity = readCapacityBySampleIndex[s];
+            ensureValueCapacity(s, oldAlleleCount * readCapacity, newAlleleCount * readCapacity);
+            Arrays.fill(valuesBySampleIndex[s], oldAlleleCount * readCapacity, newAlleleCount * readCapacity, defaultLikelihood);
         }
         return true;
     }
 
+    // Makes sure that the values array of a sample has room for at least the given number of values, preserving
+    // the first values (and only those) if a new array is needed.
+    private void ensureValueCapacity(final int sampleIndex, final int valuesToKeep, final int requiredCapacity) {
+        final double[] oldSampleValues = valuesBySampleIndex[sampleIndex];
+        if (oldSampleValues.length < requiredCapacity) {
+            final double[] newSampleValues = LikelihoodBufferPool.acquire(requiredCapacity);
+            System.arraycopy(oldSampleValues, 0, newSampleValues, 0, valuesToKeep);
+            LikelihoodBufferPool.release(oldSampleValues);
+            valuesBySampleIndex[sampleIndex] = newSampleValues;
+        }
+    }
+
     /**
      * Perform marginalization from an allele set to another (smaller one) taking the maximum value
      * for each read in the original allele subset.
@@ -569,11 +612,12 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         // allele does not map to any new; supported but typically not the case.
         final int[] oldToNewAlleleIndexMap = oldToNewAlleleIndexMap(newToOldAlleleMap, oldAlleleCount, newAlleles);
 
-        // We calculate the marginal likelihoods.
-        final double[][][] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap, null);
-
         final int sampleCount = samples.numberOfSamples();
 
+        // We calculate the marginal likelihoods.
+        final int[] newReadCapacities = new int[sampleCount];
+        final double[][] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap, null, newReadCapacities);
+
         final Object2IntMap<GATKRead>[] newReadIndexBySampleIndex = new Object2IntMap[sampleCount];
         final GATKRead[][] newReadsBySampleIndex = new GATKRead[sampleCount][];
 
@@ -586,7 +630,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 new IndexedAlleleList(newAlleles),
                 samples,
                 newReadsBySampleIndex,
-                newReadIndexBySampleIndex, newLikelihoodValues);
+                newReadIndexBySampleIndex, newLikelihoodValues, newReadCapacities);
     }
 
 
@@ -622,12 +666,12 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final int[] oldToNewAlleleIndexMap = oldToNewAlleleIndexMap(newToOldAlleleMap, oldAlleleCount, newAlleles);
 
         final int[][] readsToKeep = overlappingReadIndicesBySampleIndex(overlap);
-        // We calculate the marginal likelihoods.
-
-        final double[][][] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap, readsToKeep);
-
         final int sampleCount = samples.numberOfSamples();
 
+        // We calculate the marginal likelihoods.
+        final int[] newReadCapacities = new int[sampleCount];
+        final double[][] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap, readsToKeep, newReadCapacities);
+
         @SuppressWarnings({"rawtypes","unchecked"})
         final Object2IntMap<GATKRead>[] newReadIndexBySampleIndex = (Object2IntMap<GATKRead>[])new Object2IntMap[sampleCount];
         final GATKRead[][] newReadsBySampleIndex = new GATKRead[sampleCount][];
@@ -650,7 +694,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         // Finally we create the new read-likelihood
         return new ReadLikelihoods<>(new IndexedAlleleList<>(newAlleles), samples,
                 newReadsBySampleIndex,
-                newReadIndexBySampleIndex, newLikelihoodValues);
+                newReadIndexBySampleIndex, newLikelihoodValues, newReadCapacities);
     }
 
     private int[][] overlappingReadIndicesBySampleIndex(final Locatable overlap) {
@@ -698,33 +742,38 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         return readEnd >= start;
     }
 
-    // Calculate the marginal likelihoods considering the old -> new allele index mapping.
-    private double[][][] marginalLikelihoods(final int oldAlleleCount, final int newAlleleCount, final int[] oldToNewAlleleIndexMap, final int[][] readsToKeep) {
+    // Calculate the marginal likelihoods considering the old -> new allele index mapping, and the read capacity
+    // of each sample in the result.
+    private double[][] marginalLikelihoods(final int oldAlleleCount, final int newAlleleCount, final int[] oldToNewAlleleIndexMap,
+                                           final int[][] readsToKeep, final int[] newReadCapacities) {
 
         final int sampleCount = samples.numberOfSamples();
-        final double[][][] result = new double[sampleCount][][];
+        final double[][] result = new double[sampleCount][];
 
         for (int s = 0; s < sampleCount; s++) {
             final int sampleReadCount = readsBySampleIndex[s].length;
-            final double[][] oldSampleValues = valuesBySampleIndex[s];
+            final double[] oldSampleValues = valuesBySampleIndex[s];
+            final int oldReadCapacity = readCapacityBySampleIndex[s];
             final int[] sampleReadToKeep = readsToKeep == null || readsToKeep[s].length == sampleReadCount ? null : readsToKeep[s];
             final int newSampleReadCount = sampleReadToKeep == null ? sampleReadCount : sampleReadToKeep.length;
-            final double[][] newSampleValues = result[s] = new double[newAlleleCount][newSampleReadCount];
+            // Room for an extra allele as the non-ref allele is often added right after marginalizing.
+            final double[] newSampleValues = result[s] = LikelihoodBufferPool.acquire((newAlleleCount + 1) * newSampleReadCount);
+            newReadCapacities[s] = newSampleReadCount;
             // We initiate all likelihoods to -Inf.
-            for (int a = 0; a < newAlleleCount; a++) {
-                Arrays.fill(newSampleValues[a], Double.NEGATIVE_INFINITY);
-            }
+            Arrays.fill(newSampleValues, 0, newAlleleCount * newSampleReadCount, Double.NEGATIVE_INFINITY);
             // For each old allele and read we update the new table keeping the maximum likelihood.
-            for (int r = 0; r < newSampleReadCount; r++) {
-                for (int a = 0; a < oldAlleleCount; a++) {
-                    final int oldReadIndex = newSampleReadCount == sampleReadCount ? r : sampleReadToKeep[r];
-                    final int newAlleleIndex = oldToNewAlleleIndexMap[a];
-                    if (newAlleleIndex == -1) {
-                        continue;
-                    }
-                    final double likelihood = oldSampleValues[a][oldReadIndex];
-                    if (likelihood > newSampleValues[newAlleleIndex][r]) {
-                        newSampleValues[newAlleleIndex][r] = likelihood;
+            for (int a = 0; a < oldAlleleCount; a++) {
+                final int newAlleleIndex = oldToNewAlleleIndexMap[a];
+                if (newAlleleIndex == -1) {
+                    continue;
+                }
+                final int oldOffset = a * oldReadCapacity;
+                final int newOffset = newAlleleIndex * newSampleReadCount;
+                for (int r = 0; r < newSampleReadCount; r++) {
+                    final int oldReadIndex = sampleReadToKeep == null ? r : sampleReadToKeep[r];
+                    final double likelihood = oldSampleValues[oldOffset + oldReadIndex];
+                    if (likelihood > newSampleValues[newOffset + r]) {
+                        newSampleValues[newOffset + r] = likelihood;
                     }
                 }
             }
@@ -789,10 +838,11 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final double log10QualPerBase = -4.0;
         final double log10MaxLikelihoodForTrueAllele = maxErrorsForRead * log10QualPerBase;
 
-        final int alleleCount = alleles.numberOfAlleles();
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
-        for (int a = 0; a < alleleCount; a++) {
-            if (sampleValues[a][readIndex] >= log10MaxLikelihoodForTrueAllele) {
+        final double[] sampleValues = valuesBySampleIndex[sampleIndex];
+        final int readCapacity = readCapacityBySampleIndex[sampleIndex];
+        final int end = alleles.numberOfAlleles() * readCapacity;
+        for (int i = readIndex; i < end; i += readCapacity) {
+            if (sampleValues[i] >= log10MaxLikelihoodForTrueAllele) {
                 return false;
             }
         }
@@ -832,18 +882,24 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         }
     }
 
-    // Extends the likelihood arrays-matrices.
+    // Extends the likelihood arrays-matrices, in place if the allele rows have room for the new reads.
     private void extendsLikelihoodArrays(final double initialLikelihood, final int sampleIndex, final int sampleReadCount, final int newSampleReadCount) {
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
         final int alleleCount = alleles.numberOfAlleles();
-        for (int a = 0; a < alleleCount; a++) {
-            sampleValues[a] = Arrays.copyOf(sampleValues[a], newSampleReadCount);
-        }
-        if (initialLikelihood != 0.0) // the default array new value.
-        {
+        final int oldReadCapacity = readCapacityBySampleIndex[sampleIndex];
+        if (newSampleReadCount > oldReadCapacity) {
+            final double[] oldSampleValues = valuesBySampleIndex[sampleIndex];
+            final double[] newSampleValues = LikelihoodBufferPool.acquire(alleleCount * newSampleReadCount);
             for (int a = 0; a < alleleCount; a++) {
-                Arrays.fill(sampleValues[a], sampleReadCount, newSampleReadCount, initialLikelihood);
+                System.arraycopy(oldSampleValues, a * oldReadCapacity, newSampleValues, a * newSampleReadCount, sampleReadCount);
             }
+            LikelihoodBufferPool.release(oldSampleValues);
+            valuesBySampleIndex[sampleIndex] = newSampleValues;
+            readCapacityBySampleIndex[sampleIndex] = newSampleReadCount;
+        }
+        final double[] sampleValues = valuesBySampleIndex[sampleIndex];
+        final int readCapacity = readCapacityBySampleIndex[sampleIndex];
+        for (int a = 0; a < alleleCount; a++) {
+            Arrays.fill(sampleValues, a * readCapacity + sampleReadCount, a * readCapacity + newSampleReadCount, initialLikelihood);
         }
     }
 
@@ -922,13 +978,14 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final double[] qualifiedAlleleLikelihoods = new double[nonSymbolicAlleleCount];
         final Median medianCalculator = new Median();
         for (int s = 0; s < samples.numberOfSamples(); s++) {
-            final double[][] sampleValues = valuesBySampleIndex[s];
-            final int readCount = sampleValues[0].length;
+            final double[] sampleValues = valuesBySampleIndex[s];
+            final int readCapacity = readCapacityBySampleIndex[s];
+            final int readCount = readsBySampleIndex[s].length;
             for (int r = 0; r < readCount; r++) {
                 final BestAllele bestAllele = searchBestAllele(s, r, true);
                 int numberOfQualifiedAlleleLikelihoods = 0;
                 for (int i = 0; i < alleleCount; i++) {
-                    final double alleleLikelihood = sampleValues[i][r];
+                    final double alleleLikelihood = sampleValues[i * readCapacity + r];
                     if (i != nonRefAlleleIndex && alleleLikelihood < bestAllele.likelihood
                             && !Double.isNaN(alleleLikelihood) && allelesToConsider.indexOfAllele(alleles.getAllele(i)) != -1) {
                         qualifiedAlleleLikelihoods[numberOfQualifiedAlleleLikelihoods++] = alleleLikelihood;
@@ -939,7 +996,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 // so the read is not informative at all given the existing alleles. Unless there is only one (or zero) concrete
                 // alleles with give the same (the best) likelihood to the NON-REF. When there is only one (or zero) concrete
                 // alleles we set the NON-REF likelihood to NaN.
-                sampleValues[nonRefAlleleIndex][r] = !Double.isNaN(nonRefLikelihood) ? nonRefLikelihood
+                sampleValues[nonRefAlleleIndex * readCapacity + r] = !Double.isNaN(nonRefLikelihood) ? nonRefLikelihood
                         : nonSymbolicAlleleCount <= 1 ? Double.NaN : bestAllele.likelihood;
             }
         }
@@ -1215,13 +1272,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         Utils.skimArray(oldSampleReads,firstDeleted, newSampleReads, firstDeleted, removeIndex, firstDeleted);
 
         // Then we skim out the likelihoods of the removed reads.
-        final double[][] oldSampleValues = valuesBySampleIndex[sampleIndex];
-        final double[][] newSampleValues = new double[alleleCount][newSampleReadCount];
-        for (int a = 0; a < alleleCount; a++) {
-            System.arraycopy(oldSampleValues[a], 0, newSampleValues[a], 0, firstDeleted);
-            Utils.skimArray(oldSampleValues[a], firstDeleted, newSampleValues[a], firstDeleted, removeIndex, firstDeleted);
-        }
-        valuesBySampleIndex[sampleIndex] = newSampleValues;
+        removeSampleLikelihoods(sampleIndex, removeIndex, firstDeleted, sampleReadCount, alleleCount);
         readsBySampleIndex[sampleIndex] = newSampleReads;
         readListBySampleIndex[sampleIndex] = null; // reset the unmodifiable list.
     }
@@ -1273,17 +1324,28 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         }
 
         // Then we skim out the likelihoods of the removed reads.
-        final double[][] oldSampleValues = valuesBySampleIndex[sampleIndex];
-        final double[][] newSampleValues = new double[alleleCount][newSampleReadCount];
-        for (int a = 0; a < alleleCount; a++) {
-            System.arraycopy(oldSampleValues[a],0,newSampleValues[a],0,firstDeleted);
-            Utils.skimArray(oldSampleValues[a], firstDeleted, newSampleValues[a], firstDeleted, removeIndex, firstDeleted);
-        }
-        valuesBySampleIndex[sampleIndex] = newSampleValues;
+        removeSampleLikelihoods(sampleIndex, removeIndex, firstDeleted, sampleReadCount, alleleCount);
         readsBySampleIndex[sampleIndex] = newSampleReads;
         readListBySampleIndex[sampleIndex] = null; // reset the unmodifiable list.
     }
 
+    // Skims out the likelihoods of the removed reads in place, shifting the remaining ones of each allele row down;
+    // the read capacity of the sample stays the same.
+    private void removeSampleLikelihoods(final int sampleIndex, final boolean[] removeIndex, final int firstDeleted,
+                                         final int sampleReadCount, final int alleleCount) {
+        final double[] sampleValues = valuesBySampleIndex[sampleIndex];
+        final int readCapacity = readCapacityBySampleIndex[sampleIndex];
+        for (int a = 0; a < alleleCount; a++) {
+            final int offset = a * readCapacity;
+            int nextIndex = offset + firstDeleted;
+            for (int r = firstDeleted; r < sampleReadCount; r++) {
+                if (!removeIndex[r]) {
+                    sampleValues[nextIndex++] = sampleValues[offset + r];
+                }
+            }
+        }
+    }
+
 
     private Object2IntMap<GATKRead> readIndexBySampleIndex(final int sampleIndex) {
         if (readIndexBySampleIndex[sampleIndex] == null) {
@@ -1320,16 +1382,16 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
         @Override
         public void set(final int alleleIndex, final int readIndex, final double value) {
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
-            Utils.validIndex(readIndex, valuesBySampleIndex[sampleIndex][alleleIndex].length);
-            valuesBySampleIndex[sampleIndex][alleleIndex][readIndex] = value;
+            Utils.validIndex(alleleIndex, numberOfAlleles());
+            Utils.validIndex(readIndex, numberOfReads());
+            valuesBySampleIndex[sampleIndex][alleleIndex * readCapacityBySampleIndex[sampleIndex] + readIndex] = value;
         }
 
         @Override
         public double get(final int alleleIndex, final int readIndex) {
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
-            Utils.validIndex(readIndex, valuesBySampleIndex[sampleIndex][alleleIndex].length);
-            return valuesBySampleIndex[sampleIndex][alleleIndex][readIndex];
+            Utils.validIndex(alleleIndex, numberOfAlleles());
+            Utils.validIndex(readIndex, numberOfReads());
+            return valuesBySampleIndex[sampleIndex][alleleIndex * readCapacityBySampleIndex[sampleIndex] + readIndex];
         }
 
         @Override
@@ -1369,8 +1431,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         @Override
         public void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
             Utils.nonNull(dest);
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
-            System.arraycopy(valuesBySampleIndex[sampleIndex][alleleIndex], 0, dest, offset, numberOfReads());
+            Utils.validIndex(alleleIndex, numberOfAlleles());
+            System.arraycopy(valuesBySampleIndex[sampleIndex], alleleIndex * readCapacityBySampleIndex[sampleIndex], dest, offset, numberOfReads());
         }
     }
 }
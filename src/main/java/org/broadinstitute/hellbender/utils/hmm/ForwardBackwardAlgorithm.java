@@ -4,12 +4,16 @@ import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import org.apache.commons.lang.math.IntRange;
 import org.apache.commons.math3.util.FastMath;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.GATKProtectedMathUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -308,130 +312,91 @@ public final class ForwardBackwardAlgorithm {
         final List<T> positionList = Collections.unmodifiableList(new ArrayList<>(positions));
         Utils.validateArg(dataList.size()== positionList.size(), "the data sequence and position sequence must have the same number of elements");
 
-        final double[][] forwardProbabilities = calculateLogForwardProbabilities(model, dataList, positionList);
-        final double[][] backwardProbabilities = calculateLogBackwardProbabilities(model, dataList, positionList);
-
-        return new ArrayResult<>(dataList, positionList, model, forwardProbabilities, backwardProbabilities);
+        final LogProbabilityTables<T, S> tables = LogProbabilityTables.tabulate(model, positionList);
+        return apply(dataList, model, tables, composeIndexMap(positionList), composeIndexMap(tables.states()));
     }
 
     /**
-     * Calculates the forward probabilities (the forward phase of the algorithm). These are in log scale.
+     * Runs the forward-backward algorithm on several data sequences observed at the same positions, in parallel in
+     * the given fork-join pool.
      * <p>
-     *     The returned array is uni-dimensional. Forward probabilities are arranged by position, thus the
-     *     forward probability for the ith hidden state and jth position is stored in the
-     *     index: i + j * number-of-hidden-states.
+     *     The prior and transition probabilities are only computed once for the whole batch, so the model is only
+     *     queried for emission probabilities from the pool threads, concurrently. The results also share their
+     *     position list, which saves a copy of the positions per data sequence.
      * </p>
-     * @param model the HMM model.
-     * @param data the observed data sequence.
-     * @param positions the observation time/position points.
+     *
+     * @param data the observed data sequences, each of the same length as {@code positions}.
+     * @param positions the observation time/position points shared by all the sequences.
+     * @param model the HMM model, which must be safe to query from several threads.
+     * @param pool the pool where to run the algorithm.
      * @param <D> the observed data type.
      * @param <T> the observation time/position type.
      * @param <S> the hidden state type.
-     * @return never {@code null}, the calling code can modify this array at will.
-     * @throws IllegalArgumentException if the {@code model} does not recognize any of the values in {@code data}
-     *   or {@code positions}.
+     * @return never {@code null}, the result for each element of {@code data} in the same order, equal to what
+     *   {@link #apply(List, List, HMM)} would return for it.
+     * @throws IllegalArgumentException if any of the arguments is {@code null}, any of the data sequences is
+     *   {@code null} or does not have the same length as {@code positions}, or if the {@code model} does not
+     *   recognize any of the values in {@code data} or {@code positions}.
      */
-    private static <D, T, S> double[][] calculateLogForwardProbabilities(
-            final HMM<D, T, S> model,
-            final List<D> data,
-            final List<T> positions) {
-
-        final List<S> states = model.hiddenStates();
-        final int numStates = states.size();
-        final int length = data.size();
-        final double[][] result = new double[length][numStates];
-        // Empty data? then we just return the empty array:
-        if (length == 0) {
-            return result;
-        }
-        // We first initialize the probabilities at the first position.
-        final T position0 = positions.get(0);
-        final D datum0 = data.get(0);
-        for (int stateIndex = 0; stateIndex < states.size(); stateIndex++) {
-            final S state = states.get(stateIndex);
-            result[0][stateIndex] =
-                    model.logPriorProbability(state, position0)
-                + model.logEmissionProbability(datum0, state, position0);
-        }
+    public static <D, T, S> List<Result<D, T, S>> applyBatch(final List<? extends List<D>> data, final List<T> positions,
+                                                             final HMM<D, T, S> model, final ForkJoinPool pool) {
+        Utils.nonNull(data, "the input data sequences cannot be null.");
+        Utils.nonNull(positions, "the input position sequence cannot be null.");
+        Utils.nonNull(model, "the input model cannot be null");
+        Utils.nonNull(pool, "the pool cannot be null");
+        data.forEach(d -> Utils.validateArg(Utils.nonNull(d, "the input data sequences cannot contain null").size() == positions.size(),
+                "the data sequences and position sequence must have the same number of elements"));
 
-        // Then we do the rest t_1, t_2, ... and so on.
-        // Array re-used to hold the elements of log-sum-exp operations:
-        final double[] logSumBuffer = new double[states.size()];
-        for (int thisPositionIndex = 1; thisPositionIndex < data.size(); thisPositionIndex++) {
-            final int previousPositionIndex = thisPositionIndex - 1;
-            final T previousPosition = positions.get(previousPositionIndex);
-            final T thisPosition = positions.get(thisPositionIndex);
-            for (int thisStateIndex = 0; thisStateIndex < numStates; thisStateIndex++) {
-                final S thisState = states.get(thisStateIndex);
-                for (int previousStateIndex = 0; previousStateIndex < numStates; previousStateIndex++) {
-                    logSumBuffer[previousStateIndex] =
-                            result[previousPositionIndex][previousStateIndex]
-                                    + model.logTransitionProbability(states.get(previousStateIndex),
-                                        previousPosition, thisState, thisPosition);
-                }
-                result[thisPositionIndex][thisStateIndex] = GATKProtectedMathUtils.logSumExp(logSumBuffer)
-                        + model.logEmissionProbability(data.get(thisPositionIndex), thisState, thisPosition);
+        final List<T> positionList = Collections.unmodifiableList(new ArrayList<>(positions));
+        final LogProbabilityTables<T, S> tables = LogProbabilityTables.tabulate(model, positionList);
+        final Object2IntMap<T> positionIndex = composeIndexMap(positionList);
+        final Object2IntMap<S> stateIndex = composeIndexMap(tables.states());
+        try {
+            return pool.submit(() -> data.parallelStream()
+                    .map(d -> apply(Collections.unmodifiableList(new ArrayList<>(d)), model, tables, positionIndex, stateIndex))
+                    .collect(Collectors.toList())).get();
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            throw new GATKException("Failure running the forward-backward algorithm", e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while running the forward-backward algorithm", e);
         }
-        return result;
     }
 
     /**
-     * Calculates the backward probabilities (the backward phase of the algorithm). These are in log scale.
-     * <p>
-     *     The returned array is uni-dimensional. Back probabilities are arranged by position, thus the
-     *     back probability for the ith hidden state and jth position is stored in the
-     *     index: i + j * number-of-hidden-states.
-     * </p>
+     * Runs the forward and backward phases of the algorithm over the tabulated model probabilities.
+     *
+     * @param data the observed data sequence, not to be modified afterwards.
      * @param model the HMM model.
-     * @param dataList the observed data sequence.
-     * @param positionList the observation time/position points.
-     * @param <D> the observed data type.
-     * @param <T> the observation time/position type.
-     * @param <S> the hidden state type.
-     * @return never {@code null}, the calling code can modify this array at will.
-     * @throws IllegalArgumentException if the {@code model} does not recognize any of the values in {@code dataList}
-     *   or {@code positionList}.
+     * @param tables the prior and transition probabilities of {@code model} at the positions of {@code data}.
+     * @param positionIndex the index of each of the positions.
+     * @param stateIndex the index of each of the hidden states.
+     * @return never {@code null}.
      */
-    private static <D, T, S> double[][] calculateLogBackwardProbabilities(final HMM<D, T, S> model,
-                                                                        final List<D> dataList,
-                                                                        final List<T> positionList) {
-
-        final List<S> states = model.hiddenStates();
-        final int numStates = states.size();
-        final int length = dataList.size();
-
-        // result contains is implicitly initialized to all 0.
-        final double[][] result = new double[length][numStates];
-
-        // Empty data? then we just return the empty array:
-        if (length == 0) {
-            return result;
-        }
+    private static <D, T, S> Result<D, T, S> apply(final List<D> data, final HMM<D, T, S> model,
+                                                   final LogProbabilityTables<T, S> tables,
+                                                   final Object2IntMap<T> positionIndex,
+                                                   final Object2IntMap<S> stateIndex) {
+        final double[] logEmissions = tables.logEmissions(model, data);
+        final double[][] forwardProbabilities = tables.logForwardProbabilities(logEmissions);
+        final double[][] backwardProbabilities = tables.logBackwardProbabilities(logEmissions);
+        return new ArrayResult<>(data, tables.positions(), model, positionIndex, stateIndex,
+                forwardProbabilities, backwardProbabilities);
+    }
 
-        // result already contain the correct value for the
-        // last position in the input data/position sequence.
-        // = 0 (i.e. log(1))
-        // thus we proceed directly to t_L - 1.
-
-        // "small" buffer array reused to do the log-sum-exp trick:
-        final double[] logSumBuffer = new double[states.size()];
-
-        for (int thisPositionIndex = length - 2; thisPositionIndex >= 0; --thisPositionIndex) {
-            final int nextPositionIndex = thisPositionIndex + 1;
-            final T thisPosition = positionList.get(thisPositionIndex);
-            final T nextPosition = positionList.get(nextPositionIndex);
-            for (int thisStateIndex = 0; thisStateIndex < numStates; thisStateIndex++) {
-                final S thisState = states.get(thisStateIndex);
-                for (int nextStateIndex = 0; nextStateIndex < numStates; nextStateIndex++) {
-                    logSumBuffer[nextStateIndex] = result[nextPositionIndex][nextStateIndex]
-                                    + model.logTransitionProbability(thisState, thisPosition,
-                                                states.get(nextStateIndex), nextPosition)
-                                    + model.logEmissionProbability(dataList.get(nextPositionIndex),
-                                                states.get(nextStateIndex), nextPosition);
-                }
-                result[thisPositionIndex][thisStateIndex] = GATKProtectedMathUtils.logSumExp(logSumBuffer);
-            }
+    /**
+     * Composes a object ot index map given an object list.
+     * @param list the list to index.
+     * @param <E> the element type.
+     * @return never {@code null}.
+     */
+    private static <E> Object2IntMap<E> composeIndexMap(final List<E> list) {
+        final Object2IntMap<E> result = new Object2IntOpenHashMap<>(list.size());
+        for (int i = 0; i < list.size(); i++) {
+            result.put(list.get(i), i);
         }
         return result;
     }
@@ -461,16 +426,21 @@ public final class ForwardBackwardAlgorithm {
         private final double[][] logBackwardProbabilities;
         private final double[] logDataLikelihood;
 
+        /**
+         * Creates a result; the lists and the index maps are not copied so they must not be modified afterwards.
+         */
         private ArrayResult(final List<D> data, final List<T> positions,
                             final HMM<D, T, S> model,
+                            final Object2IntMap<T> positionIndex,
+                            final Object2IntMap<S> stateIndex,
                             final double[][] logForwardProbabilities,
                             final double[][] logBackwardProbabilities) {
-            this.data = Collections.unmodifiableList(new ArrayList<>(data));
-            this.positions = Collections.unmodifiableList(new ArrayList<>(positions));
+            this.data = data;
+            this.positions = positions;
             positionIndexRange = new IntRange(0, positions.size() - 1);
             this.model = model;
-            positionIndex = composeIndexMap(this.positions);
-            stateIndex = composeIndexMap(model.hiddenStates());
+            this.positionIndex = positionIndex;
+            this.stateIndex = stateIndex;
             this.logBackwardProbabilities = logBackwardProbabilities;
             this.logForwardProbabilities = logForwardProbabilities;
             logDataLikelihood = calculateLogDataLikelihood(logForwardProbabilities, logBackwardProbabilities);
@@ -491,30 +461,15 @@ public final class ForwardBackwardAlgorithm {
          */
         private static double[] calculateLogDataLikelihood(final double[][] logForwardProbabilities,
                                                            final double[][] logBackwardProbabilities) {
-            return IntStream.range(0, logForwardProbabilities.length)
-                    .mapToObj(i ->
-                            IntStream.range(0, logForwardProbabilities[i].length)
-                                    .mapToDouble(j -> logBackwardProbabilities[i][j]
-                                                    + logForwardProbabilities[i][j])
-                                    .toArray())
-                    .mapToDouble(GATKProtectedMathUtils::logSumExp)
-                    .toArray();
-        }
-
-        /**
-         * Composes a object ot index map given an object list.
-         * @param list the list to index.
-         * @param <E> the element type.
-         * @return never {@code null}.
-         */
-        private <E> Object2IntMap<E> composeIndexMap(final List<E> list) {
-            return IntStream.range(0, list.size())
-                    .collect(
-                            () -> new Object2IntOpenHashMap<>(list.size()),
-                            (map, i) -> map.put(list.get(i), i),
-                            (map1, map2) -> map2.object2IntEntrySet().forEach(
-                                    e -> map1.put(e.getKey(), e.getIntValue())
-                            ));
+            final double[] result = new double[logForwardProbabilities.length];
+            final double[] logSumBuffer = new double[result.length == 0 ? 0 : logForwardProbabilities[0].length];
+            for (int i = 0; i < result.length; i++) {
+                for (int j = 0; j < logSumBuffer.length; j++) {
+                    logSumBuffer[j] = logBackwardProbabilities[i][j] + logForwardProbabilities[i][j];
+                }
+                result[i] = GATKProtectedMathUtils.logSumExp(logSumBuffer);
+            }
+            return result;
         }
 
         @Override
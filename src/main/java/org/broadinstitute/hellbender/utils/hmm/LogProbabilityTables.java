@@ -0,0 +1,252 @@
+package org.broadinstitute.hellbender.utils.hmm;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.List;
+
+/**
+ * Log-scaled prior and transition probabilities of an {@link HMM} tabulated into flat {@code double[]} arrays for a
+ * fixed sequence of positions, together with the forward, backward and Viterbi recurrences over those arrays.
+ * <p>
+ *     Once the tables are filled the recurrences run over primitives only, without calling back into the model, and
+ *     the same tables can be shared by many data sequences observed at the same positions (e.g. one per sample).
+ *     Emission probabilities depend on the data and are tabulated separately by {@link #logEmissions}.
+ * </p>
+ * <p>
+ *     The transitions from the position {@code t - 1} to {@code t} are stored in a row-major {@code numStates x
+ *     numStates} block starting at {@code (t - 1) * numStates * numStates}, with the previous state as the row; the
+ *     emissions at the position {@code t} are stored starting at {@code t * numStates}. The transition table thus
+ *     takes {@code O(L*(N^2))} memory where {@code L} is the number of positions and {@code N} the number of states.
+ * </p>
+ * <p>
+ *     The recurrences add up the terms in the same order as the original implementations in
+ *     {@link ForwardBackwardAlgorithm} and {@link ViterbiAlgorithm} did, and break ties the same way, so their
+ *     results are exactly the same.
+ * </p>
+ *
+ * @param <T> the observation time/position type.
+ * @param <S> the hidden state type.
+ */
+final class LogProbabilityTables<T, S> {
+
+    private final List<S> states;
+    private final List<T> positions;
+    private final int numStates;
+    private final int length;
+
+    private final double[] logPriors;
+    private final double[] logTransitions;
+
+    private LogProbabilityTables(final List<S> states, final List<T> positions, final double[] logPriors,
+                                 final double[] logTransitions) {
+        this.states = states;
+        this.positions = positions;
+        this.numStates = states.size();
+        this.length = positions.size();
+        this.logPriors = logPriors;
+        this.logTransitions = logTransitions;
+    }
+
+    /**
+     * Tabulates the prior probabilities at the first position and the transition probabilities between every pair
+     * of contiguous positions.
+     *
+     * @param model the HMM model.
+     * @param positions the observation time/position points; the list is not copied so it must not be modified.
+     * @return never {@code null}.
+     * @throws IllegalArgumentException if the {@code model} does not recognize any of the {@code positions}.
+     */
+    static <T, S> LogProbabilityTables<T, S> tabulate(final HMM<?, T, S> model, final List<T> positions) {
+        final List<S> states = Utils.nonNull(model.hiddenStates(), "the model hidden states cannot be null");
+        final int numStates = states.size();
+        final int length = positions.size();
+        final double[] logPriors = new double[numStates];
+        if (length > 0) {
+            final T position0 = positions.get(0);
+            for (int stateIndex = 0; stateIndex < numStates; stateIndex++) {
+                logPriors[stateIndex] = model.logPriorProbability(states.get(stateIndex), position0);
+            }
+        }
+        final int blockSize = numStates * numStates;
+        Utils.validateArg((long) Math.max(0, length - 1) * blockSize <= Integer.MAX_VALUE - 8,
+                "too many positions and hidden states to tabulate the transition probabilities");
+        final double[] logTransitions = new double[Math.max(0, length - 1) * blockSize];
+        for (int thisPositionIndex = 1, offset = 0; thisPositionIndex < length; thisPositionIndex++) {
+            final T previousPosition = positions.get(thisPositionIndex - 1);
+            final T thisPosition = positions.get(thisPositionIndex);
+            for (int previousStateIndex = 0; previousStateIndex < numStates; previousStateIndex++) {
+                final S previousState = states.get(previousStateIndex);
+                for (int thisStateIndex = 0; thisStateIndex < numStates; thisStateIndex++) {
+                    logTransitions[offset++] = model.logTransitionProbability(previousState, previousPosition,
+                            states.get(thisStateIndex), thisPosition);
+                }
+            }
+        }
+        return new LogProbabilityTables<>(states, positions, logPriors, logTransitions);
+    }
+
+    List<S> states() {
+        return states;
+    }
+
+    List<T> positions() {
+        return positions;
+    }
+
+    /**
+     * Tabulates the emission probabilities of a data sequence observed at the positions of these tables.
+     *
+     * @param model the HMM model; its hidden states must be the ones these tables were filled with.
+     * @param data the observed data sequence.
+     * @return never {@code null}, of length {@code numStates * data.size()}.
+     * @throws IllegalArgumentException if {@code data} does not have one element per position, or the {@code model}
+     *   does not recognize any of its values.
+     */
+    <D> double[] logEmissions(final HMM<D, T, S> model, final List<D> data) {
+        Utils.validateArg(data.size() == length, "the data sequence and position sequence must have the same number of elements");
+        final double[] result = new double[length * numStates];
+        for (int positionIndex = 0, offset = 0; positionIndex < length; positionIndex++) {
+            final D datum = data.get(positionIndex);
+            final T position = positions.get(positionIndex);
+            for (int stateIndex = 0; stateIndex < numStates; stateIndex++) {
+                result[offset++] = model.logEmissionProbability(datum, states.get(stateIndex), position);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the log forward probabilities, indexed by position and then by state.
+     *
+     * @param logEmissions the emissions as returned by {@link #logEmissions}.
+     * @return never {@code null}.
+     */
+    double[][] logForwardProbabilities(final double[] logEmissions) {
+        final double[][] result = new double[length][numStates];
+        if (length == 0) {
+            return result;
+        }
+        for (int stateIndex = 0; stateIndex < numStates; stateIndex++) {
+            result[0][stateIndex] = logPriors[stateIndex] + logEmissions[stateIndex];
+        }
+        final double[] logSumBuffer = new double[numStates];
+        for (int thisPositionIndex = 1; thisPositionIndex < length; thisPositionIndex++) {
+            final double[] previous = result[thisPositionIndex - 1];
+            final double[] current = result[thisPositionIndex];
+            final int transitionOffset = (thisPositionIndex - 1) * numStates * numStates;
+            final int emissionOffset = thisPositionIndex * numStates;
+            for (int thisStateIndex = 0; thisStateIndex < numStates; thisStateIndex++) {
+                for (int previousStateIndex = 0, transitionIndex = transitionOffset + thisStateIndex;
+                     previousStateIndex < numStates; previousStateIndex++, transitionIndex += numStates) {
+                    logSumBuffer[previousStateIndex] = previous[previousStateIndex] + logTransitions[transitionIndex];
+                }
+                current[thisStateIndex] = logSumExp(logSumBuffer) + logEmissions[emissionOffset + thisStateIndex];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the log backward probabilities, indexed by position and then by state.
+     *
+     * @param logEmissions the emissions as returned by {@link #logEmissions}.
+     * @return never {@code null}.
+     */
+    double[][] logBackwardProbabilities(final double[] logEmissions) {
+        // the last position is left at 0, i.e. log(1).
+        final double[][] result = new double[length][numStates];
+        final double[] logSumBuffer = new double[numStates];
+        for (int thisPositionIndex = length - 2; thisPositionIndex >= 0; --thisPositionIndex) {
+            final double[] next = result[thisPositionIndex + 1];
+            final double[] current = result[thisPositionIndex];
+            final int transitionOffset = thisPositionIndex * numStates * numStates;
+            final int emissionOffset = (thisPositionIndex + 1) * numStates;
+            for (int thisStateIndex = 0; thisStateIndex < numStates; thisStateIndex++) {
+                final int transitionRowOffset = transitionOffset + thisStateIndex * numStates;
+                for (int nextStateIndex = 0; nextStateIndex < numStates; nextStateIndex++) {
+                    logSumBuffer[nextStateIndex] = next[nextStateIndex]
+                            + logTransitions[transitionRowOffset + nextStateIndex]
+                            + logEmissions[emissionOffset + nextStateIndex];
+                }
+                current[thisStateIndex] = logSumExp(logSumBuffer);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the most likely sequence of hidden states.
+     *
+     * @param logEmissions the emissions as returned by {@link #logEmissions}.
+     * @return never {@code null}, the indices of the states in {@link #states()}, one per position.
+     */
+    int[] bestStateIndices(final double[] logEmissions) {
+        final int[] result = new int[length];
+        if (length == 0 || numStates == 0) {
+            return result;
+        }
+        // best previous state of the best path that ends in each state at each position but the first one.
+        final int[] bestPreviousStateIndices = new int[(length - 1) * numStates];
+        double[] previousLogProbs = new double[numStates];
+        double[] currentLogProbs = new double[numStates];
+        for (int stateIndex = 0; stateIndex < numStates; stateIndex++) {
+            currentLogProbs[stateIndex] = logPriors[stateIndex] + logEmissions[stateIndex];
+        }
+        for (int thisPositionIndex = 1; thisPositionIndex < length; thisPositionIndex++) {
+            final double[] swap = previousLogProbs;
+            previousLogProbs = currentLogProbs;
+            currentLogProbs = swap;
+            final int transitionOffset = (thisPositionIndex - 1) * numStates * numStates;
+            final int emissionOffset = thisPositionIndex * numStates;
+            final int backPointerOffset = (thisPositionIndex - 1) * numStates;
+            for (int thisStateIndex = 0; thisStateIndex < numStates; thisStateIndex++) {
+                // ties go to the lowest state index:
+                int bestPreviousStateIndex = 0;
+                double bestPreviousStateLogProb = previousLogProbs[0] + logTransitions[transitionOffset + thisStateIndex];
+                for (int previousStateIndex = 1, transitionIndex = transitionOffset + numStates + thisStateIndex;
+                     previousStateIndex < numStates; previousStateIndex++, transitionIndex += numStates) {
+                    final double candidatePreviousStateLogProb = previousLogProbs[previousStateIndex] + logTransitions[transitionIndex];
+                    if (candidatePreviousStateLogProb > bestPreviousStateLogProb) {
+                        bestPreviousStateLogProb = candidatePreviousStateLogProb;
+                        bestPreviousStateIndex = previousStateIndex;
+                    }
+                }
+                bestPreviousStateIndices[backPointerOffset + thisStateIndex] = bestPreviousStateIndex;
+                currentLogProbs[thisStateIndex] = bestPreviousStateLogProb + logEmissions[emissionOffset + thisStateIndex];
+            }
+        }
+        // the first of the states with the largest probability in the sense of Double.compare.
+        int bestStateIndex = 0;
+        for (int stateIndex = 1; stateIndex < numStates; stateIndex++) {
+            if (Double.compare(-currentLogProbs[stateIndex], -currentLogProbs[bestStateIndex]) < 0) {
+                bestStateIndex = stateIndex;
+            }
+        }
+        result[length - 1] = bestStateIndex;
+        for (int positionIndex = length - 1; positionIndex > 0; --positionIndex) {
+            bestStateIndex = bestPreviousStateIndices[(positionIndex - 1) * numStates + bestStateIndex];
+            result[positionIndex - 1] = bestStateIndex;
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link org.broadinstitute.hellbender.utils.GATKProtectedMathUtils#logSumExp(double...)}, without the
+     * argument checks.
+     */
+    private static double logSumExp(final double[] values) {
+        double max = values[0];
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > max) {
+                max = values[i];
+            }
+        }
+        double sum = 0.0;
+        for (final double value : values) {
+            if (value != Double.NEGATIVE_INFINITY) {
+                sum += Math.exp(value - max);
+            }
+        }
+        return max + Math.log(sum);
+    }
+}
@@ -0,0 +1,181 @@
+package org.broadinstitute.hellbender.utils.iterators;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import htsjdk.samtools.util.CloseableIterator;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.*;
+
+/**
+ * Iterator that pulls elements from an underlying iterator on a background thread, in batches, and hands them to the
+ * consumer up to a fixed number of batches ahead of it. Any work done by the underlying iterator (I/O, decoding)
+ * overlaps with the work done by the consumer.
+ *
+ * Elements are returned in the same order as by the underlying iterator. If the underlying iterator throws, every
+ * element it returned before that is still handed to the consumer, after which the exception is rethrown by
+ * {@link #hasNext} (or {@link #next}), and again by every later call to either.
+ *
+ * The underlying iterator must not be used by anyone else until this iterator is either exhausted or closed.
+ * Closing this iterator stops the background thread but does not close the underlying iterator.
+ */
+public final class ReadAheadIterator<T> implements CloseableIterator<T> {
+
+    /**
+     * Background threads are shared by all instances, so that short-lived iterators (eg., one per query)
+     * don't each pay for starting a thread.
+     */
+    private static final ExecutorService READ_AHEAD_THREADS = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("readAhead-thread-%d").setDaemon(true).build());
+
+    /**
+     * How often a background thread waiting for room in the queue checks whether the iterator was closed.
+     */
+    private static final long CLOSED_CHECK_INTERVAL_MILLIS = 100;
+
+    private final Iterator<T> underlyingIterator;
+    private final int batchSize;
+    private final BlockingQueue<Batch<T>> batches;
+    private final CountDownLatch producerDone = new CountDownLatch(1);
+    private volatile boolean closed = false;
+
+    private Batch<T> currentBatch = null;
+    private int nextInBatch = 0;
+
+    /**
+     * @param underlyingIterator iterator to read ahead of the consumer, not null
+     * @param batchSize number of elements handed to the consumer at a time, must be > 0
+     * @param batchCount maximum number of batches read ahead of the consumer, must be > 0
+     */
+    public ReadAheadIterator( final Iterator<T> underlyingIterator, final int batchSize, final int batchCount ) {
+        Utils.nonNull(underlyingIterator);
+        Utils.validateArg(batchSize > 0, "batchSize must be > 0");
+        Utils.validateArg(batchCount > 0, "batchCount must be > 0");
+
+        this.underlyingIterator = underlyingIterator;
+        this.batchSize = batchSize;
+        this.batches = new ArrayBlockingQueue<>(batchCount);
+        READ_AHEAD_THREADS.execute(this::readAhead);
+    }
+
+    @Override
+    public boolean hasNext() {
+        Utils.validate(! closed, "iterator is closed");
+        while ( currentBatch == null || nextInBatch == currentBatch.elements.size() ) {
+            if ( currentBatch != null && currentBatch.last ) {
+                // we keep the last batch, so that once the underlying iterator has thrown we keep rethrowing
+                rethrowFailure(currentBatch.failure);
+                return false;
+            }
+            currentBatch = takeBatch();
+            nextInBatch = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if ( ! hasNext() ) {
+            throw new NoSuchElementException("next() called when there are no more elements");
+        }
+        return currentBatch.elements.get(nextInBatch++);
+    }
+
+    /**
+     * Stops reading ahead, waiting for the background thread to finish with the underlying iterator.
+     */
+    @Override
+    public void close() {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+        batches.clear();
+
+        boolean interrupted = false;
+        while ( true ) {
+            try {
+                producerDone.await();
+                break;
+            } catch ( final InterruptedException e ) {
+                interrupted = true;
+            }
+        }
+        if ( interrupted ) {
+            Thread.currentThread().interrupt();
+        }
+        currentBatch = null;
+    }
+
+    private Batch<T> takeBatch() {
+        try {
+            return batches.take();
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for the next batch", e);
+        }
+    }
+
+    private static void rethrowFailure( final Throwable failure ) {
+        if ( failure instanceof RuntimeException ) {
+            throw (RuntimeException) failure;
+        } else if ( failure instanceof Error ) {
+            throw (Error) failure;
+        } else if ( failure != null ) {
+            throw new GATKException("Exception while reading ahead", failure);
+        }
+    }
+
+    /**
+     * Runs on the background thread until the underlying iterator is exhausted, throws, or this iterator is closed.
+     */
+    private void readAhead() {
+        List<T> elements = Collections.emptyList();
+        try {
+            boolean last = false;
+            while ( ! last && ! closed ) {
+                elements = new ArrayList<>(batchSize);
+                while ( elements.size() < batchSize && underlyingIterator.hasNext() ) {
+                    elements.add(underlyingIterator.next());
+                }
+                last = elements.size() < batchSize || ! underlyingIterator.hasNext();
+                putBatch(new Batch<>(elements, last, null));
+                elements = Collections.emptyList();
+            }
+        } catch ( final Throwable e ) {
+            // the elements pulled before the failure are still handed over, ahead of it
+            putBatch(new Batch<>(elements, true, e));
+        } finally {
+            producerDone.countDown();
+        }
+    }
+
+    private void putBatch( final Batch<T> batch ) {
+        try {
+            while ( ! closed && ! batches.offer(batch, CLOSED_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS) ) {
+                // keep waiting for the consumer to make room
+            }
+        } catch ( final InterruptedException e ) {
+            // only happens if the thread pool is shut down, in which case there is nobody left to read the batch
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Batch<T> {
+        private final List<T> elements;
+        private final boolean last;
+        // thrown by the underlying iterator right after the elements of this (last) batch, or null
+        private final Throwable failure;
+
+        private Batch( final List<T> elements, final boolean last, final Throwable failure ) {
+            this.elements = elements;
+            this.last = last;
+            this.failure = failure;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.broadinstitute.hellbender.utils.downsampling.DownsampleType;
 import org.broadinstitute.hellbender.utils.downsampling.DownsamplingMethod;
 
 import java.io.Serializable;
+import java.util.Random;
 
 /**
  * Simple wrapper about the information LIBS needs about downsampling
@@ -14,15 +15,27 @@ public final class LIBSDownsamplingInfo implements Serializable {
 
     private final boolean performDownsampling;
     private final int toCoverage;
+    // null to use the GATK-wide random number generator
+    private final Random rng;
 
     /**
      * @param performDownsampling whether to downsample
      * @param toCoverage what coverage to downsample to (or -1 if no downsampling)
      */
     public LIBSDownsamplingInfo(final boolean performDownsampling, final int toCoverage) {
+        this(performDownsampling, toCoverage, null);
+    }
+
+    /**
+     * @param performDownsampling whether to downsample
+     * @param toCoverage what coverage to downsample to (or -1 if no downsampling)
+     * @param rng source of the random choices of the downsampler, or null to use {@link Utils#getRandomGenerator()}
+     */
+    public LIBSDownsamplingInfo(final boolean performDownsampling, final int toCoverage, final Random rng) {
         Utils.validateArg(toCoverage >= -1, "toCoverage must be at least -1 (special value) but was " + toCoverage);
         this.performDownsampling = performDownsampling;
         this.toCoverage = toCoverage;
+        this.rng = rng;
     }
 
     public boolean isPerformDownsampling() {
@@ -33,6 +46,13 @@ public final class LIBSDownsamplingInfo implements Serializable {
         return toCoverage;
     }
 
+    /**
+     * @return the source of the random choices of the downsampler
+     */
+    public Random getRandomGenerator() {
+        return rng != null ? rng : Utils.getRandomGenerator();
+    }
+
     public static LIBSDownsamplingInfo toDownsamplingInfo(final DownsamplingMethod downsamplingMethod) {
         final boolean performDownsampling = downsamplingMethod != null &&
                 downsamplingMethod.type == DownsampleType.BY_SAMPLE &&
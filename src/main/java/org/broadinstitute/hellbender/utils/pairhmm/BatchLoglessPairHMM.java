@@ -0,0 +1,291 @@
+package org.broadinstitute.hellbender.utils.pairhmm;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.broadinstitute.hellbender.utils.MathUtils;
+import org.broadinstitute.hellbender.utils.QualityUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.broadinstitute.hellbender.utils.pairhmm.PairHMMModel.*;
+
+/**
+ * Pure-Java PairHMM that evaluates every read of a sample against every haplotype in one batch.
+ *
+ * This computes exactly the same values as {@link LoglessPairHMM}, but:
+ * <ul>
+ *     <li>haplotypes are visited in the pre-order of a prefix trie (same-length haplotypes sorted lexicographically),
+ *     so that each haplotype reuses all of the DP columns it shares with the previously evaluated one,
+ *     rather than only those shared with the next haplotype in the caller's order;</li>
+ *     <li>the match, insertion and deletion matrices are flat, row-major {@code double[]}s that are only reallocated
+ *     when a region needs a larger read or haplotype than any seen before;</li>
+ *     <li>per-read transition and prior probabilities are computed once per read, and the read-vs-haplotype prior
+ *     is chosen in the inner loop rather than materialized as a full matrix.</li>
+ * </ul>
+ *
+ * Note that prefix columns can only be shared between haplotypes of the same length, since the initial
+ * condition in the first row of the deletion matrix depends on the haplotype length.
+ */
+public final class BatchLoglessPairHMM extends PairHMM {
+
+    // allocated capacity of our buffers, which may exceed the max lengths requested by the latest initialize() call
+    private int readCapacity = 0;
+    private int haplotypeCapacity = 0;
+
+    // row-major DP matrices of (readCapacity + 1) rows by stride columns
+    private int stride;
+    private double[] matchMatrix;
+    private double[] insertionMatrix;
+    private double[] deletionMatrix;
+
+    // per-read caches, indexed by 1-based read position
+    private double[] transition;
+    private double[] matchPrior;
+    private double[] mismatchPrior;
+
+    // traversal order for the most recent set of haplotypes, reused across samples of the same region
+    private byte[][] orderedHaplotypeBases;
+    private int[] haplotypeOrder;
+    private int[] sharedPrefixLengths;
+
+    @Override
+    public void doNotUseTristateCorrection() {
+        doNotUseTristateCorrection = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Buffers are only reallocated if they are too small for the requested lengths.
+     */
+    @Override
+    public void initialize( final int readMaxLength, final int haplotypeMaxLength ) {
+        super.initialize(readMaxLength, haplotypeMaxLength);
+
+        if ( readMaxLength > readCapacity || haplotypeMaxLength > haplotypeCapacity ) {
+            readCapacity = Math.max(readMaxLength, readCapacity);
+            haplotypeCapacity = Math.max(haplotypeMaxLength, haplotypeCapacity);
+
+            // Fresh (zeroed) buffers: row 0 of the match and insertion matrices and column 0 of all matrices
+            // are never written, so they remain zero for as long as the stride is unchanged
+            stride = haplotypeCapacity + 1;
+            final int matrixSize = (readCapacity + 1) * stride;
+            matchMatrix = new double[matrixSize];
+            insertionMatrix = new double[matrixSize];
+            deletionMatrix = new double[matrixSize];
+
+            transition = new double[(readCapacity + 1) * TRANS_PROB_ARRAY_LENGTH];
+            matchPrior = new double[readCapacity + 1];
+            mismatchPrior = new double[readCapacity + 1];
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * All reads are evaluated against all haplotypes, visiting the haplotypes in prefix-trie order for each read.
+     */
+    @Override
+    public void computeLog10Likelihoods( final LikelihoodMatrix<Haplotype> logLikelihoods,
+                                         final List<GATKRead> processedReads,
+                                         final Map<GATKRead, byte[]> gcp ) {
+        if ( processedReads.isEmpty() ) {
+            return;
+        }
+        final long startTime = COMPUTE_TIMER.start();
+
+        final List<Haplotype> haplotypes = logLikelihoods.alleles();
+        final int readMaxLength = findMaxReadLength(processedReads);
+        final int haplotypeMaxLength = findMaxAlleleLength(haplotypes);
+        if ( ! initialized || readMaxLength > maxReadLength || haplotypeMaxLength > maxHaplotypeLength ) {
+            initialize(readMaxLength, haplotypeMaxLength);
+        }
+
+        updateHaplotypeOrder(haplotypes);
+
+        final int haplotypeCount = orderedHaplotypeBases.length;
+        mLogLikelihoodArray = new double[processedReads.size() * haplotypeCount];
+        int readIndex = 0;
+        for ( final GATKRead read : processedReads ) {
+            final byte[] readBases = read.getBases();
+            cacheReadValues(readBases, read.getBaseQualities(), ReadUtils.getBaseInsertionQualities(read), ReadUtils.getBaseDeletionQualities(read), gcp.get(read));
+
+            for ( int k = 0; k < haplotypeCount; k++ ) {
+                final int haplotypeIndex = haplotypeOrder[k];
+                final double lk = computeLog10Likelihood(orderedHaplotypeBases[haplotypeIndex], readBases, sharedPrefixLengths[k]);
+                if ( lk > 0.0 || ! MathUtils.goodLog10Probability(lk) ) {
+                    throw new IllegalStateException("Invalid PairHMM log10 probability: " + String.format("haplotype: %s, read: %s, result: %f, PairHMM: %s",
+                            new String(orderedHaplotypeBases[haplotypeIndex]), new String(readBases), lk, getClass().getSimpleName()));
+                }
+                logLikelihoods.set(haplotypeIndex, readIndex, lk);
+                mLogLikelihoodArray[readIndex * haplotypeCount + haplotypeIndex] = lk;
+            }
+            readIndex++;
+        }
+
+        COMPUTE_TIMER.stop(startTime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double subComputeReadLikelihoodGivenHaplotypeLog10( final byte[] haplotypeBases,
+                                                                  final byte[] readBases,
+                                                                  final byte[] readQuals,
+                                                                  final byte[] insertionGOP,
+                                                                  final byte[] deletionGOP,
+                                                                  final byte[] overallGCP,
+                                                                  final int hapStartIndex,
+                                                                  final boolean recacheReadValues,
+                                                                  final int nextHapStartIndex ) {
+        if ( ! constantsAreInitialized || recacheReadValues ) {
+            cacheReadValues(readBases, readQuals, insertionGOP, deletionGOP, overallGCP);
+            constantsAreInitialized = true;
+        }
+
+        return computeLog10Likelihood(haplotypeBases, readBases, hapStartIndex);
+    }
+
+    /**
+     * Recompute the haplotype traversal order, unless the haplotypes are the same ones (in the same order)
+     * as in the previous call, as happens for successive samples in the same region.
+     */
+    private void updateHaplotypeOrder( final List<Haplotype> haplotypes ) {
+        final int haplotypeCount = haplotypes.size();
+        boolean sameHaplotypes = orderedHaplotypeBases != null && orderedHaplotypeBases.length == haplotypeCount;
+        for ( int a = 0; sameHaplotypes && a < haplotypeCount; a++ ) {
+            sameHaplotypes = orderedHaplotypeBases[a] == haplotypes.get(a).getBases();
+        }
+        if ( sameHaplotypes ) {
+            return;
+        }
+
+        orderedHaplotypeBases = new byte[haplotypeCount][];
+        for ( int a = 0; a < haplotypeCount; a++ ) {
+            orderedHaplotypeBases[a] = haplotypes.get(a).getBases();
+        }
+        haplotypeOrder = prefixTrieOrder(orderedHaplotypeBases);
+        sharedPrefixLengths = sharedPrefixLengths(orderedHaplotypeBases, haplotypeOrder);
+    }
+
+    /**
+     * Order haplotypes for evaluation so that each one shares as long a prefix as possible with the one before it.
+     *
+     * Haplotypes are grouped by length (only haplotypes of the same length can share DP columns), and sorted
+     * lexicographically within each group. This is a pre-order traversal of the prefix trie of each group, in
+     * which the longest prefix a haplotype shares with any earlier haplotype is the one it shares with its predecessor.
+     *
+     * @param haplotypeBases bases of each haplotype
+     * @return indices into {@code haplotypeBases}, in evaluation order
+     */
+    @VisibleForTesting
+    static int[] prefixTrieOrder( final byte[][] haplotypeBases ) {
+        final Comparator<Integer> byLengthThenBases = Comparator.<Integer>comparingInt(a -> haplotypeBases[a].length)
+                .thenComparing((a, b) -> compareBases(haplotypeBases[a], haplotypeBases[b]));
+        return IntStream.range(0, haplotypeBases.length).boxed().sorted(byLengthThenBases).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int compareBases( final byte[] bases1, final byte[] bases2 ) {
+        final int commonLength = Math.min(bases1.length, bases2.length);
+        for ( int i = 0; i < commonLength; i++ ) {
+            if ( bases1[i] != bases2[i] ) {
+                return Byte.compare(bases1[i], bases2[i]);
+            }
+        }
+        return Integer.compare(bases1.length, bases2.length);
+    }
+
+    /**
+     * @param haplotypeBases bases of each haplotype
+     * @param order evaluation order of the haplotypes
+     * @return for each position in the evaluation order, the number of leading haplotype bases (and therefore DP columns)
+     *         shared with the previously evaluated haplotype; 0 for the first haplotype and across changes of length
+     */
+    @VisibleForTesting
+    static int[] sharedPrefixLengths( final byte[][] haplotypeBases, final int[] order ) {
+        final int[] result = new int[order.length];
+        for ( int k = 1; k < order.length; k++ ) {
+            final byte[] previous = haplotypeBases[order[k - 1]];
+            final byte[] current = haplotypeBases[order[k]];
+            result[k] = previous.length == current.length ? findFirstPositionWhereHaplotypesDiffer(previous, current) : 0;
+        }
+        return result;
+    }
+
+    /**
+     * Cache the per-position transition and prior probabilities for a read.
+     */
+    private void cacheReadValues( final byte[] readBases, final byte[] readQuals, final byte[] insertionGOP, final byte[] deletionGOP, final byte[] overallGCP ) {
+        final int readLength = readBases.length;
+        Utils.validateArg(readLength <= readCapacity, () -> "readBases is too long, got " + readLength + " but max is " + readCapacity);
+        Utils.validateArg(readQuals.length == readLength && insertionGOP.length == readLength && deletionGOP.length == readLength && overallGCP.length == readLength,
+                () -> "Read bases and read quality arrays aren't the same size: " + readLength);
+
+        final double tristateCorrection = doNotUseTristateCorrection ? 1.0 : LoglessPairHMM.TRISTATE_CORRECTION;
+        for ( int i = 0; i < readLength; i++ ) {
+            qualToTransProbs(transition, (i + 1) * TRANS_PROB_ARRAY_LENGTH, insertionGOP[i], deletionGOP[i], overallGCP[i]);
+            matchPrior[i + 1] = QualityUtils.qualToProb(readQuals[i]);
+            mismatchPrior[i + 1] = QualityUtils.qualToErrorProb(readQuals[i]) / tristateCorrection;
+        }
+    }
+
+    /**
+     * Fill in the DP matrices for a read (whose values must already be cached) against a haplotype, and return
+     * the log10 likelihood of the read given the haplotype.
+     *
+     * @param haplotypeBases bases of the haplotype
+     * @param readBases bases of the read
+     * @param hapStartIndex number of leading DP columns that are still valid from the previous haplotype evaluated for this read
+     */
+    private double computeLog10Likelihood( final byte[] haplotypeBases, final byte[] readBases, final int hapStartIndex ) {
+        final int readLength = readBases.length;
+        final int paddedHaplotypeLength = haplotypeBases.length + 1;
+
+        // set the initial value (free deletions in the beginning) for the first row in the deletion matrix
+        Arrays.fill(deletionMatrix, 0, paddedHaplotypeLength, LoglessPairHMM.INITIAL_CONDITION / haplotypeBases.length);
+
+        for ( int i = 1; i <= readLength; i++ ) {
+            final byte x = readBases[i - 1];
+            final double matchPriorI = matchPrior[i];
+            final double mismatchPriorI = mismatchPrior[i];
+
+            final int t = i * TRANS_PROB_ARRAY_LENGTH;
+            final double m2m = transition[t + matchToMatch];
+            final double i2m = transition[t + indelToMatch];
+            final double m2i = transition[t + matchToInsertion];
+            final double i2i = transition[t + insertionToInsertion];
+            final double m2d = transition[t + matchToDeletion];
+            final double d2d = transition[t + deletionToDeletion];
+
+            final int row = i * stride;
+            final int previousRow = row - stride;
+            // +1 here is because hapStartIndex is 0-based, but our matrices are 1 based
+            for ( int j = hapStartIndex + 1; j < paddedHaplotypeLength; j++ ) {
+                final byte y = haplotypeBases[j - 1];
+                final double prior = x == y || x == (byte) 'N' || y == (byte) 'N' ? matchPriorI : mismatchPriorI;
+                matchMatrix[row + j] = prior * ( matchMatrix[previousRow + j - 1] * m2m +
+                        insertionMatrix[previousRow + j - 1] * i2m +
+                        deletionMatrix[previousRow + j - 1] * i2m );
+                insertionMatrix[row + j] = matchMatrix[previousRow + j] * m2i + insertionMatrix[previousRow + j] * i2i;
+                deletionMatrix[row + j] = matchMatrix[row + j - 1] * m2d + deletionMatrix[row + j - 1] * d2d;
+            }
+        }
+
+        // final log probability is the log10 sum of the last element in the Match and Insertion state arrays
+        final int endRow = readLength * stride;
+        double finalSumProbabilities = 0.0;
+        for ( int j = 1; j < paddedHaplotypeLength; j++ ) {
+            finalSumProbabilities += matchMatrix[endRow + j] + insertionMatrix[endRow + j];
+        }
+        return Math.log10(finalSumProbabilities) - LoglessPairHMM.INITIAL_CONDITION_LOG10;
+    }
+}
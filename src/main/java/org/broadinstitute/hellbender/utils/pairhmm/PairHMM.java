@@ -5,6 +5,7 @@ import htsjdk.variant.variantcontext.Allele;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
+import org.broadinstitute.hellbender.engine.TraversalInstrumentation;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.Utils;
@@ -51,6 +52,12 @@ public abstract class PairHMM implements Closeable{
             logger.info("Using the non-hardware-accelerated Java LOGLESS_CACHING PairHMM implementation");
             return hmm;
         }),
+        /* Pure-Java version of LOGLESS_CACHING that evaluates all reads against all haplotypes in one batch, sharing work between haplotypes with common prefixes. Gives identical results to LOGLESS_CACHING */
+        BATCH_LOGLESS_CACHING(args -> {
+            final BatchLoglessPairHMM hmm = new BatchLoglessPairHMM();
+            logger.info("Using the non-hardware-accelerated Java BATCH_LOGLESS_CACHING PairHMM implementation");
+            return hmm;
+        }),
         /* Optimized AVX implementation of LOGLESS_CACHING called through JNI. Throws if AVX is not available */
         AVX_LOGLESS_CACHING(args -> {
             // Constructor will throw a UserException if AVX is not available
@@ -76,7 +83,7 @@ public abstract class PairHMM implements Closeable{
            Order of precedence:
             1. AVX_LOGLESS_CACHING_OMP
             2. AVX_LOGLESS_CACHING
-            3. LOGLESS_CACHING
+            3. BATCH_LOGLESS_CACHING
          */
         FASTEST_AVAILABLE(args -> {
             // This try block is temporarily commented out becuase FPGA support is experimental for the time being. Once
@@ -105,8 +112,8 @@ public abstract class PairHMM implements Closeable{
             }
             catch ( UserException.HardwareFeatureException e ) {
                 logger.warn("***WARNING: Machine does not have the AVX instruction set support needed for the accelerated AVX PairHmm. " +
-                            "Falling back to the MUCH slower LOGLESS_CACHING implementation!");
-                return new LoglessPairHMM();
+                            "Falling back to the MUCH slower BATCH_LOGLESS_CACHING implementation!");
+                return new BatchLoglessPairHMM();
             }
         });
 
@@ -133,11 +140,8 @@ public abstract class PairHMM implements Closeable{
     //debug array
     protected double[] mLogLikelihoodArray;
 
-    //profiling information
-    protected static Boolean doProfiling = true;
-    protected static long pairHMMComputeTime = 0;
-    protected long threadLocalPairHMMComputeTimeDiff = 0;
-    protected long startTime = 0;
+    //profiling information, shared by all the PairHMMs of the JVM
+    protected static final TraversalInstrumentation.Timer COMPUTE_TIMER = TraversalInstrumentation.timer("PairHMM.computeLogLikelihoods");
 
     /**
      * Initialize this PairHMM, making it suitable to run against a read and haplotype with given lengths
@@ -177,7 +181,7 @@ public abstract class PairHMM implements Closeable{
         initialize(readMaxLength, haplotypeMaxLength);
     }
 
-    private static int findMaxAlleleLength(final List<? extends Allele> alleles) {
+    static int findMaxAlleleLength(final List<? extends Allele> alleles) {
         int max = 0;
         for (final Allele allele : alleles) {
             final int alleleLength = allele.length();
@@ -215,9 +219,7 @@ public abstract class PairHMM implements Closeable{
         if (processedReads.isEmpty()) {
             return;
         }
-        if(doProfiling) {
-            startTime = System.nanoTime();
-        }
+        final long startTime = COMPUTE_TIMER.start();
         // (re)initialize the pairHMM only if necessary
         final int readMaxLength = findMaxReadLength(processedReads);
         final int haplotypeMaxLength = findMaxAlleleLength(logLikelihoods.alleles());
@@ -251,12 +253,7 @@ public abstract class PairHMM implements Closeable{
             }
             readIndex++;
         }
-        if(doProfiling) {
-            threadLocalPairHMMComputeTimeDiff = (System.nanoTime() - startTime);
-            {
-                pairHMMComputeTime += threadLocalPairHMMComputeTimeDiff;
-            }
-        }
+        COMPUTE_TIMER.stop(startTime);
     }
 
     /**
@@ -375,7 +372,6 @@ public abstract class PairHMM implements Closeable{
      */
     @Override
     public void close() {
-        if(doProfiling)
-            logger.info("Total compute time in PairHMM computeLogLikelihoods() : "+(pairHMMComputeTime*1e-9));
+        // the total compute time of all the PairHMMs of the traversal is logged by the engine, with the other timers
     }
 }
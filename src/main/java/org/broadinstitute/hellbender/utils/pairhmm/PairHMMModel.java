@@ -105,15 +105,33 @@ public final class PairHMMModel {
      * @throws IllegalArgumentException if {@code insQual}, {@code delQual} or {@code gcp} is less than negative.
      */
     public static void qualToTransProbs(final double[] dest, final byte insQual, final byte delQual, final byte gcp) {
+        qualToTransProbs(dest, 0, insQual, delQual, gcp);
+    }
+
+    /**
+     * Fills a transition probability array, stored at a given offset within a larger flat array, given the
+     * different quality scores affecting a read site
+     *
+     * @param dest the array to update.
+     * @param offset position in {@code dest} of the first element of the transition probability array.
+     * @param insQual the insertion quality score as a byte.
+     * @param delQual the deletion quality score as a byte.
+     * @param gcp the gap-continuation-penalty score as a byte.
+     *
+     * @throws NullPointerException if {@code dest} is {@code null}.
+     * @throws ArrayIndexOutOfBoundsException if {@code dest} is not large enough.
+     * @throws IllegalArgumentException if {@code insQual}, {@code delQual} or {@code gcp} is less than negative.
+     */
+    public static void qualToTransProbs(final double[] dest, final int offset, final byte insQual, final byte delQual, final byte gcp) {
         Utils.nonNull(dest, "dest array null");
         if (insQual < 0) throw new IllegalArgumentException("insert quality cannot less than 0: " + insQual);
         if (delQual < 0) throw new IllegalArgumentException("deletion quality cannot be less than 0: " + delQual);
         if (gcp < 0) throw new IllegalArgumentException("gcp cannot be less than 0: " + gcp);
-        dest[matchToMatch] = matchToMatchProb(insQual, delQual);
-        dest[matchToInsertion] = QualityUtils.qualToErrorProb(insQual);
-        dest[matchToDeletion] = QualityUtils.qualToErrorProb(delQual);
-        dest[indelToMatch] = QualityUtils.qualToProb(gcp);
-        dest[insertionToInsertion] = dest[deletionToDeletion] = QualityUtils.qualToErrorProb(gcp);
+        dest[offset + matchToMatch] = matchToMatchProb(insQual, delQual);
+        dest[offset + matchToInsertion] = QualityUtils.qualToErrorProb(insQual);
+        dest[offset + matchToDeletion] = QualityUtils.qualToErrorProb(delQual);
+        dest[offset + indelToMatch] = QualityUtils.qualToProb(gcp);
+        dest[offset + insertionToInsertion] = dest[offset + deletionToDeletion] = QualityUtils.qualToErrorProb(gcp);
     }
 
     /**
@@ -9,6 +9,7 @@ import org.broadinstitute.gatk.nativebindings.pairhmm.HaplotypeDataHolder;
 import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
 import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeBinding;
 import org.broadinstitute.gatk.nativebindings.pairhmm.ReadDataHolder;
+import org.broadinstitute.hellbender.engine.TraversalInstrumentation;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
@@ -43,8 +44,7 @@ public final class VectorLoglessPairHMM extends LoglessPairHMM {
     }
 
     private static final Logger logger = LogManager.getLogger(VectorLoglessPairHMM.class);
-    private long threadLocalSetupTimeDiff = 0;
-    private long pairHMMSetupTime = 0;
+    private static final TraversalInstrumentation.Timer SETUP_TIMER = TraversalInstrumentation.timer("PairHMM.jniSetup");
 
     private final PairHMMNativeBinding pairHmm;
 
@@ -124,9 +124,7 @@ public final class VectorLoglessPairHMM extends LoglessPairHMM {
         if (processedReads.isEmpty()) {
             return;
         }
-        if (doProfiling) {
-            startTime = System.nanoTime();
-        }
+        final long startTime = COMPUTE_TIMER.start();
         int readListSize = processedReads.size();
         int numHaplotypes = logLikelihoods.numberOfAlleles();
         ReadDataHolder[] readDataArray = new ReadDataHolder[readListSize];
@@ -142,8 +140,8 @@ public final class VectorLoglessPairHMM extends LoglessPairHMM {
         }
 
         mLogLikelihoodArray = new double[readListSize * numHaplotypes];      //to store results
-        if (doProfiling) {
-            threadLocalSetupTimeDiff = (System.nanoTime() - startTime);
+        if (startTime != TraversalInstrumentation.Timer.NOT_STARTED) {
+            SETUP_TIMER.record(System.nanoTime() - startTime);
         }
         //for(reads)
         //   for(haplotypes)
@@ -163,19 +161,13 @@ public final class VectorLoglessPairHMM extends LoglessPairHMM {
             }
             readIdx += numHaplotypes;
         }
-        if (doProfiling) {
-            threadLocalPairHMMComputeTimeDiff = (System.nanoTime() - startTime);
-            pairHMMComputeTime += threadLocalPairHMMComputeTimeDiff;
-            pairHMMSetupTime += threadLocalSetupTimeDiff;
-        }
+        COMPUTE_TIMER.stop(startTime);
     }
 
 
     @Override
     public void close() {
         pairHmm.done();
-        if (doProfiling)
-            logger.info("Time spent in setup for JNI call : " + (pairHMMSetupTime * 1e-9));
         super.close();
     }
 }
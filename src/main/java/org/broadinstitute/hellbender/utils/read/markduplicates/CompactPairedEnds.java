@@ -0,0 +1,113 @@
+package org.broadinstitute.hellbender.utils.read.markduplicates;
+
+/**
+ * Counterpart of {@link PairedEnds} for {@link CompactReadEnd}s.
+ */
+public final class CompactPairedEnds implements OpticalDuplicateFinder.PhysicalLocation {
+  private CompactReadEnd first, second;
+
+  // Information used to detect optical dupes
+  public short readGroup = -1;
+  public short tile = -1;
+  public short x = -1, y = -1;
+  public short libraryId = -1;
+
+  private CompactPairedEnds(final CompactReadEnd first) {
+    this.first = first;
+  }
+
+  public static CompactPairedEnds of(final CompactReadEnd first) {
+    return new CompactPairedEnds(first);
+  }
+
+  /**
+   * Same as {@link PairedEnds#and}.
+   */
+  public CompactPairedEnds and(final CompactReadEnd second) {
+    if (second != null && first.getStrandedUnclippedStart() > second.getStrandedUnclippedStart()) {
+      this.second = this.first;
+      this.first = second;
+    } else {
+      this.second = second;
+    }
+    return this;
+  }
+
+  public CompactReadsKey key() {
+    return CompactReadsKey.keyForPairedEnds(first, second);
+  }
+
+  public CompactReadsKey keyForFragment() {
+    return CompactReadsKey.keyForFragment(first);
+  }
+
+  public CompactReadEnd first() {
+    return first;
+  }
+
+  public CompactReadEnd second() {
+    return second;
+  }
+
+  public int score() {
+    return first.getScore() + (second != null ? second.getScore() : 0);
+  }
+
+  @Override
+  public short getReadGroup() { return this.readGroup; }
+
+  @Override
+  public void setReadGroup(final short readGroup) { this.readGroup = readGroup; }
+
+  @Override
+  public short getTile() { return this.tile; }
+
+  @Override
+  public void setTile(final short tile) { this.tile = tile; }
+
+  @Override
+  public short getX() { return this.x; }
+
+  @Override
+  public void setX(final short x) { this.x = x; }
+
+  @Override
+  public short getY() { return this.y; }
+
+  @Override
+  public void setY(final short y) { this.y = y; }
+
+  @Override
+  public short getLibraryId() { return this.libraryId; }
+
+  @Override
+  public void setLibraryId(final short libraryId) { this.libraryId = libraryId; }
+
+  /**
+   * Same as {@link PairedEnds#getOrientationForOpticalDuplicates}.
+   */
+  public byte getOrientationForOpticalDuplicates() {
+    final CompactReadEnd read1;
+    final CompactReadEnd read2;
+    if (first.isFirstOfPair()){
+      read1 = first;
+      read2 = second;
+    } else {
+      read1 = second;
+      read2 = first;
+    }
+
+    final boolean R1R = read1.isReverseStrand();
+    final boolean R2R = read2.isReverseStrand();
+    if (R1R && R2R) {
+      return ReadEnds.RR;
+    }
+    if (R1R) {
+      return ReadEnds.RF;
+    }
+    if (R2R) {
+      return ReadEnds.FR;
+    }
+    return ReadEnds.FF;
+  }
+}
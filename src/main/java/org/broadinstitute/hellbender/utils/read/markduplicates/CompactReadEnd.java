@@ -0,0 +1,224 @@
+package org.broadinstitute.hellbender.utils.read.markduplicates;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMFlag;
+import htsjdk.samtools.SAMReadGroupRecord;
+import htsjdk.samtools.SAMRecord;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadConstants;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Compact stand-in for a primary read, holding only what duplicate marking looks at: the index of the read in its
+ * RDD, its library, its (unclipped, stranded) 5' position, its score, and the alignment fields used to pair up the
+ * ends and to break ties between equally scored duplicates. Shuffling these instead of whole reads keeps the
+ * bases, qualities and tags out of the shuffle.
+ *
+ * All the fields are fixed-width except for the read name, which is needed to break ties exactly the way
+ * {@link org.broadinstitute.hellbender.utils.read.ReadCoordinateComparator} does and to find optical duplicates.
+ */
+public final class CompactReadEnd implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** Library index of reads with no read group or no library. */
+    public static final short UNKNOWN_LIBRARY = -1;
+
+    private static final int DUPLICATE_FLAG = SAMFlag.DUPLICATE_READ.intValue();
+    private static final int PAIRED_FLAG = SAMFlag.READ_PAIRED.intValue();
+    private static final int PROPER_PAIR_FLAG = SAMFlag.PROPER_PAIR.intValue();
+    private static final int MATE_UNMAPPED_FLAG = SAMFlag.MATE_UNMAPPED.intValue();
+    private static final int FIRST_OF_PAIR_FLAG = SAMFlag.FIRST_OF_PAIR.intValue();
+    private static final int SECONDARY_FLAG = SAMFlag.NOT_PRIMARY_ALIGNMENT.intValue();
+    private static final int SUPPLEMENTARY_FLAG = SAMFlag.SUPPLEMENTARY_ALIGNMENT.intValue();
+    private static final int VENDOR_FAILED_FLAG = SAMFlag.READ_FAILS_VENDOR_QUALITY_CHECK.intValue();
+
+    private final long readIndex;
+    private final String name;
+    private final short libraryIndex;
+    private final boolean reverseStrand;
+    private final int referenceIndex;
+    private final int start;
+    private final int assignedReferenceIndex;
+    private final int assignedStart;
+    private final int strandedUnclippedStart;
+    // SAM flags of the read with the duplicate flag cleared
+    private final int flags;
+    private final int mappingQuality;
+    private final int mateReferenceIndex;
+    private final int mateStart;
+    private final int fragmentLength;
+    private final int score;
+
+    private CompactReadEnd(final long readIndex, final String name, final short libraryIndex, final boolean reverseStrand,
+                           final int referenceIndex, final int start, final int assignedReferenceIndex,
+                           final int assignedStart, final int strandedUnclippedStart, final int flags,
+                           final int mappingQuality, final int mateReferenceIndex, final int mateStart,
+                           final int fragmentLength, final int score) {
+        this.readIndex = readIndex;
+        this.name = name;
+        this.libraryIndex = libraryIndex;
+        this.reverseStrand = reverseStrand;
+        this.referenceIndex = referenceIndex;
+        this.start = start;
+        this.assignedReferenceIndex = assignedReferenceIndex;
+        this.assignedStart = assignedStart;
+        this.strandedUnclippedStart = strandedUnclippedStart;
+        this.flags = flags;
+        this.mappingQuality = mappingQuality;
+        this.mateReferenceIndex = mateReferenceIndex;
+        this.mateStart = mateStart;
+        this.fragmentLength = fragmentLength;
+        this.score = score;
+    }
+
+    /**
+     * Projects a read onto its compact record.
+     *
+     * @param header header of the reads
+     * @param libraryIndices library indices as returned by {@link #libraryIndices}
+     * @param scoringStrategy strategy used to score the read
+     * @param readIndex index that identifies the read in its RDD
+     * @param read the read
+     */
+    public static CompactReadEnd of(final SAMFileHeader header, final Map<String, Short> libraryIndices,
+                                    final MarkDuplicatesScoringStrategy scoringStrategy, final long readIndex,
+                                    final GATKRead read) {
+        final String library = ReadUtils.getLibrary(read, header);
+        final boolean paired = read.isPaired();
+        return new CompactReadEnd(
+                readIndex,
+                read.getName(),
+                library != null ? libraryIndices.getOrDefault(library, UNKNOWN_LIBRARY) : UNKNOWN_LIBRARY,
+                read.isReverseStrand(),
+                ReadUtils.getReferenceIndex(read, header),
+                read.getStart(),
+                ReadUtils.getAssignedReferenceIndex(read, header),
+                read.getAssignedStart(),
+                ReadUtils.getStrandedUnclippedStart(read),
+                ReadUtils.getSAMFlagsForRead(read) & ~DUPLICATE_FLAG,
+                read.getMappingQuality(),
+                paired ? ReadUtils.getMateReferenceIndex(read, header) : SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX,
+                paired ? read.getMateStart() : ReadConstants.UNSET_POSITION,
+                read.getFragmentLength(),
+                scoringStrategy.score(read));
+    }
+
+    /**
+     * Assigns an index to each library named in the header, in lexicographical order.
+     */
+    public static Map<String, Short> libraryIndices(final SAMFileHeader header) {
+        final TreeSet<String> libraries = new TreeSet<>();
+        for (final SAMReadGroupRecord readGroup : header.getReadGroups()) {
+            if (readGroup.getLibrary() != null) {
+                libraries.add(readGroup.getLibrary());
+            }
+        }
+        Utils.validateArg(libraries.size() <= Short.MAX_VALUE, "too many libraries in the header");
+        final Map<String, Short> result = new HashMap<>();
+        for (final String library : libraries) {
+            result.put(library, (short) result.size());
+        }
+        return result;
+    }
+
+    public long getReadIndex() { return readIndex; }
+
+    public String getName() { return name; }
+
+    public short getLibraryIndex() { return libraryIndex; }
+
+    public boolean isReverseStrand() { return reverseStrand; }
+
+    public int getReferenceIndex() { return referenceIndex; }
+
+    public int getStrandedUnclippedStart() { return strandedUnclippedStart; }
+
+    public boolean isFirstOfPair() { return (flags & FIRST_OF_PAIR_FLAG) != 0; }
+
+    /**
+     * Same as {@link ReadUtils#readHasMappedMate}.
+     */
+    public boolean hasMappedMate() {
+        return (flags & PAIRED_FLAG) != 0 && (flags & MATE_UNMAPPED_FLAG) == 0;
+    }
+
+    public int getScore() { return score; }
+
+    /**
+     * Same ordering as {@link org.broadinstitute.hellbender.tools.spark.transforms.markduplicates.MarkDuplicatesSparkUtils}'s
+     * GATKOrder on reads whose duplicate flag has been cleared, which is used to pair up the ends of a read pair.
+     */
+    public static final Comparator<CompactReadEnd> PAIRING_ORDER = (lhs, rhs) -> {
+        if (rhs == lhs) return 0;
+        int result = Integer.compare(lhs.referenceIndex, rhs.referenceIndex);
+        if (result != 0) return result;
+        result = Integer.compare(lhs.start, rhs.start);
+        if (result != 0) return result;
+        result = Boolean.compare(lhs.hasFlag(VENDOR_FAILED_FLAG), rhs.hasFlag(VENDOR_FAILED_FLAG));
+        if (result != 0) return result;
+        result = Boolean.compare(lhs.hasFlag(PAIRED_FLAG), rhs.hasFlag(PAIRED_FLAG));
+        if (result != 0) return result;
+        result = Boolean.compare(lhs.hasFlag(PROPER_PAIR_FLAG), rhs.hasFlag(PROPER_PAIR_FLAG));
+        if (result != 0) return result;
+        // first-of-pair sorts before second
+        result = -Boolean.compare(lhs.isFirstOfPair(), rhs.isFirstOfPair());
+        if (result != 0) return result;
+        result = Boolean.compare(lhs.hasFlag(SECONDARY_FLAG), rhs.hasFlag(SECONDARY_FLAG));
+        if (result != 0) return result;
+        result = Boolean.compare(lhs.hasFlag(SUPPLEMENTARY_FLAG), rhs.hasFlag(SUPPLEMENTARY_FLAG));
+        if (result != 0) return result;
+        result = Integer.compare(lhs.mappingQuality, rhs.mappingQuality);
+        if (result != 0) return result;
+        result = Integer.compare(lhs.mateReferenceIndex, rhs.mateReferenceIndex);
+        if (result != 0) return result;
+        return Integer.compare(lhs.mateStart, rhs.mateStart);
+    };
+
+    /**
+     * Same ordering as {@link org.broadinstitute.hellbender.utils.read.ReadCoordinateComparator} on reads whose
+     * duplicate flag has been cleared, which is used to break ties between duplicates with the same score.
+     */
+    public static final Comparator<CompactReadEnd> COORDINATE_ORDER = (first, second) -> {
+        int result;
+        if (first.assignedReferenceIndex == -1) {
+            result = second.assignedReferenceIndex == -1 ? 0 : 1;
+        } else if (second.assignedReferenceIndex == -1) {
+            result = -1;
+        } else {
+            result = first.assignedReferenceIndex - second.assignedReferenceIndex;
+            if (result == 0) {
+                result = Integer.compare(first.assignedStart, second.assignedStart);
+            }
+        }
+        if (result != 0) return result;
+        if (first.reverseStrand != second.reverseStrand) {
+            return first.reverseStrand ? 1 : -1;
+        }
+        if (first.name != null && second.name != null) {
+            result = first.name.compareTo(second.name);
+            if (result != 0) return result;
+        }
+        result = Integer.compare(first.flags, second.flags);
+        if (result != 0) return result;
+        result = Integer.compare(first.mappingQuality, second.mappingQuality);
+        if (result != 0) return result;
+        if (first.hasFlag(PAIRED_FLAG) && second.hasFlag(PAIRED_FLAG)) {
+            result = Integer.compare(first.mateReferenceIndex, second.mateReferenceIndex);
+            if (result != 0) return result;
+            result = Integer.compare(first.mateStart, second.mateStart);
+            if (result != 0) return result;
+        }
+        return Integer.compare(first.fragmentLength, second.fragmentLength);
+    };
+
+    private boolean hasFlag(final int flag) {
+        return (flags & flag) != 0;
+    }
+}
@@ -0,0 +1,85 @@
+package org.broadinstitute.hellbender.utils.read.markduplicates;
+
+import java.io.Serializable;
+
+/**
+ * Fixed-width counterpart of the fragment and paired ends keys of {@link ReadsKey}, built from {@link CompactReadEnd}s.
+ * Two keys are equal if and only if the corresponding {@link ReadsKey} strings would be.
+ */
+public final class CompactReadsKey implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final byte FRAGMENT = 0, PAIRED_ENDS = 1, UNPAIRED_END = 2;
+
+    private final byte type;
+    private final short libraryIndex;
+    private final int referenceIndex1;
+    private final int strandedUnclippedStart1;
+    private final boolean reverseStrand1;
+    private final int referenceIndex2;
+    private final int strandedUnclippedStart2;
+    private final boolean reverseStrand2;
+
+    private CompactReadsKey(final byte type, final CompactReadEnd first, final CompactReadEnd second) {
+        this.type = type;
+        this.libraryIndex = first.getLibraryIndex();
+        this.referenceIndex1 = first.getReferenceIndex();
+        this.strandedUnclippedStart1 = first.getStrandedUnclippedStart();
+        this.reverseStrand1 = first.isReverseStrand();
+        this.referenceIndex2 = second != null ? second.getReferenceIndex() : -1;
+        this.strandedUnclippedStart2 = second != null ? second.getStrandedUnclippedStart() : -1;
+        this.reverseStrand2 = second != null && second.isReverseStrand();
+    }
+
+    /**
+     * Makes a key for the fragment, as {@link ReadsKey#keyForFragment} does.
+     */
+    public static CompactReadsKey keyForFragment(final CompactReadEnd read) {
+        return new CompactReadsKey(FRAGMENT, read, null);
+    }
+
+    /**
+     * Makes a key for the paired reads, as {@link ReadsKey#keyForPairedEnds} does.
+     */
+    public static CompactReadsKey keyForPairedEnds(final CompactReadEnd first, final CompactReadEnd second) {
+        return second == null ? new CompactReadsKey(UNPAIRED_END, first, null) : new CompactReadsKey(PAIRED_ENDS, first, second);
+    }
+
+    /**
+     * Returns true if the key is a fragment key.
+     */
+    public boolean isFragment() {
+        return type == FRAGMENT;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final CompactReadsKey that = (CompactReadsKey) o;
+        return type == that.type && libraryIndex == that.libraryIndex &&
+                referenceIndex1 == that.referenceIndex1 && strandedUnclippedStart1 == that.strandedUnclippedStart1 &&
+                reverseStrand1 == that.reverseStrand1 && referenceIndex2 == that.referenceIndex2 &&
+                strandedUnclippedStart2 == that.strandedUnclippedStart2 && reverseStrand2 == that.reverseStrand2;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = type;
+        result = 31 * result + libraryIndex;
+        result = 31 * result + referenceIndex1;
+        result = 31 * result + strandedUnclippedStart1;
+        result = 31 * result + (reverseStrand1 ? 1 : 0);
+        result = 31 * result + referenceIndex2;
+        result = 31 * result + strandedUnclippedStart2;
+        result = 31 * result + (reverseStrand2 ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactReadsKey{type=" + type + ", library=" + libraryIndex +
+                ", " + referenceIndex1 + ":" + strandedUnclippedStart1 + (reverseStrand1 ? "r" : "f") +
+                ", " + referenceIndex2 + ":" + strandedUnclippedStart2 + (reverseStrand2 ? "r" : "f") + "}";
+    }
+}
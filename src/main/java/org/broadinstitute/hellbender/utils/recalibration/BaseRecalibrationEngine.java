@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.utils.recalibration;
 
 import org.broadinstitute.hellbender.utils.SerializableFunction;
+import com.google.common.collect.Iterables;
 import htsjdk.samtools.Cigar;
 import htsjdk.samtools.CigarElement;
 import htsjdk.samtools.SAMFileHeader;
@@ -25,9 +26,13 @@ import org.broadinstitute.hellbender.utils.recalibration.covariates.Covariate;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.CovariateKeyCache;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.ReadCovariates;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
+import org.broadinstitute.hellbender.utils.variant.MappedKnownSitesIndex;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public final class BaseRecalibrationEngine implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -60,6 +65,14 @@ public final class BaseRecalibrationEngine implements Serializable {
 
     private RecalibrationArgumentCollection recalArgs;
 
+    /**
+     * Counts accumulated by processRead(), only turned into RecalibrationTables when they are needed
+     */
+    private RecalibrationCounts recalCounts;
+
+    /**
+     * The final recalibration tables, null until finalizeData() has been called
+     */
     private RecalibrationTables recalTables;
 
     private SAMFileHeader readsHeader;
@@ -95,11 +108,25 @@ public final class BaseRecalibrationEngine implements Serializable {
         if ( numReadGroups < 1 ) {
             throw new UserException("Number of read groups must be >= 1, but is " + numReadGroups);
         }
-        recalTables = new RecalibrationTables(covariates, numReadGroups);
+        recalCounts = new RecalibrationCounts(covariates, numReadGroups);
         keyCache = new CovariateKeyCache();
         cachedEventTypes = recalArgs.computeIndelBQSRTables ? EventType.values() : new EventType[]{EventType.BASE_SUBSTITUTION};
     }
 
+    /**
+     * Create an engine with the same arguments and header as other, which takes over the data collected by other
+     */
+    private BaseRecalibrationEngine( final BaseRecalibrationEngine other ) {
+        this.recalArgs = other.recalArgs;
+        this.readsHeader = other.readsHeader;
+        this.baq = other.baq;
+        this.covariates = other.covariates;
+        this.recalCounts = other.recalCounts;
+        this.numReadsProcessed = other.numReadsProcessed;
+        this.keyCache = other.keyCache;
+        this.cachedEventTypes = other.cachedEventTypes;
+    }
+
     public void logCovariatesUsed() {
         logger.info("The covariates being used here: ");
         for (final Covariate cov : covariates) { // list all the covariates being used
@@ -112,6 +139,19 @@ public final class BaseRecalibrationEngine implements Serializable {
      * whether or not the base matches the reference at this particular location
      */
     public void processRead( final GATKRead originalRead, final ReferenceDataSource refDS, final Iterable<? extends Locatable> knownSites ) {
+        processRead(originalRead, refDS, knownSites, Collections.emptyList());
+    }
+
+    /**
+     * Same as {@link #processRead(GATKRead, ReferenceDataSource, Iterable)}, but also skips the known sites of the given
+     * indexes that overlap the read.
+     */
+    public void processRead( final GATKRead originalRead, final ReferenceDataSource refDS, final Iterable<? extends Locatable> knownSites,
+                             final List<MappedKnownSitesIndex> knownSitesIndexes ) {
+        // look up the indexed sites by the read as it was given to us, as is done for all other sources of known sites
+        final Iterable<? extends Locatable> allKnownSites = knownSitesIndexes.isEmpty() ? knownSites :
+                Iterables.concat(knownSites, getIndexedKnownSites(originalRead, knownSitesIndexes));
+
         final ReadTransformer transform = makeReadTransform();
         final GATKRead read = transform.apply(originalRead);
 
@@ -134,7 +174,7 @@ public final class BaseRecalibrationEngine implements Serializable {
 
         if( baqArray != null ) { // some reads just can't be BAQ'ed
             final ReadCovariates covariates = RecalUtils.computeCovariates(read, readsHeader, this.covariates, true, keyCache);
-            final boolean[] skip = calculateSkipArray(read, knownSites); // skip known sites of variation as well as low quality and non-regular bases
+            final boolean[] skip = calculateSkipArray(read, allKnownSites); // skip known sites of variation as well as low quality and non-regular bases
             final double[] snpErrors = calculateFractionalErrorArray(isSNP, baqArray);
             final double[] insertionErrors = calculateFractionalErrorArray(isInsertion, baqArray);
             final double[] deletionErrors = calculateFractionalErrorArray(isDeletion, baqArray);
@@ -157,10 +197,42 @@ public final class BaseRecalibrationEngine implements Serializable {
      */
     public void finalizeData() {
         Utils.validate(!finalized, "FinalizeData() has already been called");
+        recalTables = recalCounts.toRecalibrationTables();
         finalizeRecalibrationTables(recalTables);
         finalized = true;
     }
 
+    /**
+     * Add all of the data collected by another engine into this one, so that reads can be processed by several
+     * engines (eg., one per thread) and the results combined before calling finalizeData().
+     *
+     * The other engine must have been created with the same arguments and header as this one, and is not modified.
+     *
+     * @param other engine whose data to add to ours
+     */
+    public void mergeData( final BaseRecalibrationEngine other ) {
+        Utils.nonNull(other);
+        Utils.validate(!finalized && !other.finalized, "Cannot merge data after finalizeData() has been called");
+        recalCounts.add(other.recalCounts);
+        numReadsProcessed += other.numReadsProcessed;
+    }
+
+    /**
+     * Move the data collected so far into a new engine, leaving this one to collect data anew. Since adding up
+     * fractional mismatches depends on the order of the additions, this lets data collected over consecutive batches
+     * of reads, by whichever engines processed them, be merged into another engine in the order of the batches.
+     *
+     * @return engine holding the data collected by this one since it was created or its data was last taken, only
+     *         meant to be passed to {@link #mergeData}
+     */
+    public BaseRecalibrationEngine takeData() {
+        Utils.validate(!finalized, "Cannot take data after finalizeData() has been called");
+        final BaseRecalibrationEngine data = new BaseRecalibrationEngine(this);
+        recalCounts = new RecalibrationCounts(covariates, readsHeader.getReadGroups().size());
+        numReadsProcessed = 0L;
+        return data;
+    }
+
     /**
      * Finalize, if appropriate, all derived data in recalibrationTables.
      *
@@ -208,9 +280,12 @@ public final class BaseRecalibrationEngine implements Serializable {
 
     /**
      * Get a possibly not-final recalibration table, to deal with distributed execution.
+     *
+     * Before finalizeData() has been called, this returns a newly allocated copy of the data collected so far,
+     * which is not updated by further calls to processRead().
      */
     public RecalibrationTables getRecalibrationTables() {
-        return recalTables;
+        return finalized ? recalTables : recalCounts.toRecalibrationTables();
     }
 
     /**
@@ -244,7 +319,6 @@ public final class BaseRecalibrationEngine implements Serializable {
 
         final GATKRead read = recalInfo.getRead();
         final ReadCovariates readCovariates = recalInfo.getCovariatesValues();
-        final NestedIntegerArray<RecalDatum> qualityScoreTable = recalTables.getQualityScoreTable();
 
         final int nCovariates = covariates.size();
         final int nSpecialCovariates = covariates.numberOfSpecialCovariates();
@@ -255,18 +329,18 @@ public final class BaseRecalibrationEngine implements Serializable {
                     final EventType eventType = cachedEventTypes[idx];
                     final int[] keys = readCovariates.getKeySet(offset, eventType);
                     final int eventIndex = eventType.ordinal();
-                    final byte qual = recalInfo.getQual(eventType, offset);
                     final double isError = recalInfo.getErrorFraction(eventType, offset);
 
+                    // Note: the quality score key (key1) is the reported quality of the event
                     final int key0 = keys[0];
                     final int key1 = keys[1];
 
-                    RecalUtils.incrementDatumOrPutIfNecessary3keys(qualityScoreTable, qual, isError, key0, key1, eventIndex);
+                    recalCounts.incrementQualityScoreTable(key0, key1, eventIndex, isError);
 
                     for (int i = nSpecialCovariates; i < nCovariates; i++) {
                         final int keyi = keys[i];
                         if (keyi >= 0) {
-                            RecalUtils.incrementDatumOrPutIfNecessary4keys(recalTables.getTable(i), qual, isError, key0, key1, keyi, eventIndex);
+                            recalCounts.incrementAdditionalTable(i, key0, key1, keyi, eventIndex, isError);
                         }
                     }
                 }
@@ -316,6 +390,19 @@ public final class BaseRecalibrationEngine implements Serializable {
         return read;
     }
 
+    private static List<Locatable> getIndexedKnownSites( final GATKRead read, final List<MappedKnownSitesIndex> knownSitesIndexes ) {
+        if ( !SimpleInterval.isValid(read.getContig(), read.getStart(), read.getEnd()) ) {
+            // reads that do not consume any reference bases (eg. CIGAR 61S90I) don't overlap anything
+            return Collections.emptyList();
+        }
+        final SimpleInterval readInterval = new SimpleInterval(read);
+        final List<Locatable> indexedKnownSites = new ArrayList<>();
+        for ( final MappedKnownSitesIndex knownSitesIndex : knownSitesIndexes ) {
+            indexedKnownSites.addAll(knownSitesIndex.getOverlapping(readInterval));
+        }
+        return indexedKnownSites;
+    }
+
     private boolean[] calculateSkipArray( final GATKRead read, final Iterable<? extends Locatable> knownSites ) {
         final int readLength = read.getLength();
         final boolean[] skip = new boolean[readLength];
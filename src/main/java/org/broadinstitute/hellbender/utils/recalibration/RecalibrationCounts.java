@@ -0,0 +1,212 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Observation and mismatch counts accumulated by the {@link BaseRecalibrationEngine}, held in primitive arrays
+ * rather than in {@link RecalDatum} objects.
+ *
+ * There is one table for the quality score covariate and one for each additional covariate, laid out as in
+ * {@link RecalibrationTables} (the read group table is derived from the quality score table when the data is
+ * finalized, so it is not accumulated here). Each table is divided into blocks, one per read group and reported
+ * quality, which are allocated the first time they are incremented. Within a block, counts are addressed by the
+ * combined key covariateKey * numEventTypes + eventIndex, and only the keys actually counted take up space.
+ *
+ * Mismatches are summed exactly as {@link RecalDatum} sums them, as doubles multiplied by {@link RecalDatum#MULTIPLIER},
+ * so that counting the same observations in the same order gives bit for bit the same tables. Since adding doubles
+ * is not associative, counts that are {@link #add}ed together only give reproducible results if they are always
+ * split up and added in the same order.
+ *
+ * Instances are not thread-safe. To accumulate counts on several threads, give each thread its own instance and
+ * {@link #add} them together at the end.
+ */
+final class RecalibrationCounts implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // index of the quality score table in RecalibrationTables, which comes right after the read group table
+    private static final int QUALITY_SCORE_TABLE = 1;
+
+    private final StandardCovariateList covariates;
+    private final int numReadGroups;
+    private final int qualDimension;
+    private final int eventDimension = EventType.values().length;
+
+    // [table][readGroup * qualDimension + qual]
+    private final Block[][] blocks;
+
+    public RecalibrationCounts( final StandardCovariateList covariates, final int numReadGroups ) {
+        this.covariates = Utils.nonNull(covariates);
+        this.numReadGroups = numReadGroups;
+        this.qualDimension = covariates.getQualityScoreCovariate().maximumKeyValue() + 1;
+
+        blocks = new Block[covariates.size()][];
+        for ( int i = QUALITY_SCORE_TABLE; i < blocks.length; i++ ) {
+            blocks[i] = new Block[numReadGroups * qualDimension];
+        }
+    }
+
+    /**
+     * Count one observation in the quality score table.
+     */
+    public void incrementQualityScoreTable( final int readGroupKey, final int qualKey, final int eventIndex, final double isError ) {
+        increment(QUALITY_SCORE_TABLE, readGroupKey, qualKey, 0, eventIndex, isError);
+    }
+
+    /**
+     * Count one observation in the table of an additional covariate.
+     *
+     * @param tableIndex index of the table in {@link RecalibrationTables} (and of the covariate in the {@link StandardCovariateList})
+     */
+    public void incrementAdditionalTable( final int tableIndex, final int readGroupKey, final int qualKey, final int covariateKey, final int eventIndex, final double isError ) {
+        increment(tableIndex, readGroupKey, qualKey, covariateKey, eventIndex, isError);
+    }
+
+    private void increment( final int tableIndex, final int readGroupKey, final int qualKey, final int covariateKey, final int eventIndex, final double isError ) {
+        final int blockIndex = readGroupKey * qualDimension + qualKey;
+        Block block = blocks[tableIndex][blockIndex];
+        if ( block == null ) {
+            block = blocks[tableIndex][blockIndex] = new Block();
+        }
+        block.add(covariateKey * eventDimension + eventIndex, 1, isError * RecalDatum.MULTIPLIER);
+    }
+
+    /**
+     * Add all of the counts in other into this object
+     *
+     * @param other counts over the same covariates and read groups
+     * @return this object
+     */
+    public RecalibrationCounts add( final RecalibrationCounts other ) {
+        Utils.nonNull(other);
+        Utils.validateArg(other.numReadGroups == numReadGroups && other.covariates.size() == covariates.size(),
+                "Attempting to add RecalibrationCounts with different dimensions");
+
+        for ( int table = QUALITY_SCORE_TABLE; table < blocks.length; table++ ) {
+            for ( int blockIndex = 0; blockIndex < blocks[table].length; blockIndex++ ) {
+                final Block otherBlock = other.blocks[table][blockIndex];
+                if ( otherBlock == null ) {
+                    continue;
+                }
+                if ( blocks[table][blockIndex] == null ) {
+                    blocks[table][blockIndex] = new Block();
+                }
+                final Block block = blocks[table][blockIndex];
+                for ( int slot = 0; slot < otherBlock.keys.length; slot++ ) {
+                    if ( otherBlock.keys[slot] != Block.NO_KEY ) {
+                        block.add(otherBlock.keys[slot], otherBlock.observations[slot], otherBlock.mismatches[slot]);
+                    }
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return newly allocated, not yet finalized, tables holding one {@link RecalDatum} for every combination of
+     *         covariate keys that was counted at least once
+     */
+    public RecalibrationTables toRecalibrationTables() {
+        final RecalibrationTables tables = new RecalibrationTables(covariates, numReadGroups);
+        for ( int table = QUALITY_SCORE_TABLE; table < blocks.length; table++ ) {
+            final NestedIntegerArray<RecalDatum> recalTable = tables.getTable(table);
+            for ( int blockIndex = 0; blockIndex < blocks[table].length; blockIndex++ ) {
+                final Block block = blocks[table][blockIndex];
+                if ( block == null ) {
+                    continue;
+                }
+                final int readGroupKey = blockIndex / qualDimension;
+                final int qualKey = blockIndex % qualDimension;
+                for ( int slot = 0; slot < block.keys.length; slot++ ) {
+                    final int key = block.keys[slot];
+                    if ( key == Block.NO_KEY ) {
+                        continue;
+                    }
+                    // the reported quality of every observation in a block is the quality score key of that block
+                    final RecalDatum datum = RecalDatum.fromScaledCounts(block.observations[slot], block.mismatches[slot], (byte)qualKey);
+                    final int eventIndex = key % eventDimension;
+                    if ( table == QUALITY_SCORE_TABLE ) {
+                        recalTable.put(datum, readGroupKey, qualKey, eventIndex);
+                    } else {
+                        recalTable.put(datum, readGroupKey, qualKey, key / eventDimension, eventIndex);
+                    }
+                }
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * The counts of one block, in an open addressing hash table keyed by the combined key, which grows with the
+     * number of keys counted rather than being sized for every possible key of the covariate.
+     */
+    private static final class Block implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private static final int NO_KEY = -1;
+        private static final int INITIAL_CAPACITY = 16;
+
+        private int[] keys;
+        private long[] observations;
+        // times RecalDatum.MULTIPLIER
+        private double[] mismatches;
+        private int size;
+
+        private Block() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        private void allocate( final int capacity ) {
+            keys = new int[capacity];
+            Arrays.fill(keys, NO_KEY);
+            observations = new long[capacity];
+            mismatches = new double[capacity];
+            size = 0;
+        }
+
+        private void add( final int key, final long numObservations, final double scaledNumMismatches ) {
+            int slot = slotOf(key);
+            if ( keys[slot] == NO_KEY ) {
+                // keep the table at most half full
+                if ( (size + 1) * 2 > keys.length ) {
+                    grow();
+                    slot = slotOf(key);
+                }
+                keys[slot] = key;
+                size++;
+            }
+            observations[slot] += numObservations;
+            mismatches[slot] += scaledNumMismatches;
+        }
+
+        private int slotOf( final int key ) {
+            final int mask = keys.length - 1;
+            final int hash = key * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while ( keys[slot] != NO_KEY && keys[slot] != key ) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            final int[] oldKeys = keys;
+            final long[] oldObservations = observations;
+            final double[] oldMismatches = mismatches;
+            allocate(oldKeys.length * 2);
+            for ( int i = 0; i < oldKeys.length; i++ ) {
+                if ( oldKeys[i] != NO_KEY ) {
+                    final int slot = slotOf(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    observations[slot] = oldObservations[i];
+                    mismatches[slot] = oldMismatches[i];
+                    size++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The base substitution tables of a {@link RecalibrationTables}, precomputed into dense primitive arrays so that
+ * recalibrating a base takes a few array lookups rather than one {@link NestedIntegerArray} lookup per table.
+ *
+ * The recalibrated quality of {@link org.broadinstitute.hellbender.transformers.BQSRReadTransformer#hierarchicalBayesianQualityEstimate}
+ * is a conditional prior that only depends on the read group and the reported quality, plus one delta per additional
+ * covariate that only depends on the read group, the reported quality and the key of that covariate. We compute all of
+ * these once, with the same arithmetic in the same order, so that the recalibrated qualities are bit-identical.
+ */
+public final class RecalibrationLookupTable implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int BASE_SUBSTITUTION_INDEX = EventType.BASE_SUBSTITUTION.ordinal();
+
+    private final int qualDimension;
+
+    // indexed by read group key: whether the read group has any data, and its prior for qualities without any data
+    private final boolean[] hasReadGroup;
+    private final double[] readGroupPriors;
+
+    // indexed by read group key * qualDimension + reported quality
+    private final double[] conditionalPriors;
+
+    // for each additional covariate, indexed by read group key * qualDimension + reported quality: the deltas of the
+    // covariate keys from firstKeys[covariate][row] onwards (0 for keys without any data), or null if there are none
+    private final double[][][] covariateDeltas;
+    private final int[][] firstKeys;
+
+    /**
+     * @param tables recalibration tables
+     * @param globalQScorePrior prior to use instead of the reported quality of each read group, if positive
+     */
+    public RecalibrationLookupTable(final RecalibrationTables tables, final double globalQScorePrior) {
+        Utils.nonNull(tables);
+        final NestedIntegerArray<RecalDatum> readGroupTable = tables.getReadGroupTable();
+        final NestedIntegerArray<RecalDatum> qualityScoreTable = tables.getQualityScoreTable();
+        final int numReadGroups = readGroupTable.getDimensions()[0];
+        qualDimension = qualityScoreTable.getDimensions()[1];
+
+        hasReadGroup = new boolean[numReadGroups];
+        readGroupPriors = new double[numReadGroups];
+        conditionalPriors = new double[numReadGroups * qualDimension];
+        for ( int rgKey = 0; rgKey < numReadGroups; rgKey++ ) {
+            final RecalDatum empiricalQualRG = readGroupTable.get2Keys(rgKey, BASE_SUBSTITUTION_INDEX);
+            if ( empiricalQualRG == null ) {
+                continue;
+            }
+            hasReadGroup[rgKey] = true;
+            final double epsilon = globalQScorePrior > 0.0 ? globalQScorePrior : empiricalQualRG.getEstimatedQReported();
+            final double globalDeltaQ = empiricalQualRG.getEmpiricalQuality(epsilon) - epsilon;
+            readGroupPriors[rgKey] = 0.0 + globalDeltaQ + epsilon;
+            for ( int qual = 0; qual < qualDimension; qual++ ) {
+                final RecalDatum empiricalQualQS = qualityScoreTable.get3Keys(rgKey, qual, BASE_SUBSTITUTION_INDEX);
+                final double deltaQReported = empiricalQualQS == null ? 0.0 : empiricalQualQS.getEmpiricalQuality(globalDeltaQ + epsilon) - (globalDeltaQ + epsilon);
+                conditionalPriors[rgKey * qualDimension + qual] = deltaQReported + globalDeltaQ + epsilon;
+            }
+        }
+
+        final List<NestedIntegerArray<RecalDatum>> additionalTables = tables.getAdditionalTables();
+        covariateDeltas = new double[additionalTables.size()][][];
+        firstKeys = new int[additionalTables.size()][];
+        for ( int covariate = 0; covariate < additionalTables.size(); covariate++ ) {
+            final List<NestedIntegerArray.Leaf<RecalDatum>> leaves = additionalTables.get(covariate).getAllLeaves();
+
+            // find the range of keys with data for each read group and reported quality
+            final int[] firstKey = new int[conditionalPriors.length];
+            final int[] lastKey = new int[conditionalPriors.length];
+            Arrays.fill(firstKey, Integer.MAX_VALUE);
+            Arrays.fill(lastKey, -1);
+            for ( final NestedIntegerArray.Leaf<RecalDatum> leaf : leaves ) {
+                if ( isBaseSubstitutionLeaf(leaf) ) {
+                    final int row = leaf.keys[0] * qualDimension + leaf.keys[1];
+                    firstKey[row] = Math.min(firstKey[row], leaf.keys[2]);
+                    lastKey[row] = Math.max(lastKey[row], leaf.keys[2]);
+                }
+            }
+
+            final double[][] deltas = new double[conditionalPriors.length][];
+            for ( int row = 0; row < deltas.length; row++ ) {
+                if ( lastKey[row] >= 0 ) {
+                    deltas[row] = new double[lastKey[row] - firstKey[row] + 1];
+                }
+            }
+            for ( final NestedIntegerArray.Leaf<RecalDatum> leaf : leaves ) {
+                if ( isBaseSubstitutionLeaf(leaf) ) {
+                    final int row = leaf.keys[0] * qualDimension + leaf.keys[1];
+                    final double conditionalPrior2 = conditionalPriors[row];
+                    deltas[row][leaf.keys[2] - firstKey[row]] = leaf.value.getEmpiricalQuality(conditionalPrior2) - conditionalPrior2;
+                }
+            }
+            covariateDeltas[covariate] = deltas;
+            firstKeys[covariate] = firstKey;
+        }
+    }
+
+    private boolean isBaseSubstitutionLeaf(final NestedIntegerArray.Leaf<RecalDatum> leaf) {
+        return leaf.keys[3] == BASE_SUBSTITUTION_INDEX && hasReadGroup[leaf.keys[0]];
+    }
+
+    /**
+     * @return true if the read group has any recalibration data, i.e., if its reads can be recalibrated
+     */
+    public boolean hasReadGroup(final int rgKey) {
+        return rgKey < hasReadGroup.length && hasReadGroup[rgKey];
+    }
+
+    /**
+     * Same as {@link org.broadinstitute.hellbender.transformers.BQSRReadTransformer#hierarchicalBayesianQualityEstimate}
+     * with the base substitution data of a base with the given keys.
+     *
+     * @param keySet covariate keys of the base: read group, reported quality, and then the additional covariates.
+     *               The read group must be one for which {@link #hasReadGroup} is true.
+     */
+    public double getRecalibratedQuality(final int[] keySet) {
+        final int rgKey = keySet[0];
+        final int qual = keySet[1];
+        if ( qual >= qualDimension ) {
+            return readGroupPriors[rgKey];
+        }
+        final int row = rgKey * qualDimension + qual;
+        double deltaQCovariates = 0.0;
+        for ( int covariate = 0; covariate < covariateDeltas.length; covariate++ ) {
+            final double[] deltas = covariateDeltas[covariate][row];
+            if ( deltas != null ) {
+                final int index = keySet[covariate + 2] - firstKeys[covariate][row];
+                if ( index >= 0 && index < deltas.length ) {
+                    deltaQCovariates += deltas[index];
+                }
+            }
+        }
+        return conditionalPriors[row] + deltaQCovariates;
+    }
+}
@@ -0,0 +1,190 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import org.broadinstitute.hellbender.utils.smithwaterman.SWPairwiseAlignment.OverhangStrategy;
+import org.broadinstitute.hellbender.utils.smithwaterman.SWPairwiseAlignment.Parameters;
+import org.broadinstitute.hellbender.utils.smithwaterman.SWPairwiseAlignment.SWPairwiseAlignmentResult;
+
+import java.util.Arrays;
+
+/**
+ * Smith-Waterman aligner that gives exactly the same alignments as {@link SWPairwiseAlignment} using a fraction of its memory.
+ *
+ * {@link SWPairwiseAlignment} fills two {@code int[][]} matrices of size (reference length + 1) x (alternate length + 1):
+ * the scores and the back track. This aligner runs the same recurrence row by row, but keeps only the two rows of scores
+ * the recurrence needs plus the rightmost column and bottom row used to pick the end of the alignment, and packs the
+ * back track into a single byte per cell of a flat array:
+ *
+ * <ul>
+ *     <li>the two low bits hold the direction of the best step into the cell (diagonal, horizontal or vertical)</li>
+ *     <li>one bit records whether the best horizontal gap into the cell extends the one into the cell to its left</li>
+ *     <li>one bit records whether the best vertical gap into the cell extends the one into the cell above it</li>
+ * </ul>
+ *
+ * The gap lengths that {@link SWPairwiseAlignment} stores in its back track matrix are recovered during the back track
+ * by following the extension bits, which costs the length of the gap and so doesn't change the cost of the back track.
+ */
+public final class CompactSmithWatermanAligner implements SmithWatermanAligner {
+
+    private static final CompactSmithWatermanAligner INSTANCE = new CompactSmithWatermanAligner();
+
+    // never let matrix elements drop below this cutoff, as in SWPairwiseAlignment
+    private static final int MATRIX_MIN_CUTOFF = (int) -1.0e8;
+
+    private static final int LOW_INIT_VALUE = Integer.MIN_VALUE/2;
+
+    private static final byte STEP_DIAGONAL = 0;
+    private static final byte STEP_RIGHT = 1;
+    private static final byte STEP_DOWN = 2;
+    private static final byte STEP_MASK = 3;
+    private static final byte EXTENDS_HORIZONTAL_GAP = 4;
+    private static final byte EXTENDS_VERTICAL_GAP = 8;
+
+    private CompactSmithWatermanAligner() { }
+
+    /**
+     * @return the aligner; it keeps no state between alignments, so it can be shared between threads
+     */
+    public static CompactSmithWatermanAligner getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public SmithWatermanAlignment align(final byte[] reference, final byte[] alternate, final Parameters parameters, final OverhangStrategy overhangStrategy) {
+        SWPairwiseAlignment.validateSequences(reference, alternate);
+
+        // avoid running full Smith-Waterman if there is an exact match of alternate in reference
+        final SWPairwiseAlignmentResult exactMatch = SWPairwiseAlignment.findExactMatch(reference, alternate, overhangStrategy);
+        if ( exactMatch != null ) {
+            return exactMatch;
+        }
+
+        final int nrow = reference.length + 1;
+        final int ncol = alternate.length + 1;
+        final byte[] btrack = new byte[nrow * ncol];
+        final int[] lastColumn = new int[nrow];
+        final int[] bottomRow = calculateMatrix(reference, alternate, parameters, overhangStrategy, btrack, lastColumn);
+
+        return SWPairwiseAlignment.calculateCigar(lastColumn, bottomRow, (i, j) -> backTrack(btrack, ncol, i, j), overhangStrategy);
+    }
+
+    /**
+     * Runs the recurrence of {@link SWPairwiseAlignment}, recording the packed back track of every cell and the
+     * scores of the rightmost column
+     *
+     * @param reference  ref sequence
+     * @param alternate  alt sequence
+     * @param parameters the SW parameters to use
+     * @param overhangStrategy    the strategy to use for dealing with overhangs
+     * @param btrack     the (reference length + 1) x (alternate length + 1) row-major back track to populate
+     * @param lastColumn the (reference length + 1) scores of the rightmost column to populate
+     * @return the scores of the bottom-most row
+     */
+    private static int[] calculateMatrix(final byte[] reference, final byte[] alternate, final Parameters parameters,
+                                         final OverhangStrategy overhangStrategy, final byte[] btrack, final int[] lastColumn) {
+        final int nrow = reference.length + 1;
+        final int ncol = alternate.length + 1;
+
+        //field access is pricey if done enough times so we extract those out
+        final int w_open = parameters.w_open;
+        final int w_extend = parameters.w_extend;
+        final int w_match = parameters.w_match;
+        final int w_mismatch = parameters.w_mismatch;
+
+        final int[] best_gap_v = new int[ncol];
+        Arrays.fill(best_gap_v, LOW_INIT_VALUE);
+
+        int[] lastRow = new int[ncol];
+        int[] curRow = new int[ncol];
+
+        // we need to initialize the edges with gap penalties if we want to keep track of indels at the edges of alignments
+        final boolean penalizeOverhangs = overhangStrategy == OverhangStrategy.INDEL || overhangStrategy == OverhangStrategy.LEADING_INDEL;
+        if ( penalizeOverhangs ) {
+            lastRow[1] = w_open;
+            for ( int j = 2; j < ncol; j++ ) {
+                lastRow[j] = lastRow[j-1] + w_extend;
+            }
+        }
+        lastColumn[0] = lastRow[ncol-1];
+
+        int firstColumnValue = 0;
+        for ( int i = 1; i < nrow; i++ ) {
+            final byte a_base = reference[i-1];
+            if ( penalizeOverhangs ) {
+                firstColumnValue = i == 1 ? w_open : firstColumnValue + w_extend;
+            }
+            curRow[0] = firstColumnValue;
+
+            final int rowOffset = i * ncol;
+            int best_gap_h = LOW_INIT_VALUE;
+            for ( int j = 1; j < ncol; j++ ) {
+                final int step_diag = lastRow[j-1] + (a_base == alternate[j-1] ? w_match : w_mismatch);
+                int flags = 0;
+
+                // see SWPairwiseAlignment.calculateMatrix for the details of the gap recurrences; we only need to
+                // remember whether the best gap into this cell was opened here or extends the one into the previous cell
+                int prev_gap = lastRow[j] + w_open;
+                best_gap_v[j] += w_extend;
+                if ( prev_gap > best_gap_v[j] ) {
+                    best_gap_v[j] = prev_gap;
+                } else {
+                    flags |= EXTENDS_VERTICAL_GAP;
+                }
+                final int step_down = best_gap_v[j];
+
+                prev_gap = curRow[j-1] + w_open;
+                best_gap_h += w_extend;
+                if ( prev_gap > best_gap_h ) {
+                    best_gap_h = prev_gap;
+                } else {
+                    flags |= EXTENDS_HORIZONTAL_GAP;
+                }
+                final int step_right = best_gap_h;
+
+                //priority here will be step diagonal, step right, step down
+                if ( step_diag >= step_down && step_diag >= step_right ) {
+                    curRow[j] = Math.max(MATRIX_MIN_CUTOFF, step_diag);
+                    flags |= STEP_DIAGONAL;
+                } else if ( step_right >= step_down ) {
+                    curRow[j] = Math.max(MATRIX_MIN_CUTOFF, step_right);
+                    flags |= STEP_RIGHT;
+                } else {
+                    curRow[j] = Math.max(MATRIX_MIN_CUTOFF, step_down);
+                    flags |= STEP_DOWN;
+                }
+                btrack[rowOffset + j] = (byte) flags;
+            }
+            lastColumn[i] = curRow[ncol-1];
+
+            final int[] tmp = lastRow;
+            lastRow = curRow;
+            curRow = tmp;
+        }
+        return lastRow;
+    }
+
+    /**
+     * Decodes the back track of a cell into the encoding of {@link SWPairwiseAlignment.BackTrack}, recovering the
+     * length of a gap by walking back along it until the cell where it was opened
+     */
+    private static int backTrack(final byte[] btrack, final int ncol, final int row, final int column) {
+        final int cell = row * ncol + column;
+        switch ( btrack[cell] & STEP_MASK ) {
+            case STEP_RIGHT: {
+                int length = 1;
+                while ( (btrack[cell - length + 1] & EXTENDS_HORIZONTAL_GAP) != 0 ) {
+                    length++;
+                }
+                return -length;
+            }
+            case STEP_DOWN: {
+                int length = 1;
+                while ( (btrack[cell - (length - 1) * ncol] & EXTENDS_VERTICAL_GAP) != 0 ) {
+                    length++;
+                }
+                return length;
+            }
+            default:
+                return 0;
+        }
+    }
+}
@@ -21,7 +21,7 @@ import java.util.List;
  * ****  This class assumes that all bytes come from UPPERCASED chars! ****
  * ************************************************************************
  */
-public final class SWPairwiseAlignment {
+public final class SWPairwiseAlignment implements SmithWatermanAlignment {
 
     /**
      * Holds the core Smith-Waterman alignment parameters of
@@ -159,8 +159,12 @@ public final class SWPairwiseAlignment {
         this(seq1,seq2,ORIGINAL_DEFAULT);
     }
 
+    @Override
     public Cigar getCigar() { return alignmentResult.cigar ; }
 
+    @Override
+    public int getAlignmentOffset() { return alignmentResult.alignment_offset; }
+
     public int getAlignmentStart2wrt1() { return alignmentResult.alignment_offset; }
 
     /**
@@ -170,24 +174,12 @@ public final class SWPairwiseAlignment {
      * @param alternate  alt sequence
      */
     private void align(final byte[] reference, final byte[] alternate) {
-        if ( reference == null || reference.length == 0 || alternate == null || alternate.length == 0 )
-            throw new IllegalArgumentException("Non-null, non-empty sequences are required for the Smith-Waterman calculation");
+        validateSequences(reference, alternate);
 
         // avoid running full Smith-Waterman if there is an exact match of alternate in reference
-        int matchIndex = -1;
-        if (overhangStrategy == OverhangStrategy.SOFTCLIP || overhangStrategy == OverhangStrategy.IGNORE) {
-            // Use a substring search to find an exact match of the alternate in the reference
-            // NOTE: This approach only works for SOFTCLIP and IGNORE overhang strategies
-            matchIndex = Utils.lastIndexOf(reference, alternate);
-        }
+        alignmentResult = findExactMatch(reference, alternate, overhangStrategy);
 
-        if (matchIndex != -1) {
-            // generate the alignment result when the substring search was successful
-            final List<CigarElement> lce = new ArrayList<>(alternate.length);
-            lce.add(makeElement(State.MATCH, alternate.length));
-            alignmentResult = new SWPairwiseAlignmentResult(AlignmentUtils.consolidateCigar(new Cigar(lce)), matchIndex);
-        }
-        else {
+        if ( alignmentResult == null ) {
             // run full Smith-Waterman
             final int n = reference.length+1;
             final int m = alternate.length+1;
@@ -198,8 +190,45 @@ public final class SWPairwiseAlignment {
             final int[][] btrack=new int[n][m];
 
             calculateMatrix(reference, alternate, sw, btrack);
-            alignmentResult = calculateCigar(sw, btrack, overhangStrategy); // length of the segment (continuous matches, insertions or deletions)
+
+            final int[] lastColumn = new int[n];
+            for ( int i = 0; i < n; i++ ) {
+                lastColumn[i] = sw[i][m-1];
+            }
+            alignmentResult = calculateCigar(lastColumn, sw[n-1], (i, j) -> btrack[i][j], overhangStrategy); // length of the segment (continuous matches, insertions or deletions)
+        }
+    }
+
+    static void validateSequences(final byte[] reference, final byte[] alternate) {
+        if ( reference == null || reference.length == 0 || alternate == null || alternate.length == 0 )
+            throw new IllegalArgumentException("Non-null, non-empty sequences are required for the Smith-Waterman calculation");
+    }
+
+    /**
+     * Uses a substring search to find an exact match of the alternate in the reference, which makes running the
+     * full Smith-Waterman unnecessary.
+     *
+     * NOTE: This approach only works for SOFTCLIP and IGNORE overhang strategies
+     *
+     * @param reference  ref sequence
+     * @param alternate  alt sequence
+     * @param overhangStrategy    the strategy to use for dealing with overhangs
+     * @return the alignment of the exact match, or {@code null} if there is no exact match or the overhang strategy doesn't allow this shortcut
+     */
+    static SWPairwiseAlignmentResult findExactMatch(final byte[] reference, final byte[] alternate, final OverhangStrategy overhangStrategy) {
+        if ( overhangStrategy != OverhangStrategy.SOFTCLIP && overhangStrategy != OverhangStrategy.IGNORE ) {
+            return null;
+        }
+
+        final int matchIndex = Utils.lastIndexOf(reference, alternate);
+        if ( matchIndex == -1 ) {
+            return null;
         }
+
+        // generate the alignment result when the substring search was successful
+        final List<CigarElement> lce = new ArrayList<>(alternate.length);
+        lce.add(makeElement(State.MATCH, alternate.length));
+        return new SWPairwiseAlignmentResult(AlignmentUtils.consolidateCigar(new Cigar(lce)), matchIndex);
     }
 
     /**
@@ -350,29 +379,45 @@ public final class SWPairwiseAlignment {
     /*
      * Class to store the result of calculating the CIGAR from the back track matrix
      */
-    private static final class SWPairwiseAlignmentResult {
+    static final class SWPairwiseAlignmentResult implements SmithWatermanAlignment {
         public final Cigar cigar;
         public final int alignment_offset;
         SWPairwiseAlignmentResult(final Cigar cigar, final int alignment_offset) {
             this.cigar = cigar;
             this.alignment_offset = alignment_offset;
         }
+
+        @Override
+        public Cigar getCigar() { return cigar; }
+
+        @Override
+        public int getAlignmentOffset() { return alignment_offset; }
+    }
+
+    /**
+     * Access to the back track matrix, with the entries encoded as in {@link #calculateMatrix}: 0 for a step along
+     * the diagonal, -k for a horizontal step (insertion) of length k and k for a vertical step (deletion) of length k
+     */
+    @FunctionalInterface
+    interface BackTrack {
+        int get(final int row, final int column);
     }
 
     /**
      * Calculates the CIGAR for the alignment from the back track matrix
      *
-     * @param sw                   the Smith-Waterman matrix to use
+     * @param lastColumn           the rightmost column of the Smith-Waterman matrix
+     * @param bottomRow            the bottom-most row of the Smith-Waterman matrix
      * @param btrack               the back track matrix to use
      * @param overhangStrategy    the strategy to use for dealing with overhangs
      * @return non-null SWPairwiseAlignmentResult object
      */
-    private SWPairwiseAlignmentResult calculateCigar(final int[][] sw, final int[][] btrack, final OverhangStrategy overhangStrategy) {
+    static SWPairwiseAlignmentResult calculateCigar(final int[] lastColumn, final int[] bottomRow, final BackTrack btrack, final OverhangStrategy overhangStrategy) {
         // p holds the position we start backtracking from; we will be assembling a cigar in the backwards order
         int p1 = 0, p2 = 0;
 
-        final int refLength = sw.length-1;
-        final int altLength = sw[0].length-1;
+        final int refLength = lastColumn.length-1;
+        final int altLength = bottomRow.length-1;
 
         int maxscore = Integer.MIN_VALUE; // sw scores are allowed to be negative
         int segment_length = 0; // length of the segment (continuous matches, insertions or deletions)
@@ -388,8 +433,8 @@ public final class SWPairwiseAlignment {
             //excluding high scoring local alignments
             p2=altLength;
 
-            for(int i=1;i<sw.length;i++)  {
-               final int curScore = sw[i][altLength];
+            for(int i=1;i<lastColumn.length;i++)  {
+               final int curScore = lastColumn[i];
                if (curScore >= maxscore ) {
                     p1 = i;
                     maxscore = curScore;
@@ -397,7 +442,6 @@ public final class SWPairwiseAlignment {
             }
             // now look for a larger score on the bottom-most row
             if ( overhangStrategy != OverhangStrategy.LEADING_INDEL ) {
-                final int[] bottomRow=sw[refLength];
                 for ( int j = 1 ; j < bottomRow.length; j++) {
                     final int curScore=bottomRow[j];
                     // data_offset is the offset of [n][j]
@@ -422,7 +466,7 @@ public final class SWPairwiseAlignment {
 
         State state = State.MATCH;
         do {
-            final int btr = btrack[p1][p2];
+            final int btr = btrack.get(p1, p2);
             final State new_state;
             int step_length = 1;
             if ( btr > 0 ) {
@@ -486,7 +530,7 @@ public final class SWPairwiseAlignment {
         return new SWPairwiseAlignmentResult(AlignmentUtils.consolidateCigar(new Cigar(lce)), alignment_offset);
     }
 
-    private static CigarElement makeElement(final State state, final int length) {
+    static CigarElement makeElement(final State state, final int length) {
         CigarOperator op = null;
         switch (state) {
             case MATCH: op = CigarOperator.M; break;
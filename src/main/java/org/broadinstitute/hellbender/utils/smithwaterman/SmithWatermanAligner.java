@@ -0,0 +1,46 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import org.broadinstitute.hellbender.utils.smithwaterman.SWPairwiseAlignment.OverhangStrategy;
+import org.broadinstitute.hellbender.utils.smithwaterman.SWPairwiseAlignment.Parameters;
+
+/**
+ * Interface for Smith-Waterman aligners of an alternate sequence against a reference sequence.
+ *
+ * All implementations must produce exactly the same alignment as {@link SWPairwiseAlignment}, so that they can be
+ * swapped for one another without changing the output of the tools that use them. As for {@link SWPairwiseAlignment},
+ * all bytes are assumed to come from UPPERCASED chars.
+ */
+@FunctionalInterface
+public interface SmithWatermanAligner {
+
+    /**
+     * Aligns the alternate sequence to the reference sequence
+     *
+     * @param reference  ref sequence, must be non-null and non-empty
+     * @param alternate  alt sequence, must be non-null and non-empty
+     * @param parameters the SW parameters to use
+     * @param overhangStrategy the strategy to use for the parts of the sequences that overhang one another
+     * @return the alignment of alternate to reference, never {@code null}
+     */
+    SmithWatermanAlignment align(final byte[] reference, final byte[] alternate, final Parameters parameters, final OverhangStrategy overhangStrategy);
+
+    enum Implementation {
+        /* The reference implementation, which keeps the full score and back track matrices of the alignment */
+        FULL_MATRIX(SWPairwiseAlignment::new),
+        /* Keeps only two rows of scores and a single byte of back track information per cell. Gives identical results to FULL_MATRIX */
+        COMPACT(CompactSmithWatermanAligner.getInstance());
+
+        private final SmithWatermanAligner aligner;
+
+        Implementation(final SmithWatermanAligner aligner) {
+            this.aligner = aligner;
+        }
+
+        /**
+         * @return the aligner for this implementation. Aligners are stateless, so the returned aligner can be shared between threads
+         */
+        public SmithWatermanAligner getAligner() {
+            return aligner;
+        }
+    }
+}
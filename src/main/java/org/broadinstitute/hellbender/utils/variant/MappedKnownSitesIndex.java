@@ -0,0 +1,272 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import htsjdk.samtools.util.Locatable;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The positions of a set of known sites (e.g., dbSNP), memory-mapped from a file written by {@link #write}, and queried
+ * in place by binary search rather than parsed from a VCF onto the heap. Every process on a machine that maps the same
+ * file shares its pages.
+ *
+ * Only the start and end of each site are kept, which is all that BQSR needs to skip known sites of variation.
+ * Sites that share both their start and end are stored once.
+ *
+ * The file is little-endian: a magic number (long), the length of the contig table in bytes (int), and the contig
+ * table, which has the number of contigs (int), and for each contig its name (length as an int, then UTF-8 bytes),
+ * its number of sites (int) and the position of its data in the file (long). The data of each contig is the starts of
+ * its sites in increasing order (ints), the ends of the same sites (ints), and then, for each consecutive bucket of
+ * {@link #BUCKET_SIZE} sites, the greatest end of the sites in that bucket or any before it (ints), which lets a query
+ * skip straight to the first site that might reach it. The file must be on a local file system wherever it is read.
+ */
+public final class MappedKnownSitesIndex {
+
+    public static final String KNOWN_SITES_INDEX_EXTENSION = ".ksi";
+    static final long MAGIC = 0x3153455449534e4bL; // "KNSITES1" when read as bytes
+    static final int BUCKET_SIZE = 64;
+
+    private final Map<String, ContigSites> contigToSites;
+
+    private MappedKnownSitesIndex( final Map<String, ContigSites> contigToSites ) {
+        this.contigToSites = contigToSites;
+    }
+
+    public static boolean isKnownSitesIndexFile( final String path ) {
+        return path.endsWith(KNOWN_SITES_INDEX_EXTENSION);
+    }
+
+    /**
+     * Map an index of known sites, which must be on a local file system.
+     */
+    public static MappedKnownSitesIndex map( final String path ) {
+        Utils.nonNull(path);
+        final Path indexPath = IOUtils.getPath(path);
+        try ( final FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ) ) {
+            final ByteBuffer prefix = readFully(channel, 0, Long.BYTES + Integer.BYTES);
+            if ( prefix == null || prefix.getLong() != MAGIC ) {
+                throw new UserException.BadInput("File " + path + " is not a known sites index");
+            }
+            final ByteBuffer table = readFully(channel, prefix.capacity(), prefix.getInt());
+            if ( table == null ) {
+                throw new UserException.MalformedFile("Known sites index " + path + " is truncated");
+            }
+
+            final int numContigs = table.getInt();
+            final Map<String, ContigSites> contigToSites = new HashMap<>(2 * numContigs);
+            for ( int i = 0; i < numContigs; i++ ) {
+                final byte[] name = new byte[table.getInt()];
+                table.get(name);
+                final int numSites = table.getInt();
+                final long position = table.getLong();
+                final long sitesBytes = (long) numSites * Integer.BYTES;
+                final int numBuckets = numBuckets(numSites);
+                if ( position + 2 * sitesBytes + (long) numBuckets * Integer.BYTES > channel.size() ) {
+                    throw new UserException.MalformedFile("Known sites index " + path + " is truncated");
+                }
+                contigToSites.put(new String(name, StandardCharsets.UTF_8), new ContigSites(
+                        mapInts(channel, position, numSites),
+                        mapInts(channel, position + sitesBytes, numSites),
+                        mapInts(channel, position + 2 * sitesBytes, numBuckets)));
+            }
+            return new MappedKnownSitesIndex(contigToSites);
+        } catch ( final UnsupportedOperationException e ) {
+            throw new UserException.CouldNotReadInputFile(indexPath, "The file must be on a local file system to be memory-mapped", e);
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(indexPath, "Could not map the file", e);
+        }
+    }
+
+    /**
+     * @return the length bytes of the file from the given position on, or null if the file ends before that
+     */
+    private static ByteBuffer readFully( final FileChannel channel, final long position, final int length ) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while ( buffer.hasRemaining() ) {
+            if ( channel.read(buffer, position + buffer.position()) < 0 ) {
+                return null;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static IntBuffer mapInts( final FileChannel channel, final long position, final int length ) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, (long) length * Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static int numBuckets( final int numSites ) {
+        return (numSites + BUCKET_SIZE - 1) / BUCKET_SIZE;
+    }
+
+    /**
+     * Returns the known sites that overlap the query. Only their positions are known, so none of them is reported as
+     * a SNP or an indel. You may modify the returned list.
+     */
+    public List<GATKVariant> getOverlapping( final SimpleInterval query ) {
+        Utils.nonNull(query);
+        final ContigSites sites = contigToSites.get(query.getContig());
+        if ( sites == null ) {
+            return new ArrayList<>();
+        }
+        final List<GATKVariant> overlapping = new ArrayList<>();
+        final int numSites = sites.starts.limit();
+        for ( int idx = sites.firstPotentiallyReaching(query.getStart()); idx < numSites; idx++ ) {
+            final int start = sites.starts.get(idx);
+            // sorted by start, so none of the rest overlap either
+            if ( start > query.getEnd() ) {
+                break;
+            }
+            final int end = sites.ends.get(idx);
+            if ( end >= query.getStart() ) {
+                overlapping.add(new MinimalVariant(new SimpleInterval(query.getContig(), start, end), false, false));
+            }
+        }
+        return overlapping;
+    }
+
+    private static final class ContigSites {
+        private final IntBuffer starts;
+        private final IntBuffer ends;
+        private final IntBuffer reach;
+
+        private ContigSites( final IntBuffer starts, final IntBuffer ends, final IntBuffer reach ) {
+            this.starts = starts;
+            this.ends = ends;
+            this.reach = reach;
+        }
+
+        // index of the first site of the first bucket that reaches the position, or the number of sites if none does
+        private int firstPotentiallyReaching( final int position ) {
+            int lo = 0;
+            int hi = reach.limit();
+            while ( lo < hi ) {
+                final int mid = (lo + hi) >>> 1;
+                if ( reach.get(mid) < position ) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo == reach.limit() ? starts.limit() : lo * BUCKET_SIZE;
+        }
+    }
+
+    /**
+     * Collects the positions of known sites for {@link #write}
+     */
+    public static final class Builder {
+        private final Map<String, ContigBuilder> contigToSites = new HashMap<>();
+
+        public void add( final Locatable site ) {
+            Utils.nonNull(site);
+            contigToSites.computeIfAbsent(site.getContig(), contig -> new ContigBuilder()).add(site.getStart(), site.getEnd());
+        }
+    }
+
+    private static final class ContigBuilder {
+        // start in the high int and end in the low int of each long, so that they sort by start and then end
+        private long[] sites = new long[1024];
+        private int size = 0;
+
+        private void add( final int start, final int end ) {
+            if ( size == sites.length ) {
+                sites = Arrays.copyOf(sites, 2 * size);
+            }
+            sites[size++] = ((long) start << 32) | (end & 0xffffffffL);
+        }
+
+        // sort the sites and remove duplicates, in place
+        private void sortDistinct() {
+            Arrays.sort(sites, 0, size);
+            int distinct = 0;
+            for ( int i = 0; i < size; i++ ) {
+                if ( distinct == 0 || sites[i] != sites[distinct - 1] ) {
+                    sites[distinct++] = sites[i];
+                }
+            }
+            size = distinct;
+        }
+    }
+
+    /**
+     * Write the positions of the sites collected by a {@link Builder} to a local file.
+     *
+     * @return number of distinct sites written
+     */
+    public static long write( final String path, final Builder sites ) {
+        Utils.nonNull(path);
+        Utils.nonNull(sites);
+        final List<String> contigs = new ArrayList<>(sites.contigToSites.keySet());
+        contigs.sort(null);
+
+        int tableBytes = Integer.BYTES;
+        for ( final String contig : contigs ) {
+            sites.contigToSites.get(contig).sortDistinct();
+            tableBytes += 2 * Integer.BYTES + contig.getBytes(StandardCharsets.UTF_8).length + Long.BYTES;
+        }
+
+        final ByteBuffer prefix = ByteBuffer.allocate(Long.BYTES + Integer.BYTES + tableBytes).order(ByteOrder.LITTLE_ENDIAN);
+        prefix.putLong(MAGIC).putInt(tableBytes).putInt(contigs.size());
+        long position = prefix.capacity();
+        for ( final String contig : contigs ) {
+            final byte[] name = contig.getBytes(StandardCharsets.UTF_8);
+            final int size = sites.contigToSites.get(contig).size;
+            prefix.putInt(name.length).put(name).putInt(size).putLong(position);
+            position += (2L * size + numBuckets(size)) * Integer.BYTES;
+        }
+        prefix.flip();
+
+        long numSites = 0;
+        try ( final FileChannel channel = FileChannel.open(IOUtils.getPath(path), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE) ) {
+            writeFully(channel, prefix);
+            for ( final String contig : contigs ) {
+                final ContigBuilder contigSites = sites.contigToSites.get(contig);
+                final int size = contigSites.size;
+                final ByteBuffer data = ByteBuffer.allocate((2 * size + numBuckets(size)) * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                for ( int i = 0; i < size; i++ ) {
+                    data.putInt((int) (contigSites.sites[i] >>> 32));
+                }
+                for ( int i = 0; i < size; i++ ) {
+                    data.putInt((int) contigSites.sites[i]);
+                }
+                int reach = Integer.MIN_VALUE;
+                for ( int i = 0; i < size; i++ ) {
+                    reach = Math.max(reach, (int) contigSites.sites[i]);
+                    if ( i % BUCKET_SIZE == BUCKET_SIZE - 1 || i == size - 1 ) {
+                        data.putInt(reach);
+                    }
+                }
+                data.flip();
+                writeFully(channel, data);
+                numSites += size;
+            }
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotCreateOutputFile(path, "could not write the known sites index", e);
+        }
+        return numSites;
+    }
+
+    private static void writeFully( final FileChannel channel, final ByteBuffer buffer ) throws IOException {
+        while ( buffer.hasRemaining() ) {
+            channel.write(buffer);
+        }
+    }
+}
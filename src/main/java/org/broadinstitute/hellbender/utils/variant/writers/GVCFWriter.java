@@ -4,8 +4,11 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeMap;
 import com.google.common.collect.TreeRangeMap;
+import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypeBuilder;
 import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.VCFConstants;
 import htsjdk.variant.vcf.VCFHeader;
@@ -16,6 +19,8 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static htsjdk.variant.vcf.VCFConstants.MAX_GENOTYPE_QUAL;
@@ -28,6 +33,9 @@ public final class GVCFWriter implements VariantContextWriter {
     /** Where we'll ultimately write our VCF records */
     private final VariantContextWriter underlyingWriter;
 
+    /** Source of the VariantContexts that start the blocks made from {@link HomRefSites} */
+    private static final String HOM_REF_SITES_SOURCE = "GVCF";
+
     private final RangeMap<Integer, Range<Integer>> gqPartitions;
     private final int defaultPloidy;
 
@@ -181,6 +189,13 @@ public final class GVCFWriter implements VariantContextWriter {
                 && (currentBlock.getMinPLs() == null || !g.hasPL() || (currentBlock.getMinPLs().length == g.getPL().length));
     }
 
+    private boolean siteCanBeMergedInCurrentBlock(final int gq, final int ploidy, final int[] pls) {
+        return currentBlock != null
+                && currentBlock.withinBounds(Math.min(gq, MAX_GENOTYPE_QUAL))
+                && currentBlock.getPloidy() == ploidy
+                && (currentBlock.getMinPLs() == null || currentBlock.getMinPLs().length == pls.length);
+    }
+
     /**
      * Flush the current hom-ref block, if necessary, to the underlying writer, and reset the currentBlock to null
      */
@@ -214,6 +229,33 @@ public final class GVCFWriter implements VariantContextWriter {
         return block;
     }
 
+    /**
+     * Helper function to create a new HomRefBlock starting at one of a run of hom-ref sites
+     *
+     * @param sites the run of hom-ref sites
+     * @param site the index of the site at which we want to start the band
+     * @return a newly allocated and initialized block containing the site already
+     */
+    private HomRefBlock createNewBlock(final HomRefSites sites, final int site) {
+        final int gq = Math.min(sites.getGQ(site), MAX_GENOTYPE_QUAL);
+        final Range<Integer> partition = gqPartitions.get(gq);
+        final int position = sites.getStart() + site;
+
+        if( partition == null) {
+            throw new GATKException("GQ " + sites.getGQ(site) + " at " + sites.getContig() + ":" + position + " didn't fit into any partition");
+        }
+
+        // only the first site of a block needs a VariantContext, for the alleles and location of the block
+        final Allele refAllele = Allele.create(sites.getRefBase(site), true);
+        final VariantContext startingVC = new VariantContextBuilder(HOM_REF_SITES_SOURCE, sites.getContig(), position, position,
+                Arrays.asList(refAllele, GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE))
+                .genotypes(new GenotypeBuilder(sites.getSampleName(), Collections.nCopies(sites.getPloidy(), refAllele)).make())
+                .make();
+        final HomRefBlock block = new HomRefBlock(startingVC, partition.lowerEndpoint(), partition.upperEndpoint(), defaultPloidy);
+        block.add(position, sites.getGQ(site), sites.getDP(site), sites.getPL(site));
+        return block;
+    }
+
     /**
      * Add a VariantContext to this writer for emission
      *
@@ -252,4 +294,47 @@ public final class GVCFWriter implements VariantContextWriter {
         }
 
     }
+
+    /**
+     * Add a run of hom-ref sites to this writer for emission
+     *
+     * The sites are folded into hom-ref blocks exactly as if each of them had been added with {@link #add(VariantContext)}
+     * as a hom-ref VariantContext with a &lt;NON_REF&gt; allele, but without making a VariantContext per site.
+     *
+     * @param sites a non-null run of hom-ref sites
+     */
+    public void add(final HomRefSites sites) {
+        Utils.nonNull(sites);
+
+        if (sampleName == null) {
+            sampleName = sites.getSampleName();
+        }
+
+        final String contig = sites.getContig();
+        for (int site = 0; site < sites.size(); site++) {
+            final int position = sites.getStart() + site;
+            if (currentBlock != null && (position != currentBlock.getEnd() + 1 || !contig.equals(currentBlock.getContig()))) {
+                // we've made a non-contiguous step (across interval, onto another chr), so finalize
+                emitCurrentBlock();
+            }
+
+            if (nextAvailableStart != -1) {
+                // don't create blocks while the hom-ref site falls before nextAvailableStart (for deletions)
+                if (position <= nextAvailableStart && contig.equals(contigOfNextAvailableStart)) {
+                    continue;
+                }
+                // otherwise, reset to non-relevant
+                nextAvailableStart = -1;
+                contigOfNextAvailableStart = null;
+            }
+
+            final int[] pls = sites.getPL(site);
+            if (siteCanBeMergedInCurrentBlock(sites.getGQ(site), sites.getPloidy(), pls)) {
+                currentBlock.add(position, sites.getGQ(site), sites.getDP(site), pls);
+            } else {
+                emitCurrentBlock();
+                currentBlock = createNewBlock(sites, site);
+            }
+        }
+    }
 }
@@ -102,18 +102,32 @@ final class HomRefBlock implements Locatable {
     public void add(final int pos, final Genotype genotype) {
         Utils.nonNull(genotype, "genotype cannot be null");
         if ( ! genotype.hasPL() ) { throw new IllegalArgumentException("genotype must have PL field");}
-        if ( pos != end + 1 ) { throw new IllegalArgumentException("adding genotype at pos " + pos + " isn't contiguous with previous end " + end); }
         if ( genotype.getPloidy() != ploidy) { throw new IllegalArgumentException("cannot add a genotype with a different ploidy: " + genotype.getPloidy() + " != " + ploidy); }
+        add(pos, genotype.getGQ(), genotype.getDP(), genotype.getPL());
+    }
+
+    /**
+     * Add a hom-ref genotype of this band's ploidy, given by its GQ, DP and PLs, to this band.
+     *
+     * Treats GQ values > 99 as 99.
+     *
+     * @param pos Current genomic position. Must be 1 base after the previous position
+     * @param gq genotype quality
+     * @param dp depth (negative values are treated as 0)
+     * @param pls non-null genotype likelihoods. The array may be kept by this band, and modified.
+     */
+    public void add(final int pos, final int gq, final int dp, final int[] pls) {
+        Utils.nonNull(pls, "pls cannot be null");
+        if ( pos != end + 1 ) { throw new IllegalArgumentException("adding genotype at pos " + pos + " isn't contiguous with previous end " + end); }
         // Make sure the GQ is within the bounds of this band. Treat GQs > 99 as 99.
-        if ( !withinBounds(Math.min(genotype.getGQ(), VCFConstants.MAX_GENOTYPE_QUAL))) {
-            throw new IllegalArgumentException("cannot add a genotype with GQ=" + genotype.getGQ() + " because it's not within bounds ["
+        if ( !withinBounds(Math.min(gq, VCFConstants.MAX_GENOTYPE_QUAL))) {
+            throw new IllegalArgumentException("cannot add a genotype with GQ=" + gq + " because it's not within bounds ["
                     + this.getGQLowerBound() + ',' + this.getGQUpperBound() + ')');
         }
 
         if( minPLs == null ) {
-            minPLs = genotype.getPL();
+            minPLs = pls;
         } else { // otherwise take the min with the provided genotype's PLs
-            final int[] pls = genotype.getPL();
             if (pls.length != minPLs.length) {
                 throw new GATKException("trying to merge different PL array sizes: " + pls.length + " != " + minPLs.length);
             }
@@ -122,7 +136,7 @@ final class HomRefBlock implements Locatable {
             }
         }
         end = pos;
-        DPs.add(Math.max(genotype.getDP(), 0)); // DP must be >= 0
+        DPs.add(Math.max(dp, 0)); // DP must be >= 0
     }
 
     /**
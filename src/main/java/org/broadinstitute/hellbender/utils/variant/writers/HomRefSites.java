@@ -0,0 +1,102 @@
+package org.broadinstitute.hellbender.utils.variant.writers;
+
+import htsjdk.samtools.util.Locatable;
+import org.broadinstitute.hellbender.utils.Utils;
+
+/**
+ * Reference confidence of a single sample over a run of contiguous hom-ref sites, stored as one entry per site in
+ * primitive arrays rather than as one VariantContext per site.
+ *
+ * {@link GVCFWriter#add(HomRefSites)} folds the sites straight into its {@link HomRefBlock}s, producing the same
+ * bands as if each site had been added as a hom-ref VariantContext with a &lt;NON_REF&gt; allele.
+ */
+public final class HomRefSites implements Locatable {
+
+    private final String contig;
+    private final int start;
+    private final String sampleName;
+    private final int ploidy;
+    private final byte[] refBases;
+    private final int[] genotypeQualities;
+    private final int[] depths;
+    private final int[] likelihoods;
+
+    /**
+     * @param contig contig of the sites
+     * @param start position of the first site
+     * @param sampleName name of the sample
+     * @param ploidy ploidy of the sample
+     * @param refBases reference base of each site
+     * @param genotypeQualities GQ of each site
+     * @param depths DP of each site
+     * @param likelihoods PLs of each site, {@code ploidy + 1} values per site
+     */
+    public HomRefSites(final String contig, final int start, final String sampleName, final int ploidy,
+                       final byte[] refBases, final int[] genotypeQualities, final int[] depths, final int[] likelihoods) {
+        this.contig = Utils.nonNull(contig);
+        this.sampleName = Utils.nonNull(sampleName);
+        this.refBases = Utils.nonNull(refBases);
+        this.genotypeQualities = Utils.nonNull(genotypeQualities);
+        this.depths = Utils.nonNull(depths);
+        this.likelihoods = Utils.nonNull(likelihoods);
+        Utils.validateArg(start > 0, "start must be positive");
+        Utils.validateArg(ploidy > 0, "ploidy must be positive");
+        Utils.validateArg(genotypeQualities.length == refBases.length && depths.length == refBases.length,
+                "there must be one GQ and one DP per site");
+        Utils.validateArg(likelihoods.length == refBases.length * (ploidy + 1), "there must be ploidy + 1 PLs per site");
+        this.start = start;
+        this.ploidy = ploidy;
+    }
+
+    @Override
+    public String getContig() {
+        return contig;
+    }
+
+    @Override
+    public int getStart() {
+        return start;
+    }
+
+    @Override
+    public int getEnd() {
+        return start + refBases.length - 1;
+    }
+
+    public String getSampleName() {
+        return sampleName;
+    }
+
+    public int getPloidy() {
+        return ploidy;
+    }
+
+    /**
+     * @return the number of sites
+     */
+    public int size() {
+        return refBases.length;
+    }
+
+    public byte getRefBase(final int site) {
+        return refBases[site];
+    }
+
+    public int getGQ(final int site) {
+        return genotypeQualities[site];
+    }
+
+    public int getDP(final int site) {
+        return depths[site];
+    }
+
+    /**
+     * @return a new array with the PLs of the given site
+     */
+    public int[] getPL(final int site) {
+        final int n = ploidy + 1;
+        final int[] result = new int[n];
+        System.arraycopy(likelihoods, site * n, result, 0, n);
+        return result;
+    }
+}
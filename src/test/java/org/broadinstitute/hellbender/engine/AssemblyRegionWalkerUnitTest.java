@@ -0,0 +1,165 @@
+package org.broadinstitute.hellbender.engine;
+
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.cmdline.TestProgramGroup;
+import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.activityprofile.ActivityProfileState;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public final class AssemblyRegionWalkerUnitTest extends CommandLineProgramTest {
+
+    @CommandLineProgramProperties(
+            summary = "Dummy that records the reads in each assembly region, on any number of threads",
+            oneLineSummary = "none",
+            programGroup = TestProgramGroup.class
+    )
+    private static final class TestMultithreadedAssemblyRegionWalker extends AssemblyRegionWalker {
+        public final List<String> regions = new ArrayList<>();
+        public int totalReads = 0;
+        // the filter of the traversal, which is made before those of the traversal threads
+        private CountingReadFilter traversalFilter = null;
+
+        @Override
+        protected int defaultReadShardSize() { return 20; }
+
+        @Override
+        protected int defaultReadShardPadding() { return 10; }
+
+        @Override
+        protected int defaultMinAssemblyRegionSize() { return 5; }
+
+        @Override
+        protected int defaultMaxAssemblyRegionSize() { return 20; }
+
+        @Override
+        protected int defaultAssemblyRegionPadding() { return 10; }
+
+        @Override
+        protected int defaultMaxReadsPerAlignmentStart() { return 1; }
+
+        @Override
+        protected double defaultActiveProbThreshold() { return 0.002; }
+
+        @Override
+        protected int defaultMaxProbPropagationDistance() { return 50; }
+
+        @Override
+        public AssemblyRegionEvaluator assemblyRegionEvaluator() {
+            return (locusPileup, referenceContext, featureContext) -> new ActivityProfileState(new SimpleInterval(locusPileup), 1.0);
+        }
+
+        @Override
+        public void apply(AssemblyRegion region, ReferenceContext referenceContext, FeatureContext featureContext) {
+            onRegion(describe(region));
+        }
+
+        private void onRegion( final String region ) {
+            regions.add(region);
+        }
+
+        private static String describe( final AssemblyRegion region ) {
+            return region.getSpan() + " " + region.getReads().stream()
+                    .map(read -> read.getName() + (read.isFirstOfPair() ? "/1@" : "/2@") + read.getStart())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        protected AssemblyRegionWorker.Factory<String> makeAssemblyRegionWorkerFactory() {
+            return new AssemblyRegionWorker.Factory<String>() {
+                @Override
+                public AssemblyRegionWorker<String> newWorker() {
+                    return new AssemblyRegionWorker<String>() {
+                        @Override
+                        public AssemblyRegionEvaluator assemblyRegionEvaluator() {
+                            return TestMultithreadedAssemblyRegionWalker.this.assemblyRegionEvaluator();
+                        }
+
+                        @Override
+                        public List<String> apply(AssemblyRegion region, ReferenceContext referenceContext, FeatureContext featureContext) {
+                            return Collections.singletonList(describe(region));
+                        }
+                    };
+                }
+
+                @Override
+                public void onResult(final String result) {
+                    onRegion(result);
+                }
+            };
+        }
+
+        @Override
+        public CountingReadFilter makeReadFilter() {
+            final CountingReadFilter filter = super.makeReadFilter();
+            if ( traversalFilter == null ) {
+                traversalFilter = filter;
+            }
+            return filter;
+        }
+
+        @Override
+        public void closeTool() {
+            totalReads = regions.stream().mapToInt(region -> region.split("@").length - 1).sum();
+        }
+    }
+
+    private static TestMultithreadedAssemblyRegionWalker runTestWalker( final String threads, final String maxReadsPerAlignmentStart ) {
+        final TestMultithreadedAssemblyRegionWalker tool = new TestMultithreadedAssemblyRegionWalker();
+        final String[] args = {
+                "-I", publicTestDir + "org/broadinstitute/hellbender/tools/print_reads.sorted.bam",
+                "-R", publicTestDir + "org/broadinstitute/hellbender/tools/print_reads.fasta",
+                "-L", "chr7",
+                "-maxReadsPerAlignmentStart", maxReadsPerAlignmentStart,
+                "-traversalThreads", threads,
+                // filters out some of the reads
+                "-RF", "ReadStrandFilter", "-keepReverse", "false"
+        };
+        tool.instanceMain(args);
+        return tool;
+    }
+
+    @Test
+    public void testMultithreadedTraversalSameAsSingleThreaded() {
+        final TestMultithreadedAssemblyRegionWalker singleThreaded = runTestWalker("1", "0");
+        final TestMultithreadedAssemblyRegionWalker multithreaded = runTestWalker("4", "0");
+
+        Assert.assertFalse(singleThreaded.regions.isEmpty());
+        Assert.assertEquals(multithreaded.regions, singleThreaded.regions);
+        // the filters of the traversal threads add up to those of a single thread
+        Assert.assertTrue(singleThreaded.traversalFilter.getFilteredCount() > 0, "no reads were filtered");
+        Assert.assertEquals(multithreaded.traversalFilter.getSummaryLine(), singleThreaded.traversalFilter.getSummaryLine());
+    }
+
+    @Test
+    public void testMultithreadedTraversalWithDownsampling() {
+        final TestMultithreadedAssemblyRegionWalker twoThreads = runTestWalker("2", "1");
+        // downsampling must not depend on the state of the GATK-wide random number generator either
+        Utils.getRandomGenerator().nextInt();
+        final TestMultithreadedAssemblyRegionWalker fourThreads = runTestWalker("4", "1");
+        final TestMultithreadedAssemblyRegionWalker notDownsampled = runTestWalker("4", "0");
+
+        Assert.assertFalse(twoThreads.regions.isEmpty());
+        Assert.assertEquals(fourThreads.regions, twoThreads.regions);
+        Assert.assertTrue(twoThreads.totalReads < notDownsampled.totalReads, "no reads were downsampled");
+    }
+
+    @Test
+    public void testSingleThreadedDownsamplingUsesGATKRandomGenerator() {
+        Utils.resetRandomGenerator();
+        final int firstDraw = Utils.getRandomGenerator().nextInt();
+        Utils.resetRandomGenerator();
+        final TestMultithreadedAssemblyRegionWalker downsampled = runTestWalker("1", "1");
+        Assert.assertFalse(downsampled.regions.isEmpty());
+        // the reads retained are the same as before multithreaded traversals were introduced
+        Assert.assertNotEquals(Utils.getRandomGenerator().nextInt(), firstDraw);
+    }
+}
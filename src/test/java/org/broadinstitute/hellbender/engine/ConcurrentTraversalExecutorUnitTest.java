@@ -0,0 +1,137 @@
+package org.broadinstitute.hellbender.engine;
+
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public final class ConcurrentTraversalExecutorUnitTest extends BaseTest {
+
+    private static final int NUM_TASKS = 50;
+    private static final int RESULTS_PER_TASK = 300;
+
+    private static final class TestWorker implements AutoCloseable {
+        private final List<Integer> tasksRun = new ArrayList<>();
+        private boolean closed = false;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @DataProvider(name = "executorParameters")
+    public Object[][] executorParameters() {
+        return new Object[][] {
+                // threads, max buffered results
+                {1, 1},
+                {2, 1},
+                {4, 10},
+                {4, 1000},
+                {8, 100000}
+        };
+    }
+
+    /**
+     * Submits tasks producing consecutive numbers, and checks that no more results than allowed are ever produced
+     * but not consumed.
+     */
+    private static List<Integer> runTasks( final int numThreads, final int maxBufferedResults, final boolean ordered,
+                                           final List<TestWorker> workers ) {
+        final List<Integer> consumed = new ArrayList<>();
+        final AtomicInteger produced = new AtomicInteger();
+        // a chunk per thread may be in progress on top of the buffered results, and the task being consumed may
+        // exceed the limit by a chunk
+        final int maxUnconsumed = maxBufferedResults + (numThreads + 1) * 100;
+        try ( final ConcurrentTraversalExecutor<TestWorker, Integer> executor = new ConcurrentTraversalExecutor<>(
+                "testTraversal-thread-%d", numThreads, TestWorker::new, maxBufferedResults, ordered, result -> {
+                    Assert.assertTrue(produced.get() - consumed.size() <= maxUnconsumed, "too many results buffered");
+                    consumed.add(result);
+                }) ) {
+            workers.addAll(executor.getWorkers());
+            for ( int i = 0; i < NUM_TASKS; i++ ) {
+                final int taskIndex = i;
+                executor.submit((worker, results) -> {
+                    worker.tasksRun.add(taskIndex);
+                    for ( int j = 0; j < RESULTS_PER_TASK; j++ ) {
+                        produced.incrementAndGet();
+                        results.accept(taskIndex * RESULTS_PER_TASK + j);
+                    }
+                });
+            }
+            executor.finish();
+        }
+        return consumed;
+    }
+
+    @Test(dataProvider = "executorParameters")
+    public void testOrderedResults( final int numThreads, final int maxBufferedResults ) {
+        final List<TestWorker> workers = new ArrayList<>();
+        final List<Integer> results = runTasks(numThreads, maxBufferedResults, true, workers);
+
+        Assert.assertEquals(results, IntStream.range(0, NUM_TASKS * RESULTS_PER_TASK).boxed().collect(Collectors.toList()));
+        Assert.assertEquals(workers.size(), numThreads);
+        Assert.assertEquals(workers.stream().mapToInt(worker -> worker.tasksRun.size()).sum(), NUM_TASKS);
+        Assert.assertTrue(workers.stream().allMatch(worker -> worker.closed));
+    }
+
+    @Test(dataProvider = "executorParameters")
+    public void testUnorderedResults( final int numThreads, final int maxBufferedResults ) {
+        final List<TestWorker> workers = new ArrayList<>();
+        final List<Integer> results = runTasks(numThreads, maxBufferedResults, false, workers);
+
+        // the results of each task are still in order
+        final List<List<Integer>> resultsByTask = new ArrayList<>();
+        IntStream.range(0, NUM_TASKS).forEach(i -> resultsByTask.add(new ArrayList<>()));
+        results.forEach(result -> resultsByTask.get(result / RESULTS_PER_TASK).add(result));
+        for ( int i = 0; i < NUM_TASKS; i++ ) {
+            Assert.assertEquals(resultsByTask.get(i), IntStream.range(i * RESULTS_PER_TASK, (i + 1) * RESULTS_PER_TASK).boxed().collect(Collectors.toList()));
+        }
+        Assert.assertTrue(workers.stream().allMatch(worker -> worker.closed));
+    }
+
+    @Test
+    public void testTasksWithoutResults() {
+        final List<Integer> tasksRun;
+        try ( final ConcurrentTraversalExecutor<TestWorker, Void> executor = new ConcurrentTraversalExecutor<>(
+                "testTraversal-thread-%d", 3, TestWorker::new) ) {
+            for ( int i = 0; i < NUM_TASKS; i++ ) {
+                final int taskIndex = i;
+                executor.submit((worker, results) -> worker.tasksRun.add(taskIndex));
+            }
+            executor.finish();
+            tasksRun = executor.getWorkers().stream().flatMap(worker -> worker.tasksRun.stream()).sorted().collect(Collectors.toList());
+        }
+        Assert.assertEquals(tasksRun, IntStream.range(0, NUM_TASKS).boxed().collect(Collectors.toList()));
+    }
+
+    @Test(dataProvider = "executorParameters", expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "task 7 failed")
+    public void testFailureIsRethrown( final int numThreads, final int maxBufferedResults ) {
+        final List<Integer> consumed = Collections.synchronizedList(new ArrayList<>());
+        try ( final ConcurrentTraversalExecutor<TestWorker, Integer> executor = new ConcurrentTraversalExecutor<>(
+                "testTraversal-thread-%d", numThreads, TestWorker::new, maxBufferedResults, true, consumed::add) ) {
+            for ( int i = 0; i < NUM_TASKS; i++ ) {
+                final int taskIndex = i;
+                executor.submit((worker, results) -> {
+                    for ( int j = 0; j < RESULTS_PER_TASK; j++ ) {
+                        results.accept(taskIndex * RESULTS_PER_TASK + j);
+                    }
+                    if ( taskIndex == 7 ) {
+                        throw new IllegalStateException("task 7 failed");
+                    }
+                });
+            }
+            executor.finish();
+        } finally {
+            // every result of the tasks before the failed one, and of the failed task itself, was consumed
+            Assert.assertEquals(consumed, IntStream.range(0, 8 * RESULTS_PER_TASK).boxed().collect(Collectors.toList()));
+        }
+    }
+}
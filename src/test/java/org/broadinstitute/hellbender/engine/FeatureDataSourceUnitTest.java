@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.engine;
 
+import com.google.common.collect.Iterables;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.tribble.Feature;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -338,6 +339,55 @@ public final class FeatureDataSourceUnitTest extends BaseTest {
         };
     }
 
+    /**
+     * Tests correctness of Feature caching behavior with background prefetching, using a small lookahead
+     * so that queries frequently reach into prefetched windows
+     */
+    @Test(dataProvider = "SingleDataSourceMultipleQueriesTestData")
+    public void testSingleDataSourceMultipleQueriesWithPrefetching( final List<Pair<SimpleInterval, List<String>>> testQueries ) {
+        try (final FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(QUERY_TEST_VCF, null, 100)) {
+            featureSource.setQueryPrefetchFraction(0.5);
+
+            for ( Pair<SimpleInterval, List<String>> testQuery : testQueries ) {
+                final SimpleInterval queryInterval = testQuery.getLeft();
+                final List<String> expectedVariantIDs = testQuery.getRight();
+
+                final List<VariantContext> queryResults = featureSource.queryAndPrefetch(queryInterval);
+                checkVariantQueryResults(queryResults, expectedVariantIDs, queryInterval);
+            }
+            Assert.assertEquals(featureSource.getQueryCacheHits() + featureSource.getQueryCacheMisses(), testQueries.size());
+        }
+    }
+
+    @Test
+    public void testQueriesBackingUpAreCacheHits() {
+        try (final FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(QUERY_TEST_VCF)) {
+            checkVariantQueryResults(featureSource.queryAndPrefetch(new SimpleInterval("1", 200, 300)), Arrays.asList("b", "c", "d", "e", "f", "g", "h"), new SimpleInterval("1", 200, 300));
+            checkVariantQueryResults(featureSource.queryAndPrefetch(new SimpleInterval("2", 100, 200)), Arrays.asList("o"), new SimpleInterval("2", 100, 200));
+
+            // Backing up within the previous window, or going back to a window on another contig, doesn't go to disk
+            checkVariantQueryResults(featureSource.queryAndPrefetch(new SimpleInterval("2", 150, 600)), Arrays.asList("o", "p", "q"), new SimpleInterval("2", 150, 600));
+            checkVariantQueryResults(featureSource.queryAndPrefetch(new SimpleInterval("1", 250, 350)), Arrays.asList("e", "f", "g", "h"), new SimpleInterval("1", 250, 350));
+            checkVariantQueryResults(featureSource.queryAndPrefetch(new SimpleInterval("1", 200, 300)), Arrays.asList("b", "c", "d", "e", "f", "g", "h"), new SimpleInterval("1", 200, 300));
+            Assert.assertEquals(featureSource.getQueryCacheMisses(), 2);
+            Assert.assertEquals(featureSource.getQueryCacheHits(), 3);
+        }
+    }
+
+    @Test
+    public void testPrefetchedWindowsAreCacheHits() {
+        try (final FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(QUERY_TEST_VCF, null, 99)) {
+            featureSource.setQueryPrefetchFraction(0.5);
+
+            // Each query reaches the second half of its window, so the one following it is prefetched
+            for ( int start = 1; start <= 1300; start += 60 ) {
+                featureSource.queryAndPrefetch(new SimpleInterval("1", start, start + 59));
+            }
+            Assert.assertEquals(featureSource.getQueryCacheMisses(), 1);
+            Assert.assertTrue(featureSource.getNumPrefetchedWindows() > 0);
+        }
+    }
+
     /**
      * Tests correctness of Feature caching behavior by executing multiple queries on the same FeatureDataSource
      */
@@ -460,10 +510,8 @@ public final class FeatureDataSourceUnitTest extends BaseTest {
     public void testCacheFill( final List<ArtificialTestFeature> features, final String cacheContig, final int cacheStart, final int cacheEnd) {
         FeatureCache<ArtificialTestFeature> cache = initializeFeatureCache(features, cacheContig, cacheStart, cacheEnd);
 
-        List<ArtificialTestFeature> cachedFeatures = cache.getCachedFeaturesUpToStopPosition(cacheEnd);
-        Assert.assertEquals(cache.getContig(), cacheContig, "Wrong contig reported by cache after fill");
-        Assert.assertEquals(cache.getCacheStart(), cacheStart, "Wrong start position reported by cache after fill");
-        Assert.assertEquals(cache.getCacheEnd(), cacheEnd, "Wrong stop position reported by cache after fill");
+        List<ArtificialTestFeature> cachedFeatures = cache.getCachedFeatures(new SimpleInterval(cacheContig, cacheStart, cacheEnd));
+        Assert.assertEquals(cache.getCachedWindows(), Arrays.asList(new SimpleInterval(cacheContig, cacheStart, cacheEnd)), "Wrong window reported by cache after fill");
         Assert.assertEquals(cachedFeatures, features, "Wrong Features in cache after fill()");
     }
 
@@ -503,10 +551,10 @@ public final class FeatureDataSourceUnitTest extends BaseTest {
                             "Cache hit detection failed for interval " + testInterval);
     }
 
-    @DataProvider(name = "FeatureCacheTrimmingDataProvider")
-    public Object[][] getFeatureCacheTrimmingData() {
+    @DataProvider(name = "FeatureCacheStartRetrievalDataProvider")
+    public Object[][] getFeatureCacheStartRetrievalData() {
         // Features are required to always be sorted by start position, but stop positions need not be sorted.
-        // This complicates cache trimming.
+        // This complicates finding the Features overlapping a start position.
         List<ArtificialTestFeature> feats = Arrays.asList(
                 new ArtificialTestFeature("1", 1, 1),     // Feature 0
                 new ArtificialTestFeature("1", 1, 100),   // Feature 1
@@ -528,9 +576,9 @@ public final class FeatureDataSourceUnitTest extends BaseTest {
         );
         FeatureCache<ArtificialTestFeature> cache = initializeFeatureCache(feats, "1", 1, 200);
 
-        // Pairing of start position to which to trim the cache with the List of Features we expect to see
-        // in the cache after trimming
-        List<Pair<Integer, List<ArtificialTestFeature>>> trimOperations = Arrays.asList(
+        // Pairing of start position with which to bound cache retrieval with the List of Features we expect to see
+        // after retrieval
+        List<Pair<Integer, List<ArtificialTestFeature>>> retrievalOperations = Arrays.asList(
                 Pair.of(1, Arrays.asList(feats.get(0), feats.get(1), feats.get(2), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7), feats.get(8), feats.get(9), feats.get(10), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
                 Pair.of(2, Arrays.asList(feats.get(1), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7), feats.get(8), feats.get(9), feats.get(10), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
                 Pair.of(3, Arrays.asList(feats.get(1), feats.get(3), feats.get(4), feats.get(5), feats.get(6), feats.get(7), feats.get(8), feats.get(9), feats.get(10), feats.get(11), feats.get(12), feats.get(13), feats.get(14), feats.get(15), feats.get(16))),
@@ -550,22 +598,22 @@ public final class FeatureDataSourceUnitTest extends BaseTest {
         );
 
         return new Object[][] {
-                { cache, trimOperations }
+                { cache, retrievalOperations }
         };
     }
 
-    @Test(dataProvider = "FeatureCacheTrimmingDataProvider")
-    public void testCacheTrimming( final FeatureCache<ArtificialTestFeature> cache, final List<Pair<Integer, List<ArtificialTestFeature>>> trimOperations ) {
-        // Repeatedly trim the cache to ever-increasing start positions, and verify after each trim operation
-        // that the cache holds the correct Features in the correc order
-        for ( Pair<Integer, List<ArtificialTestFeature>> trimOperation : trimOperations ) {
-            final int trimPosition = trimOperation.getLeft();
-            final List<ArtificialTestFeature> expectedFeatures = trimOperation.getRight();
-
-            cache.trimToNewStartPosition(trimPosition);
+    @Test(dataProvider = "FeatureCacheStartRetrievalDataProvider")
+    public void testCacheFeatureRetrievalByStart( final FeatureCache<ArtificialTestFeature> cache, final List<Pair<Integer, List<ArtificialTestFeature>>> retrievalOperations ) {
+        // Retrieve Features from ever-increasing start positions to the end of the cache, and verify that we get
+        // the correct Features in the correct order, then do it again backwards since retrieval is not destructive
+        final List<Pair<Integer, List<ArtificialTestFeature>>> backwards = new ArrayList<>(retrievalOperations);
+        Collections.reverse(backwards);
+        for ( Pair<Integer, List<ArtificialTestFeature>> retrievalOperation : Iterables.concat(retrievalOperations, backwards) ) {
+            final int startPosition = retrievalOperation.getLeft();
+            final List<ArtificialTestFeature> expectedFeatures = retrievalOperation.getRight();
 
-            final List<ArtificialTestFeature> actualFeatures = cache.getCachedFeaturesUpToStopPosition(cache.getCacheEnd());
-            Assert.assertEquals(actualFeatures, expectedFeatures, "Wrong Features in cache after trimming start position to " + trimPosition);
+            final List<ArtificialTestFeature> actualFeatures = cache.getCachedFeatures(new SimpleInterval("1", startPosition, 200));
+            Assert.assertEquals(actualFeatures, expectedFeatures, "Wrong Features returned in retrieval operation with start position " + startPosition);
         }
     }
 
@@ -618,7 +666,7 @@ public final class FeatureDataSourceUnitTest extends BaseTest {
             final int stopPosition = retrievalOperation.getLeft();
             final List<ArtificialTestFeature> expectedFeatures = retrievalOperation.getRight();
 
-            final List<ArtificialTestFeature> actualFeatures = cache.getCachedFeaturesUpToStopPosition(stopPosition);
+            final List<ArtificialTestFeature> actualFeatures = cache.getCachedFeatures(new SimpleInterval("1", 1, stopPosition));
             Assert.assertEquals(actualFeatures, expectedFeatures, "Wrong Features returned in retrieval operation with stop position " + stopPosition);
         }
     }
@@ -638,10 +686,76 @@ public final class FeatureDataSourceUnitTest extends BaseTest {
         Assert.assertTrue(cache.cacheHit(new SimpleInterval("1", 1, 100)), "Unexpected cache miss");
         Assert.assertTrue(cache.cacheHit(new SimpleInterval("1", 2, 99)), "Unexpected cache miss");
 
-        Assert.assertEquals(cache.getCachedFeaturesUpToStopPosition(100), emptyRegion, "Should get back empty List for empty region");
-        cache.trimToNewStartPosition(2);
+        Assert.assertEquals(cache.getCachedFeatures(new SimpleInterval("1", 1, 100)), emptyRegion, "Should get back empty List for empty region");
         Assert.assertTrue(cache.cacheHit(new SimpleInterval("1", 2, 100)), "Unexpected cache miss");
-        Assert.assertEquals(cache.getCachedFeaturesUpToStopPosition(100), emptyRegion, "Should get back empty List for empty region");
+        Assert.assertEquals(cache.getCachedFeatures(new SimpleInterval("1", 2, 100)), emptyRegion, "Should get back empty List for empty region");
+    }
+
+    @Test
+    public void testMultipleWindows() {
+        final ArtificialTestFeature first = new ArtificialTestFeature("1", 10, 20);
+        final ArtificialTestFeature second = new ArtificialTestFeature("1", 150, 300);
+        final ArtificialTestFeature third = new ArtificialTestFeature("2", 10, 10);
+        final FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>();
+        cache.fill(Arrays.asList(first).iterator(), new SimpleInterval("1", 1, 100));
+        cache.fill(Arrays.asList(second).iterator(), new SimpleInterval("1", 200, 300));
+        cache.fill(Arrays.asList(third).iterator(), new SimpleInterval("2", 1, 100));
+
+        // Queries going back to earlier windows, or to other contigs, are still hits
+        Assert.assertTrue(cache.cacheHit(new SimpleInterval("1", 250, 260)));
+        Assert.assertEquals(cache.getCachedFeatures(new SimpleInterval("1", 250, 260)), Arrays.asList(second));
+        Assert.assertTrue(cache.cacheHit(new SimpleInterval("1", 5, 15)));
+        Assert.assertEquals(cache.getCachedFeatures(new SimpleInterval("1", 5, 15)), Arrays.asList(first));
+        Assert.assertTrue(cache.cacheHit(new SimpleInterval("2", 10, 10)));
+        Assert.assertEquals(cache.getCachedFeatures(new SimpleInterval("2", 10, 10)), Arrays.asList(third));
+
+        // but queries spanning two windows, or the gap between them, are not
+        Assert.assertFalse(cache.cacheHit(new SimpleInterval("1", 90, 210)));
+        Assert.assertFalse(cache.cacheHit(new SimpleInterval("1", 101, 199)));
+        Assert.assertEquals(cache.getNumCacheHits(), 3);
+        Assert.assertEquals(cache.getNumCacheMisses(), 2);
+
+        // A new window replaces the windows it contains, but not those it only overlaps
+        cache.fill(Arrays.asList(second).iterator(), new SimpleInterval("1", 50, 300));
+        Assert.assertEquals(cache.getCachedWindows(), Arrays.asList(new SimpleInterval("1", 1, 100), new SimpleInterval("2", 1, 100), new SimpleInterval("1", 50, 300)));
+        Assert.assertTrue(cache.cacheHit(new SimpleInterval("1", 90, 210)));
+        Assert.assertEquals(cache.getCachedFeatures(new SimpleInterval("1", 90, 210)), Arrays.asList(second));
+        Assert.assertEquals(cache.getCachedFeatures(new SimpleInterval("1", 1, 60)), Arrays.asList(first));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedWindowsEvicted() {
+        final FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>(4);
+        cache.fill(Arrays.asList(new ArtificialTestFeature("1", 1, 1), new ArtificialTestFeature("1", 2, 2), new ArtificialTestFeature("1", 3, 3)).iterator(), new SimpleInterval("1", 1, 100));
+        cache.fill(Arrays.asList(new ArtificialTestFeature("1", 101, 101)).iterator(), new SimpleInterval("1", 101, 200));
+        cache.getCachedFeatures(new SimpleInterval("1", 1, 10));
+
+        // Over budget: the least recently used window goes, but not the one just used
+        cache.fill(Arrays.asList(new ArtificialTestFeature("1", 201, 201)).iterator(), new SimpleInterval("1", 201, 300));
+        Assert.assertEquals(cache.getCachedWindows(), Arrays.asList(new SimpleInterval("1", 1, 100), new SimpleInterval("1", 201, 300)));
+
+        // A window larger than the budget is kept on its own, along with the window used last
+        cache.fill(Collections.nCopies(5, new ArtificialTestFeature("1", 301, 301)).iterator(), new SimpleInterval("1", 301, 400));
+        Assert.assertEquals(cache.getCachedWindows(), Arrays.asList(new SimpleInterval("1", 1, 100), new SimpleInterval("1", 301, 400)));
+        Assert.assertFalse(cache.cacheHit(new SimpleInterval("1", 201, 300)));
+    }
+
+    @Test
+    public void testWindowToPrefetch() {
+        final FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>();
+        cache.fill(Collections.<ArtificialTestFeature>emptyList().iterator(), new SimpleInterval("1", 101, 200));
+
+        // Not before the query reaches the given fraction of its window, or if the query is not cached
+        Assert.assertNull(cache.getWindowToPrefetch(new SimpleInterval("1", 102, 140), 0.5));
+        Assert.assertNull(cache.getWindowToPrefetch(new SimpleInterval("1", 1, 100), 0.5));
+        Assert.assertEquals(cache.getWindowToPrefetch(new SimpleInterval("1", 140, 151), 0.5), new SimpleInterval("1", 140, 239));
+        Assert.assertEquals(cache.getWindowToPrefetch(new SimpleInterval("1", 102, 102), 0.0), new SimpleInterval("1", 102, 201));
+        // a window starting where the cached one starts would be the same window
+        Assert.assertNull(cache.getWindowToPrefetch(new SimpleInterval("1", 101, 200), 0.5));
+
+        // Nothing to prefetch if the position following the window is already cached
+        cache.fill(Collections.<ArtificialTestFeature>emptyList().iterator(), new SimpleInterval("1", 201, 210));
+        Assert.assertNull(cache.getWindowToPrefetch(new SimpleInterval("1", 190, 200), 0.5));
     }
 
     /*********************************************************
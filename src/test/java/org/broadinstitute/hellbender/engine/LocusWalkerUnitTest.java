@@ -1,16 +1,21 @@
 package org.broadinstitute.hellbender.engine;
 
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.TestProgramGroup;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.transformers.ReadTransformer;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.util.*;
 
 /**
  * @author Daniel Gomez-Sanchez (magicDGS)
@@ -133,4 +138,193 @@ public class LocusWalkerUnitTest extends CommandLineProgramTest {
         Assert.assertEquals(tool.totalApplyCalls, 10);
     }
 
+    @CommandLineProgramProperties(
+            summary = "Dummy that counts loci and pileup elements, on any number of threads",
+            oneLineSummary = "none",
+            programGroup = TestProgramGroup.class
+    )
+    private static class TestMultithreadedLocusWalker extends LocusWalker {
+        public final Set<SimpleInterval> loci = new HashSet<>();
+        public long totalPileupElements = 0;
+        public CountingReadFilter readFilter;
+
+        @Override
+        public CountingReadFilter makeReadFilter() {
+            final CountingReadFilter filter = super.makeReadFilter();
+            if ( readFilter == null ) {
+                readFilter = filter;
+            }
+            return filter;
+        }
+
+        @Override
+        public void apply(AlignmentContext alignmentContext, ReferenceContext referenceContext, FeatureContext featureContext) {
+            Assert.assertTrue(loci.add(new SimpleInterval(alignmentContext)));
+            totalPileupElements += alignmentContext.size();
+        }
+
+        @Override
+        protected LocusWorker.Factory<AlignmentContext> makeLocusWorkerFactory() {
+            return new LocusWorker.Factory<AlignmentContext>() {
+                @Override
+                public LocusWorker<AlignmentContext> newWorker() {
+                    return (alignmentContext, referenceContext, featureContext) -> alignmentContext;
+                }
+
+                @Override
+                public void onResult(final AlignmentContext result) {
+                    apply(result, null, null);
+                }
+
+                @Override
+                public boolean requiresOrderedResults() {
+                    return false;
+                }
+            };
+        }
+    }
+
+    @Test
+    public void testMultithreadedTraversal() {
+        final List<TestMultithreadedLocusWalker> tools = new ArrayList<>();
+        for ( final String threads : Arrays.asList("1", "4") ) {
+            final TestMultithreadedLocusWalker tool = new TestMultithreadedLocusWalker();
+            final String[] args = {
+                    "-I", getTestDataDir() + "/print_reads.sorted.bam",
+                    "-R", getTestDataDir() + "/print_reads.fasta",
+                    "-L", "chr7:1-300",
+                    "-L", "chr8",
+                    "--readFilter", "ReadStrandFilter",
+                    "--keepReverse", "true",
+                    "-readShardSize", "5",
+                    "-traversalThreads", threads
+            };
+            tool.instanceMain(args);
+            tools.add(tool);
+        }
+
+        final TestMultithreadedLocusWalker singleThreaded = tools.get(0);
+        final TestMultithreadedLocusWalker multithreaded = tools.get(1);
+        Assert.assertFalse(singleThreaded.loci.isEmpty());
+        Assert.assertEquals(multithreaded.loci, singleThreaded.loci);
+        Assert.assertEquals(multithreaded.totalPileupElements, singleThreaded.totalPileupElements);
+        // reads spanning several shards go through the counting read filter once
+        Assert.assertTrue(singleThreaded.readFilter.getFilteredCount() > 0);
+        Assert.assertEquals(multithreaded.readFilter.getFilteredCount(), singleThreaded.readFilter.getFilteredCount());
+        Assert.assertEquals(multithreaded.readFilter.getSummaryLine(), singleThreaded.readFilter.getSummaryLine());
+    }
+
+    @DataProvider(name = "unmappedReadTraversals")
+    public Object[][] unmappedReadTraversals() {
+        return new Object[][] {
+                // no intervals: all the reads, including the unmapped one
+                { Collections.emptyList() },
+                { Arrays.asList("-L", "chr7", "-L", "unmapped") },
+                // the unmapped read is not traversed
+                { Arrays.asList("-L", "chr7") }
+        };
+    }
+
+    @Test(dataProvider = "unmappedReadTraversals")
+    public void testMultithreadedTraversalCountsUnmappedReads( final List<String> intervalArgs ) {
+        final List<TestMultithreadedLocusWalker> tools = new ArrayList<>();
+        for ( final String threads : Arrays.asList("1", "4") ) {
+            final TestMultithreadedLocusWalker tool = new TestMultithreadedLocusWalker();
+            final List<String> args = new ArrayList<>(Arrays.asList(
+                    "-I", getTestDataDir() + "/print_reads.sorted.bam",
+                    "-R", getTestDataDir() + "/print_reads.fasta",
+                    "-readShardSize", "5000",
+                    "-traversalThreads", threads));
+            args.addAll(intervalArgs);
+            tool.instanceMain(args.toArray(new String[args.size()]));
+            tools.add(tool);
+        }
+
+        final TestMultithreadedLocusWalker singleThreaded = tools.get(0);
+        final TestMultithreadedLocusWalker multithreaded = tools.get(1);
+        Assert.assertEquals(multithreaded.loci, singleThreaded.loci);
+        Assert.assertEquals(multithreaded.readFilter.getFilteredCount(), singleThreaded.readFilter.getFilteredCount());
+        Assert.assertEquals(multithreaded.readFilter.getSummaryLine(), singleThreaded.readFilter.getSummaryLine());
+    }
+
+    @CommandLineProgramProperties(
+            summary = "Dummy that records the reads in each pileup, on any number of threads",
+            oneLineSummary = "none",
+            programGroup = TestProgramGroup.class
+    )
+    private static class TestDownsampledLocusWalker extends LocusWalker {
+        public final List<String> pileups = new ArrayList<>();
+        public int totalPileupElements = 0;
+
+        @Override
+        public void apply(AlignmentContext alignmentContext, ReferenceContext referenceContext, FeatureContext featureContext) {
+            onPileup(describe(alignmentContext));
+        }
+
+        private void onPileup( final String pileup ) {
+            pileups.add(pileup);
+            totalPileupElements += pileup.split("@").length - 1;
+        }
+
+        private static String describe( final AlignmentContext alignmentContext ) {
+            final List<String> reads = new ArrayList<>();
+            alignmentContext.getBasePileup().getReads().forEach(read -> reads.add(read.getName() + (read.isFirstOfPair() ? "/1@" : "/2@") + read.getStart()));
+            Collections.sort(reads);
+            return new SimpleInterval(alignmentContext) + " " + reads;
+        }
+
+        @Override
+        protected LocusWorker.Factory<String> makeLocusWorkerFactory() {
+            return new LocusWorker.Factory<String>() {
+                @Override
+                public LocusWorker<String> newWorker() {
+                    return (alignmentContext, referenceContext, featureContext) -> describe(alignmentContext);
+                }
+
+                @Override
+                public void onResult(final String result) {
+                    onPileup(result);
+                }
+            };
+        }
+    }
+
+    private TestDownsampledLocusWalker runDownsampledLocusWalker( final String threads, final String maxDepthPerSample ) {
+        final TestDownsampledLocusWalker tool = new TestDownsampledLocusWalker();
+        final String[] args = {
+                "-I", getTestDataDir() + "/print_reads.sorted.bam",
+                "-R", getTestDataDir() + "/print_reads.fasta",
+                "-L", "chr7",
+                "-maxDepthPerSample", maxDepthPerSample,
+                "-readShardSize", "20",
+                "-traversalThreads", threads
+        };
+        tool.instanceMain(args);
+        return tool;
+    }
+
+    @Test
+    public void testMultithreadedTraversalWithDownsampling() {
+        final TestDownsampledLocusWalker twoThreads = runDownsampledLocusWalker("2", "1");
+        // downsampling must not depend on the state of the GATK-wide random number generator either
+        Utils.getRandomGenerator().nextInt();
+        final TestDownsampledLocusWalker fourThreads = runDownsampledLocusWalker("4", "1");
+        final TestDownsampledLocusWalker notDownsampled = runDownsampledLocusWalker("4", "0");
+
+        Assert.assertFalse(twoThreads.pileups.isEmpty());
+        Assert.assertEquals(fourThreads.pileups, twoThreads.pileups);
+        Assert.assertTrue(twoThreads.totalPileupElements < notDownsampled.totalPileupElements, "no reads were downsampled");
+    }
+
+    @Test(expectedExceptions = CommandLineException.BadArgumentValue.class)
+    public void testMultithreadedTraversalNotSupported() {
+        final String[] args = {
+                "-I", getTestDataDir() + "/print_reads.sorted.bam",
+                "-R", getTestDataDir() + "/print_reads.fasta",
+                "-L", "chr7:21-30",
+                "-traversalThreads", "2"
+        };
+        new TestEmitUncoveredLociTool().instanceMain(args);
+    }
+
 }
\ No newline at end of file
@@ -1,13 +1,17 @@
 package org.broadinstitute.hellbender.engine;
 
 import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.examples.ExampleReadWalkerWithReference;
 import org.broadinstitute.hellbender.utils.test.IntegrationTestSpec;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
 
 public class ReadWalkerIntegrationTest extends CommandLineProgramTest {
 
@@ -47,4 +51,26 @@ public class ReadWalkerIntegrationTest extends CommandLineProgramTest {
         };
         runCommandLine(args);
     }
+
+    @Test
+    public void testInstrumentationSummary() throws IOException {
+        final String BAM_PATH = publicTestDir + "org/broadinstitute/hellbender/engine/readIndexTest/";
+        final File outFile = createTempFile("testInstrumentationSummary", ".txt");
+        final File summaryFile = createTempFile("testInstrumentationSummary", ".tsv");
+
+        final String[] args = new String[] {
+                "-I", BAM_PATH + "reads_data_source_test1.bam",
+                "-O", outFile.getAbsolutePath(),
+                "--" + StandardArgumentDefinitions.INSTRUMENTATION_SUMMARY_LONG_NAME, summaryFile.getAbsolutePath()
+        };
+        runCommandLine(args);
+
+        final List<String> lines = Files.readAllLines(summaryFile.toPath());
+        Assert.assertEquals(lines.get(0), "NAME\tTYPE\tCOUNT\tTOTAL_SECONDS\tMEAN_MICROSECONDS\tCOUNT_PER_SECOND");
+        for ( final String timerName : new String[]{"GATKTool.readDecode", "GATKTool.readFilter", "ReadWalker.apply"} ) {
+            final String[] fields = lines.stream().filter(line -> line.startsWith(timerName + "\t")).findFirst().get().split("\t");
+            Assert.assertEquals(fields[1], "timer");
+            Assert.assertTrue(Long.parseLong(fields[2]) > 0, timerName);
+        }
+    }
 }
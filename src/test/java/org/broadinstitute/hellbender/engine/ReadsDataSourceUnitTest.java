@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.engine;
 import htsjdk.samtools.*;
 import java.nio.channels.SeekableByteChannel;
 import java.util.function.Function;
+import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
@@ -17,8 +18,10 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.lang.reflect.Field;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class ReadsDataSourceUnitTest extends BaseTest {
     private static final String READS_DATA_SOURCE_TEST_DIRECTORY = publicTestDir + "org/broadinstitute/hellbender/engine/";
@@ -303,6 +306,101 @@ public final class ReadsDataSourceUnitTest extends BaseTest {
         }
     }
 
+    @Test(dataProvider = "MultipleFilesCompleteTraversalData")
+    public void testMultipleFilesCompleteTraversalWithReadAhead( final List<Path> samFiles, final List<String> expectedReadNames ) {
+        final SamReaderFactory factory = SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT).setUseAsyncIo(true);
+        try (ReadsDataSource readsSource = new ReadsDataSource(samFiles, factory)) {
+            readsSource.setReadAhead(1);
+
+            // abandon a query before the traversal: its read-ahead must be stopped before the traversal starts
+            Assert.assertTrue(readsSource.query(new SimpleInterval("1", 1, 16000)).hasNext());
+
+            final List<String> readNames = new ArrayList<>();
+            for (GATKRead read : readsSource) {
+                readNames.add(read.getName());
+            }
+            Assert.assertEquals(readNames, expectedReadNames, "Wrong reads returned in complete traversal with read-ahead of " + samFiles);
+        }
+    }
+
+    @Test(dataProvider = "MultipleFilesCompleteTraversalData")
+    public void testMultipleFilesCompleteTraversalWithReadAheadAndTraversalReadFilter( final List<Path> samFiles, final List<String> expectedReadNames ) {
+        final List<GATKRead> expectedReads = new ArrayList<>();
+        try (ReadsDataSource readsSource = new ReadsDataSource(samFiles)) {
+            readsSource.forEach(expectedReads::add);
+        }
+
+        // only ever called ahead of us, by the read-ahead thread, since we don't filter the reads ourselves
+        final AtomicInteger filterEvaluations = new AtomicInteger();
+        final ReadFilter rawFieldFilter = new ReadFilter() {
+            private static final long serialVersionUID = 1L;
+            @Override public boolean test(final GATKRead read){
+                filterEvaluations.incrementAndGet();
+                return read.getStart() % 2 == 0;
+            }
+            @Override public boolean isRawFieldEvaluable(){return true;}
+        };
+        final SamReaderFactory factory = SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT).setUseAsyncIo(true);
+        try (ReadsDataSource readsSource = new ReadsDataSource(samFiles, factory)) {
+            readsSource.setReadAhead(1);
+            readsSource.setTraversalReadFilter(rawFieldFilter);
+
+            final List<GATKRead> reads = new ArrayList<>();
+            int numRejected = 0;
+            for (final GATKRead read : readsSource) {
+                // before anything but the fixed-width fields is accessed: only the reads that may pass were decoded ahead
+                final boolean mayPass = read.getStart() % 2 == 0;
+                Assert.assertEquals(isCigarDecoded(read), mayPass, "read " + read.getName());
+                numRejected += mayPass ? 0 : 1;
+                reads.add(read);
+            }
+            Assert.assertTrue(numRejected > 0 && numRejected < reads.size());
+            Assert.assertEquals(filterEvaluations.get(), reads.size());
+
+            // reads that fail the filter are still returned, and the fields that were not decoded ahead are decoded on demand
+            Assert.assertEquals(reads.size(), expectedReadNames.size(), "Wrong number of reads returned in complete traversal with read-ahead of " + samFiles);
+            for (int readIndex = 0; readIndex < reads.size(); ++readIndex) {
+                Assert.assertEquals(reads.get(readIndex).getName(), expectedReadNames.get(readIndex));
+                Assert.assertEquals(reads.get(readIndex).getCigar(), expectedReads.get(readIndex).getCigar());
+                Assert.assertEquals(reads.get(readIndex).getBases(), expectedReads.get(readIndex).getBases());
+                Assert.assertEquals(reads.get(readIndex).getBaseQualities(), expectedReads.get(readIndex).getBaseQualities());
+                Assert.assertEquals(reads.get(readIndex).getReadGroup(), expectedReads.get(readIndex).getReadGroup());
+            }
+        }
+    }
+
+    /**
+     * @return whether the CIGAR of the BAM record underlying the read has been decoded yet (they are decoded lazily)
+     */
+    private static boolean isCigarDecoded( final GATKRead read ) {
+        final SAMRecord record = ((SAMRecordToGATKReadAdapter) read).getEncapsulatedSamRecord();
+        try {
+            final Field cigarDecoded = BAMRecord.class.getDeclaredField("mCigarDecoded");
+            cigarDecoded.setAccessible(true);
+            return cigarDecoded.getBoolean(record);
+        } catch (final ReflectiveOperationException e) {
+            throw new AssertionError("Cannot inspect the lazy decoding state of " + record, e);
+        }
+    }
+
+    @Test(dataProvider = "MultipleFilesTraversalWithIntervalsData")
+    public void testMultipleFilesTraversalWithIntervalsWithReadAhead( final List<Path> samFiles, final List<SimpleInterval> intervals, final List<String> expectedReadNames ) {
+        final SamReaderFactory factory = SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT).setUseAsyncIo(true);
+        try (ReadsDataSource readsSource = new ReadsDataSource(samFiles, factory)) {
+            readsSource.setReadAhead(1);
+
+            // abandon a complete traversal before the bounded one
+            Assert.assertTrue(readsSource.iterator().hasNext());
+
+            readsSource.setTraversalBounds(intervals);
+            final List<String> readNames = new ArrayList<>();
+            for (GATKRead read : readsSource) {
+                readNames.add(read.getName());
+            }
+            Assert.assertEquals(readNames, expectedReadNames, "Wrong reads returned in traversal by intervals with read-ahead of " + samFiles);
+        }
+    }
+
     @DataProvider(name = "MultipleFilesQueryByIntervalData")
     public Object[][] getMultipleFilesQueryByIntervalData() {
         // Files, with a single query interval, and expected read names in the expected order
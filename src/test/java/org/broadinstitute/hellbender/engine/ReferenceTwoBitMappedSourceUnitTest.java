@@ -0,0 +1,201 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.reference.ReferenceSequence;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.function.IntPredicate;
+
+public final class ReferenceTwoBitMappedSourceUnitTest extends BaseTest {
+
+    private static final File TWO_BIT_REFERENCE = new File(publicTestDir + "human_g1k_v37.chr17_1Mb.2bit");
+    private static final File FASTA_REFERENCE = new File(publicTestDir + "human_g1k_v37.chr17_1Mb.fasta");
+
+    @Test
+    public void testAgreesWithFasta() {
+        try ( final ReferenceDataSource twoBit = ReferenceDataSource.of(TWO_BIT_REFERENCE);
+              final ReferenceDataSource fasta = ReferenceDataSource.of(FASTA_REFERENCE) ) {
+            Assert.assertTrue(twoBit instanceof ReferenceTwoBitMappedSource);
+            // the dictionary is the one of the fasta, next to the .2bit file
+            Assert.assertEquals(twoBit.getSequenceDictionary(), fasta.getSequenceDictionary());
+
+            final int contigLength = fasta.getSequenceDictionary().getSequence("17").getSequenceLength();
+            final Random random = new Random(7);
+            final List<SimpleInterval> intervals = new ArrayList<>(Arrays.asList(
+                    new SimpleInterval("17", 1, contigLength), new SimpleInterval("17", contigLength, contigLength)));
+            for ( int i = 0; i < 1000; i++ ) {
+                final int start = 1 + random.nextInt(contigLength);
+                intervals.add(new SimpleInterval("17", start, Math.min(contigLength, start + random.nextInt(20))));
+                intervals.add(new SimpleInterval("17", start, Math.min(contigLength, start + random.nextInt(2000))));
+            }
+            for ( final SimpleInterval interval : intervals ) {
+                Assert.assertEquals(new String(twoBit.queryAndPrefetch(interval).getBases()), new String(fasta.queryAndPrefetch(interval).getBases()), interval.toString());
+            }
+            Assert.assertEquals(twoBit.queryAndPrefetch("17", 11, 10).getBases().length, 0);
+        }
+    }
+
+    @DataProvider(name = "byteOrders")
+    public Object[][] byteOrders() {
+        return new Object[][]{{ByteOrder.LITTLE_ENDIAN, 0}, {ByteOrder.BIG_ENDIAN, 0}, {ByteOrder.LITTLE_ENDIAN, 1}};
+    }
+
+    @Test(dataProvider = "byteOrders")
+    public void testNsAndMasks(final ByteOrder order, final int version) throws IOException {
+        final Map<String, String> sequences = new LinkedHashMap<>();
+        sequences.put("one", "NNACGTacgtTTGCANNNNNNNNNAC");
+        sequences.put("two", "");
+        sequences.put("three", "GATTACAN");
+        final File file = writeTwoBit(sequences, order, version);
+
+        try ( final ReferenceTwoBitMappedSource reference = new ReferenceTwoBitMappedSource(file) ) {
+            final SAMSequenceDictionary dictionary = reference.getSequenceDictionary();
+            Assert.assertEquals(dictionary.size(), 3);
+            int index = 0;
+            for ( final Map.Entry<String, String> entry : sequences.entrySet() ) {
+                final String contig = entry.getKey();
+                final String bases = entry.getValue().toUpperCase();
+                Assert.assertEquals(dictionary.getSequence(index).getSequenceName(), contig);
+                Assert.assertEquals(dictionary.getSequence(index).getSequenceLength(), bases.length());
+                Assert.assertEquals(new String(reference.getSequence(contig).getBases()), bases);
+                for ( int start = 1; start <= bases.length(); start++ ) {
+                    for ( int stop = start; stop <= bases.length(); stop++ ) {
+                        Assert.assertEquals(new String(reference.queryAndPrefetch(contig, start, stop).getBases()), bases.substring(start - 1, stop));
+                    }
+                }
+                Assert.assertEquals(reference.getSubsequenceAt(contig, 1, bases.length()).getContigIndex(), index++);
+            }
+        }
+    }
+
+    @Test
+    public void testContigsInDictionaryOrder() throws IOException {
+        final Map<String, String> sequences = new LinkedHashMap<>();
+        sequences.put("one", "ACGTN");
+        sequences.put("two", "GG");
+        sequences.put("three", "GATTACA");
+        final File file = writeTwoBit(sequences, ByteOrder.LITTLE_ENDIAN, 0);
+        // the companion dictionary lists the contigs in a different order from the .2bit file
+        final List<String> dictionaryOrder = Arrays.asList("three", "one", "two");
+        final StringBuilder dictionary = new StringBuilder("@HD\tVN:1.5\n");
+        dictionaryOrder.forEach(contig -> dictionary.append("@SQ\tSN:").append(contig).append("\tLN:").append(sequences.get(contig).length()).append('\n'));
+        final File dictionaryFile = new File(ReferenceUtils.getFastaDictionaryFileName(file.getPath()));
+        dictionaryFile.deleteOnExit();
+        Files.write(dictionaryFile.toPath(), dictionary.toString().getBytes(StandardCharsets.US_ASCII));
+
+        try ( final ReferenceTwoBitMappedSource reference = new ReferenceTwoBitMappedSource(file) ) {
+            for ( int index = 0; index < dictionaryOrder.size(); index++ ) {
+                final String contig = dictionaryOrder.get(index);
+                Assert.assertEquals(reference.getSequenceDictionary().getSequenceIndex(contig), index);
+                Assert.assertEquals(reference.getSubsequenceAt(contig, 1, 2).getContigIndex(), index);
+                Assert.assertEquals(reference.getSequence(contig).getContigIndex(), index);
+            }
+
+            // twice, to check that reset starts over
+            for ( int pass = 0; pass < 2; pass++ ) {
+                for ( int index = 0; index < dictionaryOrder.size(); index++ ) {
+                    final ReferenceSequence sequence = reference.nextSequence();
+                    Assert.assertEquals(sequence.getName(), dictionaryOrder.get(index));
+                    Assert.assertEquals(sequence.getContigIndex(), index);
+                    Assert.assertEquals(new String(sequence.getBases()), sequences.get(dictionaryOrder.get(index)));
+                }
+                Assert.assertNull(reference.nextSequence());
+                reference.reset();
+            }
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testQueryPastContigEnd() {
+        try ( final ReferenceDataSource reference = ReferenceDataSource.of(TWO_BIT_REFERENCE) ) {
+            reference.queryAndPrefetch("17", 1, reference.getSequenceDictionary().getSequence("17").getSequenceLength() + 1);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testQueryUnknownContig() {
+        try ( final ReferenceDataSource reference = ReferenceDataSource.of(TWO_BIT_REFERENCE) ) {
+            reference.queryAndPrefetch("1", 1, 10);
+        }
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testNotTwoBit() throws IOException {
+        final File file = createTempFile("notTwoBit", ReferenceTwoBitMappedSource.TWO_BIT_EXTENSION);
+        Files.write(file.toPath(), ">1\nACGTACGTACGTACGT\n".getBytes(StandardCharsets.US_ASCII));
+        new ReferenceTwoBitMappedSource(file);
+    }
+
+    @Test(expectedExceptions = UserException.MissingReference.class)
+    public void testMissingFile() {
+        new ReferenceTwoBitMappedSource(getSafeNonExistentFile("missing.2bit"));
+    }
+
+    // Writes the sequences in the .2bit format: Ns (and only Ns) go in N blocks, lowercase bases in mask blocks.
+    private static File writeTwoBit(final Map<String, String> sequences, final ByteOrder order, final int version) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(order);
+        buffer.putInt(0x1A412743).putInt(version).putInt(sequences.size()).putInt(0);
+        final Map<String, Integer> offsetPositions = new LinkedHashMap<>();
+        for ( final String name : sequences.keySet() ) {
+            buffer.put((byte) name.length()).put(name.getBytes(StandardCharsets.US_ASCII));
+            offsetPositions.put(name, buffer.position());
+            if ( version == 0 ) {
+                buffer.putInt(0);
+            } else {
+                buffer.putLong(0);
+            }
+        }
+        for ( final Map.Entry<String, String> entry : sequences.entrySet() ) {
+            final String bases = entry.getValue();
+            if ( version == 0 ) {
+                buffer.putInt(offsetPositions.get(entry.getKey()), buffer.position());
+            } else {
+                buffer.putLong(offsetPositions.get(entry.getKey()), buffer.position());
+            }
+            buffer.putInt(bases.length());
+            putBlocks(buffer, bases, c -> c == 'N');
+            putBlocks(buffer, bases, Character::isLowerCase);
+            buffer.putInt(0);
+            for ( int i = 0; i < bases.length(); i += 4 ) {
+                int packed = 0;
+                for ( int j = i; j < i + 4; j++ ) {
+                    packed = (packed << 2) | (j < bases.length() ? Math.max(0, "TCAG".indexOf(Character.toUpperCase(bases.charAt(j)))) : 0);
+                }
+                buffer.put((byte) packed);
+            }
+        }
+        final File file = createTempFile("test", ReferenceTwoBitMappedSource.TWO_BIT_EXTENSION);
+        Files.write(file.toPath(), Arrays.copyOf(buffer.array(), buffer.position()));
+        return file;
+    }
+
+    private static void putBlocks(final ByteBuffer buffer, final String bases, final IntPredicate inBlock) {
+        final List<Integer> starts = new ArrayList<>();
+        final List<Integer> sizes = new ArrayList<>();
+        for ( int i = 0; i < bases.length(); i++ ) {
+            if ( inBlock.test(bases.charAt(i)) ) {
+                if ( i == 0 || ! inBlock.test(bases.charAt(i - 1)) ) {
+                    starts.add(i);
+                    sizes.add(0);
+                }
+                sizes.set(sizes.size() - 1, sizes.get(sizes.size() - 1) + 1);
+            }
+        }
+        buffer.putInt(starts.size());
+        starts.forEach(buffer::putInt);
+        sizes.forEach(buffer::putInt);
+    }
+}
@@ -0,0 +1,198 @@
+package org.broadinstitute.hellbender.engine;
+
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+public class TraversalInstrumentationUnitTest extends BaseTest {
+
+    @BeforeMethod
+    public void enableInstrumentation() {
+        TraversalInstrumentation.setEnabled(true);
+    }
+
+    @AfterMethod
+    public void restoreInstrumentation() {
+        TraversalInstrumentation.stopJmxPublishing();
+        TraversalInstrumentation.setEnabled(false);
+        TraversalInstrumentation.reset();
+    }
+
+    private static TraversalInstrumentation.Measurement measurement( final String name ) {
+        final Optional<TraversalInstrumentation.Measurement> result =
+                TraversalInstrumentation.snapshot().stream().filter(m -> m.getName().equals(name)).findFirst();
+        Assert.assertTrue(result.isPresent(), name);
+        return result.get();
+    }
+
+    @Test
+    public void testRegistryReturnsSameInstance() {
+        Assert.assertSame(TraversalInstrumentation.timer("test.registry.timer"), TraversalInstrumentation.timer("test.registry.timer"));
+        Assert.assertSame(TraversalInstrumentation.counter("test.registry.counter"), TraversalInstrumentation.counter("test.registry.counter"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNameAlreadyUsedByOtherType() {
+        TraversalInstrumentation.timer("test.registry.clash");
+        TraversalInstrumentation.counter("test.registry.clash");
+    }
+
+    @Test
+    public void testAccumulationAcrossThreads() throws InterruptedException {
+        final TraversalInstrumentation.Timer timer = TraversalInstrumentation.timer("test.threads.timer");
+        final TraversalInstrumentation.Counter counter = TraversalInstrumentation.counter("test.threads.counter");
+        final int numThreads = 4;
+        final int updatesPerThread = 1000;
+        final List<Thread> threads = new ArrayList<>();
+        for ( int i = 0; i < numThreads; ++i ) {
+            threads.add(new Thread(() -> {
+                for ( int j = 0; j < updatesPerThread; ++j ) {
+                    timer.record(10L);
+                    counter.add(2L);
+                }
+            }));
+        }
+        for ( final Thread thread : threads ) {
+            thread.start();
+        }
+        for ( final Thread thread : threads ) {
+            thread.join();
+        }
+
+        final TraversalInstrumentation.Measurement timed = measurement("test.threads.timer");
+        Assert.assertTrue(timed.isTimer());
+        Assert.assertEquals(timed.getCount(), numThreads * updatesPerThread);
+        Assert.assertEquals(timed.getTotalNanoseconds(), 10L * numThreads * updatesPerThread);
+        Assert.assertEquals(timed.getMeanMicroseconds(), 0.01, 1e-9);
+
+        final TraversalInstrumentation.Measurement counted = measurement("test.threads.counter");
+        Assert.assertFalse(counted.isTimer());
+        Assert.assertEquals(counted.getCount(), 2L * numThreads * updatesPerThread);
+
+        TraversalInstrumentation.reset();
+        Assert.assertEquals(measurement("test.threads.timer").getCount(), 0L);
+        Assert.assertEquals(measurement("test.threads.counter").getCount(), 0L);
+    }
+
+    @Test
+    public void testCellsOfEndedThreadsAreDropped() throws InterruptedException {
+        final TraversalInstrumentation.Counter counter = TraversalInstrumentation.counter("test.endedThreads.counter");
+        counter.increment();
+        for ( int i = 0; i < 10; ++i ) {
+            final Thread thread = new Thread(() -> counter.add(2L));
+            thread.start();
+            thread.join();
+        }
+
+        // only the cell of this thread is left, and the counts of the others are kept
+        Assert.assertEquals(counter.numThreadCells(), 1);
+        Assert.assertEquals(measurement("test.endedThreads.counter").getCount(), 21L);
+
+        TraversalInstrumentation.reset();
+        final Thread thread = new Thread(counter::increment);
+        thread.start();
+        thread.join();
+        Assert.assertEquals(measurement("test.endedThreads.counter").getCount(), 1L);
+    }
+
+    @Test
+    public void testStartStopAndTimeNext() {
+        final TraversalInstrumentation.Timer timer = TraversalInstrumentation.timer("test.startStop.timer");
+        final long startTime = timer.start();
+        Assert.assertNotEquals(startTime, TraversalInstrumentation.Timer.NOT_STARTED);
+        timer.stop(startTime);
+        Assert.assertEquals(measurement("test.startStop.timer").getCount(), 1L);
+
+        final Iterator<Integer> timed = timer.timeNext(Arrays.asList(1, 2, 3).iterator());
+        final List<Integer> values = new ArrayList<>();
+        timed.forEachRemaining(values::add);
+        Assert.assertEquals(values, Arrays.asList(1, 2, 3));
+        Assert.assertEquals(measurement("test.startStop.timer").getCount(), 4L);
+    }
+
+    @Test
+    public void testDisabled() {
+        final TraversalInstrumentation.Timer timer = TraversalInstrumentation.timer("test.disabled.timer");
+        final TraversalInstrumentation.Counter counter = TraversalInstrumentation.counter("test.disabled.counter");
+        counter.increment();
+
+        TraversalInstrumentation.setEnabled(false);
+        Assert.assertFalse(TraversalInstrumentation.isEnabled());
+        final long startTime = timer.start();
+        Assert.assertEquals(startTime, TraversalInstrumentation.Timer.NOT_STARTED);
+        timer.stop(startTime);
+        timer.record(5L);
+        counter.increment();
+
+        Assert.assertEquals(measurement("test.disabled.timer").getCount(), 0L);
+        Assert.assertEquals(measurement("test.disabled.counter").getCount(), 1L);
+    }
+
+    @Test
+    public void testTsvAndJsonSummaries() throws IOException {
+        final List<TraversalInstrumentation.Measurement> measurements = Arrays.asList(
+                new TraversalInstrumentation.Measurement("a.timer", true, 4L, 2_000_000_000L),
+                new TraversalInstrumentation.Measurement("b\"counter", false, 10L, 0L));
+
+        final StringWriter tsv = new StringWriter();
+        TraversalInstrumentation.writeTsv(tsv, measurements, 2.0);
+        final String[] lines = tsv.toString().split("\\r?\\n");
+        Assert.assertEquals(lines.length, 3);
+        Assert.assertEquals(lines[0], "NAME\tTYPE\tCOUNT\tTOTAL_SECONDS\tMEAN_MICROSECONDS\tCOUNT_PER_SECOND");
+        Assert.assertEquals(lines[1], "a.timer\ttimer\t4\t2.000000\t500000.000\t2.000");
+        Assert.assertEquals(lines[2], "b\"counter\tcounter\t10\t\t\t5.000");
+
+        final StringWriter json = new StringWriter();
+        TraversalInstrumentation.writeJson(json, measurements, 2.0);
+        final String jsonText = json.toString().replaceAll("\\s+", " ");
+        Assert.assertEquals(jsonText,
+                "{ \"elapsedSeconds\": 2.000, \"measurements\": [ " +
+                "{\"name\": \"a.timer\", \"type\": \"timer\", \"count\": 4, \"totalSeconds\": 2.000000, \"meanMicroseconds\": 500000.000, \"countPerSecond\": 2.000}, " +
+                "{\"name\": \"b\\\"counter\", \"type\": \"counter\", \"count\": 10, \"countPerSecond\": 5.000} ] } ");
+
+        TraversalInstrumentation.timer("test.summary.timer").record(1L);
+        final File summary = createTempFile("instrumentation", ".json");
+        TraversalInstrumentation.writeSummary(summary.getAbsolutePath(), 1.0);
+        Assert.assertTrue(new String(Files.readAllBytes(summary.toPath())).contains("\"name\": \"test.summary.timer\""));
+    }
+
+    @Test
+    public void testJmxPublishing() throws Exception {
+        TraversalInstrumentation.counter("test.jmx.counter").add(7L);
+        TraversalInstrumentation.startJmxPublishing(0.01);
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(TraversalInstrumentation.JMX_OBJECT_NAME);
+        Assert.assertTrue(server.isRegistered(name));
+
+        long counted = -1L;
+        for ( int attempt = 0; attempt < 500 && counted != 7L; ++attempt ) {
+            final TabularData counts = (TabularData) server.getAttribute(name, "Counts");
+            final CompositeData row = counts.get(new Object[]{"test.jmx.counter"});
+            counted = row == null ? -1L : (Long) row.get("value");
+            if ( counted != 7L ) {
+                Thread.sleep(10L);
+            }
+        }
+        Assert.assertEquals(counted, 7L);
+
+        TraversalInstrumentation.stopJmxPublishing();
+        Assert.assertFalse(server.isRegistered(name));
+    }
+}
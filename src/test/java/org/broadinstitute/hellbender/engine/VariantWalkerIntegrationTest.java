@@ -4,6 +4,7 @@ import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineArgumentParser;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.barclay.argparser.CommandLineParser;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
@@ -13,10 +14,12 @@ import org.broadinstitute.hellbender.tools.examples.ExampleVariantWalker;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.test.ArgumentsBuilder;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -152,4 +155,83 @@ public final class VariantWalkerIntegrationTest extends CommandLineProgramTest {
         tool.instanceMain(args);
     }
 
+    @CommandLineProgramProperties(
+            summary = "Dummy that records the IDs of the variants it sees, on any number of threads",
+            oneLineSummary = "none",
+            programGroup = TestProgramGroup.class
+    )
+    private static final class TestMultithreadedVariantWalker extends VariantWalker {
+        public final List<String> ids = new ArrayList<>();
+
+        @Override
+        public void apply(VariantContext variant, ReadsContext readsContext, ReferenceContext referenceContext, FeatureContext featureContext) {
+            ids.add(variant.getID());
+        }
+
+        @Override
+        protected VariantWorker.Factory<String> makeVariantWorkerFactory() {
+            return new VariantWorker.Factory<String>() {
+                @Override
+                public VariantWorker<String> newWorker() {
+                    return (variant, readsContext, referenceContext, featureContext) -> variant.getID();
+                }
+
+                @Override
+                public void onResult(final String result) {
+                    ids.add(result);
+                }
+            };
+        }
+    }
+
+    @DataProvider(name = "multithreadedTraversal")
+    public Object[][] multithreadedTraversal() {
+        final String variantsWithDeletions = publicTestDir + "org/broadinstitute/hellbender/engine/feature_data_source_test_withSequenceDict.vcf";
+        final String variantsOnShortContigs = publicTestDir + "org/broadinstitute/hellbender/engine/example_variants_withSequenceDict.vcf";
+        return new Object[][] {
+                // deletions spanning shard boundaries, and intervals starting in the middle of one
+                {Arrays.asList("-V", variantsWithDeletions, "-L", "1:200-1200", "-L", "2:1-1000", "-L", "3", "-L", "4:1-800", "-variantShardSize", "5")},
+                {Arrays.asList("-V", variantsOnShortContigs, "-variantShardSize", "50")},
+                // contig lengths unknown, from the index
+                {Arrays.asList("-V", publicTestDir + "org/broadinstitute/hellbender/engine/feature_data_source_test.vcf", "-variantShardSize", "50")},
+                {Arrays.asList("-V", publicTestDir + "org/broadinstitute/hellbender/engine/feature_data_source_test.vcf", "-R", hg19MiniReference, "-variantShardSize", "50")},
+                // variants on a contig missing from the header, and contigs out of dictionary order (also tabix-indexed)
+                {Arrays.asList("-V", publicTestDir + "org/broadinstitute/hellbender/engine/variant_walker_undeclared_contig.vcf", "-variantShardSize", "50")},
+                {Arrays.asList("-V", publicTestDir + "org/broadinstitute/hellbender/engine/variant_walker_contigs_out_of_order.vcf", "-variantShardSize", "50")},
+                {Arrays.asList("-V", publicTestDir + "org/broadinstitute/hellbender/engine/variant_walker_contigs_out_of_order.vcf.gz", "-variantShardSize", "50")}
+        };
+    }
+
+    @Test(dataProvider = "multithreadedTraversal")
+    public void testMultithreadedTraversal(final List<String> args) {
+        final List<List<String>> ids = new ArrayList<>();
+        for ( final String threads : Arrays.asList("1", "4") ) {
+            final TestMultithreadedVariantWalker tool = new TestMultithreadedVariantWalker();
+            final List<String> toolArgs = new ArrayList<>(args);
+            toolArgs.addAll(Arrays.asList("-traversalThreads", threads));
+            tool.instanceMain(toolArgs.toArray(new String[toolArgs.size()]));
+            ids.add(tool.ids);
+        }
+        Assert.assertFalse(ids.get(0).isEmpty());
+        Assert.assertEquals(ids.get(1), ids.get(0));
+    }
+
+    @Test(expectedExceptions = CommandLineException.BadArgumentValue.class)
+    public void testMultithreadedTraversalNotSupported() {
+        final String[] args = {
+                "-V", publicTestDir + "org/broadinstitute/hellbender/engine/example_variants_withSequenceDict.vcf",
+                "-traversalThreads", "2"
+        };
+        new TestGATKToolWithFeatures().instanceMain(args);
+    }
+
+    @Test(expectedExceptions = UserException.class)
+    public void testMultithreadedTraversalRequiresIndex() {
+        final String[] args = {
+                "-V", publicTestDir + "org/broadinstitute/hellbender/tools/count_variants_withSequenceDict_noIndex.vcf",
+                "-traversalThreads", "2"
+        };
+        new TestMultithreadedVariantWalker().instanceMain(args);
+    }
+
 }
@@ -258,6 +258,62 @@ public final class CountingReadFilterUnitTest {
         Assert.assertEquals(isEgon.getFilteredCount(), 0);
     }
 
+    @Test(dataProvider = "subFilterCounts")
+    public void testMayPassDoesNotCount(GATKRead[] reads, long totalRejections, long startEndRejections, long nameRejections) {
+        CountingReadFilter rawStartOk = new CountingReadFilter(
+                new ReadFilter() {
+                    private static final long serialVersionUID = 1L;
+                    @Override public boolean test(final GATKRead read){return read.getStart() >= 1;}
+                    @Override public boolean isRawFieldEvaluable(){return true;}
+                }
+        );
+        CountingReadFilter compoundFilter = new CountingReadFilter(endOk).and(rawStartOk.negate().negate())
+                .or(rawStartOk.and(new CountingReadFilter(endOk)));
+
+        for (final GATKRead read : reads) {
+            Assert.assertEquals(compoundFilter.mayPass(read), read.getStart() >= 1);
+        }
+        Assert.assertEquals(compoundFilter.getFilteredCount(), 0);
+        Assert.assertEquals(rawStartOk.getFilteredCount(), 0);
+
+        // filtering afterwards counts exactly as without calling mayPass first
+        final long passed = Arrays.stream(reads).filter(compoundFilter).count();
+        final long expectedPassed = Arrays.stream(reads).filter(read -> startOk.test(read) && endOk.test(read)).count();
+        Assert.assertEquals(passed, expectedPassed);
+        Assert.assertEquals(compoundFilter.getFilteredCount(), reads.length - expectedPassed);
+    }
+
+    private static CountingReadFilter makeCompoundFilter() {
+        final CountingReadFilter isRay = new CountingReadFilter(
+                new ReadFilter() {
+                    private static final long serialVersionUID = 1L;
+                    @Override public boolean test(final GATKRead read){return read.getName().equals("Ray");}
+                }
+        );
+        return new CountingReadFilter(startOk).and(new CountingReadFilter(endOk).negate().negate()).or(isRay);
+    }
+
+    @Test(dataProvider = "subFilterCounts")
+    public void testAddFilteredCounts(GATKRead[] reads, long totalRejections, long startEndRejections, long nameRejections) {
+        final CountingReadFilter allReads = makeCompoundFilter();
+        Arrays.stream(reads).filter(allReads).count();
+
+        // the same reads, split between two copies of the filter
+        final CountingReadFilter firstHalf = makeCompoundFilter();
+        final CountingReadFilter secondHalf = makeCompoundFilter();
+        Arrays.stream(reads, 0, reads.length / 2).filter(firstHalf).count();
+        Arrays.stream(reads, reads.length / 2, reads.length).filter(secondHalf).count();
+        firstHalf.addFilteredCounts(secondHalf);
+
+        Assert.assertEquals(firstHalf.getFilteredCount(), allReads.getFilteredCount());
+        Assert.assertEquals(firstHalf.getSummaryLine(), allReads.getSummaryLine());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAddFilteredCountsOfDifferentFilter() {
+        new CountingReadFilter(startOk).addFilteredCounts(new CountingReadFilter(startOk).negate());
+    }
+
     @Test
     public void testFromListNull() {
         CountingReadFilter rf = CountingReadFilter.fromList(null, ArtificialReadUtils.createArtificialSamHeader(1, 1, 10));
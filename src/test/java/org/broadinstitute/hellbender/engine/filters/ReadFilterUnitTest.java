@@ -115,6 +115,27 @@ public final class ReadFilterUnitTest {
         Assert.assertEquals(readChecksOut.or(r -> true).test(read), true);
     }
 
+    @Test(dataProvider = "readsStartEnd")
+    public void testMayPass(GATKRead read, boolean start, boolean end){
+        final ReadFilter rawStartOk = new ReadFilter() {
+            private static final long serialVersionUID = 1L;
+            @Override public boolean test(final GATKRead read){return read.getStart() >= 1;}
+            @Override public boolean isRawFieldEvaluable(){return true;}
+        };
+
+        // only the raw-field-evaluable filters can reject a read
+        Assert.assertEquals(rawStartOk.mayPass(read), start);
+        Assert.assertTrue(endOk.mayPass(read));
+        Assert.assertEquals(rawStartOk.negate().mayPass(read), !start);
+        Assert.assertTrue(endOk.negate().mayPass(read));
+        Assert.assertEquals(endOk.and(rawStartOk).mayPass(read), start);
+        Assert.assertEquals(rawStartOk.and(endOk).mayPass(read), start);
+        Assert.assertTrue(rawStartOk.or(endOk).mayPass(read));
+        Assert.assertEquals(rawStartOk.or(rawStartOk).mayPass(read), start);
+        Assert.assertFalse(rawStartOk.and(endOk).isRawFieldEvaluable());
+        Assert.assertTrue(rawStartOk.negate().and(rawStartOk).isRawFieldEvaluable());
+    }
+
     @Test
     public void testFromListNull() {
         ReadFilter rf = ReadFilter.fromList(null, ArtificialReadUtils.createArtificialSamHeader(1, 1, 10));
@@ -14,7 +14,9 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -87,9 +89,23 @@ public class XHMMSegmentCallerIntegrationTest extends XHMMSegmentCallerBaseInteg
         return outputFile;
     }
 
-    public void runCommandLine(final XHMMData chain, final File inputFile, final File outputFile) {
+    @Test(dataProvider = "simulatedChainData")
+    public void testMultithreadedSameAsSingleThreaded(final XHMMData chain) throws IOException {
+        final File inputFile = writeChainInTempFile(chain);
+        final File singleThreadedOutputFile = createTempFile("output", ".tab");
+        runCommandLine(chain, inputFile, singleThreadedOutputFile);
+        final File multithreadedOutputFile = createTempFile("output", ".tab");
+        runCommandLine(chain, inputFile, multithreadedOutputFile, "-" + XHMMSegmentCallerBase.HMM_THREADS_SHORT_NAME, "4");
+
+        Assert.assertFalse(readOutputRecords(singleThreadedOutputFile).isEmpty());
+        // the segments of different samples over the same targets may come out in any order
+        Assert.assertEquals(Files.readAllLines(multithreadedOutputFile.toPath()).stream().sorted().collect(Collectors.toList()),
+                Files.readAllLines(singleThreadedOutputFile.toPath()).stream().sorted().collect(Collectors.toList()));
+    }
+
+    public void runCommandLine(final XHMMData chain, final File inputFile, final File outputFile, final String... extraArguments) {
         // The model arguments:
-        final List<String> arguments = new ArrayList<>();
+        final List<String> arguments = new ArrayList<>(Arrays.asList(extraArguments));
         arguments.add("-" + StandardArgumentDefinitions.INPUT_SHORT_NAME);
         arguments.add(inputFile.getAbsolutePath());
         arguments.add("-" + StandardArgumentDefinitions.OUTPUT_SHORT_NAME);
@@ -12,7 +12,9 @@ import htsjdk.variant.vcf.VCFCodec;
 import htsjdk.variant.vcf.VCFHeader;
 import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.Main;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.HaplotypeCaller;
 import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
@@ -26,6 +28,7 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -119,6 +122,96 @@ public final class GenomicsDBImportIntegrationTest extends CommandLineProgramTes
         checkJSONFilesAreWritten(workspace);
         checkGenomicsDBAgainstExpected(workspace, INTERVAL, COMBINED);
     }
+
+    @DataProvider
+    public Object[][] getIntervalsInParallel(){
+        return new Object[][] {
+                {1}, {2}, {3}
+        };
+    }
+
+    @Test(dataProvider = "getIntervalsInParallel")
+    public void testMultipleIntervals(final int intervalsInParallel) throws IOException {
+        final String workspace = createTempDir("genomicsdb-multiple-intervals-tests-").getAbsolutePath() + "/workspace";
+        final SimpleInterval secondInterval = new SimpleInterval("chr20", 17990000, 17991000);
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addArgument("genomicsDBWorkspace", workspace);
+        args.addArgument("L", IntervalUtils.locatableToString(INTERVAL));
+        args.addArgument("L", IntervalUtils.locatableToString(secondInterval));
+        LOCAL_GVCFS.forEach(vcf -> args.addArgument("V", vcf));
+        args.addArgument(GenomicsDBImport.VCF_INITIALIZER_THREADS_LONG_NAME, "2");
+        args.addArgument(GenomicsDBImport.MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL, String.valueOf(intervalsInParallel));
+        runCommandLine(args);
+
+        final String firstWorkspace = workspace + "/" + GenomicsDBImport.getIntervalWorkspaceName(INTERVAL);
+        checkJSONFilesAreWritten(firstWorkspace);
+        checkGenomicsDBAgainstExpected(firstWorkspace, INTERVAL, COMBINED);
+        checkJSONFilesAreWritten(workspace + "/" + GenomicsDBImport.getIntervalWorkspaceName(secondInterval));
+    }
+
+    /**
+     * Call and index a small GVCF on the public chr17 snippet, so that the import can be checked without the large test files
+     */
+    private File makeChr17GVCF() {
+        final File gvcf = createTempFile("NA12878.chr17_69k_70k", ".g.vcf");
+        final ArgumentsBuilder args = new ArgumentsBuilder()
+                .addArgument(StandardArgumentDefinitions.INPUT_LONG_NAME, NA12878_chr17_1k_BAM)
+                .addArgument(StandardArgumentDefinitions.REFERENCE_LONG_NAME, v37_chr17_1Mb_Reference)
+                .addArgument("L", "17:68000-71000")
+                .addArgument("emitRefConfidence", "GVCF")
+                .addArgument(StandardArgumentDefinitions.OUTPUT_LONG_NAME, gvcf.getAbsolutePath());
+        new Main().instanceMain(makeCommandLineArgs(args.getArgsList(), HaplotypeCaller.class.getSimpleName()));
+
+        final File index = new File(gvcf.getAbsolutePath() + ".idx");
+        index.deleteOnExit();
+        new Main().instanceMain(makeCommandLineArgs(Arrays.asList("-F", gvcf.getAbsolutePath(), "-O", index.getAbsolutePath()), "IndexFeatureFile"));
+        return gvcf;
+    }
+
+    @Test(dataProvider = "getIntervalsInParallel")
+    public void testMultipleIntervalsSameAsSingleIntervals(final int intervalsInParallel) throws IOException {
+        final File gvcf = makeChr17GVCF();
+        final List<SimpleInterval> intervals = Arrays.asList(
+                new SimpleInterval("17", 68500, 69400), new SimpleInterval("17", 69600, 70500));
+        final String workspace = createTempDir("genomicsdb-multiple-intervals-tests-").getAbsolutePath() + "/workspace";
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addArgument("genomicsDBWorkspace", workspace);
+        intervals.forEach(interval -> args.addArgument("L", IntervalUtils.locatableToString(interval)));
+        args.addArgument("V", gvcf.getAbsolutePath());
+        args.addArgument(GenomicsDBImport.MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL, String.valueOf(intervalsInParallel));
+        runCommandLine(args);
+
+        // each interval's workspace holds what a separate import of that interval alone does
+        for ( final SimpleInterval interval : intervals ) {
+            final String intervalWorkspace = workspace + "/" + GenomicsDBImport.getIntervalWorkspaceName(interval);
+            final String singleIntervalWorkspace = createTempDir("genomicsdb-single-interval-tests-").getAbsolutePath() + "/workspace";
+            writeToGenomicsDB(Collections.singletonList(gvcf.getAbsolutePath()), interval, singleIntervalWorkspace, 0, false, 0, 1);
+
+            checkJSONFilesAreWritten(intervalWorkspace);
+            final List<String> actual = readGenomicsDB(intervalWorkspace, interval, v37_chr17_1Mb_Reference);
+            Assert.assertFalse(actual.isEmpty());
+            Assert.assertEquals(actual, readGenomicsDB(singleIntervalWorkspace, interval, v37_chr17_1Mb_Reference));
+        }
+    }
+
+    private static List<String> readGenomicsDB(final String workspace, final SimpleInterval interval, final String reference) throws IOException {
+        try ( final GenomicsDBFeatureReader<VariantContext, PositionalBufferedStream> genomicsDBFeatureReader =
+                      new GenomicsDBFeatureReader<>(
+                              new File(workspace, GenomicsDBConstants.DEFAULT_VIDMAP_FILE_NAME).getAbsolutePath(),
+                              new File(workspace, GenomicsDBConstants.DEFAULT_CALLSETMAP_FILE_NAME).getAbsolutePath(),
+                              workspace,
+                              GenomicsDBConstants.DEFAULT_ARRAY_NAME,
+                              reference, null, new BCF2Codec());
+              final CloseableTribbleIterator<VariantContext> records =
+                      genomicsDBFeatureReader.query(interval.getContig(), interval.getStart(), interval.getEnd()) ) {
+            final List<String> result = new ArrayList<>();
+            records.forEachRemaining(vc -> result.add(vc.toStringDecodeGenotypes()));
+            return result;
+        }
+    }
+
     /**
      *
      * @throws CommandLineException.OutOfRangeArgumentValue  Value must be >= 1024 bytes
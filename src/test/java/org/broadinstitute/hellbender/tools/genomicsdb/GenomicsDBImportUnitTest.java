@@ -4,6 +4,7 @@ import com.intel.genomicsdb.GenomicsDBImporter;
 import htsjdk.tribble.FeatureReader;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.test.BaseTest;
 import org.mockito.internal.util.io.IOUtil;
@@ -61,6 +62,13 @@ public class GenomicsDBImportUnitTest extends BaseTest{
         Assert.assertEquals(actual.keySet().iterator().next(), "Sample1");
     }
 
+    @Test
+    public void testIntervalWorkspaceName(){
+        Assert.assertEquals(GenomicsDBImport.getIntervalWorkspaceName(new SimpleInterval("chr20", 100, 2000)), "chr20_100_2000");
+        Assert.assertEquals(GenomicsDBImport.getIntervalWorkspaceName(new SimpleInterval("HLA-A*01:01", 1, 10)), "HLA-A_01_01_1_10");
+        Assert.assertEquals(GenomicsDBImport.getIntervalWorkspaceName(new SimpleInterval("chrUn_KI270302v1", 5, 5)), "chrUn_KI270302v1_5_5");
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void testNullFeatureReadersToFail() {
         final Map<String, FeatureReader<VariantContext>> sampleToReaderMap = new LinkedHashMap<>();
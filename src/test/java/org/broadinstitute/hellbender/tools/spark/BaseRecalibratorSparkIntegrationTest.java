@@ -6,10 +6,12 @@ import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.engine.datasources.ReferenceAPISource;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.bqsr.BQSRTestData;
+import org.broadinstitute.hellbender.tools.walkers.bqsr.IndexKnownSites;
 import org.broadinstitute.hellbender.utils.test.IntegrationTestSpec;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.test.SamAssertionUtils;
 import org.broadinstitute.hellbender.utils.test.ArgumentsBuilder;
+import org.broadinstitute.hellbender.utils.variant.MappedKnownSitesIndex;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -148,6 +150,31 @@ public final class BaseRecalibratorSparkIntegrationTest extends CommandLineProgr
         spec.executeTest("testBQSRSpark-" + params.args, this);
     }
 
+    @DataProvider(name = "knownSitesIndexJoinStrategies")
+    public Object[][] knownSitesIndexJoinStrategies() {
+        return new Object[][]{
+                {publicTestDir + "human_g1k_v37.chr17_1Mb.2bit", "BROADCAST"},
+                {publicTestDir + "human_g1k_v37.chr17_1Mb.fasta", "OVERLAPS_PARTITIONER"},
+        };
+    }
+
+    @Test(dataProvider = "knownSitesIndexJoinStrategies", groups = "spark")
+    public void testBQSRSparkWithKnownSitesIndex(final String reference, final String joinStrategy) throws IOException {
+        final String HiSeqBam_chr17 = getResourceDir() + "NA12878.chr17_69k_70k.dictFix.bam";
+        final String dbSNPb37_chr17 =  getResourceDir() + "dbsnp_132.b37.excluding_sites_after_129.chr17_69k_70k.vcf";
+        final String more17Sites = getResourceDir() + "bqsr.fakeSitesForTesting.b37.chr17.vcf";
+
+        // same sites as the multiple known sites test cases above, with one of the VCFs indexed
+        final String moreSitesIndex = createTempFile("more.sites", MappedKnownSitesIndex.KNOWN_SITES_INDEX_EXTENSION).getAbsolutePath();
+        new IndexKnownSites().instanceMain(Utils.escapeExpressions("--knownSites " + more17Sites + " -O " + moreSitesIndex));
+
+        final File actualTable = createTempFile("knownSitesIndex", ".table");
+        final String args = "-R " + reference + " -I " + HiSeqBam_chr17 + " -indelBQSR -enableBAQ --joinStrategy " + joinStrategy +
+                " -knownSites " + dbSNPb37_chr17 + " -knownSites " + moreSitesIndex + " -O " + actualTable.getAbsolutePath();
+        runCommandLine(Utils.escapeExpressions(args));
+        IntegrationTestSpec.assertEqualTextFiles(actualTable, new File(getResourceDir() + "expected.NA12878.chr17_69k_70k.2inputs.txt"));
+    }
+
     //This data provider is for tests that use reference (but not BAM) files stored in buckets
     @DataProvider(name = "BQSRCloudTest")
     public Object[][] createBQSRCloudTestData() {
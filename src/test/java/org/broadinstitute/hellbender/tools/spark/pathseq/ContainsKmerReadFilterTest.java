@@ -22,6 +22,7 @@ public class ContainsKmerReadFilterTest extends BaseTest {
     private LongHopscotchSet kmerSet;
     private SVKmerShort kmerMask;
     private File kmerSetFile;
+    private File mappedKmerSetFile;
 
     @BeforeMethod
     public void before() {
@@ -45,6 +46,8 @@ public class ContainsKmerReadFilterTest extends BaseTest {
             Assert.fail();
         }
         PSKmerUtils.writeKmerSet(kmerSetFile.getAbsolutePath(), new PSKmerSet(largeKmerSet, kSize, kmerMask));
+        mappedKmerSetFile = createTempFile("kmerset", PSKmerUtils.MAPPED_HOPSCOTCH_SET_EXTENSION);
+        PSKmerUtils.writeMappedKmerSet(mappedKmerSetFile.getAbsolutePath(), new PSKmerSet(largeKmerSet, kSize, kmerMask));
     }
 
     @DataProvider(name = "sequenceStrings")
@@ -67,7 +70,16 @@ public class ContainsKmerReadFilterTest extends BaseTest {
 
     @Test(dataProvider = "sequenceStrings")
     public void testTest(final String bases_in, final int kmerCountThreshold, final Boolean test_out) {
-        final ContainsKmerReadFilterSpark filter = new ContainsKmerReadFilterSpark(kmerSetFile.getAbsolutePath(), kmerCountThreshold);
+        testFilter(kmerSetFile, bases_in, kmerCountThreshold, test_out);
+    }
+
+    @Test(dataProvider = "sequenceStrings")
+    public void testTestMapped(final String bases_in, final int kmerCountThreshold, final Boolean test_out) {
+        testFilter(mappedKmerSetFile, bases_in, kmerCountThreshold, test_out);
+    }
+
+    private static void testFilter(final File kmerLibFile, final String bases_in, final int kmerCountThreshold, final Boolean test_out) {
+        final ContainsKmerReadFilterSpark filter = new ContainsKmerReadFilterSpark(kmerLibFile.getAbsolutePath(), kmerCountThreshold);
         final byte[] quals = new byte[bases_in.length()];
         Arrays.fill(quals, (byte) 30);
         GATKRead read_in = ArtificialReadUtils.createArtificialRead(bases_in.getBytes(), quals, "*");
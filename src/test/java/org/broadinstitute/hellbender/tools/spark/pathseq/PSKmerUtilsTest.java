@@ -2,9 +2,11 @@ package org.broadinstitute.hellbender.tools.spark.pathseq;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
+import htsjdk.samtools.util.BinaryCodec;
 import org.apache.commons.io.FileUtils;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.engine.datasources.ReferenceFileSource;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 import org.broadinstitute.hellbender.tools.spark.utils.LargeLongHopscotchSet;
 import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
@@ -169,4 +171,81 @@ public class PSKmerUtilsTest extends CommandLineProgramTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testReadWriteMappedSets() {
+        final long numElements = 100000L;
+        final int kSize = 31;
+        final SVKmerShort mask = SVKmerShort.getMask(new byte[]{3, 20, 25}, kSize);
+        final Random rand = new Random(SEED);
+
+        final LargeLongHopscotchSet hssMasked = new LargeLongHopscotchSet(numElements);
+        final LongBloomFilter bfMasked = new LongBloomFilter(numElements, 0.01);
+        final List<SVKmerShort> kmers = new ArrayList<>();
+        for (long i = 0; i < numElements; i++) {
+            final SVKmerShort kmer = new SVKmerShort(rand.nextLong() >>> 2);
+            kmers.add(kmer);
+            hssMasked.add(PSKmerCollection.canonicalizeAndMask(kmer, kSize, mask));
+            bfMasked.add(PSKmerCollection.canonicalizeAndMask(kmer, kSize, mask));
+        }
+        final PSKmerSet truthSet = new PSKmerSet(hssMasked, kSize, mask);
+        final PSKmerBloomFilter truthFilter = new PSKmerBloomFilter(bfMasked, kSize, mask, numElements);
+
+        final File hssFile = createTempFile("set", ".bin");
+        PSKmerUtils.writeMappedKmerSet(hssFile.getPath(), truthSet);
+        final PSKmerCollection hssIn = PSKmerUtils.readKmerFilter(hssFile.getPath() + PSKmerUtils.MAPPED_HOPSCOTCH_SET_EXTENSION);
+        Assert.assertTrue(hssIn instanceof PSMappedKmerCollection);
+
+        final File bfFile = createTempFile("set", ".bin");
+        PSKmerUtils.writeMappedKmerBloomFilter(bfFile.getPath(), truthFilter);
+        final PSKmerCollection bloomIn = PSKmerUtils.readKmerFilter(bfFile.getPath() + PSKmerUtils.MAPPED_BLOOM_FILTER_EXTENSION);
+
+        for (final PSKmerCollection in : Arrays.asList(hssIn, bloomIn)) {
+            Assert.assertEquals(in.kmerSize(), kSize);
+            Assert.assertEquals(in.getMask(), mask);
+        }
+        Assert.assertEquals(hssIn.getFalsePositiveProbability(), 0.0);
+        Assert.assertEquals(bloomIn.getFalsePositiveProbability(), truthFilter.getFalsePositiveProbability());
+
+        for (final SVKmerShort kmer : kmers) {
+            Assert.assertTrue(hssIn.contains(kmer), "Hopscotch set changed after writing/mapping");
+            Assert.assertTrue(bloomIn.contains(kmer), "Bloom filter changed after writing/mapping");
+        }
+        for (int i = 0; i < 10000; i++) {
+            final SVKmerShort kmer = new SVKmerShort(rand.nextLong() >>> 2);
+            Assert.assertEquals(hssIn.contains(kmer), truthSet.contains(kmer), "Hopscotch set changed after writing/mapping");
+            Assert.assertEquals(bloomIn.contains(kmer), truthFilter.contains(kmer), "Bloom filter changed after writing/mapping");
+        }
+    }
+
+    @Test
+    public void testReadWriteUpperCaseExtensions() {
+        final int kSize = 31;
+        final SVKmerShort mask = SVKmerShort.getMask(new byte[]{3, 20, 25}, kSize);
+        final LargeLongHopscotchSet hss = new LargeLongHopscotchSet(10);
+        hss.add(PSKmerCollection.canonicalizeAndMask(new SVKmerShort(12345L), kSize, mask));
+        final PSKmerSet set = new PSKmerSet(hss, kSize, mask);
+
+        // the writer keeps an extension that only differs in case, so the reader must recognize it too
+        final File hssFile = createTempFile("set", PSKmerUtils.HOPSCOTCH_SET_EXTENSION.toUpperCase());
+        PSKmerUtils.writeKmerSet(hssFile.getPath(), set);
+        Assert.assertEquals(PSKmerUtils.readKmerFilter(hssFile.getPath()), set);
+
+        final File mappedFile = createTempFile("set", PSKmerUtils.MAPPED_HOPSCOTCH_SET_EXTENSION.toUpperCase());
+        PSKmerUtils.writeMappedKmerSet(mappedFile.getPath(), set);
+        final PSKmerCollection mappedIn = PSKmerUtils.readKmerFilter(mappedFile.getPath());
+        Assert.assertTrue(mappedIn instanceof PSMappedKmerCollection);
+        Assert.assertTrue(mappedIn.contains(new SVKmerShort(12345L)));
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testMapNotAKmerFile() {
+        final File file = createTempFile("notKmers", PSKmerUtils.MAPPED_HOPSCOTCH_SET_EXTENSION);
+        final BinaryCodec codec = new BinaryCodec(file, true);
+        for (int i = 0; i < 8; i++) {
+            codec.writeLong(i);
+        }
+        codec.close();
+        PSKmerUtils.readKmerFilter(file.getPath());
+    }
+
+}
@@ -50,6 +50,34 @@ public class PathSeqBuildKmersSparkIntegrationTest extends CommandLineProgramTes
         Assert.assertEquals(testKmerLib, expectedKmerLib);
     }
 
+    @Test
+    public void testMappedHopscotchSetFromFasta() throws Exception {
+
+        final String libraryPath = "src/test/resources/" + PathSeqBuildKmers.class.getPackage().getName().replace(".", "/") + "/hg19mini.hss";
+        final File ref = new File(hg19MiniReference);
+        final File output = createTempFile("test", PSKmerUtils.MAPPED_HOPSCOTCH_SET_EXTENSION);
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addFileArgument("referencePath", ref);
+        args.addBooleanArgument("memoryMappedFormat", true);
+        args.addOutput(output);
+        this.runCommandLine(args.getArgsArray());
+
+        final PSKmerSet expectedKmerLib = (PSKmerSet) PSKmerUtils.readKmerFilter(libraryPath);
+        final PSKmerCollection testKmerLib = PSKmerUtils.readKmerFilter(output.getAbsolutePath());
+        Assert.assertEquals(testKmerLib.kmerSize(), expectedKmerLib.kmerSize());
+        Assert.assertEquals(testKmerLib.getMask(), expectedKmerLib.getMask());
+
+        final LongIterator itr = expectedKmerLib.iterator();
+        while (itr.hasNext()) {
+            Assert.assertTrue(testKmerLib.contains(new SVKmerShort(itr.next())));
+        }
+        final Random rand = new Random(72939);
+        for (int i = 0; i < NUM_FPP_TRIALS; i++) {
+            final SVKmerShort kmer = new SVKmerShort(rand.nextLong() >>> 2);
+            Assert.assertEquals(testKmerLib.contains(kmer), expectedKmerLib.contains(kmer));
+        }
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testBloomFilterFromFasta() throws Exception {
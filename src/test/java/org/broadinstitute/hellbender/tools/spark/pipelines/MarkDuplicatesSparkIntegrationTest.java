@@ -85,8 +85,24 @@ public class MarkDuplicatesSparkIntegrationTest extends AbstractMarkDuplicatesCo
     public void testMarkDuplicatesSparkIntegrationTestLocal(
         final File input, final long totalExpected, final long dupsExpected,
         Map<String, List<String>> metricsExpected) throws IOException {
+        testMarkDuplicatesSparkIntegrationTestLocalImpl(input, totalExpected, dupsExpected, metricsExpected, false);
+    }
+
+    @Test(groups = "spark", dataProvider = "md")
+    public void testMarkDuplicatesSparkIntegrationTestLocalSlimShuffle(
+        final File input, final long totalExpected, final long dupsExpected,
+        Map<String, List<String>> metricsExpected) throws IOException {
+        testMarkDuplicatesSparkIntegrationTestLocalImpl(input, totalExpected, dupsExpected, metricsExpected, true);
+    }
+
+    private void testMarkDuplicatesSparkIntegrationTestLocalImpl(
+        final File input, final long totalExpected, final long dupsExpected,
+        Map<String, List<String>> metricsExpected, final boolean slimShuffle) throws IOException {
 
         ArgumentsBuilder args = new ArgumentsBuilder();
+        if (slimShuffle) {
+            args.add("--SLIM_SHUFFLE");
+        }
         args.add("--"+ StandardArgumentDefinitions.INPUT_LONG_NAME);
         args.add(input.getPath());
         args.add("--"+StandardArgumentDefinitions.OUTPUT_LONG_NAME);
@@ -9,7 +9,9 @@ import org.broadinstitute.hellbender.engine.datasources.ReferenceMultiSource;
 import org.broadinstitute.hellbender.engine.datasources.ReferenceWindowFunctions;
 import org.broadinstitute.hellbender.engine.spark.SparkContextFactory;
 import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.spark.sv.StructuralVariationDiscoveryArgumentCollection;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.MappedSVKmerSet;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmer;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerLong;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
@@ -18,6 +20,7 @@ import org.broadinstitute.hellbender.utils.test.BaseTest;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.*;
 
@@ -55,6 +58,55 @@ public class FindBadGenomicKmersSparkUnitTest extends BaseTest {
         Assert.assertEquals(badKmers.get(0), SVKmerizer.toKmer(polyA,new SVKmerLong()));
     }
 
+    @Test(groups = "spark")
+    public void mappedBadKmersTest() throws IOException {
+        final byte[] polyA = new byte[KMER_SIZE]; Arrays.fill(polyA, (byte)'A');
+        final byte[] polyC = new byte[KMER_SIZE]; Arrays.fill(polyC, (byte)'C');
+        final List<byte[]> sequenceChunks = new ArrayList<>();
+        for ( int nTimes = 0; nTimes <= FindBadGenomicKmersSpark.MAX_KMER_FREQ; ++nTimes ) {
+            sequenceChunks.add(polyA);
+        }
+        sequenceChunks.add(polyC);
+
+        final JavaRDD<byte[]> refRDD = SparkContextFactory.getTestSparkContext().parallelize(sequenceChunks, 2);
+        final List<long[]> fingerprintsList = FindBadGenomicKmersSpark.processRefRDDFingerprints(KMER_SIZE,
+                                                                                                Integer.MAX_VALUE,
+                                                                                                FindBadGenomicKmersSpark.MAX_KMER_FREQ,
+                                                                                                refRDD);
+        final long[] fingerprints = fingerprintsList.stream().flatMapToLong(Arrays::stream).toArray();
+        Assert.assertEquals(fingerprints.length, 1);
+
+        final File file = createTempFile("badKmers", MappedSVKmerSet.MAPPED_KMER_SET_EXTENSION);
+        Assert.assertEquals(MappedSVKmerSet.write(file.getAbsolutePath(), KMER_SIZE, fingerprints, 2), 1L);
+        final MappedSVKmerSet badKmers = MappedSVKmerSet.map(file.getAbsolutePath(), KMER_SIZE);
+        Assert.assertTrue(badKmers.contains(SVKmerizer.toKmer(polyA, new SVKmerLong())));
+        Assert.assertFalse(badKmers.contains(SVKmerizer.toKmer(polyC, new SVKmerLong())));
+    }
+
+    @Test(groups = "spark", expectedExceptions = UserException.BadInput.class)
+    public void mappedBadKmersWrongKTest() {
+        final File file = createTempFile("badKmers", MappedSVKmerSet.MAPPED_KMER_SET_EXTENSION);
+        MappedSVKmerSet.write(file.getAbsolutePath(), KMER_SIZE, new long[0], 1);
+        MappedSVKmerSet.map(file.getAbsolutePath(), KMER_SIZE - 2);
+    }
+
+    @Test(groups = "spark")
+    public void sharedMappedBadKmersTest() {
+        final File file = createTempFile("badKmers", MappedSVKmerSet.MAPPED_KMER_SET_EXTENSION);
+        MappedSVKmerSet.write(file.getAbsolutePath(), KMER_SIZE, new long[0], 1);
+        final MappedSVKmerSet shared = MappedSVKmerSet.getShared(file.getAbsolutePath(), KMER_SIZE);
+        Assert.assertSame(MappedSVKmerSet.getShared(file.getAbsolutePath(), KMER_SIZE), shared);
+        Assert.assertNotSame(MappedSVKmerSet.map(file.getAbsolutePath(), KMER_SIZE), shared);
+    }
+
+    @Test(groups = "spark", expectedExceptions = UserException.BadInput.class)
+    public void sharedMappedBadKmersWrongKTest() {
+        final File file = createTempFile("badKmers", MappedSVKmerSet.MAPPED_KMER_SET_EXTENSION);
+        MappedSVKmerSet.write(file.getAbsolutePath(), KMER_SIZE, new long[0], 1);
+        MappedSVKmerSet.getShared(file.getAbsolutePath(), KMER_SIZE);
+        MappedSVKmerSet.getShared(file.getAbsolutePath(), KMER_SIZE - 2);
+    }
+
     @Test(groups = "spark")
     public void miniRefTest() throws IOException {
         final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
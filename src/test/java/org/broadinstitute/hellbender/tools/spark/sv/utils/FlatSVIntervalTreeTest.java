@@ -0,0 +1,228 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class FlatSVIntervalTreeTest extends BaseTest {
+    private static SVInterval[] intervals = {
+            new SVInterval(0, 100, 200),
+            new SVInterval(0, 150, 250),
+            new SVInterval(0, 200, 300),
+            new SVInterval(0, 250, 350),
+            new SVInterval(0, 300, 400),
+            new SVInterval(0, 350, 450),
+            new SVInterval(0, 400, 500),
+            new SVInterval(0, 450, 550),
+            new SVInterval(0, 500, 600),
+            new SVInterval(0, 550, 650),
+            new SVInterval(0, 600, 700),
+            new SVInterval(0, 650, 750),
+            new SVInterval(0, 700, 800),
+            new SVInterval(0, 750, 850),
+            new SVInterval(0, 800, 900),
+            new SVInterval(0, 850, 950),
+            new SVInterval(0, 900, 1000),
+            new SVInterval(1, 0, 100)
+    };
+
+    private static FlatSVIntervalTree<Integer> initTree() {
+        final List<Integer> values = new ArrayList<>(intervals.length);
+        for ( int idx = 0; idx != intervals.length; ++idx ) {
+            values.add(idx);
+        }
+        return new FlatSVIntervalTree<>(Arrays.asList(intervals), values);
+    }
+
+    @Test(groups = "sv")
+    public void findAndOrderTest() {
+        final FlatSVIntervalTree<Integer> testTree = initTree();
+        Assert.assertEquals(testTree.size(), intervals.length);
+        for ( int idx = 0; idx != intervals.length; ++idx ) {
+            final SVInterval interval = intervals[idx];
+            final SVIntervalTree.Entry<Integer> entry = testTree.find(interval);
+            Assert.assertEquals(entry.getInterval(), interval);
+            Assert.assertEquals(entry.getValue().intValue(), idx);
+            Assert.assertEquals(testTree.getIndex(interval), idx);
+            Assert.assertEquals(testTree.findByIndex(idx).getInterval(), interval);
+        }
+        Assert.assertNull(testTree.find(new SVInterval(0, 100, 201)));
+        Assert.assertEquals(testTree.getIndex(new SVInterval(0, 100, 201)), -1);
+        Assert.assertNull(testTree.findByIndex(intervals.length));
+    }
+
+    @Test(groups = "sv", expectedExceptions = UnsupportedOperationException.class)
+    public void immutableTest() {
+        initTree().min().setValue(47);
+    }
+
+    @Test(groups = "sv", expectedExceptions = IllegalArgumentException.class)
+    public void unsortedTest() {
+        new FlatSVIntervalTree<>(Arrays.asList(intervals[1], intervals[0]), Arrays.asList(1, 0));
+    }
+
+    @Test(groups = "sv", expectedExceptions = IllegalArgumentException.class)
+    public void repeatedIntervalTest() {
+        new FlatSVIntervalTree<>(Arrays.asList(intervals[0], intervals[0]), Arrays.asList(0, 0));
+    }
+
+    @Test(groups = "sv")
+    public void minAndMaxTest() {
+        final FlatSVIntervalTree<Integer> testTree = initTree();
+        final int lastIdx = intervals.length - 1;
+        Assert.assertEquals(testTree.min().getInterval(), intervals[0]);
+        Assert.assertEquals(testTree.max().getInterval(), intervals[lastIdx]);
+        for ( int idx = 0; idx != intervals.length; ++idx ) {
+            Assert.assertEquals(testTree.min(intervals[idx]).getInterval(), intervals[idx]);
+            Assert.assertEquals(testTree.max(intervals[idx]).getInterval(), intervals[idx]);
+        }
+        Assert.assertEquals(testTree.min(new SVInterval(0, 0, 1)).getInterval(), intervals[0]);
+        Assert.assertNull(testTree.min(new SVInterval(2, 0, 1)));
+        Assert.assertEquals(testTree.min(new SVInterval(0, 201, 201)).getInterval(), intervals[3]);
+        Assert.assertNull(testTree.max(new SVInterval(0, 0, 1)));
+        Assert.assertEquals(testTree.max(new SVInterval(2, 0, 1)).getInterval(), intervals[lastIdx]);
+        Assert.assertEquals(testTree.max(new SVInterval(0, 201, 201)).getInterval(), intervals[2]);
+
+        final FlatSVIntervalTree<Integer> emptyTree = new FlatSVIntervalTree<>(new SVIntervalTree<>());
+        Assert.assertNull(emptyTree.min());
+        Assert.assertNull(emptyTree.max());
+        Assert.assertFalse(emptyTree.iterator().hasNext());
+        Assert.assertFalse(emptyTree.overlappers(intervals[0]).hasNext());
+    }
+
+    @Test(groups = "sv")
+    public void minOverlapperTest() {
+        final FlatSVIntervalTree<Integer> testTree = initTree();
+        Assert.assertEquals(testTree.minOverlapper(intervals[0]).getInterval(), intervals[0]);
+        final int lastIdx = intervals.length - 1;
+        for ( int idx = 1; idx != lastIdx; ++idx ) {
+            Assert.assertEquals(testTree.minOverlapper(intervals[idx]).getInterval(), intervals[idx-1]);
+        }
+        Assert.assertEquals(testTree.minOverlapper(intervals[lastIdx]).getInterval(), intervals[lastIdx]);
+        Assert.assertNull(testTree.minOverlapper(new SVInterval(0, 0, 1)));
+        Assert.assertFalse(testTree.hasOverlapper(new SVInterval(0, 0, 1)));
+        Assert.assertNull(testTree.minOverlapper(new SVInterval(2, 0, 1)));
+        Assert.assertEquals(testTree.minOverlapper(new SVInterval(0, 201, 201)).getInterval(), intervals[1]);
+    }
+
+    @Test(groups = "sv")
+    public void iteratorTest() {
+        final FlatSVIntervalTree<Integer> testTree = initTree();
+        final Iterator<SVIntervalTree.Entry<Integer>> itr1 = testTree.iterator();
+        int idx = 0;
+        while ( itr1.hasNext() ) {
+            Assert.assertEquals(itr1.next().getInterval(), intervals[idx++]);
+        }
+        Assert.assertEquals(idx, intervals.length);
+
+        idx = 3;
+        final Iterator<SVIntervalTree.Entry<Integer>> itr2 = testTree.iterator(intervals[idx]);
+        while ( itr2.hasNext() ) {
+            Assert.assertEquals(itr2.next().getInterval(), intervals[idx++]);
+        }
+        Assert.assertEquals(idx, intervals.length);
+    }
+
+    @Test(groups = "sv")
+    public void overlappersTest() {
+        final FlatSVIntervalTree<Integer> testTree = initTree();
+        final Iterator<SVIntervalTree.Entry<Integer>> itr1 = testTree.overlappers(new SVInterval(0, 240, 260));
+        int idx = 1;
+        while ( itr1.hasNext() ) {
+            Assert.assertEquals(itr1.next().getInterval(), intervals[idx++]);
+        }
+        Assert.assertEquals(idx, 4);
+
+        // test overlappers in the presence of an element in the middle that isn't an overlapper
+        final SVIntervalTree<Integer> tree = new SVIntervalTree<>();
+        tree.put(new SVInterval(0, 100, 1000), 0);
+        tree.put(new SVInterval(0, 200, 1000), 0);
+        tree.put(new SVInterval(0, 300, 1000), 0);
+        tree.put(new SVInterval(0, 350, 450), 0);
+        tree.put(new SVInterval(0, 400, 1000), 0);
+        tree.put(new SVInterval(0, 500, 1000), 0);
+        final Iterator<SVIntervalTree.Entry<Integer>> itr2 =
+                new FlatSVIntervalTree<>(tree).overlappers(new SVInterval(0, 500, 600));
+        int start = 100;
+        while ( itr2.hasNext() ) {
+            Assert.assertEquals(itr2.next().getInterval().getStart(), start);
+            start += 100;
+        }
+        Assert.assertEquals(start, 600);
+    }
+
+    private static List<SVInterval> toIntervals( final Iterator<SVIntervalTree.Entry<Integer>> itr ) {
+        final List<SVInterval> result = new ArrayList<>();
+        while ( itr.hasNext() ) {
+            result.add(itr.next().getInterval());
+        }
+        return result;
+    }
+
+    @Test(groups = "sv")
+    public void randomOverlappersTest() {
+        final Random random = new Random(47L);
+        for ( final int nIntervals : new int[]{1, 2, 3, 7, 8, 9, 15, 16, 17, 100, 1000, 5000} ) {
+            final SVIntervalTree<Integer> tree = new SVIntervalTree<>();
+            while ( tree.size() < nIntervals ) {
+                final int start = random.nextInt(100000);
+                // mostly short intervals, with a few long ones and some empty ones
+                final int length = random.nextInt(10) == 0 ? random.nextInt(20000) : random.nextInt(200);
+                tree.put(new SVInterval(random.nextInt(3), start, start + length), tree.size());
+            }
+            final FlatSVIntervalTree<Integer> flatTree = new FlatSVIntervalTree<>(tree);
+            Assert.assertEquals(flatTree.size(), tree.size());
+            Assert.assertEquals(toIntervals(flatTree.iterator()), toIntervals(tree.iterator()));
+            for ( int idx = 0; idx != 500; ++idx ) {
+                final int start = random.nextInt(110000) - 5000;
+                final SVInterval query = new SVInterval(random.nextInt(4), start, start + random.nextInt(1000));
+                Assert.assertEquals(toIntervals(flatTree.overlappers(query)), toIntervals(tree.overlappers(query)),
+                        "overlappers of " + query);
+                final SVIntervalTree.Entry<Integer> minOverlapper = tree.minOverlapper(query);
+                Assert.assertEquals(flatTree.hasOverlapper(query), minOverlapper != null);
+                if ( minOverlapper != null ) {
+                    Assert.assertEquals(flatTree.minOverlapper(query).getValue(), minOverlapper.getValue());
+                }
+            }
+        }
+    }
+
+    @Test(groups = "sv")
+    @SuppressWarnings("unchecked")
+    public void serializationTest() {
+        final Kryo kryo = new Kryo();
+        final FlatSVIntervalTree<Integer> testTree = initTree();
+
+        final ByteArrayOutputStream flatBytes = new ByteArrayOutputStream();
+        final Output flatOutput = new Output(flatBytes);
+        kryo.writeObject(flatOutput, testTree);
+        flatOutput.close();
+        final FlatSVIntervalTree<Integer> flatCopy =
+                kryo.readObject(new Input(new ByteArrayInputStream(flatBytes.toByteArray())), FlatSVIntervalTree.class);
+        Assert.assertEquals(toIntervals(flatCopy.iterator()), Arrays.asList(intervals));
+        for ( int idx = 0; idx != intervals.length; ++idx ) {
+            Assert.assertEquals(flatCopy.findByIndex(idx).getValue().intValue(), idx);
+        }
+
+        // the serialized form is interchangeable with that of SVIntervalTree
+        final SVIntervalTree<Integer> tree =
+                kryo.readObject(new Input(new ByteArrayInputStream(flatBytes.toByteArray())), SVIntervalTree.class);
+        Assert.assertEquals(toIntervals(tree.iterator()), Arrays.asList(intervals));
+        final ByteArrayOutputStream treeBytes = new ByteArrayOutputStream();
+        final Output treeOutput = new Output(treeBytes);
+        kryo.writeObject(treeOutput, tree);
+        treeOutput.close();
+        Assert.assertEquals(treeBytes.toByteArray(), flatBytes.toByteArray());
+    }
+}
@@ -16,6 +16,10 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class MarkDuplicatesSparkUnitTest extends BaseTest {
     @DataProvider(name = "md")
@@ -48,4 +52,32 @@ public class MarkDuplicatesSparkUnitTest extends BaseTest {
         Assert.assertEquals(dupes.count(), dupsExpected);
     }
 
+    @Test(dataProvider = "md", groups = "spark")
+    public void markDupesSlimShuffleTest(final String input, final long totalExpected, final long dupsExpected) throws IOException {
+        JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+
+        ReadsSparkSource readSource = new ReadsSparkSource(ctx);
+        // several partitions so that the flags have to find their way back to the right one
+        JavaRDD<GATKRead> reads = readSource.getParallelReads(input, null).repartition(3);
+        SAMFileHeader header = readSource.getHeader(input, null);
+        final OpticalDuplicateFinder finder = new OpticalDuplicateFinder();
+
+        final List<GATKRead> expected = MarkDuplicatesSpark.mark(reads, header, MarkDuplicatesScoringStrategy.SUM_OF_BASE_QUALITIES, finder, 2).collect();
+        final List<GATKRead> actual = MarkDuplicatesSpark.mark(reads, header, MarkDuplicatesScoringStrategy.SUM_OF_BASE_QUALITIES, finder, 2, true).collect();
+
+        // the slim shuffle keeps the reads in their original order
+        Assert.assertEquals(actual.stream().map(GATKRead::commonToString).collect(Collectors.toList()),
+                reads.map(GATKRead::commonToString).collect());
+        Assert.assertEquals(actual.stream().filter(GATKRead::isDuplicate).count(), dupsExpected);
+        Assert.assertEquals(toFlagsByRead(actual), toFlagsByRead(expected));
+    }
+
+    private static Map<String, String> toFlagsByRead(final List<GATKRead> reads) {
+        final Map<String, String> result = new HashMap<>();
+        for (final GATKRead read : reads) {
+            final String flags = read.isDuplicate() + " " + read.getAttributeAsString(MarkDuplicatesSparkUtils.OPTICAL_DUPLICATE_TOTAL_ATTRIBUTE_NAME);
+            Assert.assertNull(result.put(read.commonToString() + " " + read.isFirstOfPair(), flags));
+        }
+        return result;
+    }
 }
@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.spark.utils;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import htsjdk.samtools.util.BinaryCodec;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
 import org.broadinstitute.hellbender.utils.test.BaseTest;
 import org.testng.Assert;
@@ -10,6 +11,7 @@ import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Random;
@@ -197,6 +199,77 @@ public final class LargeLongHopscotchSetTest extends BaseTest {
         Assert.assertNotEquals(hopscotchSet1, hopscotchSet3);
     }
 
+    @Test
+    void mappableTest() {
+        final Random rng = new Random(RAND_SEED);
+        final LargeLongHopscotchSet hopscotchSet = new LargeLongHopscotchSet(HHASH_NVALS);
+        final long[] vals = new long[HHASH_NVALS];
+        for (int valNo = 0; valNo != HHASH_NVALS; ++valNo) {
+            vals[valNo] = randomLong(rng);
+            hopscotchSet.add(vals[valNo]);
+        }
+        // removals rearrange the chains
+        for (int valNo = 0; valNo < HHASH_NVALS; valNo += 3) {
+            hopscotchSet.remove(vals[valNo]);
+        }
+
+        final File file = createTempFile("mappedSet", ".bin");
+        final BinaryCodec codec = new BinaryCodec(file, true);
+        codec.writeLong(42L); // the set doesn't have to start at the beginning of the file
+        hopscotchSet.writeMappable(codec);
+        codec.writeLong(43L);
+        codec.close();
+
+        final MappedLongArray array = new MappedLongArray(file.toPath());
+        final MappedLargeLongHopscotchSet mappedSet = new MappedLargeLongHopscotchSet(array, 1);
+        Assert.assertEquals(mappedSet.getEndIndex(), array.size() - 1);
+        Assert.assertEquals(array.get(mappedSet.getEndIndex()), 43L);
+        for (final long val : vals) {
+            Assert.assertEquals(mappedSet.contains(val), hopscotchSet.contains(val));
+        }
+        for (int i = 0; i < HHASH_NVALS; i++) {
+            final long val = randomLong(rng);
+            Assert.assertEquals(mappedSet.contains(val), hopscotchSet.contains(val));
+        }
+    }
+
+    @Test
+    void mappableWriterTest() {
+        final Random rng = new Random(RAND_SEED);
+        final LargeLongHopscotchSet hopscotchSet = new LargeLongHopscotchSet(HHASH_NVALS);
+        final long[] vals = new long[HHASH_NVALS];
+        for (int valNo = 0; valNo != HHASH_NVALS; ++valNo) {
+            // every tenth value is a duplicate
+            vals[valNo] = valNo % 10 == 9 ? vals[valNo - 1] : randomLong(rng);
+            hopscotchSet.add(vals[valNo]);
+        }
+
+        final File file = createTempFile("mappedSet", ".bin");
+        final long size = MappableLongHopscotchSetWriter.write(file.toPath(), new long[]{42L}, vals.clone(), 4);
+        Assert.assertEquals(size, hopscotchSet.size());
+
+        final MappedLongArray array = new MappedLongArray(file.toPath());
+        Assert.assertEquals(array.get(0), 42L);
+        final MappedLargeLongHopscotchSet mappedSet = new MappedLargeLongHopscotchSet(array, 1);
+        Assert.assertEquals(mappedSet.getEndIndex(), array.size());
+        for (final long val : vals) {
+            Assert.assertTrue(mappedSet.contains(val));
+        }
+        for (int i = 0; i < HHASH_NVALS; i++) {
+            final long val = randomLong(rng);
+            Assert.assertEquals(mappedSet.contains(val), hopscotchSet.contains(val));
+        }
+    }
+
+    @Test
+    void mappableWriterEmptyTest() {
+        final File file = createTempFile("mappedSet", ".bin");
+        Assert.assertEquals(MappableLongHopscotchSetWriter.write(file.toPath(), new long[0], new long[0], 1), 0L);
+        final MappedLargeLongHopscotchSet mappedSet = new MappedLargeLongHopscotchSet(new MappedLongArray(file.toPath()), 0);
+        Assert.assertFalse(mappedSet.contains(0L));
+        Assert.assertFalse(mappedSet.contains(notInTestVals));
+    }
+
     @Test
     void serializationTest() {
         final Random rng = new Random(RAND_SEED);
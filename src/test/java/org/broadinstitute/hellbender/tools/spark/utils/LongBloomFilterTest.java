@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.spark.utils;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import htsjdk.samtools.util.BinaryCodec;
 import htsjdk.samtools.util.Log;
 import org.broadinstitute.hellbender.utils.LoggingUtils;
 import org.testng.Assert;
@@ -10,6 +11,8 @@ import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Random;
 
@@ -133,6 +136,36 @@ public final class LongBloomFilterTest {
         }
     }
 
+    @Test
+    void mappableTest() throws IOException {
+        final Random rng = new Random(RAND_SEED);
+        final LongBloomFilter bloomFilter = new LongBloomFilter(HHASH_NVALS, FPP);
+        final long[] vals = new long[HHASH_NVALS];
+        for (int valNo = 0; valNo != HHASH_NVALS; ++valNo) {
+            vals[valNo] = randomLong(rng);
+            bloomFilter.add(vals[valNo]);
+        }
+
+        final File file = File.createTempFile("mappedBloomFilter", ".bin");
+        file.deleteOnExit();
+        final BinaryCodec codec = new BinaryCodec(file, true);
+        codec.writeLong(42L); // the filter doesn't have to start at the beginning of the file
+        bloomFilter.writeMappable(codec);
+        codec.close();
+
+        final MappedLongArray array = new MappedLongArray(file.toPath());
+        final MappedLongBloomFilter mappedFilter = new MappedLongBloomFilter(array, 1);
+        Assert.assertEquals(mappedFilter.getEndIndex(), array.size());
+        for (final long val : vals) {
+            Assert.assertTrue(mappedFilter.contains(val));
+        }
+        // false positives must be the same too
+        for (int i = 0; i < FPR_NVALS; i++) {
+            final long val = randomLong(rng);
+            Assert.assertEquals(mappedFilter.contains(val), bloomFilter.contains(val));
+        }
+    }
+
     @Test
     void countBitsTest() {
         final byte[][] arr = new byte[10][10];
@@ -8,6 +8,7 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.test.IntegrationTestSpec;
 import org.broadinstitute.hellbender.utils.test.SamAssertionUtils;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.variant.MappedKnownSitesIndex;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -95,6 +96,10 @@ public final class BaseRecalibratorIntegrationTest extends CommandLineProgramTes
                 {new BQSRTest(hg18Reference, HiSeqBam_chr17, dbSNPb37_chr17, "-indelBQSR -enableBAQ " +"--quantizing_levels 6", getResourceDir() + "expected.NA12878.chr17_69k_70k.quantizing_levels6.txt")},
                 {new BQSRTest(hg18Reference, HiSeqBam_chr17, dbSNPb37_chr17, "-indelBQSR -enableBAQ " +"--mismatches_context_size 4", getResourceDir() + "expected.NA12878.chr17_69k_70k.mismatches_context_size4.txt")},
                 {new BQSRTest(b36Reference, origQualsBam_chr1, dbSNPb36_chr1, "-indelBQSR -enableBAQ " +"-OQ", getResourceDir() + "expected.originalQuals.1kg.chr1.1-1K.1RG.dictFix.OQ.txt")},
+
+                // multithreaded traversals give the same results
+                {new BQSRTest(GRCh37Ref_chr2021, hiSeqBam_chr20, dbSNPb37_chr20, "-indelBQSR -enableBAQ -traversalThreads 3", getResourceDir() + BQSRTestData.EXPECTED_WGS_B37_CH20_1M_1M1K_RECAL)},
+                {new BQSRTest(hg18Reference, HiSeqBam_chr17, dbSNPb37_chr17, "-indelBQSR -enableBAQ -traversalThreads 2 " +"-knownSites " + more17Sites, getResourceDir() + "expected.NA12878.chr17_69k_70k.2inputs.txt")},
         };
     }
     @Test(dataProvider = "BQSRTest")
@@ -133,6 +138,45 @@ public final class BaseRecalibratorIntegrationTest extends CommandLineProgramTes
         IntegrationTestSpec.assertEqualTextFiles(actualTablePost, expectedTablePost);
     }
 
+    @Test
+    public void testBQSRWithKnownSitesIndex() throws IOException {
+        final String hg18Reference = publicTestDir + "human_g1k_v37.chr17_1Mb.fasta";
+        final String dbSNPb37_chr17 =  getResourceDir() + "dbsnp_132.b37.excluding_sites_after_129.chr17_69k_70k.vcf";
+        final String more17Sites = getResourceDir() + "bqsr.fakeSitesForTesting.b37.chr17.vcf";
+        final String HiSeqBam_chr17 = getResourceDir() + "NA12878.chr17_69k_70k.dictFix.bam";
+        final File expectedTable = new File(getResourceDir() + "expected.NA12878.chr17_69k_70k.2inputs.txt");
+
+        // the same sites, whether indexed together, indexed separately, or given partly as a VCF
+        final String bothSitesIndex = createTempFile("both.sites", MappedKnownSitesIndex.KNOWN_SITES_INDEX_EXTENSION).getAbsolutePath();
+        new IndexKnownSites().instanceMain(Utils.escapeExpressions("--knownSites " + dbSNPb37_chr17 + " --knownSites " + more17Sites + " -O " + bothSitesIndex));
+        final String moreSitesIndex = createTempFile("more.sites", MappedKnownSitesIndex.KNOWN_SITES_INDEX_EXTENSION).getAbsolutePath();
+        new IndexKnownSites().instanceMain(Utils.escapeExpressions("--knownSites " + more17Sites + " -O " + moreSitesIndex));
+
+        for ( final String knownSitesArgs : Arrays.asList(
+                " --knownSitesIndex " + bothSitesIndex,
+                " --knownSitesIndex " + bothSitesIndex + " -traversalThreads 2",
+                " --knownSites " + dbSNPb37_chr17 + " --knownSitesIndex " + moreSitesIndex) ) {
+            final File actualTable = createTempFile("knownSitesIndex", ".table");
+            final String args = "-R " + hg18Reference + " -indelBQSR -enableBAQ -I " + HiSeqBam_chr17 + knownSitesArgs + " -O " + actualTable.getAbsolutePath();
+            new BaseRecalibrator().instanceMain(Utils.escapeExpressions(args));
+            IntegrationTestSpec.assertEqualTextFiles(actualTable, expectedTable);
+        }
+    }
+
+    @Test
+    public void testBQSRFailWithInvalidTraversalThreads() throws IOException {
+        final String hg18Reference = publicTestDir + "human_g1k_v37.chr17_1Mb.fasta";
+        final String dbSNPb37_chr17 =  getResourceDir() + "dbsnp_132.b37.excluding_sites_after_129.chr17_69k_70k.vcf";
+        final String HiSeqBam_chr17 = getResourceDir() + "NA12878.chr17_69k_70k.dictFix.bam";
+
+        final BQSRTest params = new BQSRTest(hg18Reference, HiSeqBam_chr17, dbSNPb37_chr17, "-traversalThreads 0", getResourceDir() + "expected.NA12878.chr17_69k_70k.txt");
+        IntegrationTestSpec spec = new IntegrationTestSpec(
+                params.getCommandLine(),
+                1,
+                CommandLineException.BadArgumentValue.class);
+        spec.executeTest("testBQSRFailWithInvalidTraversalThreads", this);
+    }
+
     @Test
     public void testBQSRFailWithoutDBSNP() throws IOException {
         final String resourceDir =  getTestDataDir() + "/" + "BQSR" + "/";
@@ -264,4 +264,25 @@ public final class VariantFiltrationIntegrationTest extends CommandLineProgramTe
 
         spec.executeTest("testFilteringZfromFORMATAndFailMissing", this);
     }
+
+    @DataProvider(name="multithreaded")
+    public Object[][] multithreaded() {
+        return new String[][]{
+                {"vcfexample2.vcf", " -window 10 ", "testVariantFiltration_testClusteredSnps.vcf"},
+                {"vcfexample2.vcf", " -maskName foo --mask VCF:" + getToolTestDataDir() + "vcfMask.vcf", "testVariantFiltration_testMask2.vcf"},
+                {"vcfexample2.vcf", " -filter 'DoC < 20 || FisherStrand > 20.0' -filterName foo ", "testVariantFiltration_testFilter1.vcf"},
+                {"vcfexample2.vcf", " -G_filter 'GQ == 0.60' -G_filterName foo ", "testVariantFiltration_testGenotypeFilters1.vcf"},
+                {"twoDeletions.vcf", " --filterExpression 'QUAL < 100' --filterName foo ", "testVariantFiltration_testDeletions.vcf"},
+        };
+    }
+
+    @Test(dataProvider = "multithreaded")
+    public void testMultithreaded(final String vcf, final String options, final String expected) throws IOException {
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                baseTestString(vcf, options + " -traversalThreads 4 -variantShardSize 1000 "),
+                Arrays.asList(getToolTestDataDir() + "expected/" + expected)
+        );
+
+        spec.executeTest("testMultithreaded", this);
+    }
 }
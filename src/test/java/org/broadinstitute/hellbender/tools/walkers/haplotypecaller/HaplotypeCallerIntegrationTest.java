@@ -1,8 +1,10 @@
 package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
+import com.google.common.collect.Sets;
 import htsjdk.samtools.SamFiles;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.FeatureDataSource;
 import org.broadinstitute.hellbender.engine.ReadsDataSource;
 import org.broadinstitute.hellbender.exceptions.UserException;
@@ -10,14 +12,22 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.test.ArgumentsBuilder;
 import org.broadinstitute.hellbender.utils.test.IntegrationTestSpec;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public class HaplotypeCallerIntegrationTest extends CommandLineProgramTest {
 
@@ -329,6 +339,139 @@ public class HaplotypeCallerIntegrationTest extends CommandLineProgramTest {
         Assert.assertEquals(expectedMD5File.exists(), createBamoutMD5);
     }
 
+    /*
+     * Test that processing read shards on several threads produces the same calls, in the same order,
+     * as processing them one at a time
+     */
+    @Test
+    public void testMultithreadedTraversalIsConsistentWithSingleThreadedTraversal() throws Exception {
+        Utils.resetRandomGenerator();
+
+        final File singleThreadedOutput = createTempFile("testMultithreadedTraversal.singleThreaded", ".vcf");
+        final File multithreadedOutput = createTempFile("testMultithreadedTraversal.multithreaded", ".vcf");
+
+        for ( final File output : new File[]{ singleThreadedOutput, multithreadedOutput } ) {
+            final String[] args = {
+                    "-I", NA12878_20_21_WGS_bam,
+                    "-R", b37_reference_20_21,
+                    "-L", "20:10000000-10100000",
+                    "-O", output.getAbsolutePath(),
+                    "-pairHMM", "AVX_LOGLESS_CACHING",
+                    "-readShardSize", "10000",
+                    // with downsampling, a single-threaded traversal draws from the GATK-wide random number generator
+                    "-maxReadsPerAlignmentStart", "0",
+                    "-traversalThreads", output == singleThreadedOutput ? "1" : "4",
+                    "-addOutputVCFCommandLine", "false"
+            };
+
+            runCommandLine(args);
+        }
+
+        // Output is indexed on the fly, so it must also have been written in sorted order
+        Assert.assertEquals(calculateConcordance(multithreadedOutput, singleThreadedOutput), 1.0);
+    }
+
+    /*
+     * Test that the count-based reference confidence model gives the same hom-ref blocks as the pileup-based one,
+     * up to sites whose GQ rounds to the adjacent GQ band
+     */
+    @Test
+    public void testCountBasedReferenceConfidenceIsConsistentWithPileupBased() throws Exception {
+        final List<Integer> gqBands = Arrays.asList(5, 10, 20, 30, 40, 50, 60, 70, 80, 90, 99);
+        final File pileupBasedOutput = createTempFile("testCountBasedReferenceConfidence.pileupBased", ".g.vcf");
+        final File countBasedOutput = createTempFile("testCountBasedReferenceConfidence.countBased", ".g.vcf");
+
+        for ( final File output : new File[]{ pileupBasedOutput, countBasedOutput } ) {
+            final ArgumentsBuilder args = new ArgumentsBuilder()
+                    .addArgument(StandardArgumentDefinitions.INPUT_LONG_NAME, NA12878_chr17_1k_BAM)
+                    .addArgument(StandardArgumentDefinitions.REFERENCE_LONG_NAME, v37_chr17_1Mb_Reference)
+                    .addArgument(StandardArgumentDefinitions.OUTPUT_LONG_NAME, output.getAbsolutePath())
+                    .addArgument("emitRefConfidence", "GVCF")
+                    .addBooleanArgument("countBasedReferenceConfidence", output == countBasedOutput)
+                    .addBooleanArgument("addOutputVCFCommandLine", false);
+            gqBands.forEach(band -> args.addArgument("GVCFGQBands", band.toString()));
+            runCommandLine(args);
+        }
+
+        final List<VariantContext> pileupBasedRecords = readGVCFRecords(pileupBasedOutput);
+        final List<VariantContext> countBasedRecords = readGVCFRecords(countBasedOutput);
+        final Map<Integer, Integer> pileupBasedBands = getGQBandsByPosition(pileupBasedRecords, gqBands);
+        final Map<Integer, Integer> countBasedBands = getGQBandsByPosition(countBasedRecords, gqBands);
+
+        // variants come from the active regions, which both models leave to the pileup-based model
+        Assert.assertEquals(getVariants(countBasedRecords), getVariants(pileupBasedRecords));
+        Assert.assertFalse(pileupBasedBands.isEmpty());
+        Assert.assertEquals(countBasedBands.keySet(), pileupBasedBands.keySet());
+
+        final Set<Integer> sitesInOtherBand = new HashSet<>();
+        for ( final Map.Entry<Integer, Integer> entry : pileupBasedBands.entrySet() ) {
+            final int bandDifference = Math.abs(entry.getValue() - countBasedBands.get(entry.getKey()));
+            Assert.assertTrue(bandDifference <= 1, "GQ bands too far apart at position " + entry.getKey());
+            if ( bandDifference == 1 ) {
+                sitesInOtherBand.add(entry.getKey());
+            }
+        }
+        // a block may only start at a different position next to a site that fell into the adjacent band
+        final Set<Integer> pileupBasedBlockStarts = getBlockStarts(pileupBasedRecords);
+        final Set<Integer> countBasedBlockStarts = getBlockStarts(countBasedRecords);
+        for ( final int start : Sets.symmetricDifference(pileupBasedBlockStarts, countBasedBlockStarts) ) {
+            Assert.assertTrue(sitesInOtherBand.contains(start) || sitesInOtherBand.contains(start - 1),
+                    "hom-ref blocks start at different positions at " + start);
+        }
+    }
+
+    private static List<VariantContext> readGVCFRecords( final File gvcf ) {
+        try ( final FeatureDataSource<VariantContext> source = new FeatureDataSource<>(gvcf) ) {
+            final List<VariantContext> records = new ArrayList<>();
+            source.forEach(records::add);
+            return records;
+        }
+    }
+
+    private static boolean isHomRefBlock( final VariantContext record ) {
+        return record.getAlternateAlleles().equals(Collections.singletonList(GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE));
+    }
+
+    private static List<String> getVariants( final List<VariantContext> records ) {
+        return records.stream().filter(record -> ! isHomRefBlock(record)).map(VariantContext::toStringDecodeGenotypes).collect(Collectors.toList());
+    }
+
+    private static Set<Integer> getBlockStarts( final List<VariantContext> records ) {
+        return records.stream().filter(HaplotypeCallerIntegrationTest::isHomRefBlock).map(VariantContext::getStart).collect(Collectors.toSet());
+    }
+
+    /*
+     * The index of the GQ band of the hom-ref block covering each position (the index of the first band whose
+     * exclusive upper bound is above the GQ of the block)
+     */
+    private static Map<Integer, Integer> getGQBandsByPosition( final List<VariantContext> records, final List<Integer> gqBands ) {
+        final Map<Integer, Integer> bands = new HashMap<>();
+        for ( final VariantContext record : records ) {
+            if ( isHomRefBlock(record) ) {
+                final int gq = record.getGenotype(0).getGQ();
+                final int band = (int)gqBands.stream().filter(upperBound -> upperBound <= gq).count();
+                for ( int position = record.getStart(); position <= record.getEnd(); position++ ) {
+                    bands.put(position, band);
+                }
+            }
+        }
+        return bands;
+    }
+
+    @Test(expectedExceptions = UserException.class)
+    public void testMultithreadedTraversalWithBamoutFails() throws Exception {
+        final String[] args = {
+                "-I", NA12878_20_21_WGS_bam,
+                "-R", b37_reference_20_21,
+                "-L", "20:10000000-10010000",
+                "-O", createTempFile("testMultithreadedTraversalWithBamoutFails", ".vcf").getAbsolutePath(),
+                "-bamout", createTempFile("testMultithreadedTraversalWithBamoutFails", ".bam").getAbsolutePath(),
+                "-traversalThreads", "2"
+        };
+
+        runCommandLine(args);
+    }
+
     @Test
     public void testHaplotypeCallerRemoveAltAlleleBasedOnHaptypeScores() throws IOException{
         final File testBAM = new File(TEST_FILES_DIR + "pretendTobeTetraPloidTetraAllelicSite.bam");
@@ -0,0 +1,117 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMReadGroupRecord;
+import htsjdk.variant.variantcontext.GenotypeBuilder;
+import org.broadinstitute.hellbender.utils.MathUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.genotyper.SampleList;
+import org.broadinstitute.hellbender.utils.locusiterator.AlignmentStateMachine;
+import org.broadinstitute.hellbender.utils.pileup.PileupElement;
+import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public final class RefVsAnyActivityEvaluatorUnitTest extends BaseTest {
+    private static final String SAMPLE = "NA12878";
+    private static final int LOCUS = 100;
+    private static final byte REF_BASE = 'A';
+    private static final byte MIN_BASE_QUAL = 10;
+
+    private SAMFileHeader header;
+    private ReferenceConfidenceModel model;
+
+    @BeforeClass
+    public void setUp() {
+        header = ArtificialReadUtils.createArtificialSamHeader(1, 1, 1000);
+        final SAMReadGroupRecord rg = new SAMReadGroupRecord("ID1");
+        rg.setSample(SAMPLE);
+        header.addReadGroup(rg);
+        model = new ReferenceConfidenceModel(SampleList.singletonSampleList(SAMPLE), header, 10);
+    }
+
+    /**
+     * Make a pileup at LOCUS of depth random reads: matches and mismatches of random qualities, deletions,
+     * insertions and soft clips right next to the locus.
+     */
+    private ReadPileup makePileup( final Random random, final int depth ) {
+        // cigar of 20 bases and alignment start of the read
+        final Object[][] alignments = {
+                { "20M", LOCUS - 10 }, { "20M", LOCUS - 19 }, { "20M", LOCUS },
+                { "9M2D11M", LOCUS - 10 }, { "10M1I9M", LOCUS - 10 },
+                { "10S10M", LOCUS }, { "15M5S", LOCUS - 14 }, { "12M8S", LOCUS - 11 }
+        };
+        final List<PileupElement> elements = new ArrayList<>(depth);
+        for ( int i = 0; i < depth; i++ ) {
+            final Object[] alignment = alignments[random.nextInt(alignments.length)];
+            final String cigar = (String)alignment[0];
+            final int start = (Integer)alignment[1];
+            final byte[] bases = new byte[20];
+            final byte[] quals = new byte[20];
+            for ( int j = 0; j < bases.length; j++ ) {
+                bases[j] = random.nextInt(4) == 0 ? (byte)"CGT".charAt(random.nextInt(3)) : REF_BASE;
+                quals[j] = (byte)random.nextInt(41);
+            }
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read" + i, 0, start, bases, quals, cigar);
+            elements.add(makePileupElement(read));
+        }
+        return new ReadPileup(new SimpleInterval("1", LOCUS, LOCUS), elements);
+    }
+
+    private static PileupElement makePileupElement( final GATKRead read ) {
+        final AlignmentStateMachine stateMachine = new AlignmentStateMachine(read);
+        while ( stateMachine.stepForwardOnGenome() != null ) {
+            if ( stateMachine.getGenomePosition() == LOCUS ) {
+                return stateMachine.makePileupElement();
+            }
+        }
+        throw new IllegalStateException("read " + read + " does not overlap the test locus");
+    }
+
+    @DataProvider(name = "PloidyData")
+    public Object[][] ploidyData() {
+        return new Object[][] { { 1 }, { 2 }, { 3 }, { 4 } };
+    }
+
+    @Test(dataProvider = "PloidyData")
+    public void testSameAsReferenceConfidenceModel( final int ploidy ) {
+        final Random random = new Random(ploidy);
+        final RefVsAnyActivityEvaluator evaluator = new RefVsAnyActivityEvaluator(ploidy);
+        for ( final int depth : Arrays.asList(0, 1, 2, 5, 20, 100, 500) ) {
+            for ( int i = 0; i < 20; i++ ) {
+                final ReadPileup pileup = makePileup(random, depth);
+                final MathUtils.RunningAverage expectedSoftClips = new MathUtils.RunningAverage();
+                final RefVsAnyResult expected = model.calcGenotypeLikelihoodsOfRefVsAny(ploidy, pileup, REF_BASE, MIN_BASE_QUAL, expectedSoftClips);
+                // rounded the way isActive() used to pass them on to the genotyping engine
+                final double[] expectedLikelihoods = new GenotypeBuilder(SAMPLE).PL(expected.getGenotypeLikelihoods()).make().getLikelihoods().getAsVector();
+
+                final double[] actual = evaluator.calcGenotypeLikelihoodsOfRefVsAny(pileup, REF_BASE, MIN_BASE_QUAL);
+                Assert.assertEquals(actual, expectedLikelihoods);
+                Assert.assertEquals(evaluator.getAverageHQSoftClips(), expectedSoftClips.mean(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testBufferReused() {
+        final RefVsAnyActivityEvaluator evaluator = new RefVsAnyActivityEvaluator(2);
+        final Random random = new Random(7);
+        final double[] first = evaluator.calcGenotypeLikelihoodsOfRefVsAny(makePileup(random, 10), REF_BASE, MIN_BASE_QUAL);
+        Assert.assertSame(evaluator.calcGenotypeLikelihoodsOfRefVsAny(makePileup(random, 10), REF_BASE, MIN_BASE_QUAL), first);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidPloidy() {
+        new RefVsAnyActivityEvaluator(0);
+    }
+}
@@ -29,12 +29,14 @@ import org.broadinstitute.hellbender.utils.test.BaseTest;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 import org.broadinstitute.hellbender.utils.variant.HomoSapiensConstants;
+import org.broadinstitute.hellbender.utils.variant.writers.HomRefSites;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.util.*;
 
 
@@ -324,6 +326,120 @@ public final class ReferenceConfidenceModelUnitTest extends BaseTest {
         }
     }
 
+    @DataProvider(name = "RefConfidenceSitesData")
+    public Object[][] makeRefConfidenceSitesData() {
+        List<Object[]> tests = new ArrayList<>();
+
+        for ( final int nReads : Arrays.asList(0, 1, 5, 50) ) {
+            for ( final int extension : Arrays.asList(0, 10) ) {
+                for ( final int ploidy : Arrays.asList(1, 2, 3) ) {
+                    tests.add(new Object[]{nReads, extension, ploidy});
+                }
+            }
+        }
+
+        return tests.toArray(new Object[][]{});
+    }
+
+    @Test(dataProvider = "RefConfidenceSitesData")
+    public void testRefConfidenceSitesMatchesPileups(final int nReads, final int extension, final int ploidy) {
+        final Random random = new Random(nReads * 31 + extension * 7 + ploidy);
+        final byte[] bases = {'A', 'C', 'G', 'T'};
+        final StringBuilder refBuilder = new StringBuilder();
+        for ( int i = 0; i < 60; i++ ) {
+            refBuilder.append((char) bases[random.nextInt(bases.length)]);
+        }
+        final RefConfData data = new RefConfData(refBuilder.toString(), extension);
+
+        final List<GATKRead> reads = new ArrayList<>();
+        for ( int i = 0; i < nReads; i++ ) {
+            reads.add(makeRandomRead(data, random, bases));
+        }
+        reads.sort(Comparator.comparingInt(GATKRead::getStart));
+        reads.forEach(data.getActiveRegion()::add);
+
+        final PloidyModel ploidyModel = new HomogeneousPloidyModel(samples, ploidy);
+        final List<VariantContext> contexts = model.calculateRefConfidence(data.getRefHap(), Collections.singletonList(data.getRefHap()),
+                data.getPaddedRefLoc(), data.getActiveRegion(), createDummyStratifiedReadMap(data.getRefHap(), samples, data.getActiveRegion()),
+                ploidyModel, Collections.emptyList());
+        final HomRefSites sites = model.calculateRefConfidenceSites(data.getRefHap(), data.getActiveRegion(), ploidy);
+
+        Assert.assertEquals(sites.getContig(), data.getRefLoc().getContig());
+        Assert.assertEquals(sites.getStart(), data.getRefLoc().getStart());
+        Assert.assertEquals(sites.getSampleName(), sample);
+        Assert.assertEquals(sites.size(), contexts.size());
+        for ( int i = 0; i < sites.size(); i++ ) {
+            final VariantContext vc = contexts.get(i);
+            final Genotype g = vc.getGenotype(sample);
+            Assert.assertEquals(vc.getStart(), sites.getStart() + i);
+            Assert.assertEquals(sites.getRefBase(i), vc.getReference().getBases()[0]);
+            Assert.assertEquals(sites.getDP(i), g.getDP(), "DP at " + vc.getStart());
+            Assert.assertEquals(sites.getGQ(i), g.getGQ(), "GQ at " + vc.getStart());
+            Assert.assertEquals(sites.getPL(i), g.getPL(), "PL at " + vc.getStart());
+        }
+    }
+
+    /**
+     * Makes a read within the reference of data with random soft clips, insertions, deletions, mismatches, base
+     * qualities and, for paired reads, fragment lengths short enough for the read to run into the adaptor
+     */
+    private GATKRead makeRandomRead(final RefConfData data, final Random random, final byte[] bases) {
+        final int start = random.nextInt(data.getRefLength() / 2);
+        final StringBuilder cigar = new StringBuilder();
+        final ByteArrayOutputStream readBases = new ByteArrayOutputStream();
+        int refOffset = start;
+        final int leadingClip = random.nextBoolean() ? random.nextInt(4) : 0;
+        final int trailingClip = random.nextBoolean() ? random.nextInt(4) : 0;
+        if ( leadingClip > 0 ) {
+            cigar.append(leadingClip).append('S');
+        }
+        for ( int i = 0; i < leadingClip; i++ ) {
+            readBases.write(bases[random.nextInt(bases.length)]);
+        }
+        final int nBlocks = 1 + random.nextInt(3);
+        for ( int block = 0; block < nBlocks; block++ ) {
+            if ( block > 0 ) {
+                final int indelLength = 1 + random.nextInt(3);
+                if ( random.nextBoolean() ) {
+                    cigar.append(indelLength).append('I');
+                    for ( int i = 0; i < indelLength; i++ ) {
+                        readBases.write(bases[random.nextInt(bases.length)]);
+                    }
+                } else {
+                    cigar.append(indelLength).append('D');
+                    refOffset += indelLength;
+                }
+            }
+            final int matchLength = 1 + random.nextInt(Math.max(1, (data.getRefLength() - refOffset) / (nBlocks + 1)));
+            cigar.append(matchLength).append('M');
+            for ( int i = 0; i < matchLength; i++, refOffset++ ) {
+                readBases.write(random.nextInt(10) == 0 ? bases[random.nextInt(bases.length)] : (byte) data.ref.charAt(refOffset));
+            }
+        }
+        if ( trailingClip > 0 ) {
+            cigar.append(trailingClip).append('S');
+        }
+        for ( int i = 0; i < trailingClip; i++ ) {
+            readBases.write(bases[random.nextInt(bases.length)]);
+        }
+
+        final byte[] quals = new byte[readBases.size()];
+        for ( int i = 0; i < quals.length; i++ ) {
+            quals[i] = (byte) (2 + random.nextInt(40));
+        }
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read " + data.readCounter++, 0,
+                start + data.getStart(), readBases.toByteArray(), quals, cigar.toString());
+        read.setReadGroup(rg.getId());
+        if ( random.nextBoolean() ) {
+            read.setIsPaired(true);
+            read.setIsReverseStrand(random.nextBoolean());
+            read.setMatePosition(read.getContig(), read.getStart());
+            final int fragmentLength = Math.max(1, read.getLength() - 10 + random.nextInt(20));
+            read.setFragmentLength(read.isReverseStrand() ? -fragmentLength : fragmentLength);
+        }
+        return read;
+    }
+
     /**
      * Create a context that maps each read to the reference haplotype with log10 L of 0
      * @param refHaplotype a non-null reference haplotype
@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.graphs;
 
 import htsjdk.samtools.Cigar;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
 import org.broadinstitute.hellbender.utils.test.BaseTest;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -15,7 +16,7 @@ public final class PathUnitTest extends BaseTest {
         final SeqVertex v = new SeqVertex(hap);
         graph.addVertex(v);
         final Path<SeqVertex,BaseEdge> path = new Path<>(v, graph);
-        final Cigar cigar = path.calculateCigar(ref.getBytes());
+        final Cigar cigar = path.calculateCigar(ref.getBytes(), SmithWatermanAligner.Implementation.COMPACT.getAligner());
         Assert.assertNull(cigar, "Should have failed gracefully");
     }
 
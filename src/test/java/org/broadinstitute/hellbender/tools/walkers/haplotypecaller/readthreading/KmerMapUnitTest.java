@@ -0,0 +1,119 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+public final class KmerMapUnitTest extends BaseTest {
+
+    // mostly ACGT so that kmers repeat, with the odd base that can't be packed
+    private static final byte[] BASES = "AACCGGTTAACCGGTTN".getBytes();
+
+    @DataProvider(name = "KmerSizes")
+    public Object[][] makeKmerSizes() {
+        // around the largest kmer size that can be packed
+        return new Object[][]{{1}, {2}, {5}, {30}, {31}, {32}, {40}};
+    }
+
+    @Test
+    public void testPackUnpack() {
+        final byte[] bases = "ACGTTGCAACGTTGCAACGTTGCAACGTTGC".getBytes();
+        Assert.assertEquals(bases.length, PackedKmers.MAX_PACKED_LENGTH);
+        final long packed = PackedKmers.pack(bases, 0, bases.length);
+        Assert.assertTrue(packed >= 0);
+        Assert.assertEquals(PackedKmers.unpack(packed, bases.length), bases);
+        Assert.assertEquals(PackedKmers.pack("AAAA".getBytes(), 0, 4), 0L);
+        Assert.assertEquals(PackedKmers.pack("TTTT".getBytes(), 0, 4), 255L);
+        Assert.assertEquals(PackedKmers.pack("XCGTX".getBytes(), 1, 3), PackedKmers.pack("CGT".getBytes(), 0, 3));
+        Assert.assertEquals(PackedKmers.pack("ACNT".getBytes(), 0, 4), PackedKmers.NOT_PACKED);
+        Assert.assertEquals(PackedKmers.pack("ACgT".getBytes(), 0, 4), PackedKmers.NOT_PACKED);
+    }
+
+    @Test(dataProvider = "KmerSizes")
+    public void testAgreesWithKmerMap(final int kmerSize) {
+        final Random random = new Random(kmerSize);
+        final byte[] sequence = new byte[10000];
+        for ( int i = 0; i < sequence.length; i++ ) {
+            // long runs of a few bases so that long kmers repeat too
+            sequence[i] = i > 0 && random.nextInt(10) > 0 ? sequence[i-1] : BASES[random.nextInt(BASES.length)];
+        }
+
+        final KmerMap<Integer> actual = new KmerMap<>(kmerSize);
+        final Map<Kmer, Integer> expected = new HashMap<>();
+        for ( int i = 0; i <= sequence.length - kmerSize; i++ ) {
+            final Kmer kmer = new Kmer(sequence, i, kmerSize);
+            Assert.assertEquals(actual.containsKey(sequence, i), expected.containsKey(kmer));
+            Assert.assertEquals(actual.get(sequence, i), expected.get(kmer));
+            Assert.assertEquals(actual.get(kmer), expected.get(kmer));
+            switch ( random.nextInt(3) ) {
+                case 0:
+                    Assert.assertEquals(actual.remove(sequence, i), expected.remove(kmer));
+                    break;
+                default:
+                    Assert.assertEquals(actual.put(sequence, i, i), expected.put(kmer, i));
+                    break;
+            }
+            Assert.assertEquals(actual.size(), expected.size());
+        }
+        Assert.assertEquals(new HashSet<>(actual.values()), new HashSet<>(expected.values()));
+        Assert.assertNull(actual.get(new Kmer(Arrays.copyOf(sequence, kmerSize + 1))));
+
+        actual.clear();
+        Assert.assertEquals(actual.size(), 0);
+        Assert.assertTrue(actual.values().isEmpty());
+    }
+
+    @Test(dataProvider = "KmerSizes")
+    public void testAgreesWithKmerSet(final int kmerSize) {
+        final Random random = new Random(kmerSize);
+        final byte[] sequence = new byte[10000];
+        for ( int i = 0; i < sequence.length; i++ ) {
+            sequence[i] = i > 0 && random.nextInt(10) > 0 ? sequence[i-1] : BASES[random.nextInt(BASES.length)];
+        }
+
+        final KmerSet actual = new KmerSet(kmerSize);
+        final Set<Kmer> expected = new HashSet<>();
+        for ( int i = 0; i <= sequence.length - kmerSize; i++ ) {
+            final Kmer kmer = new Kmer(sequence, i, kmerSize);
+            Assert.assertEquals(actual.contains(sequence, i), expected.contains(kmer));
+            Assert.assertEquals(actual.add(sequence, i), expected.add(kmer));
+            Assert.assertEquals(actual.size(), expected.size());
+        }
+        Assert.assertEquals(actual.toKmers(), expected);
+
+        final KmerSet copy = new KmerSet(kmerSize);
+        Assert.assertTrue(copy.isEmpty());
+        copy.addAll(actual);
+        Assert.assertEquals(copy.toKmers(), expected);
+
+        actual.clear();
+        Assert.assertTrue(actual.isEmpty());
+        Assert.assertFalse(copy.isEmpty());
+
+        // the kmers of a piece of the sequence, packed one from the next
+        final int from = 17;
+        final int to = sequence.length - 23;
+        final KmerSet rolled = new KmerSet(kmerSize);
+        final KmerSet repeated = new KmerSet(kmerSize);
+        rolled.addAll(sequence, from, to, repeated);
+        final Set<Kmer> expectedAll = new HashSet<>();
+        final Set<Kmer> expectedRepeated = new HashSet<>();
+        for ( int i = from; i <= to - kmerSize; i++ ) {
+            final Kmer kmer = new Kmer(sequence, i, kmerSize);
+            if ( ! expectedAll.add(kmer) ) {
+                expectedRepeated.add(kmer);
+            }
+        }
+        Assert.assertEquals(rolled.toKmers(), expectedAll);
+        Assert.assertEquals(repeated.toKmers(), expectedRepeated);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMismatchedKmerSizes() {
+        new KmerSet(5).addAll(new KmerSet(6));
+    }
+}
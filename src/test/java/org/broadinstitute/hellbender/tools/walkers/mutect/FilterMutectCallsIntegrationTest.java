@@ -0,0 +1,67 @@
+package org.broadinstitute.hellbender.tools.walkers.mutect;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.Main;
+import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+public class FilterMutectCallsIntegrationTest extends CommandLineProgramTest {
+
+    private static final File UNFILTERED_CALLS = new File(toolsTestDir, "concordance/dream3-chr21.vcf");
+
+    /**
+     * Copy our unfiltered calls, which predate the tumor sample header line, adding that line and an index
+     */
+    private File makeIndexedUnfilteredCalls() throws IOException {
+        final File unfilteredVcf = createTempFile("unfiltered", ".vcf");
+        final List<String> lines = new ArrayList<>(Files.readAllLines(UNFILTERED_CALLS.toPath()));
+        lines.add(1, "##" + Mutect2Engine.TUMOR_SAMPLE_KEY_IN_VCF_HEADER + "=TUMOR");
+        Files.write(unfilteredVcf.toPath(), lines);
+
+        final File index = new File(unfilteredVcf.getAbsolutePath() + ".idx");
+        index.deleteOnExit();
+        new Main().instanceMain(makeCommandLineArgs(Arrays.asList("-F", unfilteredVcf.getAbsolutePath(), "-O", index.getAbsolutePath()), "IndexFeatureFile"));
+        return unfilteredVcf;
+    }
+
+    /**
+     * @return string representations of the filtered calls, including their filters
+     */
+    private List<String> filterCalls( final File unfilteredVcf, final String... extraArgs ) {
+        final File filteredVcf = createTempFile("filtered", ".vcf");
+        final List<String> args = new ArrayList<>(Arrays.asList("-V", unfilteredVcf.getAbsolutePath(), "-O", filteredVcf.getAbsolutePath()));
+        args.addAll(Arrays.asList(extraArgs));
+        runCommandLine(args);
+
+        try ( final FeatureDataSource<VariantContext> filtered = new FeatureDataSource<>(filteredVcf) ) {
+            return StreamSupport.stream(filtered.spliterator(), false)
+                    .map(vc -> vc.toStringDecodeGenotypes() + " filters=" + vc.getFilters())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testMultithreadedSameAsSingleThreaded() throws IOException {
+        final File unfilteredVcf = makeIndexedUnfilteredCalls();
+
+        final List<String> singleThreaded = filterCalls(unfilteredVcf);
+        // small shards, so that there are many more shards than threads
+        final List<String> multithreaded = filterCalls(unfilteredVcf, "-traversalThreads", "4", "-variantShardSize", "100000");
+
+        Assert.assertEquals(singleThreaded.size(), 1147);
+        Assert.assertTrue(singleThreaded.stream().anyMatch(vc -> vc.contains(GATKVCFConstants.TUMOR_LOD_FILTER_NAME)), "no call was filtered");
+        Assert.assertEquals(multithreaded, singleThreaded);
+    }
+}
@@ -3,9 +3,12 @@ package org.broadinstitute.hellbender.tools.walkers.qc;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.test.IntegrationTestSpec;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -86,5 +89,24 @@ public class PileupIntegrationTest extends CommandLineProgramTest {
         runCommandLine(args);
     }
 
+    @Test
+    public void testMultithreadedPileup() throws IOException {
+        final File singleThreadedOutput = createTempFile("testMultithreadedPileup", ".txt");
+        final File multithreadedOutput = createTempFile("testMultithreadedPileup", ".txt");
+        for ( final File output : Arrays.asList(singleThreadedOutput, multithreadedOutput) ) {
+            final String[] args = {
+                    "-R", getTestDataDir() + "/print_reads.fasta",
+                    "-I", getTestDataDir() + "/print_reads.sorted.bam",
+                    "-verbose",
+                    "-readShardSize", "7",
+                    "-traversalThreads", output == singleThreadedOutput ? "1" : "3",
+                    "-O", output.getAbsolutePath()
+            };
+            runCommandLine(args);
+        }
 
+        final List<String> expectedLines = Files.readAllLines(singleThreadedOutput.toPath());
+        Assert.assertFalse(expectedLines.isEmpty());
+        Assert.assertEquals(Files.readAllLines(multithreadedOutput.toPath()), expectedLines);
+    }
 }
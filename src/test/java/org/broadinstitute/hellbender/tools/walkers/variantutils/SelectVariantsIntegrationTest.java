@@ -840,4 +840,38 @@ public class SelectVariantsIntegrationTest extends CommandLineProgramTest {
 
         spec.executeTest("testSetFilteredGtoNocallUpdateInfo--" + testFile, this);
     }
+
+    @DataProvider(name="multithreaded")
+    public Object[][] multithreaded() {
+        return new Object[][]{
+                {"vcfexample2.vcf", " -sn NA11992 -disc " + getToolTestDataDir() + "vcfexample2DiscordanceConcordance.vcf", "testSelectVariants_Discordance.vcf"},
+                {"complexExample1.vcf", " -selectType INDEL --maxIndelSize 2 ", "testSelectVariants_MaxIndelLengthSelection.vcf"},
+                {"filteringDepthInFormat.vcf", " -R " + hg19MiniReference + " -select 'DP < 7' -sr ", "testSelectVariants_SimpleExpressionSelection.vcf"}
+        };
+    }
+
+    @Test(dataProvider = "multithreaded")
+    public void testMultithreaded(final String vcf, final String args, final String expected) throws IOException {
+        final String testFile = getToolTestDataDir() + vcf;
+
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                baseTestString(args + " -traversalThreads 4 ", testFile),
+                Collections.singletonList(getToolTestDataDir() + "expected/" + expected)
+        );
+
+        spec.executeTest("testMultithreaded--" + testFile, this);
+    }
+
+    @Test
+    public void testMultithreadedRandomFraction() throws IOException {
+        final String testFile = getToolTestDataDir() + "vcfexample2.vcf";
+
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                baseTestString(" -fraction 0.5 -traversalThreads 4 ", testFile),
+                1,
+                CommandLineException.BadArgumentValue.class
+        );
+
+        spec.executeTest("testMultithreadedRandomFraction--" + testFile, this);
+    }
 }
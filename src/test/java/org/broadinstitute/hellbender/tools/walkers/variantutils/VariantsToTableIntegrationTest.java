@@ -87,6 +87,14 @@ public final class VariantsToTableIntegrationTest extends CommandLineProgramTest
         spec.executeTest("testComplexVariantsToTable", this);
     }
 
+    @Test
+    public void testComplexVariantsToTableMultithreaded() throws IOException {
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                variantsToTableCmd(" -traversalThreads 4"),
+                Arrays.asList(getToolTestDataDir() + "expected.soap_gatk_annotated.noChr_lines.table"));
+        spec.executeTest("testComplexVariantsToTableMultithreaded", this);
+    }
+
     @Test
     public void testMultiAllelicOneRecord() throws IOException {
         final IntegrationTestSpec spec = new IntegrationTestSpec(
@@ -113,6 +121,17 @@ public final class VariantsToTableIntegrationTest extends CommandLineProgramTest
         spec.executeTest("testGenotypeFields", this);
     }
 
+    @Test
+    public void testGenotypeFieldsMultithreaded() throws IOException {
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                        " --variant " + getToolTestDataDir() + "vcfexample2.vcf" +
+                        " -GF RD" +
+                        " -traversalThreads 4" +
+                        " -O %s",
+                Arrays.asList(getToolTestDataDir() + "expected.vcfexample2.GF_RD.table"));
+        spec.executeTest("testGenotypeFieldsMultithreaded", this);
+    }
+
     @Test
     public void testUnfilteredGenotypeFields() throws IOException {
         final IntegrationTestSpec spec = new IntegrationTestSpec(
@@ -0,0 +1,93 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class VariantRecalibratorEngineUnitTest extends BaseTest {
+
+    // more than one chunk of data, from two clusters, with the occasional missing annotation
+    private static List<VariantDatum> makeData( final int numData, final int numAnnotations ) {
+        final Random rng = new Random(17);
+        final List<VariantDatum> data = new ArrayList<>(numData);
+        for ( int i = 0; i < numData; i++ ) {
+            final VariantDatum datum = new VariantDatum();
+            datum.annotations = new double[numAnnotations];
+            datum.isNull = new boolean[numAnnotations];
+            final double offset = rng.nextBoolean() ? 2.0 : -1.0;
+            for ( int j = 0; j < numAnnotations; j++ ) {
+                datum.annotations[j] = offset * (j + 1) + rng.nextGaussian();
+                datum.isNull[j] = rng.nextInt(500) == 0;
+            }
+            datum.prior = 2.0;
+            data.add(datum);
+        }
+        return data;
+    }
+
+    private static final class Result {
+        final List<MultivariateGaussian> gaussians;
+        final double[] lods;
+
+        Result( final List<MultivariateGaussian> gaussians, final double[] lods ) {
+            this.gaussians = gaussians;
+            this.lods = lods;
+        }
+    }
+
+    private static Result trainAndEvaluate( final int numThreads ) {
+        final VariantRecalibratorArgumentCollection VRAC = new VariantRecalibratorArgumentCollection();
+        VRAC.MAX_ITERATIONS = 20;
+        VRAC.NUM_KMEANS_ITERATIONS = 10;
+        VRAC.MODELING_THREADS = numThreads;
+        final VariantRecalibratorEngine engine = new VariantRecalibratorEngine(VRAC);
+        final List<VariantDatum> data = makeData(10000, 3);
+
+        Utils.resetRandomGenerator();
+        final GaussianMixtureModel goodModel = engine.generateModel(data.subList(0, 6000), 3);
+        final GaussianMixtureModel badModel = engine.generateModel(data.subList(6000, data.size()), 2);
+        Assert.assertFalse(goodModel.failedToConverge);
+        engine.evaluateData(data, goodModel, false);
+        engine.evaluateData(data, badModel, true);
+        Assert.assertFalse(goodModel.failedToConverge);
+        Assert.assertFalse(badModel.failedToConverge);
+
+        final List<MultivariateGaussian> gaussians = new ArrayList<>(goodModel.getModelGaussians());
+        gaussians.addAll(badModel.getModelGaussians());
+        return new Result(gaussians, data.stream().mapToDouble(d -> d.lod).toArray());
+    }
+
+    @DataProvider(name = "numThreads")
+    public Object[][] numThreads() {
+        return new Object[][] {{2}, {4}};
+    }
+
+    @Test(dataProvider = "numThreads")
+    public void testResultsDoNotDependOnNumberOfThreads( final int numThreads ) {
+        final Result expected = trainAndEvaluate(1);
+        final Result actual = trainAndEvaluate(numThreads);
+
+        Assert.assertEquals(actual.gaussians.size(), expected.gaussians.size());
+        for ( int i = 0; i < expected.gaussians.size(); i++ ) {
+            final MultivariateGaussian expectedGaussian = expected.gaussians.get(i);
+            final MultivariateGaussian actualGaussian = actual.gaussians.get(i);
+            Assert.assertEquals(actualGaussian.pMixtureLog10, expectedGaussian.pMixtureLog10);
+            Assert.assertEquals(actualGaussian.mu, expectedGaussian.mu);
+            for ( int row = 0; row < expectedGaussian.mu.length; row++ ) {
+                Assert.assertEquals(actualGaussian.sigma.getArray()[row], expectedGaussian.sigma.getArray()[row]);
+            }
+        }
+        Assert.assertEquals(actual.lods, expected.lods);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNoData() {
+        new VariantRecalibratorEngine(new VariantRecalibratorArgumentCollection()).generateModel(new ArrayList<>(), 4);
+    }
+}
@@ -193,6 +193,47 @@ public final class ReadLikelihoodsUnitTest {
         testLikelihoodMatrixQueries(samples,result,newLikelihoods);
     }
 
+    @Test(dataProvider = "dataSets")
+    public void testAddReadsAndAllelesAfterFilteringAndRelease(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads) {
+        final ReadLikelihoods<Allele> original = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
+        final SimpleInterval evenReadOverlap = new SimpleInterval(SAM_HEADER.getSequenceDictionary().getSequences().get(0).getSequenceName(), EVEN_READ_START, EVEN_READ_START);
+        fillWithRandomLikelihoods(samples,alleles,original);
+        final ReadLikelihoods<Allele> result = original.copy();
+
+        // removing the odd reads leaves room in the likelihood arrays that adding reads back can reuse.
+        result.filterToOnlyOverlappingUnclippedReads(evenReadOverlap);
+        final Map<String,List<GATKRead>> oddReads = new LinkedHashMap<>();
+        for (int s = 0; s < samples.length; s++) {
+            final List<GATKRead> sampleOddReads = new ArrayList<>();
+            for (int r = 1; r < original.sampleReadCount(s); r += 2) {
+                sampleOddReads.add(original.sampleReads(s).get(r));
+            }
+            oddReads.put(samples[s], sampleOddReads);
+        }
+        result.addReads(oddReads, -1.5);
+        final Allele newAllele = Allele.create("ACCCCCAAAATTTAAAGGG".getBytes(), false);
+        result.addMissingAlleles(Collections.singletonList(newAllele), -2.5);
+
+        final double[][][] newLikelihoods = new double[samples.length][alleles.length + 1][];
+        for (int s = 0; s < samples.length; s++) {
+            final int sampleReadCount = original.sampleReadCount(s);
+            final int evenReadCount = (sampleReadCount + 1) / 2;
+            Assert.assertEquals(result.sampleReadCount(s), sampleReadCount);
+            for (int a = 0; a <= alleles.length; a++) {
+                newLikelihoods[s][a] = new double[sampleReadCount];
+                for (int r = 0; r < sampleReadCount; r++) {
+                    newLikelihoods[s][a][r] = a == alleles.length ? -2.5 : r >= evenReadCount ? -1.5 : original.sampleMatrix(s).get(a, r << 1);
+                }
+            }
+        }
+        testLikelihoodMatrixQueries(samples,result,newLikelihoods);
+
+        // new collections start with zero likelihoods even if they reuse the arrays of released ones.
+        result.release();
+        original.release();
+        testLikelihoodMatrixQueries(samples, new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads), null);
+    }
+
     @Test(dataProvider = "marginalizationDataSets")
     public void testMarginalizationWithOverlap(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads, final Map<Allele,List<Allele>> newToOldAlleleMapping) {
         final ReadLikelihoods<Allele> original = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
@@ -0,0 +1,198 @@
+package org.broadinstitute.hellbender.utils.hmm;
+
+import org.broadinstitute.hellbender.utils.GATKProtectedMathUtils;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Unit tests for the tabulated implementations of {@link ViterbiAlgorithm} and {@link ForwardBackwardAlgorithm}
+ * against brute-force enumeration of all the paths, and for their batch versions.
+ */
+public final class HMMBatchUnitTest extends BaseTest {
+
+    private static final List<TestHMM> TEST_MODELS = Arrays.asList(
+            TestHMM.fromPhredProbabilities(
+                    20, 0, 20, // priors
+                    0, 20, 20, // transition
+                    20, 0, 20,
+                    20, 20, 0,
+                    0, 20, 20, // emission
+                    20, 0, 20,
+                    20, 20, 0),
+            TestHMM.fromPhredProbabilities(
+                    0, 0, 0, // priors
+                    0, 0, 0, // transition
+                    0, 0, 0,
+                    0, 0, 0,
+                    0, 0, 0, // emission
+                    0, 0, 0,
+                    0, 0, 0),
+            TestHMM.fromPhredProbabilities(
+                    30.1, 0.6, 10.2, // priors
+                    0.7, 30.3, 10.4, // transition
+                    10.5, 0.4, 30.6,
+                    30.7, 10.8, 0.5,
+                    0.3, 10.9, 20.1, // emission
+                    40.2, 0.2, 10.3,
+                    5.5, 5.4, 0.1)
+    );
+
+    private final ForkJoinPool pool = new ForkJoinPool(3);
+
+    @AfterClass
+    public void shutDownPool() {
+        pool.shutdown();
+    }
+
+    @DataProvider(name = "models")
+    public Object[][] models() {
+        return TEST_MODELS.stream().map(m -> new Object[] { m }).toArray(Object[][]::new);
+    }
+
+    private static List<Integer> positions(final int length) {
+        return IntStream.range(0, length).boxed().collect(Collectors.toList());
+    }
+
+    private static List<TestHMM.Datum> randomData(final int length, final Random random) {
+        return IntStream.range(0, length)
+                .mapToObj(i -> TestHMM.Datum.values()[random.nextInt(TestHMM.Datum.values().length)])
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * All the state sequences of a given length.
+     */
+    private static List<List<TestHMM.State>> allPaths(final int length) {
+        List<List<TestHMM.State>> result = Collections.singletonList(Collections.emptyList());
+        for (int i = 0; i < length; i++) {
+            final List<List<TestHMM.State>> extended = new ArrayList<>();
+            for (final List<TestHMM.State> path : result) {
+                for (final TestHMM.State state : TestHMM.State.values()) {
+                    final List<TestHMM.State> newPath = new ArrayList<>(path);
+                    newPath.add(state);
+                    extended.add(newPath);
+                }
+            }
+            result = extended;
+        }
+        return result;
+    }
+
+    private static double logJointProbability(final TestHMM model, final List<TestHMM.Datum> data,
+                                              final List<Integer> positions, final List<TestHMM.State> path) {
+        double result = model.logPriorProbability(path.get(0), positions.get(0))
+                + model.logEmissionProbability(data.get(0), path.get(0), positions.get(0));
+        for (int i = 1; i < path.size(); i++) {
+            result += model.logTransitionProbability(path.get(i - 1), positions.get(i - 1), path.get(i), positions.get(i))
+                    + model.logEmissionProbability(data.get(i), path.get(i), positions.get(i));
+        }
+        return result;
+    }
+
+    @Test(dataProvider = "models")
+    public void testAgainstAllPaths(final TestHMM model) {
+        final Random random = new Random(13);
+        final int length = 6;
+        final List<Integer> positions = positions(length);
+        final List<List<TestHMM.State>> paths = allPaths(length);
+        for (int i = 0; i < 10; i++) {
+            final List<TestHMM.Datum> data = randomData(length, random);
+            final double[] logJointProbabilities = paths.stream()
+                    .mapToDouble(p -> logJointProbability(model, data, positions, p)).toArray();
+            final double logDataLikelihood = GATKProtectedMathUtils.logSumExp(logJointProbabilities);
+
+            final List<TestHMM.State> bestPath = ViterbiAlgorithm.apply(data, positions, model);
+            Assert.assertEquals(logJointProbability(model, data, positions, bestPath),
+                    Arrays.stream(logJointProbabilities).max().getAsDouble(), 1e-10);
+
+            final ForwardBackwardAlgorithm.Result<TestHMM.Datum, Integer, TestHMM.State> result =
+                    ForwardBackwardAlgorithm.apply(data, positions, model);
+            for (int position = 0; position < length; position++) {
+                Assert.assertEquals(result.logDataLikelihood(position), logDataLikelihood, 1e-10);
+                for (final TestHMM.State state : TestHMM.State.values()) {
+                    final int p = position;
+                    final double expected = GATKProtectedMathUtils.logSumExp(IntStream.range(0, paths.size())
+                            .filter(j -> paths.get(j).get(p) == state)
+                            .mapToDouble(j -> logJointProbabilities[j]).toArray()) - logDataLikelihood;
+                    Assert.assertEquals(result.logProbability(position, state), expected, 1e-10);
+                }
+            }
+        }
+    }
+
+    @Test(dataProvider = "models")
+    public void testBatchSameAsSingle(final TestHMM model) {
+        final Random random = new Random(31);
+        final List<Integer> positions = positions(200);
+        final List<List<TestHMM.Datum>> data = IntStream.range(0, 20)
+                .mapToObj(i -> model.generate(positions, random).getSecond())
+                .collect(Collectors.toList());
+
+        final List<List<TestHMM.State>> bestPaths = ViterbiAlgorithm.applyBatch(data, positions, model, pool);
+        final List<ForwardBackwardAlgorithm.Result<TestHMM.Datum, Integer, TestHMM.State>> results =
+                ForwardBackwardAlgorithm.applyBatch(data, positions, model, pool);
+        Assert.assertEquals(bestPaths.size(), data.size());
+        Assert.assertEquals(results.size(), data.size());
+        for (int i = 0; i < data.size(); i++) {
+            Assert.assertEquals(bestPaths.get(i), ViterbiAlgorithm.apply(data.get(i), positions, model));
+            final ForwardBackwardAlgorithm.Result<TestHMM.Datum, Integer, TestHMM.State> expected =
+                    ForwardBackwardAlgorithm.apply(data.get(i), positions, model);
+            final ForwardBackwardAlgorithm.Result<TestHMM.Datum, Integer, TestHMM.State> actual = results.get(i);
+            Assert.assertEquals(actual.data(), data.get(i));
+            Assert.assertEquals(actual.positions(), positions);
+            Assert.assertSame(actual.model(), model);
+            Assert.assertEquals(actual.logDataLikelihood(), expected.logDataLikelihood());
+            for (final Integer position : positions) {
+                for (final TestHMM.State state : TestHMM.State.values()) {
+                    Assert.assertEquals(actual.logForwardProbability(position, state), expected.logForwardProbability(position, state));
+                    Assert.assertEquals(actual.logBackwardProbability(position, state), expected.logBackwardProbability(position, state));
+                    Assert.assertEquals(actual.logProbability(position, state), expected.logProbability(position, state));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBatchOnEmptyData() {
+        final TestHMM model = TEST_MODELS.get(0);
+        final List<List<TestHMM.Datum>> data = Arrays.asList(new ArrayList<>(), new ArrayList<>());
+        Assert.assertEquals(ViterbiAlgorithm.applyBatch(data, new ArrayList<>(), model, pool),
+                Arrays.asList(new ArrayList<>(), new ArrayList<>()));
+        final List<ForwardBackwardAlgorithm.Result<TestHMM.Datum, Integer, TestHMM.State>> results =
+                ForwardBackwardAlgorithm.applyBatch(data, new ArrayList<>(), model, pool);
+        Assert.assertEquals(results.size(), 2);
+        Assert.assertEquals(results.get(0).logDataLikelihood(), 0.0);
+        Assert.assertTrue(ForwardBackwardAlgorithm.applyBatch(Collections.emptyList(), positions(10), model, pool).isEmpty());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testViterbiBatchWithMismatchedDataPositionsLength() {
+        final List<List<TestHMM.Datum>> data = Arrays.asList(randomData(10, new Random(1)), randomData(9, new Random(1)));
+        ViterbiAlgorithm.applyBatch(data, positions(10), TEST_MODELS.get(0), pool);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testForwardBackwardBatchWithMismatchedDataPositionsLength() {
+        final List<List<TestHMM.Datum>> data = Arrays.asList(randomData(10, new Random(1)), randomData(9, new Random(1)));
+        ForwardBackwardAlgorithm.applyBatch(data, positions(10), TEST_MODELS.get(0), pool);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testForwardBackwardBatchWithNullDataPoints() {
+        final List<TestHMM.Datum> data = randomData(10, new Random(1));
+        data.set(5, null);
+        ForwardBackwardAlgorithm.applyBatch(Collections.singletonList(data), positions(10), TEST_MODELS.get(0), pool);
+    }
+}
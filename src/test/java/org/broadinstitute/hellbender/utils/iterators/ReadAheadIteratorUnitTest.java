@@ -0,0 +1,133 @@
+package org.broadinstitute.hellbender.utils.iterators;
+
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public final class ReadAheadIteratorUnitTest extends BaseTest {
+
+    @DataProvider(name = "ReadAheadData")
+    public Object[][] readAheadData() {
+        // element count, batch size, batch count
+        return new Object[][] {
+                { 0, 10, 1 },
+                { 1, 10, 1 },
+                { 9, 10, 2 },
+                { 10, 10, 2 },
+                { 11, 10, 2 },
+                { 1000, 1, 1 },
+                { 1000, 7, 3 },
+                { 1000, 100, 100 }
+        };
+    }
+
+    @Test(dataProvider = "ReadAheadData")
+    public void testSameElementsInSameOrder( final int elementCount, final int batchSize, final int batchCount ) {
+        final List<Integer> elements = IntStream.range(0, elementCount).boxed().collect(Collectors.toList());
+        final List<Integer> actual = new ArrayList<>();
+        try ( final ReadAheadIterator<Integer> iterator = new ReadAheadIterator<>(elements.iterator(), batchSize, batchCount) ) {
+            while ( iterator.hasNext() ) {
+                actual.add(iterator.next());
+            }
+            Assert.assertFalse(iterator.hasNext());
+        }
+        Assert.assertEquals(actual, elements);
+    }
+
+    @Test(expectedExceptions = NoSuchElementException.class)
+    public void testNextWhenExhausted() {
+        try ( final ReadAheadIterator<Integer> iterator = new ReadAheadIterator<>(new ArrayList<Integer>().iterator(), 10, 1) ) {
+            iterator.next();
+        }
+    }
+
+    @Test
+    public void testExceptionRethrownAfterPrecedingElements() {
+        final int failAt = 25;
+        final Iterator<Integer> failing = new Iterator<Integer>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                if ( next == failAt ) {
+                    throw new IllegalStateException("bad element");
+                }
+                return next++;
+            }
+        };
+
+        int returned = 0;
+        try ( final ReadAheadIterator<Integer> iterator = new ReadAheadIterator<>(failing, 10, 2) ) {
+            try {
+                while ( iterator.hasNext() ) {
+                    Assert.assertEquals(iterator.next().intValue(), returned++);
+                }
+                Assert.fail("the exception of the underlying iterator should have been rethrown");
+            } catch ( final IllegalStateException e ) {
+                Assert.assertEquals(e.getMessage(), "bad element");
+            }
+            // every element before the failure is returned, including those of the failed batch
+            Assert.assertEquals(returned, failAt);
+
+            // and the iterator stays failed rather than waiting for another batch
+            for ( int i = 0; i < 2; i++ ) {
+                try {
+                    iterator.hasNext();
+                    Assert.fail("the exception of the underlying iterator should have been rethrown again");
+                } catch ( final IllegalStateException e ) {
+                    Assert.assertEquals(e.getMessage(), "bad element");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCloseStopsReadingAhead() {
+        final AtomicInteger pulled = new AtomicInteger();
+        final Iterator<Integer> endless = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                return pulled.getAndIncrement();
+            }
+        };
+
+        final ReadAheadIterator<Integer> iterator = new ReadAheadIterator<>(endless, 10, 2);
+        for ( int i = 0; i < 15; i++ ) {
+            Assert.assertEquals(iterator.next().intValue(), i);
+        }
+        iterator.close();
+
+        // the two batches taken by the consumer, the two queued, and the one waiting to be queued
+        Assert.assertTrue(pulled.get() <= 10 * 5, "pulled " + pulled.get());
+        iterator.close();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBatchSize() {
+        new ReadAheadIterator<>(new ArrayList<Integer>().iterator(), 0, 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBatchCount() {
+        new ReadAheadIterator<>(new ArrayList<Integer>().iterator(), 1, 0);
+    }
+}
@@ -0,0 +1,212 @@
+package org.broadinstitute.hellbender.utils.pairhmm;
+
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+public final class BatchLoglessPairHMMUnitTest extends BaseTest {
+
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    @Test
+    public void testPrefixTrieOrder() {
+        final byte[][] haplotypes = {"ACGTT".getBytes(), "ACG".getBytes(), "ACGAT".getBytes(), "TCGTA".getBytes(), "ACGTA".getBytes()};
+        final int[] order = BatchLoglessPairHMM.prefixTrieOrder(haplotypes);
+        Assert.assertEquals(order, new int[]{1, 2, 4, 0, 3});
+        Assert.assertEquals(BatchLoglessPairHMM.sharedPrefixLengths(haplotypes, order), new int[]{0, 0, 3, 4, 0});
+    }
+
+    @DataProvider(name = "RandomRegions")
+    public Object[][] makeRandomRegions() {
+        final List<Object[]> tests = new ArrayList<>();
+        for ( final boolean useTristateCorrection : Arrays.asList(true, false) ) {
+            for ( final int readLength : Arrays.asList(1, 10, 75, 151) ) {
+                for ( final int haplotypeCount : Arrays.asList(1, 2, 8, 20) ) {
+                    tests.add(new Object[]{useTristateCorrection, readLength, haplotypeCount});
+                }
+            }
+        }
+        return tests.toArray(new Object[][]{});
+    }
+
+    @Test(dataProvider = "RandomRegions")
+    public void testComputeLog10LikelihoodsMatchesLoglessPairHMM(final boolean useTristateCorrection, final int readLength, final int haplotypeCount) {
+        final Random random = new Random(readLength * 31 + haplotypeCount);
+        final List<Haplotype> haplotypes = makeHaplotypes(random, haplotypeCount, readLength + 50);
+        final List<GATKRead> reads = new ArrayList<>();
+        for ( int i = 0; i < 10; i++ ) {
+            reads.add(makeRead(random, readLength, haplotypes.get(random.nextInt(haplotypes.size())).getBases()));
+        }
+        final Map<GATKRead, byte[]> gcp = new LinkedHashMap<>();
+        reads.forEach(read -> gcp.put(read, Utils.dupBytes((byte) 10, read.getLength())));
+
+        final PairHMM expectedHMM = new LoglessPairHMM();
+        final BatchLoglessPairHMM batchHMM = new BatchLoglessPairHMM();
+        if ( ! useTristateCorrection ) {
+            expectedHMM.doNotUseTristateCorrection();
+            batchHMM.doNotUseTristateCorrection();
+        }
+
+        final double[][] expected = new double[haplotypes.size()][reads.size()];
+        final double[][] actual = new double[haplotypes.size()][reads.size()];
+        // run twice on the same instances, so that buffer and haplotype-order reuse is exercised
+        for ( int pass = 0; pass < 2; pass++ ) {
+            expectedHMM.computeLog10Likelihoods(matrix(haplotypes, expected), reads, gcp);
+            batchHMM.computeLog10Likelihoods(matrix(haplotypes, actual), reads, gcp);
+            for ( int a = 0; a < haplotypes.size(); a++ ) {
+                Assert.assertEquals(actual[a], expected[a], "haplotype " + a);
+            }
+            Assert.assertEquals(batchHMM.getLogLikelihoodArray(), expectedHMM.getLogLikelihoodArray());
+        }
+    }
+
+    @Test
+    public void testSinglePairMatchesLoglessPairHMM() {
+        final Random random = new Random(13);
+        final List<Haplotype> haplotypes = makeHaplotypes(random, 6, 120);
+        final GATKRead read = makeRead(random, 100, haplotypes.get(0).getBases());
+        final byte[] quals = read.getBaseQualities();
+        final byte[] gop = Utils.dupBytes((byte) 45, read.getLength());
+        final byte[] gcp = Utils.dupBytes((byte) 10, read.getLength());
+
+        final PairHMM expectedHMM = new LoglessPairHMM();
+        final PairHMM batchHMM = new BatchLoglessPairHMM();
+        expectedHMM.initialize(read.getLength(), 200);
+        batchHMM.initialize(read.getLength(), 200);
+        for ( int a = 0; a < haplotypes.size(); a++ ) {
+            final byte[] haplotype = haplotypes.get(a).getBases();
+            final byte[] nextHaplotype = a + 1 < haplotypes.size() ? haplotypes.get(a + 1).getBases() : null;
+            final double expected = expectedHMM.computeReadLikelihoodGivenHaplotypeLog10(haplotype, read.getBases(), quals, gop, gop, gcp, a == 0, nextHaplotype);
+            final double actual = batchHMM.computeReadLikelihoodGivenHaplotypeLog10(haplotype, read.getBases(), quals, gop, gop, gcp, a == 0, nextHaplotype);
+            Assert.assertEquals(actual, expected, "haplotype " + a);
+        }
+    }
+
+    @Test
+    public void testEmptyReads() {
+        final BatchLoglessPairHMM hmm = new BatchLoglessPairHMM();
+        final List<Haplotype> haplotypes = Collections.singletonList(new Haplotype("ACGT".getBytes(), true));
+        hmm.computeLog10Likelihoods(matrix(haplotypes, new double[1][0]), Collections.emptyList(), Collections.emptyMap());
+        Assert.assertNull(hmm.getLogLikelihoodArray());
+    }
+
+    /**
+     * Haplotypes that share prefixes of various lengths with each other, in both equal and differing lengths
+     */
+    private static List<Haplotype> makeHaplotypes(final Random random, final int count, final int length) {
+        final byte[] ref = randomBases(random, length);
+        final List<Haplotype> haplotypes = new ArrayList<>(count);
+        haplotypes.add(new Haplotype(ref, true));
+        for ( int i = 1; i < count; i++ ) {
+            final byte[] bases;
+            switch ( i % 3 ) {
+                case 0: // SNP
+                    bases = ref.clone();
+                    final int position = random.nextInt(length);
+                    bases[position] = BASES[(Arrays.binarySearch(BASES, bases[position]) + 1 + random.nextInt(3)) % 4];
+                    break;
+                case 1: // deletion
+                    final int deletionStart = random.nextInt(length - 5);
+                    bases = new byte[length - 3];
+                    System.arraycopy(ref, 0, bases, 0, deletionStart);
+                    System.arraycopy(ref, deletionStart + 3, bases, deletionStart, length - deletionStart - 3);
+                    break;
+                default: // replaced suffix
+                    bases = ref.clone();
+                    final int suffixStart = random.nextInt(length);
+                    System.arraycopy(randomBases(random, length - suffixStart), 0, bases, suffixStart, length - suffixStart);
+                    break;
+            }
+            haplotypes.add(new Haplotype(bases, false));
+        }
+        return haplotypes;
+    }
+
+    private static GATKRead makeRead(final Random random, final int length, final byte[] haplotype) {
+        final int start = random.nextInt(Math.max(1, haplotype.length - length));
+        final byte[] bases = Arrays.copyOfRange(haplotype, start, start + Math.min(length, haplotype.length));
+        final byte[] quals = new byte[bases.length];
+        for ( int i = 0; i < bases.length; i++ ) {
+            if ( random.nextInt(20) == 0 ) {
+                bases[i] = random.nextInt(10) == 0 ? (byte) 'N' : BASES[random.nextInt(4)];
+            }
+            quals[i] = (byte) (10 + random.nextInt(31));
+        }
+        return ArtificialReadUtils.createArtificialRead(bases, quals, bases.length + "M");
+    }
+
+    private static byte[] randomBases(final Random random, final int length) {
+        final byte[] bases = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            bases[i] = BASES[random.nextInt(4)];
+        }
+        return bases;
+    }
+
+    private static LikelihoodMatrix<Haplotype> matrix(final List<Haplotype> haplotypes, final double[][] values) {
+        return new LikelihoodMatrix<Haplotype>() {
+            @Override
+            public List<GATKRead> reads() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<Haplotype> alleles() {
+                return haplotypes;
+            }
+
+            @Override
+            public void set(int alleleIndex, int readIndex, double value) {
+                values[alleleIndex][readIndex] = value;
+            }
+
+            @Override
+            public double get(int alleleIndex, int readIndex) {
+                return values[alleleIndex][readIndex];
+            }
+
+            @Override
+            public int indexOfAllele(Haplotype allele) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int indexOfRead(GATKRead read) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int numberOfAlleles() {
+                return haplotypes.size();
+            }
+
+            @Override
+            public int numberOfReads() {
+                return values.length == 0 ? 0 : values[0].length;
+            }
+
+            @Override
+            public Haplotype getAllele(int alleleIndex) {
+                return haplotypes.get(alleleIndex);
+            }
+
+            @Override
+            public GATKRead getRead(int readIndex) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void copyAlleleLikelihoods(int alleleIndex, double[] dest, int offset) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
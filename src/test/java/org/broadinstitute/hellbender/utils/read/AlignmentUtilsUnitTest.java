@@ -6,6 +6,7 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.pileup.PileupElement;
 import org.broadinstitute.hellbender.utils.smithwaterman.SWPairwiseAlignment;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
@@ -152,10 +153,10 @@ public final class AlignmentUtilsUnitTest {
         final GATKRead originalReadCopy = read.copy();
 
         if ( expectedReadCigar == null ) {
-            Assert.assertNull(AlignmentUtils.createReadAlignedToRef(read, haplotype, haplotype, refStart, true));
+            Assert.assertNull(AlignmentUtils.createReadAlignedToRef(read, haplotype, haplotype, refStart, true, SmithWatermanAligner.Implementation.COMPACT.getAligner()));
         } else {
             final Cigar expectedCigar = TextCigarCodec.decode(expectedReadCigar);
-            final GATKRead alignedRead = AlignmentUtils.createReadAlignedToRef(read, haplotype, haplotype, refStart, true);
+            final GATKRead alignedRead = AlignmentUtils.createReadAlignedToRef(read, haplotype, haplotype, refStart, true, SmithWatermanAligner.Implementation.COMPACT.getAligner());
 
             Assert.assertEquals(alignedRead.getName(), originalReadCopy.getName());
             Assert.assertEquals(alignedRead.getStart(), expectedReadStart);
@@ -263,7 +264,7 @@ public final class AlignmentUtilsUnitTest {
 
     @Test(dataProvider = "ComplexReadAlignedToRef")
     public void testReadAlignedToRefComplexAlignment(final int testIndex, final GATKRead read, final String reference, final Haplotype haplotype, final int expectedMaxMismatches) throws Exception {
-        final GATKRead alignedRead = AlignmentUtils.createReadAlignedToRef(read, haplotype, new Haplotype(reference.getBytes(),true), 1, true);
+        final GATKRead alignedRead = AlignmentUtils.createReadAlignedToRef(read, haplotype, new Haplotype(reference.getBytes(),true), 1, true, SmithWatermanAligner.Implementation.COMPACT.getAligner());
         if ( alignedRead != null ) {
             final int mismatches = AlignmentUtils.getMismatchCount(alignedRead, reference.getBytes(), alignedRead.getStart() - 1).numMismatches;
             Assert.assertTrue(mismatches <= expectedMaxMismatches,
@@ -0,0 +1,179 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public final class RecalibrationCountsUnitTest extends BaseTest {
+    private StandardCovariateList covariates;
+    private final int numReadGroups = 6;
+    private final List<Integer> combineStates = Arrays.asList(0, 1, 2);
+    private final List<Integer> quals = Arrays.asList(5, 20, 40);
+
+    @BeforeMethod
+    private void makeCovariates() {
+        final List<String> readGroups = IntStream.range(0, numReadGroups).mapToObj(i -> "readgroup" + i).collect(Collectors.toList());
+        covariates = new StandardCovariateList(new RecalibrationArgumentCollection(), readGroups);
+    }
+
+    /**
+     * Count the same observations (including fractional errors) in counts and, the way the
+     * engine used to, directly in tables, iterations times over
+     */
+    private void fill( final RecalibrationCounts counts, final RecalibrationTables tables, final int iterations ) {
+        for ( int iteration = 0; iteration < iterations; iteration++ ) {
+            for ( final EventType et : EventType.values() ) {
+                for ( final int rg : combineStates ) {
+                    for ( final int qual : quals ) {
+                        final double error = (rg + qual + iteration) % 3 / 3.0;
+                        if ( counts != null ) {
+                            counts.incrementQualityScoreTable(rg, qual, et.ordinal(), error);
+                        }
+                        if ( tables != null ) {
+                            RecalUtils.incrementDatumOrPutIfNecessary3keys(tables.getQualityScoreTable(), (byte)qual, error, rg, qual, et.ordinal());
+                        }
+                        for ( final int key : combineStates ) {
+                            for ( int table = 2; table < covariates.size(); table++ ) {
+                                if ( counts != null ) {
+                                    counts.incrementAdditionalTable(table, rg, qual, key, et.ordinal(), error);
+                                }
+                                if ( tables != null ) {
+                                    RecalUtils.incrementDatumOrPutIfNecessary4keys(tables.getTable(table), (byte)qual, error, rg, qual, key, et.ordinal());
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void assertTablesEqual( final RecalibrationTables actual, final RecalibrationTables expected, final double mismatchTolerance ) {
+        Assert.assertEquals(actual.numTables(), expected.numTables());
+        for ( int i = 0; i < expected.numTables(); i++ ) {
+            final NestedIntegerArray<RecalDatum> expectedTable = expected.getTable(i);
+            final NestedIntegerArray<RecalDatum> actualTable = actual.getTable(i);
+            Assert.assertEquals(actualTable.getDimensions(), expectedTable.getDimensions());
+
+            Assert.assertEquals(actualTable.getAllLeaves().size(), expectedTable.getAllLeaves().size());
+            for ( final NestedIntegerArray.Leaf<RecalDatum> leaf : expectedTable.getAllLeaves() ) {
+                final RecalDatum actualValue = actualTable.get(leaf.keys);
+                Assert.assertNotNull(actualValue);
+                Assert.assertEquals(actualValue.getNumObservations(), leaf.value.getNumObservations());
+                Assert.assertEquals(actualValue.getNumMismatches(), leaf.value.getNumMismatches(), mismatchTolerance);
+                Assert.assertEquals(actualValue.getEstimatedQReported(), leaf.value.getEstimatedQReported(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testSameAsRecalDatums() {
+        final RecalibrationCounts counts = new RecalibrationCounts(covariates, numReadGroups);
+        final RecalibrationTables expected = new RecalibrationTables(covariates, numReadGroups);
+        fill(counts, expected, 10);
+
+        final RecalibrationTables actual = counts.toRecalibrationTables();
+        Assert.assertTrue(actual.getReadGroupTable().getAllValues().isEmpty());
+        assertTablesEqual(actual, expected, 0.0);
+    }
+
+    @Test
+    public void testManyFractionalErrorsSameAsRecalDatums() {
+        // enough fractional errors under each key for any rounding of them to add up
+        final RecalibrationCounts counts = new RecalibrationCounts(covariates, numReadGroups);
+        final RecalibrationTables expected = new RecalibrationTables(covariates, numReadGroups);
+        final Random random = new Random(13);
+        for ( int i = 0; i < 6_000_000; i++ ) {
+            final double error = random.nextDouble() < 0.8 ? 0.0 : random.nextDouble();
+            final int qual = quals.get(i % quals.size());
+            counts.incrementQualityScoreTable(1, qual, 0, error);
+            RecalUtils.incrementDatumOrPutIfNecessary3keys(expected.getQualityScoreTable(), (byte)qual, error, 1, qual, 0);
+        }
+        assertTablesEqual(counts.toRecalibrationTables(), expected, 0.0);
+    }
+
+    @Test
+    public void testEmpty() {
+        final RecalibrationCounts counts = new RecalibrationCounts(covariates, numReadGroups);
+        Assert.assertTrue(counts.toRecalibrationTables().isEmpty());
+    }
+
+    @Test
+    public void testTablesNotUpdatedByLaterCounts() {
+        final RecalibrationCounts counts = new RecalibrationCounts(covariates, numReadGroups);
+        fill(counts, null, 1);
+        final RecalibrationTables tables = counts.toRecalibrationTables();
+        final long observations = tables.getQualityScoreTable().get3Keys(0, quals.get(0), 0).getNumObservations();
+
+        fill(counts, null, 1);
+        Assert.assertEquals(tables.getQualityScoreTable().get3Keys(0, quals.get(0), 0).getNumObservations(), observations);
+    }
+
+    @Test
+    public void testAdd() {
+        final RecalibrationCounts first = new RecalibrationCounts(covariates, numReadGroups);
+        final RecalibrationCounts second = new RecalibrationCounts(covariates, numReadGroups);
+        final RecalibrationCounts expected = new RecalibrationCounts(covariates, numReadGroups);
+        fill(first, null, 3);
+        fill(second, null, 5);
+        fill(expected, null, 8);
+
+        // blocks present in only one of the two
+        first.incrementAdditionalTable(2, numReadGroups - 1, 30, 7, 0, 1.0);
+        second.incrementAdditionalTable(3, numReadGroups - 1, 31, 8, 1, 0.0);
+        expected.incrementAdditionalTable(3, numReadGroups - 1, 31, 8, 1, 0.0);
+        expected.incrementAdditionalTable(2, numReadGroups - 1, 30, 7, 0, 1.0);
+
+        Assert.assertSame(first.add(second), first);
+        // fractional errors summed in a different order may differ by rounding error
+        assertTablesEqual(first.toRecalibrationTables(), expected.toRecalibrationTables(), 1e-9);
+
+        // the other counts are left as they were
+        final RecalibrationTables secondTables = second.toRecalibrationTables();
+        Assert.assertNull(secondTables.getTable(2).get4Keys(numReadGroups - 1, 30, 7, 0));
+        Assert.assertEquals(secondTables.getTable(3).get4Keys(numReadGroups - 1, 31, 8, 1).getNumObservations(), 1);
+    }
+
+    @Test
+    public void testAddInSameOrderIsReproducible() {
+        final List<RecalibrationCounts> totals = IntStream.range(0, 2).mapToObj(n -> {
+            final RecalibrationCounts total = new RecalibrationCounts(covariates, numReadGroups);
+            for ( int i = 0; i < 3; i++ ) {
+                final RecalibrationCounts part = new RecalibrationCounts(covariates, numReadGroups);
+                fill(part, null, i + 1);
+                total.add(part);
+            }
+            return total;
+        }).collect(Collectors.toList());
+        assertTablesEqual(totals.get(0).toRecalibrationTables(), totals.get(1).toRecalibrationTables(), 0.0);
+    }
+
+    @Test
+    public void testManyKeysInOneBlock() {
+        // more keys than the initial capacity of a block, including the largest key of each covariate
+        final RecalibrationCounts counts = new RecalibrationCounts(covariates, numReadGroups);
+        final RecalibrationTables expected = new RecalibrationTables(covariates, numReadGroups);
+        for ( int table = 2; table < covariates.size(); table++ ) {
+            final int maxKey = covariates.get(table).maximumKeyValue();
+            for ( int key = maxKey; key >= 0; key -= 7 ) {
+                counts.incrementAdditionalTable(table, 0, 20, key, 0, 1.0);
+                RecalUtils.incrementDatumOrPutIfNecessary4keys(expected.getTable(table), (byte)20, 1.0, 0, 20, key, 0);
+            }
+        }
+        assertTablesEqual(counts.toRecalibrationTables(), expected, 0.0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAddDifferentDimensions() {
+        new RecalibrationCounts(covariates, numReadGroups).add(new RecalibrationCounts(covariates, numReadGroups - 1));
+    }
+}
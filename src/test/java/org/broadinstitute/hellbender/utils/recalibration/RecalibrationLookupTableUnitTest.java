@@ -0,0 +1,78 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import org.broadinstitute.hellbender.transformers.BQSRReadTransformer;
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public final class RecalibrationLookupTableUnitTest extends BaseTest {
+    private static final String BQSR_DIR = publicTestDir + "org/broadinstitute/hellbender/tools/BQSR/";
+    private static final int BASE_SUBSTITUTION_INDEX = EventType.BASE_SUBSTITUTION.ordinal();
+
+    @DataProvider(name = "recalibrationReports")
+    public Object[][] recalibrationReports() {
+        return new Object[][] {
+                {BQSR_DIR + "HiSeq.20mb.1RG.table.gz", -1.0},
+                {BQSR_DIR + "HiSeq.20mb.1RG.table.gz", 30.0},
+                {BQSR_DIR + "NA12878.oq.gatk4.recal.gz", -1.0},
+                {BQSR_DIR + "bqsr.manyObservations.full.table.gz", -1.0},
+        };
+    }
+
+    @Test(dataProvider = "recalibrationReports")
+    public void testRecalibratedQualitiesAreBitIdentical(final String reportFile, final double globalQScorePrior) {
+        final RecalibrationTables tables = new RecalibrationReport(new File(reportFile)).getRecalibrationTables();
+        final RecalibrationLookupTable lookupTable = new RecalibrationLookupTable(tables, globalQScorePrior);
+
+        final int numReadGroups = tables.getReadGroupTable().getDimensions()[0];
+        final int qualDimension = tables.getQualityScoreTable().getDimensions()[1];
+        final List<NestedIntegerArray<RecalDatum>> additionalTables = tables.getAdditionalTables();
+
+        // draw the covariate keys mostly from those with data, but also from those without and from negative keys
+        final List<List<Integer>> keysWithData = new ArrayList<>();
+        for ( final NestedIntegerArray<RecalDatum> table : additionalTables ) {
+            final List<Integer> keys = new ArrayList<>();
+            table.getAllLeaves().forEach(leaf -> keys.add(leaf.keys[2]));
+            keysWithData.add(keys);
+        }
+        final Random rng = new Random(47);
+        final int[] keySet = new int[2 + additionalTables.size()];
+        final RecalDatum[] empiricalQualCovs = new RecalDatum[additionalTables.size()];
+        int numCompared = 0;
+        for ( int i = 0; i < 200000; i++ ) {
+            keySet[0] = rng.nextInt(numReadGroups + 1);
+            keySet[1] = rng.nextInt(qualDimension + 2);
+            for ( int covariate = 0; covariate < additionalTables.size(); covariate++ ) {
+                final int choice = rng.nextInt(10);
+                final List<Integer> keys = keysWithData.get(covariate);
+                keySet[covariate + 2] = choice == 0 ? -1 : choice == 1 || keys.isEmpty() ? rng.nextInt(2000) : keys.get(rng.nextInt(keys.size()));
+            }
+
+            final RecalDatum empiricalQualRG = tables.getReadGroupTable().get2Keys(keySet[0], BASE_SUBSTITUTION_INDEX);
+            Assert.assertEquals(lookupTable.hasReadGroup(keySet[0]), empiricalQualRG != null);
+            if ( empiricalQualRG == null ) {
+                continue;
+            }
+            final double epsilon = globalQScorePrior > 0.0 ? globalQScorePrior : empiricalQualRG.getEstimatedQReported();
+            final RecalDatum empiricalQualQS = tables.getQualityScoreTable().get3Keys(keySet[0], keySet[1], BASE_SUBSTITUTION_INDEX);
+            for ( int covariate = 0; covariate < additionalTables.size(); covariate++ ) {
+                final int key = keySet[covariate + 2];
+                empiricalQualCovs[covariate] = key < 0 ? null : additionalTables.get(covariate).get4Keys(keySet[0], keySet[1], key, BASE_SUBSTITUTION_INDEX);
+            }
+            final double expected = BQSRReadTransformer.hierarchicalBayesianQualityEstimate(epsilon, empiricalQualRG, empiricalQualQS, empiricalQualCovs);
+            final double actual = lookupTable.getRecalibratedQuality(keySet);
+            Assert.assertEquals(Double.doubleToRawLongBits(actual), Double.doubleToRawLongBits(expected),
+                    "mismatch for keys " + Arrays.toString(keySet) + ": " + actual + " vs " + expected);
+            numCompared++;
+        }
+        Assert.assertTrue(numCompared > 0);
+    }
+}
@@ -0,0 +1,155 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import org.broadinstitute.hellbender.utils.read.CigarUtils;
+import org.broadinstitute.hellbender.utils.smithwaterman.SWPairwiseAlignment.OverhangStrategy;
+import org.broadinstitute.hellbender.utils.smithwaterman.SWPairwiseAlignment.Parameters;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public final class SmithWatermanAlignerUnitTest extends BaseTest {
+
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    private static final Parameters[] PARAMETERS = {SWPairwiseAlignment.ORIGINAL_DEFAULT, SWPairwiseAlignment.STANDARD_NGS, CigarUtils.NEW_SW_PARAMETERS};
+
+    @DataProvider(name = "Implementations")
+    public Object[][] makeImplementations() {
+        return Arrays.stream(SmithWatermanAligner.Implementation.values()).map(i -> new Object[]{i}).toArray(Object[][]::new);
+    }
+
+    @DataProvider(name = "KnownAlignments")
+    public Object[][] makeKnownAlignments() {
+        final List<Object[]> tests = new ArrayList<>();
+        final String longReference = "ATAGAAAATAGTTTTTGGAAATATGGGTGAAGAGACATCTCCTCTTATGGAAAAAGGGATTCTAGAATTTAACAATAAATATTCCCAACTTTCCCCAAGGCTTTAAAATCTACCTTGAAGGAGCAGCTGATGTATTTCTAGAACAGACTTAGGTGTCTTGGTGTGGCCTGTAAAGAGATACTGTCTTTCTCTTTTGAGTGTAAGAGAGAAAGGACAGTCTACTCAATAAAGAGTGCTGGGAAAACTGAATATCCACACACAGAATAATAAAACTAGATCCTATCTCTCACCATATACAAAGATCAACTCAAAACAAATTAAAGACCTAAATGTAAGACAAGAAATTATAAAACTACTAGAAAAAAACACAAGGGAAATGCTTCAGGACATTGGC";
+        for ( final SmithWatermanAligner.Implementation implementation : SmithWatermanAligner.Implementation.values() ) {
+            tests.add(new Object[]{implementation, "AAACCCCC", "CCCCCGGG", SWPairwiseAlignment.ORIGINAL_DEFAULT, OverhangStrategy.SOFTCLIP, 3, "5M3S"});
+            tests.add(new Object[]{implementation, "AAAGACTACTG", "AACGGACACTG", new Parameters(50, -100, -220, -12), OverhangStrategy.SOFTCLIP, 1, "2M2I3M1D4M"});
+            tests.add(new Object[]{implementation, "TGTGTGTGTGTGTGACAGAGAGAGAGAGAGAGAGAGAGAGAGAGA", "ACAGAGAGAGAGAGAGAGAGAGAGAGAGAGAGAGAGAGAGAGAGAGAGAGA", SWPairwiseAlignment.STANDARD_NGS, OverhangStrategy.SOFTCLIP, 14, "31M20S"});
+            tests.add(new Object[]{implementation, longReference, "AAAAAAA", SWPairwiseAlignment.ORIGINAL_DEFAULT, OverhangStrategy.SOFTCLIP, 359, "7M"});
+            tests.add(new Object[]{implementation, longReference, "AAAAAAA", SWPairwiseAlignment.ORIGINAL_DEFAULT, OverhangStrategy.INDEL, 0, "1M358D6M29D"});
+            tests.add(new Object[]{implementation, longReference, "AAAAAAA", SWPairwiseAlignment.ORIGINAL_DEFAULT, OverhangStrategy.LEADING_INDEL, 0, "1M1D6M"});
+            tests.add(new Object[]{implementation, longReference, "AAAAAAA", SWPairwiseAlignment.ORIGINAL_DEFAULT, OverhangStrategy.IGNORE, 359, "7M"});
+        }
+        return tests.toArray(new Object[][]{});
+    }
+
+    @Test(dataProvider = "KnownAlignments")
+    public void testKnownAlignments(final SmithWatermanAligner.Implementation implementation, final String reference, final String alternate,
+                                    final Parameters parameters, final OverhangStrategy strategy, final int expectedOffset, final String expectedCigar) {
+        final SmithWatermanAlignment alignment = implementation.getAligner().align(reference.getBytes(), alternate.getBytes(), parameters, strategy);
+        Assert.assertEquals(alignment.getAlignmentOffset(), expectedOffset);
+        Assert.assertEquals(alignment.getCigar().toString(), expectedCigar);
+    }
+
+    @DataProvider(name = "RandomAlignments")
+    public Object[][] makeRandomAlignments() {
+        final List<Object[]> tests = new ArrayList<>();
+        final Random random = new Random(13);
+        for ( int i = 0; i < 200; i++ ) {
+            final byte[] reference = randomBases(random, 1 + random.nextInt(300));
+            final byte[] alternate;
+            switch ( i % 4 ) {
+                case 0: // unrelated sequences
+                    alternate = randomBases(random, 1 + random.nextInt(300));
+                    break;
+                case 1: // a mutated piece of the reference, as for reads against haplotypes
+                    final int start = random.nextInt(reference.length);
+                    alternate = mutate(random, Arrays.copyOfRange(reference, start, start + 1 + random.nextInt(reference.length - start)));
+                    break;
+                case 2: // the mutated reference with extra bases at the ends, as for dangling branches
+                    alternate = mutate(random, concatenate(randomBases(random, random.nextInt(20)), reference, randomBases(random, random.nextInt(20))));
+                    break;
+                default: // low complexity sequences, which are full of ties between alignments
+                    alternate = mutate(random, repeat(random, reference.length));
+                    System.arraycopy(repeat(random, reference.length), 0, reference, 0, reference.length);
+                    break;
+            }
+            for ( final OverhangStrategy strategy : OverhangStrategy.values() ) {
+                tests.add(new Object[]{reference, alternate, PARAMETERS[i % PARAMETERS.length], strategy});
+            }
+        }
+        return tests.toArray(new Object[][]{});
+    }
+
+    @Test(dataProvider = "RandomAlignments")
+    public void testImplementationsAgree(final byte[] reference, final byte[] alternate, final Parameters parameters, final OverhangStrategy strategy) {
+        final SmithWatermanAlignment expected = new SWPairwiseAlignment(reference, alternate, parameters, strategy);
+        for ( final SmithWatermanAligner.Implementation implementation : SmithWatermanAligner.Implementation.values() ) {
+            final SmithWatermanAlignment actual = implementation.getAligner().align(reference, alternate, parameters, strategy);
+            Assert.assertEquals(actual.getCigar(), expected.getCigar(), implementation.name());
+            Assert.assertEquals(actual.getAlignmentOffset(), expected.getAlignmentOffset(), implementation.name());
+        }
+    }
+
+    @Test(dataProvider = "Implementations", expectedExceptions = IllegalArgumentException.class)
+    public void testEmptyAlternate(final SmithWatermanAligner.Implementation implementation) {
+        implementation.getAligner().align("ACGT".getBytes(), new byte[0], SWPairwiseAlignment.STANDARD_NGS, OverhangStrategy.SOFTCLIP);
+    }
+
+    private static byte[] randomBases(final Random random, final int length) {
+        final byte[] bases = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            bases[i] = BASES[random.nextInt(BASES.length)];
+        }
+        return bases;
+    }
+
+    private static byte[] repeat(final Random random, final int length) {
+        final byte[] unit = randomBases(random, 1 + random.nextInt(3));
+        final byte[] bases = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            bases[i] = unit[i % unit.length];
+        }
+        return bases;
+    }
+
+    private static byte[] concatenate(final byte[]... pieces) {
+        final byte[] result = new byte[Arrays.stream(pieces).mapToInt(p -> p.length).sum()];
+        int offset = 0;
+        for ( final byte[] piece : pieces ) {
+            System.arraycopy(piece, 0, result, offset, piece.length);
+            offset += piece.length;
+        }
+        return result;
+    }
+
+    /**
+     * Introduces a few SNPs, insertions and deletions, never emptying the sequence
+     */
+    private static byte[] mutate(final Random random, final byte[] bases) {
+        final List<Byte> result = new ArrayList<>(bases.length);
+        for ( final byte base : bases ) {
+            result.add(base);
+        }
+        final int events = random.nextInt(4);
+        for ( int e = 0; e < events; e++ ) {
+            final int position = random.nextInt(result.size());
+            switch ( random.nextInt(3) ) {
+                case 0:
+                    result.set(position, BASES[random.nextInt(BASES.length)]);
+                    break;
+                case 1:
+                    for ( final byte base : randomBases(random, 1 + random.nextInt(10)) ) {
+                        result.add(position, base);
+                    }
+                    break;
+                default:
+                    final int length = Math.min(1 + random.nextInt(10), result.size() - 1 - position);
+                    result.subList(position, position + Math.max(0, length)).clear();
+                    break;
+            }
+        }
+        final byte[] mutated = new byte[result.size()];
+        for ( int i = 0; i < mutated.length; i++ ) {
+            mutated[i] = result.get(i);
+        }
+        return mutated;
+    }
+}
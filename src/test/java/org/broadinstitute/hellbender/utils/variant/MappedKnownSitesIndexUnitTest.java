@@ -0,0 +1,65 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public final class MappedKnownSitesIndexUnitTest extends BaseTest {
+
+    @Test
+    public void testQueriesMatchBruteForce() throws IOException {
+        final Random rng = new Random(13);
+        final List<SimpleInterval> sites = new ArrayList<>();
+        final MappedKnownSitesIndex.Builder builder = new MappedKnownSitesIndex.Builder();
+        for ( int i = 0; i < 20000; i++ ) {
+            final String contig = rng.nextInt(5) == 0 ? "2" : "1";
+            final int start = 1 + rng.nextInt(100000);
+            // mostly SNPs, with the occasional indel or long event that reaches far past the sites after it
+            final int choice = rng.nextInt(100);
+            final int end = start + (choice < 80 ? 0 : choice < 99 ? rng.nextInt(20) : rng.nextInt(5000));
+            final SimpleInterval site = new SimpleInterval(contig, start, end);
+            sites.add(site);
+            builder.add(site);
+            if ( rng.nextInt(10) == 0 ) {
+                builder.add(site); // duplicates are only stored once
+            }
+        }
+        final File indexFile = createTempFile("knownSites", MappedKnownSitesIndex.KNOWN_SITES_INDEX_EXTENSION);
+        final long numDistinctSites = MappedKnownSitesIndex.write(indexFile.getAbsolutePath(), builder);
+        Assert.assertEquals(numDistinctSites, new HashSet<>(sites).size());
+
+        final MappedKnownSitesIndex index = MappedKnownSitesIndex.map(indexFile.getAbsolutePath());
+        for ( int i = 0; i < 2000; i++ ) {
+            final String contig = rng.nextInt(10) == 0 ? "3" : rng.nextInt(5) == 0 ? "2" : "1";
+            final int start = 1 + rng.nextInt(110000);
+            final SimpleInterval query = new SimpleInterval(contig, start, start + rng.nextInt(300));
+            final Set<SimpleInterval> expected = sites.stream().filter(query::overlaps).collect(Collectors.toSet());
+            final List<GATKVariant> actual = index.getOverlapping(query);
+            Assert.assertEquals(actual.stream().map(SimpleInterval::new).collect(Collectors.toSet()), expected, "query " + query);
+            Assert.assertEquals(actual.size(), expected.size(), "query " + query);
+        }
+    }
+
+    @Test
+    public void testEmptyIndex() throws IOException {
+        final File indexFile = createTempFile("knownSites", MappedKnownSitesIndex.KNOWN_SITES_INDEX_EXTENSION);
+        Assert.assertEquals(MappedKnownSitesIndex.write(indexFile.getAbsolutePath(), new MappedKnownSitesIndex.Builder()), 0);
+        final MappedKnownSitesIndex index = MappedKnownSitesIndex.map(indexFile.getAbsolutePath());
+        Assert.assertTrue(index.getOverlapping(new SimpleInterval("1", 1, 1000)).isEmpty());
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testNotAnIndex() throws IOException {
+        final File notAnIndex = createTempFile("notAnIndex", MappedKnownSitesIndex.KNOWN_SITES_INDEX_EXTENSION);
+        Files.write(notAnIndex.toPath(), "##fileformat=VCFv4.2\n".getBytes());
+        MappedKnownSitesIndex.map(notAnIndex.getAbsolutePath());
+    }
+}
@@ -343,6 +343,73 @@ public class GVCFWriterUnitTest extends BaseTest {
         assertGoodVC(mockWriter.emitted.get(2), CHR1, 4, 7, false);
     }
 
+    private static HomRefSites makeRandomHomRefSites(final Random random, final String contig, final int start, final int size) {
+        final byte[] refBases = new byte[size];
+        final int[] gqs = new int[size];
+        final int[] dps = new int[size];
+        final int[] pls = new int[size * 3];
+        for ( int i = 0; i < size; i++ ) {
+            refBases[i] = (byte) "ACGT".charAt(random.nextInt(4));
+            gqs[i] = random.nextInt(30);
+            dps[i] = random.nextInt(20);
+            pls[3 * i + 1] = gqs[i];
+            pls[3 * i + 2] = gqs[i] + random.nextInt(20);
+        }
+        return new HomRefSites(contig, start, SAMPLE_NAME, 2, refBases, gqs, dps, pls);
+    }
+
+    private static List<VariantContext> toVariantContexts(final HomRefSites sites) {
+        final List<VariantContext> result = new ArrayList<>();
+        for ( int i = 0; i < sites.size(); i++ ) {
+            final Allele ref = Allele.create(sites.getRefBase(i), true);
+            final int position = sites.getStart() + i;
+            final GenotypeBuilder gb = new GenotypeBuilder(SAMPLE_NAME, Arrays.asList(ref, ref));
+            gb.GQ(sites.getGQ(i)).DP(sites.getDP(i)).PL(sites.getPL(i));
+            result.add(new VariantContextBuilder("test", sites.getContig(), position, position,
+                    Arrays.asList(ref, GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE)).genotypes(gb.make()).make());
+        }
+        return result;
+    }
+
+    @Test
+    public void testHomRefSitesMatchVariantContexts() {
+        final Random random = new Random(13);
+        final List<HomRefSites> sites = Arrays.asList(
+                makeRandomHomRefSites(random, CHR1, 1, 40),
+                makeRandomHomRefSites(random, CHR1, 41, 10),
+                makeRandomHomRefSites(random, CHR1, 60, 20),
+                makeRandomHomRefSites(random, CHR1, 85, 20),
+                makeRandomHomRefSites(random, CHR2, 1, 30));
+        // a deletion spanning the first sites of the fourth run, which must be skipped
+        final VariantContext deletion = makeDeletion(82, 6);
+
+        final MockWriter expectedWriter = new MockWriter();
+        final GVCFWriter expected = new GVCFWriter(expectedWriter, standardPartition, HomoSapiensConstants.DEFAULT_PLOIDY);
+        final MockWriter actualWriter = new MockWriter();
+        final GVCFWriter actual = new GVCFWriter(actualWriter, standardPartition, HomoSapiensConstants.DEFAULT_PLOIDY);
+        for ( final HomRefSites run : sites ) {
+            if ( run.getStart() == 85 ) {
+                expected.add(deletion);
+                actual.add(deletion);
+            }
+            toVariantContexts(run).forEach(expected::add);
+            actual.add(run);
+        }
+        expected.close();
+        actual.close();
+
+        Assert.assertEquals(actualWriter.emitted.size(), expectedWriter.emitted.size());
+        assertForEachPair(actualWriter.emitted, expectedWriter.emitted, (a, e) -> {
+            Assert.assertEquals(a.getContig(), e.getContig());
+            Assert.assertEquals(a.getStart(), e.getStart());
+            Assert.assertEquals(a.getEnd(), e.getEnd());
+            Assert.assertEquals(a.getAlleles(), e.getAlleles());
+            Assert.assertEquals(a.getAttributes(), e.getAttributes());
+            Assert.assertEquals(a.getGenotype(0).toString(), e.getGenotype(0).toString());
+            return true;
+        });
+    }
+
     @DataProvider(name = "GoodBandPartitionData")
     public Object[][] makeBandPartitionData() {
         return new Object[][]{